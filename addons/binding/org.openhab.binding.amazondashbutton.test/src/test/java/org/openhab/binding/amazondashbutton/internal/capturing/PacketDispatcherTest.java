@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.amazondashbutton.internal.capturing;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.pcap4j.core.Pcaps;
+import org.pcap4j.util.MacAddress;
+
+/**
+ * Tests for {@link PacketDispatcher}, which replay the recorded packets of <code>dash-button-presses.pcap</code>:
+ *
+ * <ol>
+ * <li>0.0 s: ARP request of button A</li>
+ * <li>0.1 s: BOOTP request of button A, which belongs to the same press</li>
+ * <li>0.2 s: ARP reply of button A</li>
+ * <li>1.0 s: ARP request of button C</li>
+ * <li>2.0 s: BOOTP request of button B</li>
+ * <li>3.0 s: DNS query of button A</li>
+ * <li>6.0 s: ARP request of button A, a second press</li>
+ * </ol>
+ *
+ * @author agent - Initial contribution
+ */
+public class PacketDispatcherTest {
+
+    private static final String BUTTON_A = "f0:27:2d:00:00:01";
+    private static final String BUTTON_B = "f0:27:2d:00:00:02";
+    private static final String BUTTON_C = "f0:27:2d:00:00:03";
+    private static final long PACKET_INTERVAL = 5000;
+
+    private PacketDispatcher dispatcher;
+    private File pcapFile;
+
+    /**
+     * Records the MAC addresses it is called for.
+     */
+    private static class RecordingHandler implements PacketCapturingHandler {
+        private final List<String> macAddresses = new ArrayList<>();
+
+        @Override
+        public void packetCaptured(MacAddress sourceMacAddress) {
+            macAddresses.add(sourceMacAddress.toString());
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        dispatcher = new PacketDispatcher();
+
+        pcapFile = File.createTempFile("dash-button-presses", ".pcap");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("pcap/dash-button-presses.pcap")) {
+            Files.copy(in, pcapFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        pcapFile.delete();
+    }
+
+    private void assumePcapAvailable() {
+        try {
+            Pcaps.libVersion();
+        } catch (LinkageError e) {
+            Assume.assumeNoException("libpcap is not installed", e);
+        }
+    }
+
+    @Test
+    public void filterIsRestrictedToTheRegisteredMacAddresses() {
+        RecordingHandler handler = new RecordingHandler();
+        assertEquals(PacketDispatcher.BASE_FILTER, dispatcher.getFilter());
+
+        dispatcher.addHandler(handler, BUTTON_A, PACKET_INTERVAL);
+        assertEquals(PacketDispatcher.BASE_FILTER + " and (ether src " + BUTTON_A + ")", dispatcher.getFilter());
+
+        dispatcher.addHandler(new RecordingHandler(), null, PACKET_INTERVAL);
+        assertEquals(PacketDispatcher.BASE_FILTER, dispatcher.getFilter());
+    }
+
+    @Test
+    public void handlersAreCalledOncePerButtonPress() throws Exception {
+        assumePcapAvailable();
+        RecordingHandler handlerA = new RecordingHandler();
+        RecordingHandler handlerB = new RecordingHandler();
+        dispatcher.addHandler(handlerA, BUTTON_A, PACKET_INTERVAL);
+        dispatcher.addHandler(handlerB, BUTTON_B, PACKET_INTERVAL);
+
+        // the filter drops the packets of button C and the DNS query
+        assertEquals(5, dispatcher.replay(pcapFile.getPath()));
+
+        assertEquals(Arrays.asList(BUTTON_A, BUTTON_A), handlerA.macAddresses);
+        assertEquals(Arrays.asList(BUTTON_B), handlerB.macAddresses);
+    }
+
+    @Test
+    public void packetsWithinThePacketIntervalAreIgnored() throws Exception {
+        assumePcapAvailable();
+        RecordingHandler handler = new RecordingHandler();
+        dispatcher.addHandler(handler, BUTTON_A, 10000);
+
+        dispatcher.replay(pcapFile.getPath());
+
+        assertEquals(Arrays.asList(BUTTON_A), handler.macAddresses);
+    }
+
+    @Test
+    public void handlerWithoutMacAddressIsCalledForAllButtons() throws Exception {
+        assumePcapAvailable();
+        RecordingHandler handler = new RecordingHandler();
+        RecordingHandler handlerB = new RecordingHandler();
+        dispatcher.addHandler(handler, null, PACKET_INTERVAL);
+        dispatcher.addHandler(handlerB, BUTTON_B, PACKET_INTERVAL);
+
+        // only the DNS query is dropped by the filter
+        assertEquals(6, dispatcher.replay(pcapFile.getPath()));
+
+        assertEquals(Arrays.asList(BUTTON_A, BUTTON_C, BUTTON_B, BUTTON_A), handler.macAddresses);
+        assertEquals(Arrays.asList(BUTTON_B), handlerB.macAddresses);
+    }
+
+    @Test
+    public void removedHandlerIsNotCalled() throws Exception {
+        assumePcapAvailable();
+        RecordingHandler handlerA = new RecordingHandler();
+        RecordingHandler handlerB = new RecordingHandler();
+        dispatcher.addHandler(handlerA, BUTTON_A, PACKET_INTERVAL);
+        dispatcher.addHandler(handlerB, BUTTON_B, PACKET_INTERVAL);
+        dispatcher.removeHandler(handlerA);
+
+        assertEquals(1, dispatcher.replay(pcapFile.getPath()));
+
+        assertTrue(handlerA.macAddresses.isEmpty());
+        assertEquals(Arrays.asList(BUTTON_B), handlerB.macAddresses);
+    }
+}
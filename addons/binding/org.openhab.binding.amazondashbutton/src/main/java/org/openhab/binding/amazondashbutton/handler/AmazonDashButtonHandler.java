@@ -34,9 +34,17 @@ import org.slf4j.LoggerFactory;
  * @author Oliver Libutzki - Initial contribution
  */
 public class AmazonDashButtonHandler extends BaseThingHandler implements PcapNetworkInterfaceListener {
-    private PacketCapturingService packetCapturingService;
+    private volatile PcapNetworkInterfaceWrapper pcapNetworkInterface;
 
-    private long lastCommandHandled = 0;
+    private final PacketCapturingHandler packetCapturingHandler = new PacketCapturingHandler() {
+
+        @Override
+        public void packetCaptured(MacAddress macAddress) {
+            // Further packets of the same button press are already suppressed by the packet interval
+            ChannelUID pressChannel = new ChannelUID(getThing().getUID(), PRESS);
+            triggerChannel(pressChannel);
+        }
+    };
 
     public AmazonDashButtonHandler(Thing thing) {
         super(thing);
@@ -66,19 +74,9 @@ public class AmazonDashButtonHandler extends BaseThingHandler implements PcapNet
                     return;
                 }
 
-                packetCapturingService = new PacketCapturingService(pcapNetworkInterface);
-                boolean capturingStarted = packetCapturingService.startCapturing(new PacketCapturingHandler() {
-
-                    @Override
-                    public void packetCaptured(MacAddress macAddress) {
-                        long now = System.currentTimeMillis();
-                        if (lastCommandHandled + packetInterval < now) {
-                            ChannelUID pressChannel = new ChannelUID(getThing().getUID(), PRESS);
-                            triggerChannel(pressChannel);
-                            lastCommandHandled = now;
-                        }
-                    }
-                }, macAddress);
+                AmazonDashButtonHandler.this.pcapNetworkInterface = pcapNetworkInterface;
+                boolean capturingStarted = PacketCapturingService.instance().startCapturing(pcapNetworkInterface,
+                        packetCapturingHandler, macAddress, packetInterval);
                 if (capturingStarted) {
                     updateStatus(ThingStatus.ONLINE);
                 } else {
@@ -93,18 +91,17 @@ public class AmazonDashButtonHandler extends BaseThingHandler implements PcapNet
     @Override
     public void dispose() {
         super.dispose();
-        if (packetCapturingService != null) {
-            packetCapturingService.stopCapturing();
-            packetCapturingService = null;
+        if (pcapNetworkInterface != null) {
+            PacketCapturingService.instance().stopCapturing(pcapNetworkInterface, packetCapturingHandler);
+            pcapNetworkInterface = null;
         }
         PcapNetworkInterfaceService.instance().unregisterListener(this);
     }
 
     @Override
     public void onPcapNetworkInterfaceAdded(PcapNetworkInterfaceWrapper newNetworkInterface) {
-        if (packetCapturingService != null) {
-            final PcapNetworkInterfaceWrapper trackedPcapNetworkInterface = packetCapturingService
-                    .getPcapNetworkInterface();
+        final PcapNetworkInterfaceWrapper trackedPcapNetworkInterface = pcapNetworkInterface;
+        if (trackedPcapNetworkInterface != null) {
             if (trackedPcapNetworkInterface.equals(newNetworkInterface)) {
                 updateStatus(ThingStatus.ONLINE);
             }
@@ -113,9 +110,8 @@ public class AmazonDashButtonHandler extends BaseThingHandler implements PcapNet
 
     @Override
     public void onPcapNetworkInterfaceRemoved(PcapNetworkInterfaceWrapper removedNetworkInterface) {
-        if (packetCapturingService != null) {
-            final PcapNetworkInterfaceWrapper trackedPcapNetworkInterface = packetCapturingService
-                    .getPcapNetworkInterface();
+        final PcapNetworkInterfaceWrapper trackedPcapNetworkInterface = pcapNetworkInterface;
+        if (trackedPcapNetworkInterface != null) {
             if (trackedPcapNetworkInterface.equals(removedNetworkInterface)) {
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
                         "The networkinterface " + removedNetworkInterface.getName() + " is not present anymore.");
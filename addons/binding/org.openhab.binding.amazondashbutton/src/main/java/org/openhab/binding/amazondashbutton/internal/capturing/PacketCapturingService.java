@@ -8,28 +8,30 @@
  */
 package org.openhab.binding.amazondashbutton.internal.capturing;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.openhab.binding.amazondashbutton.internal.pcap.PcapNetworkInterfaceWrapper;
 import org.pcap4j.core.BpfProgram.BpfCompileMode;
 import org.pcap4j.core.NotOpenException;
 import org.pcap4j.core.PacketListener;
 import org.pcap4j.core.PcapHandle;
+import org.pcap4j.core.PcapNativeException;
 import org.pcap4j.core.PcapNetworkInterface.PromiscuousMode;
-import org.pcap4j.packet.ArpPacket;
-import org.pcap4j.packet.EthernetPacket;
 import org.pcap4j.packet.Packet;
-import org.pcap4j.packet.UdpPacket;
-import org.pcap4j.packet.namednumber.ArpOperation;
-import org.pcap4j.packet.namednumber.UdpPort;
 import org.pcap4j.util.MacAddress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The {@link PacketCapturingService} is responsible for capturing packets.
+ * The {@link PacketCapturingService} is a singleton which can be obtained by calling {@link #instance()}. It is
+ * responsible for capturing packets.
+ *
+ * There is at most one live capture per {@link PcapNetworkInterfaceWrapper}, which is shared by all
+ * {@link PacketCapturingHandler}s registered for this network interface. The capture is started with the first
+ * handler and stopped when the last handler is unregistered. Its BPF filter only lets pass the ARP and BOOTP requests
+ * of the registered MAC addresses and the captured packets are passed to the handlers by a {@link PacketDispatcher}.
  *
  * @author Oliver Libutzki - Initial contribution
  *
@@ -41,145 +43,229 @@ public class PacketCapturingService {
     private static final int READ_TIMEOUT = 10; // [ms]
     private static final int SNAPLEN = 65536; // [bytes]
 
-    private final PcapNetworkInterfaceWrapper pcapNetworkInterface;
+    private static PacketCapturingService instance = null;
+
+    // guarded by this
+    private final Map<PcapNetworkInterfaceWrapper, PacketCapture> packetCaptures = new HashMap<>();
 
-    private PcapHandle pcapHandle;
+    private PacketCapturingService() {
 
-    public PacketCapturingService(PcapNetworkInterfaceWrapper pcapNetworkInterface) {
-        this.pcapNetworkInterface = pcapNetworkInterface;
     }
 
     /**
-     * Calls {@link #startCapturing(PacketCapturingHandler, String)} with a null MAC address.
+     * Returns the {@link PacketCapturingService} singleton instance.
      *
-     * @param packetCapturingHandler The handler to be called every time packet is captured
-     * @return Returns true, if the capturing has been started successfully, otherwise returns false
+     * @return The {@link PacketCapturingService} singleton
      */
-    public boolean startCapturing(final PacketCapturingHandler packetCapturingHandler) {
-        return startCapturing(packetCapturingHandler, null);
+    public static synchronized PacketCapturingService instance() {
+        if (instance == null) {
+            instance = new PacketCapturingService();
+        }
+        return instance;
     }
 
     /**
-     * Starts the capturing in a dedicated thread, so this method returns immediately. Every time a packet is captured,
-     * the {@link PacketCapturingHandler#packetCaptured(MacAddress)} of the given
-     * {@link PacketCapturingHandler} is called.
+     * Registers the given {@link PacketCapturingHandler} for the given network interface and starts the capturing of
+     * this network interface, if it is not running yet. The capturing runs in a dedicated thread, so this method
+     * returns immediately. Every time a packet is captured, the
+     * {@link PacketCapturingHandler#packetCaptured(MacAddress)} of the given {@link PacketCapturingHandler} is called.
      *
      * It's possible to capture packets sent by a specific MAC address by providing the given parameter. If the
      * macAddress is null, all MAC addresses are considered.
      *
+     * @param pcapNetworkInterface The network interface to be captured
      * @param packetCapturingHandler The handler to be called every time a packet is captured
      * @param macAddress The source MAC address of the captured packet, might be null in order to deactivate this filter
      *            criteria
+     * @param packetInterval The time in ms further packets of the same MAC address are ignored after the handler has
+     *            been called
      * @return Returns true, if the capturing has been started successfully, otherwise returns false
-     * @throws IllegalStateException Thrown if {@link PcapHandle#isOpen()} of {@link #pcapHandle} returns true
      */
-
-    public boolean startCapturing(final PacketCapturingHandler packetCapturingHandler, final String macAddress) {
-        if (pcapHandle != null) {
-            if (pcapHandle.isOpen()) {
-                throw new IllegalStateException("There is an open pcap handle.");
-            } else {
-                pcapHandle.close();
-            }
+    public synchronized boolean startCapturing(final PcapNetworkInterfaceWrapper pcapNetworkInterface,
+            final PacketCapturingHandler packetCapturingHandler, final String macAddress, final long packetInterval) {
+        PacketCapture packetCapture = packetCaptures.get(pcapNetworkInterface);
+        if (packetCapture == null) {
+            packetCapture = new PacketCapture(pcapNetworkInterface);
+            packetCaptures.put(pcapNetworkInterface, packetCapture);
         }
+
+        boolean capturingStarted;
         try {
-            pcapHandle = pcapNetworkInterface.openLive(SNAPLEN, PromiscuousMode.PROMISCUOUS, READ_TIMEOUT);
-            StringBuilder filterBuilder = new StringBuilder("(arp or port bootps)");
-            if (macAddress != null) {
-                filterBuilder.append(" and ether src " + macAddress);
-            }
-            pcapHandle.setFilter(filterBuilder.toString(), BpfCompileMode.OPTIMIZE);
-        } catch (Exception e) {
-            logger.error("Capturing packets on device {} failed.", pcapNetworkInterface.getName(), e);
-            return false;
+            packetCapture.dispatcher.addHandler(packetCapturingHandler, macAddress, packetInterval);
+            capturingStarted = packetCapture.start();
+        } catch (IllegalArgumentException e) {
+            logger.error("Capturing packets of the invalid MAC address {} is not possible.", macAddress);
+            capturingStarted = false;
         }
-        ExecutorService executorService = Executors.newSingleThreadExecutor();
-        executorService.submit(new Callable<Void>() {
 
-            @Override
-            public Void call() throws Exception {
-                try {
-                    pcapHandle.loop(-1, new PacketListener() {
-
-                        @Override
-                        public void gotPacket(Packet packet) {
-                            if (!packet.contains(EthernetPacket.class)) {
-                                return;
-                            }
-                            final EthernetPacket ethernetPacket = packet.get(EthernetPacket.class);
-                            final MacAddress sourceMacAddress = ethernetPacket.getHeader().getSrcAddr();
-                            if (shouldCapture(packet)) {
-                                packetCapturingHandler.packetCaptured(sourceMacAddress);
-                            }
-                        }
-                    });
-                } finally {
-                    if (pcapHandle != null && pcapHandle.isOpen()) {
-                        pcapHandle.close();
-                        pcapHandle = null;
-                    }
-                }
-                return null;
-            }
-        });
+        if (!capturingStarted) {
+            stopCapturing(pcapNetworkInterface, packetCapturingHandler);
+            return false;
+        }
         if (macAddress == null) {
             logger.debug("Started capturing ARP and BOOTP requests for network device {}.",
                     pcapNetworkInterface.getName());
         } else {
-            logger.debug("Started capturing ARP  and BOOTP requests for network device {} and MAC address {}.",
+            logger.debug("Started capturing ARP and BOOTP requests for network device {} and MAC address {}.",
                     pcapNetworkInterface.getName(), macAddress);
         }
         return true;
     }
 
     /**
-     * Checks if the given {@link Packet} should be captured.
+     * Unregisters the given {@link PacketCapturingHandler} from the given network interface and stops the capturing of
+     * this network interface, if no other handler is registered. This can be called without calling
+     * {@link #startCapturing(PcapNetworkInterfaceWrapper, PacketCapturingHandler, String, long)} before.
      *
-     * @param packet The packet to be checked
-     * @return Returns true, if the packet should be captured, otherwise false
+     * @param pcapNetworkInterface The network interface the handler has been registered for
+     * @param packetCapturingHandler The handler to be unregistered
      */
-    private boolean shouldCapture(final Packet packet) {
-        if (packet.contains(ArpPacket.class)) {
-            ArpPacket arpPacket = packet.get(ArpPacket.class);
-            if (arpPacket.getHeader().getOperation().equals(ArpOperation.REQUEST)) {
-                return true;
-            }
+    public synchronized void stopCapturing(final PcapNetworkInterfaceWrapper pcapNetworkInterface,
+            final PacketCapturingHandler packetCapturingHandler) {
+        final PacketCapture packetCapture = packetCaptures.get(pcapNetworkInterface);
+        if (packetCapture == null) {
+            return;
         }
-        if (packet.contains(UdpPacket.class)) {
-            final UdpPacket udpPacket = packet.get(UdpPacket.class);
-            if (UdpPort.BOOTPS == udpPacket.getHeader().getDstPort()) {
-                return true;
-            }
+        packetCapture.dispatcher.removeHandler(packetCapturingHandler);
+        if (packetCapture.dispatcher.isEmpty()) {
+            packetCaptures.remove(pcapNetworkInterface);
+            packetCapture.stop();
+        } else {
+            packetCapture.updateFilter();
         }
-        return false;
     }
 
     /**
-     * Stops the capturing. This can be called without calling {@link #startCapturing(PacketCapturingHandler)} or
-     * {@link #startCapturing(PacketCapturingHandler, String)} before.
+     * The live capture of a single network interface. Except for {@link #capture(PcapHandle)}, which is run by the
+     * capturing thread, all methods are called while holding the lock of the {@link PacketCapturingService}.
      */
-    public void stopCapturing() {
-        if (pcapHandle != null) {
-            if (pcapHandle.isOpen()) {
+    private class PacketCapture {
+        private final PcapNetworkInterfaceWrapper pcapNetworkInterface;
+        private final PacketDispatcher dispatcher = new PacketDispatcher();
+
+        private volatile PcapHandle pcapHandle;
+
+        private PacketCapture(PcapNetworkInterfaceWrapper pcapNetworkInterface) {
+            this.pcapNetworkInterface = pcapNetworkInterface;
+        }
+
+        /**
+         * Opens the pcap handle and starts the capturing thread, if the capturing is not running yet. Otherwise the
+         * filter is updated to the registered MAC addresses.
+         *
+         * @return Returns true, if the capturing is running, otherwise false
+         */
+        private boolean start() {
+            if (pcapHandle != null) {
+                updateFilter();
+                return true;
+            }
+            try {
+                pcapHandle = pcapNetworkInterface.openLive(SNAPLEN, PromiscuousMode.PROMISCUOUS, READ_TIMEOUT);
+                pcapHandle.setFilter(dispatcher.getFilter(), BpfCompileMode.OPTIMIZE);
+            } catch (Exception e) {
+                logger.error("Capturing packets on device {} failed.", pcapNetworkInterface.getName(), e);
+                if (pcapHandle != null) {
+                    pcapHandle.close();
+                    pcapHandle = null;
+                }
+                return false;
+            }
+            // the thread gets its own reference, it has to close the handle even if stop() runs before the loop
+            final PcapHandle handle = pcapHandle;
+            Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    capture(handle);
+                }
+            }, "Amazon Dash Button capturing " + pcapNetworkInterface.getName());
+            thread.setDaemon(true);
+            thread.start();
+            return true;
+        }
+
+        /**
+         * Replaces the filter of the running capture. If the new filter can't be applied, all ARP and BOOTP requests
+         * are captured and the MAC addresses are just checked by the {@link PacketDispatcher}.
+         */
+        private void updateFilter() {
+            final PcapHandle handle = pcapHandle;
+            if (handle == null) {
+                return;
+            }
+            final String filter = dispatcher.getFilter();
+            try {
+                handle.setFilter(filter, BpfCompileMode.OPTIMIZE);
+            } catch (PcapNativeException | NotOpenException e) {
+                logger.warn("Setting the filter '{}' for network device {} failed: {}", filter,
+                        pcapNetworkInterface.getName(), e.getMessage());
                 try {
-                    pcapHandle.breakLoop();
+                    handle.setFilter(PacketDispatcher.BASE_FILTER, BpfCompileMode.OPTIMIZE);
+                } catch (PcapNativeException | NotOpenException ex) {
+                    logger.debug("Setting the filter for network device {} failed: {}", pcapNetworkInterface.getName(),
+                            ex.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Breaks the capturing loop, the capturing thread closes the pcap handle. If the loop has not been entered yet,
+         * the capturing thread doesn't enter it at all.
+         */
+        private void stop() {
+            final PcapHandle handle = pcapHandle;
+            pcapHandle = null;
+            if (handle != null && handle.isOpen()) {
+                try {
+                    handle.breakLoop();
                     logger.debug("Stopped capturing ARP and BOOTP requests for network device {}.",
                             pcapNetworkInterface.getName());
                 } catch (NotOpenException e) {
                     // Just ignore
                 }
-            } else {
-                pcapHandle = null;
             }
         }
-    }
 
-    /**
-     * Returns the tracked {@link PcapNetworkInterfaceWrapper}.
-     *
-     * @return the tracked {@link PcapNetworkInterfaceWrapper}
-     */
-    public PcapNetworkInterfaceWrapper getPcapNetworkInterface() {
-        return pcapNetworkInterface;
+        /**
+         * Dispatches the packets captured by the given pcap handle until the capturing is stopped, and closes the
+         * handle afterwards.
+         *
+         * @param handle The pcap handle opened by {@link #start()}
+         */
+        private void capture(final PcapHandle handle) {
+            try {
+                if (pcapHandle != handle) {
+                    // stopped before the capturing thread has been scheduled
+                    return;
+                }
+                handle.loop(-1, new PacketListener() {
+
+                    @Override
+                    public void gotPacket(Packet packet) {
+                        final Timestamp timestamp = handle.getTimestamp();
+                        dispatcher.dispatch(packet,
+                                timestamp != null ? timestamp.getTime() : System.currentTimeMillis());
+                    }
+                });
+            } catch (InterruptedException e) {
+                // The loop has been broken by stop()
+            } catch (PcapNativeException | NotOpenException e) {
+                if (pcapHandle == handle) {
+                    logger.warn("Capturing packets on device {} failed: {}", pcapNetworkInterface.getName(),
+                            e.getMessage());
+                }
+            } finally {
+                synchronized (PacketCapturingService.this) {
+                    if (pcapHandle == handle) {
+                        // the capturing stopped on its own, it is opened again with the next registered handler
+                        pcapHandle = null;
+                    }
+                }
+                if (handle.isOpen()) {
+                    handle.close();
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.amazondashbutton.internal.capturing;
+
+import java.io.EOFException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.pcap4j.core.BpfProgram.BpfCompileMode;
+import org.pcap4j.core.NotOpenException;
+import org.pcap4j.core.PcapHandle;
+import org.pcap4j.core.PcapNativeException;
+import org.pcap4j.core.Pcaps;
+import org.pcap4j.packet.ArpPacket;
+import org.pcap4j.packet.EthernetPacket;
+import org.pcap4j.packet.Packet;
+import org.pcap4j.packet.UdpPacket;
+import org.pcap4j.packet.namednumber.ArpOperation;
+import org.pcap4j.packet.namednumber.UdpPort;
+import org.pcap4j.util.MacAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PacketDispatcher} passes the ARP and BOOTP requests captured on a single network interface to the
+ * registered {@link PacketCapturingHandler}s. The handlers are looked up by the source MAC address of the packet, a
+ * handler registered without a MAC address receives the packets of all MAC addresses.
+ *
+ * A single button press results in several ARP and BOOTP requests. Therefore a handler is called at most once per
+ * source MAC address within its packet interval, based on the capture timestamp of the packets.
+ *
+ * The dispatcher doesn't capture packets on its own. Packets are passed by the {@link PacketCapturingService} or read
+ * from a pcap file by {@link #replay(String)}.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class PacketDispatcher {
+
+    private final Logger logger = LoggerFactory.getLogger(PacketDispatcher.class);
+
+    static final String BASE_FILTER = "(arp or port bootps)";
+
+    // copy on write, the maps and lists are never modified once they are assigned
+    private volatile Map<MacAddress, List<Registration>> registrationsByMacAddress = Collections.emptyMap();
+    private volatile List<Registration> unfilteredRegistrations = Collections.emptyList();
+
+    /**
+     * Registers the given {@link PacketCapturingHandler}. If it is already registered, the previous registration is
+     * replaced.
+     *
+     * @param packetCapturingHandler The handler to be called every time a packet is captured
+     * @param macAddress The source MAC address of the captured packets, might be null in order to receive the packets
+     *            of all MAC addresses
+     * @param packetInterval The time in ms further packets of the same MAC address are ignored after the handler has
+     *            been called
+     * @throws IllegalArgumentException Thrown if the MAC address is invalid
+     */
+    public synchronized void addHandler(PacketCapturingHandler packetCapturingHandler, String macAddress,
+            long packetInterval) {
+        MacAddress sourceMacAddress = macAddress == null ? null : MacAddress.getByName(macAddress);
+        removeHandler(packetCapturingHandler);
+
+        Registration registration = new Registration(packetCapturingHandler, packetInterval);
+        if (sourceMacAddress == null) {
+            List<Registration> registrations = new ArrayList<>(unfilteredRegistrations);
+            registrations.add(registration);
+            unfilteredRegistrations = Collections.unmodifiableList(registrations);
+        } else {
+            Map<MacAddress, List<Registration>> registrations = new HashMap<>(registrationsByMacAddress);
+            List<Registration> macAddressRegistrations = registrations.get(sourceMacAddress);
+            macAddressRegistrations = macAddressRegistrations == null ? new ArrayList<Registration>()
+                    : new ArrayList<>(macAddressRegistrations);
+            macAddressRegistrations.add(registration);
+            registrations.put(sourceMacAddress, Collections.unmodifiableList(macAddressRegistrations));
+            registrationsByMacAddress = Collections.unmodifiableMap(registrations);
+        }
+    }
+
+    /**
+     * Unregisters the given {@link PacketCapturingHandler}. If it is not registered, this method returns immediately.
+     *
+     * @param packetCapturingHandler The handler to be unregistered
+     */
+    public synchronized void removeHandler(PacketCapturingHandler packetCapturingHandler) {
+        List<Registration> registrations = without(unfilteredRegistrations, packetCapturingHandler);
+        if (registrations != null) {
+            unfilteredRegistrations = registrations;
+        }
+
+        Map<MacAddress, List<Registration>> registrationsByMac = new HashMap<>(registrationsByMacAddress);
+        boolean removed = false;
+        for (Map.Entry<MacAddress, List<Registration>> entry : registrationsByMacAddress.entrySet()) {
+            registrations = without(entry.getValue(), packetCapturingHandler);
+            if (registrations == null) {
+                continue;
+            }
+            removed = true;
+            if (registrations.isEmpty()) {
+                registrationsByMac.remove(entry.getKey());
+            } else {
+                registrationsByMac.put(entry.getKey(), registrations);
+            }
+        }
+        if (removed) {
+            registrationsByMacAddress = Collections.unmodifiableMap(registrationsByMac);
+        }
+    }
+
+    /**
+     * Returns a copy of the given registrations without the registration of the given handler, or null if the handler
+     * is not contained.
+     */
+    private List<Registration> without(List<Registration> registrations,
+            PacketCapturingHandler packetCapturingHandler) {
+        List<Registration> remaining = new ArrayList<>(registrations.size());
+        for (Registration registration : registrations) {
+            if (registration.packetCapturingHandler != packetCapturingHandler) {
+                remaining.add(registration);
+            }
+        }
+        return remaining.size() == registrations.size() ? null : Collections.unmodifiableList(remaining);
+    }
+
+    /**
+     * Returns true, if no {@link PacketCapturingHandler} is registered.
+     *
+     * @return true, if no handler is registered, otherwise false
+     */
+    public boolean isEmpty() {
+        return unfilteredRegistrations.isEmpty() && registrationsByMacAddress.isEmpty();
+    }
+
+    /**
+     * Returns the BPF filter expression which matches the packets of all registered {@link PacketCapturingHandler}s.
+     * The expression is restricted to the registered MAC addresses unless a handler is registered without a MAC
+     * address.
+     *
+     * @return The BPF filter expression
+     */
+    public String getFilter() {
+        final Map<MacAddress, List<Registration>> registrations = registrationsByMacAddress;
+        if (!unfilteredRegistrations.isEmpty() || registrations.isEmpty()) {
+            return BASE_FILTER;
+        }
+        StringBuilder filterBuilder = new StringBuilder(BASE_FILTER).append(" and (");
+        boolean first = true;
+        for (MacAddress macAddress : registrations.keySet()) {
+            if (!first) {
+                filterBuilder.append(" or ");
+            }
+            filterBuilder.append("ether src ").append(macAddress);
+            first = false;
+        }
+        return filterBuilder.append(")").toString();
+    }
+
+    /**
+     * Passes the given {@link Packet} to the {@link PacketCapturingHandler}s registered for its source MAC address, if
+     * it is an ARP or BOOTP request.
+     *
+     * @param packet The captured packet
+     * @param timestamp The capture time of the packet in ms
+     * @return Returns true, if at least one handler has been called, otherwise false
+     */
+    public boolean dispatch(final Packet packet, final long timestamp) {
+        final EthernetPacket ethernetPacket = packet.get(EthernetPacket.class);
+        if (ethernetPacket == null || !shouldCapture(packet)) {
+            return false;
+        }
+        final MacAddress sourceMacAddress = ethernetPacket.getHeader().getSrcAddr();
+        boolean dispatched = dispatch(unfilteredRegistrations, sourceMacAddress, timestamp);
+        final List<Registration> registrations = registrationsByMacAddress.get(sourceMacAddress);
+        if (registrations != null) {
+            dispatched |= dispatch(registrations, sourceMacAddress, timestamp);
+        }
+        return dispatched;
+    }
+
+    private boolean dispatch(List<Registration> registrations, MacAddress sourceMacAddress, long timestamp) {
+        boolean dispatched = false;
+        for (Registration registration : registrations) {
+            if (registration.debounce(sourceMacAddress, timestamp)) {
+                try {
+                    registration.packetCapturingHandler.packetCaptured(sourceMacAddress);
+                    dispatched = true;
+                } catch (RuntimeException e) {
+                    logger.error("An exception occurred while handling a packet of {}", sourceMacAddress, e);
+                }
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Checks if the given {@link Packet} should be captured.
+     *
+     * @param packet The packet to be checked
+     * @return Returns true, if the packet should be captured, otherwise false
+     */
+    private boolean shouldCapture(final Packet packet) {
+        final ArpPacket arpPacket = packet.get(ArpPacket.class);
+        if (arpPacket != null && arpPacket.getHeader().getOperation().equals(ArpOperation.REQUEST)) {
+            return true;
+        }
+        final UdpPacket udpPacket = packet.get(UdpPacket.class);
+        if (udpPacket != null && UdpPort.BOOTPS.equals(udpPacket.getHeader().getDstPort())) {
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads all packets of the given pcap file and dispatches them like captured packets, using their recorded
+     * timestamps. The file is filtered by {@link #getFilter()}. This allows to reproduce recorded button presses
+     * without the hardware and without a live capture.
+     *
+     * @param pcapFile The path of the pcap file
+     * @return The number of packets read from the file
+     * @throws PcapNativeException Thrown if the file can't be opened or read
+     * @throws NotOpenException Thrown if the file has been closed while reading
+     */
+    public int replay(String pcapFile) throws PcapNativeException, NotOpenException {
+        final PcapHandle pcapHandle = Pcaps.openOffline(pcapFile);
+        int packets = 0;
+        try {
+            pcapHandle.setFilter(getFilter(), BpfCompileMode.OPTIMIZE);
+            while (true) {
+                final Packet packet;
+                try {
+                    packet = pcapHandle.getNextPacketEx();
+                } catch (EOFException e) {
+                    break;
+                } catch (TimeoutException e) {
+                    continue;
+                }
+                packets++;
+                dispatch(packet, pcapHandle.getTimestamp().getTime());
+            }
+        } finally {
+            pcapHandle.close();
+        }
+        logger.debug("Replayed {} packets of {}.", packets, pcapFile);
+        return packets;
+    }
+
+    /**
+     * A registered {@link PacketCapturingHandler} together with its debounce state.
+     */
+    private static class Registration {
+        private final PacketCapturingHandler packetCapturingHandler;
+        private final long packetInterval;
+
+        // accessed by the capturing thread only
+        private final Map<MacAddress, Long> lastDispatched = new HashMap<>();
+
+        private Registration(PacketCapturingHandler packetCapturingHandler, long packetInterval) {
+            this.packetCapturingHandler = packetCapturingHandler;
+            this.packetInterval = packetInterval;
+        }
+
+        /**
+         * Returns true, if the handler should be called for a packet of the given MAC address captured at the given
+         * time, which is the case if the packet interval has expired since the handler has been called the last time.
+         */
+        private boolean debounce(MacAddress sourceMacAddress, long timestamp) {
+            final Long last = lastDispatched.get(sourceMacAddress);
+            if (last != null && last + packetInterval >= timestamp) {
+                return false;
+            }
+            lastDispatched.put(sourceMacAddress, timestamp);
+            return true;
+        }
+    }
+}
@@ -11,15 +11,18 @@ package org.openhab.binding.atlona.internal.net;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -28,13 +31,26 @@ import org.slf4j.LoggerFactory;
 /**
  * Represents a restartable socket connection to the underlying telnet session. Commands can be sent via
  * {@link #sendCommand(String)} and responses will be received on any {@link SocketSessionListener}. This implementation
- * of {@link SocketSession} communicates using a {@link SocketChannel} connection.
+ * of {@link SocketSession} communicates using a non-blocking {@link SocketChannel} connection that is served by the
+ * {@link SocketReactor} shared by all sessions. Responses are framed directly within the read buffer and dispatched as
+ * soon as they have been read.
  *
  * @author Tim Roberts
  */
 public class SocketChannelSession implements SocketSession {
     private final Logger logger = LoggerFactory.getLogger(SocketChannelSession.class);
 
+    /**
+     * The maximum number of responses kept while no listener is registered
+     */
+    private static final int MAX_QUEUED_RESPONSES = 1000;
+
+    /**
+     * The prompts that are treated as responses for purposes of logging in
+     */
+    private static final byte[] LOGIN_PROMPT = "Login: ".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] PASSWORD_PROMPT = "Password: ".getBytes(StandardCharsets.ISO_8859_1);
+
     /**
      * The host/ip address to connect to
      */
@@ -51,25 +67,57 @@ public class SocketChannelSession implements SocketSession {
     private final AtomicReference<SocketChannel> _socketChannel = new AtomicReference<SocketChannel>();
 
     /**
-     * The {@link ResponseReader} that will be used to read from {@link #_readBuffer}
+     * The responses read from the socket waiting to be dispatched
      */
-    private final ResponseReader _responseReader = new ResponseReader();
+    private final Queue<QueuedResponse> _responses = new ConcurrentLinkedQueue<QueuedResponse>();
 
     /**
-     * The responses read from the {@link #_responseReader}
+     * The number of responses waiting in {@link #_responses} (size() is not constant time on the queue)
      */
-    private final BlockingQueue<Object> _responses = new ArrayBlockingQueue<Object>(50);
+    private final AtomicInteger _queueDepth = new AtomicInteger();
 
     /**
-     * The dispatcher of responses from {@link #_responses}
+     * The dispatcher of responses from {@link #_responses}, runs on the thread pool of the {@link SocketReactor}
      */
     private final Dispatcher _dispatcher = new Dispatcher();
 
+    /**
+     * Whether the {@link #_dispatcher} has been scheduled or is running
+     */
+    private final AtomicBoolean _dispatching = new AtomicBoolean(false);
+
     /**
      * The {@link SocketSessionListener} that the {@link #_dispatcher} will call
      */
     private List<SocketSessionListener> _listeners = new CopyOnWriteArrayList<SocketSessionListener>();
 
+    /**
+     * The buffer the responses are read into and framed from. Only used by the reactor thread.
+     */
+    private ByteBuffer _readBuffer = ByteBuffer.allocate(1024);
+
+    /**
+     * The commands that could not be written completely yet. Guarded by itself.
+     */
+    private final Queue<ByteBuffer> _pendingWrites = new ArrayDeque<ByteBuffer>();
+
+    /**
+     * The reactor serving this session - will be null if not connected
+     */
+    private volatile SocketReactor _reactor;
+
+    /**
+     * The selection key of the {@link #_socketChannel} - will be null until registered by the reactor
+     */
+    private volatile SelectionKey _selectionKey;
+
+    /**
+     * Statistics about the dispatched responses
+     */
+    private final AtomicLong _dispatchedResponses = new AtomicLong();
+    private final AtomicLong _totalDispatchLatency = new AtomicLong();
+    private final AtomicLong _maxDispatchLatency = new AtomicLong();
+
     /**
      * Creates the socket session from the given host and port
      *
@@ -94,6 +142,7 @@ public class SocketChannelSession implements SocketSession {
             throw new IllegalArgumentException("listener cannot be null");
         }
         _listeners.add(listener);
+        scheduleDispatch();
     }
 
     @Override
@@ -124,23 +173,43 @@ public class SocketChannelSession implements SocketSession {
             }
         }
 
-        _socketChannel.set(channel);
-        new Thread(_dispatcher).start();
-        new Thread(_responseReader).start();
+        _responses.clear();
+        _queueDepth.set(0);
+        _readBuffer.clear();
+        synchronized (_pendingWrites) {
+            _pendingWrites.clear();
+        }
+
+        final SocketReactor reactor = SocketReactor.acquire();
+        try {
+            _socketChannel.set(channel);
+            _reactor = reactor;
+            reactor.register(channel, this);
+        } catch (IOException e) {
+            _socketChannel.set(null);
+            _reactor = null;
+            SocketReactor.release();
+            channel.close();
+            throw e;
+        }
     }
 
     @Override
     public void disconnect() throws IOException {
-        if (isConnected()) {
-            logger.debug("Disconnecting from {}:{}", _host, _port);
+        final SocketChannel channel = _socketChannel.getAndSet(null);
+        if (channel != null) {
+            logger.debug("Disconnecting from {}:{} ({})", _host, _port, getStatistics());
 
-            final SocketChannel channel = _socketChannel.getAndSet(null);
             channel.close();
+            _selectionKey = null;
 
-            _dispatcher.stopRunning();
-            _responseReader.stopRunning();
+            if (_reactor != null) {
+                _reactor = null;
+                SocketReactor.release();
+            }
 
             _responses.clear();
+            _queueDepth.set(0);
         }
     }
 
@@ -160,220 +229,276 @@ public class SocketChannelSession implements SocketSession {
             throw new IOException("Cannot send message - disconnected");
         }
 
-        ByteBuffer toSend = ByteBuffer.wrap((command + "\r\n").getBytes());
+        final ByteBuffer toSend = ByteBuffer.wrap((command + "\r\n").getBytes());
 
         final SocketChannel channel = _socketChannel.get();
         if (channel == null) {
             logger.debug("Cannot send command '{}' - socket channel was closed", command);
         } else {
             logger.debug("Sending Command: '{}'", command);
-            channel.write(toSend);
+            synchronized (_pendingWrites) {
+                if (_pendingWrites.isEmpty()) {
+                    channel.write(toSend);
+                }
+                if (toSend.hasRemaining()) {
+                    // socket buffer is full - let the reactor write the rest once the channel is writable
+                    _pendingWrites.add(toSend);
+                    final SocketReactor reactor = _reactor;
+                    final SelectionKey key = _selectionKey;
+                    if (reactor != null && key != null) {
+                        reactor.enableWrite(key);
+                    }
+                }
+            }
         }
     }
 
     /**
-     * This is the runnable that will read from the socket and add messages to the responses queue (to be processed by
-     * the dispatcher)
+     * Returns the number of responses read but not yet dispatched to the listeners
      *
-     * @author Tim Roberts
+     * @return the number of queued responses
+     */
+    public int getQueueDepth() {
+        return _queueDepth.get();
+    }
+
+    /**
+     * Returns the average time between reading a response and dispatching it to the listeners
      *
+     * @return the average dispatch latency in milliseconds
      */
-    private class ResponseReader implements Runnable {
+    public double getAverageDispatchLatency() {
+        final long dispatched = _dispatchedResponses.get();
+        return dispatched == 0 ? 0
+                : _totalDispatchLatency.get() / (double) dispatched / TimeUnit.MILLISECONDS.toNanos(1);
+    }
 
-        /**
-         * Whether the reader is currently running
-         */
-        private final AtomicBoolean _isRunning = new AtomicBoolean(false);
+    /**
+     * Returns the longest time between reading a response and dispatching it to the listeners
+     *
+     * @return the maximum dispatch latency in milliseconds
+     */
+    public long getMaxDispatchLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(_maxDispatchLatency.get());
+    }
 
-        /**
-         * Locking to allow proper shutdown of the reader
-         */
-        private final CountDownLatch _running = new CountDownLatch(1);
+    private String getStatistics() {
+        return String.format("dispatched: %d, queued: %d, avg latency: %.2fms, max latency: %dms",
+                _dispatchedResponses.get(), getQueueDepth(), getAverageDispatchLatency(), getMaxDispatchLatency());
+    }
 
-        /**
-         * Stops the reader. Will wait 5 seconds for the runnable to stop
-         */
-        public void stopRunning() {
-            if (_isRunning.getAndSet(false)) {
-                try {
-                    if (!_running.await(5, TimeUnit.SECONDS)) {
-                        logger.warn("Waited too long for response reader to finish");
-                    }
-                } catch (InterruptedException e) {
-                    // Do nothing
-                }
+    /**
+     * Called by the {@link SocketReactor} once the channel has been registered
+     *
+     * @param key the non-null selection key of the channel
+     */
+    void setSelectionKey(SelectionKey key) {
+        _selectionKey = key;
+        synchronized (_pendingWrites) {
+            if (!_pendingWrites.isEmpty()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
             }
         }
+    }
 
-        /**
-         * Runs the logic to read from the socket until {@link #_isRunning} is false. A 'response' is anything that ends
-         * with a carriage-return/newline combo. Additionally, the special "Login: " and "Password: " prompts are
-         * treated as responses for purposes of logging in.
-         */
-        @Override
-        public void run() {
-            final StringBuilder sb = new StringBuilder(100);
-            final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
-
-            _isRunning.set(true);
-            _responses.clear();
+    /**
+     * Called by the {@link SocketReactor} when the channel can take more data. Writes the pending commands and stops
+     * the write notifications once everything has been written.
+     */
+    void onWritable() {
+        final SocketChannel channel = _socketChannel.get();
+        final SelectionKey key = _selectionKey;
+        if (channel == null || key == null) {
+            return;
+        }
 
-            while (_isRunning.get()) {
-                try {
-                    // if reader is null, sleep and try again
-                    if (readBuffer == null) {
-                        Thread.sleep(250);
-                        continue;
+        synchronized (_pendingWrites) {
+            try {
+                ByteBuffer toSend;
+                while ((toSend = _pendingWrites.peek()) != null) {
+                    channel.write(toSend);
+                    if (toSend.hasRemaining()) {
+                        return;
                     }
+                    _pendingWrites.poll();
+                }
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            } catch (IOException e) {
+                key.cancel();
+                queueResponse(e);
+            }
+        }
+    }
 
-                    final SocketChannel channel = _socketChannel.get();
-                    if (channel == null) {
-                        // socket was closed
-                        _isRunning.set(false);
-                        break;
-                    }
+    /**
+     * Called by the {@link SocketReactor} when data is available on the channel. A 'response' is anything that ends
+     * with a carriage-return/newline combo. Additionally, the special "Login: " and "Password: " prompts are treated
+     * as responses for purposes of logging in. The responses are framed in place within the read buffer, only the
+     * partial response at the end of the buffer is kept for the next read.
+     */
+    void onReadable() {
+        final SocketChannel channel = _socketChannel.get();
+        final SelectionKey key = _selectionKey;
+        if (channel == null || key == null) {
+            return;
+        }
 
-                    int bytesRead = channel.read(readBuffer);
-                    if (bytesRead == -1) {
-                        _responses.put(new IOException("server closed connection"));
-                        _isRunning.set(false);
-                        break;
-                    } else if (bytesRead == 0) {
-                        readBuffer.clear();
-                        continue;
-                    }
+        try {
+            if (!_readBuffer.hasRemaining()) {
+                // a single response exceeds the buffer - grow it
+                final ByteBuffer largerBuffer = ByteBuffer.allocate(_readBuffer.capacity() * 2);
+                _readBuffer.flip();
+                largerBuffer.put(_readBuffer);
+                _readBuffer = largerBuffer;
+            }
 
-                    readBuffer.flip();
-                    while (readBuffer.hasRemaining()) {
-                        final char ch = (char) readBuffer.get();
-                        sb.append(ch);
-                        if (ch == '\n' || ch == ' ') {
-                            final String str = sb.toString();
-                            if (str.endsWith("\r\n") || str.endsWith("Login: ") || str.endsWith("Password: ")) {
-                                sb.setLength(0);
-                                final String response = str.substring(0, str.length() - 2);
-                                _responses.put(response);
-                            }
-                        }
-                    }
+            final int bytesRead = channel.read(_readBuffer);
+            if (bytesRead == -1) {
+                key.cancel();
+                queueResponse(new IOException("server closed connection"));
+                return;
+            }
+        } catch (IOException e) {
+            key.cancel();
+            queueResponse(e);
+            return;
+        }
 
-                    readBuffer.flip();
-
-                } catch (InterruptedException e) {
-                    // Do nothing - probably shutting down
-                } catch (AsynchronousCloseException e) {
-                    // socket was definitely closed by another thread
-                } catch (IOException e) {
-                    try {
-                        _isRunning.set(false);
-                        _responses.put(e);
-                    } catch (InterruptedException e1) {
-                        // Do nothing - probably shutting down
-                    }
-                }
+        final byte[] data = _readBuffer.array();
+        final int limit = _readBuffer.position();
+        int start = 0;
+        for (int i = 0; i < limit; i++) {
+            final byte ch = data[i];
+            final boolean endOfLine = ch == '\n' && i > start && data[i - 1] == '\r';
+            final boolean prompt = ch == ' '
+                    && (endsWith(data, start, i, LOGIN_PROMPT) || endsWith(data, start, i, PASSWORD_PROMPT));
+            if (endOfLine || prompt) {
+                queueResponse(new String(data, start, i + 1 - start - 2, StandardCharsets.ISO_8859_1));
+                start = i + 1;
             }
+        }
 
-            _running.countDown();
+        if (start > 0) {
+            _readBuffer.flip();
+            _readBuffer.position(start);
+            _readBuffer.compact();
         }
     }
 
     /**
-     * The dispatcher runnable is responsible for reading the response queue and dispatching it to the current callable.
-     * Since the dispatcher is ONLY started when a callable is set, responses may pile up in the queue and be dispatched
-     * when a callable is set. Unlike the socket reader, this can be assigned to another thread (no state outside of the
-     * class).
-     *
-     * @author Tim Roberts
+     * Checks whether the response starting at start and ending with the byte at end ends with the given prompt
      */
-    private class Dispatcher implements Runnable {
+    private static boolean endsWith(byte[] data, int start, int end, byte[] prompt) {
+        final int offset = end + 1 - prompt.length;
+        if (offset < start) {
+            return false;
+        }
+        for (int i = 0; i < prompt.length; i++) {
+            if (data[offset + i] != prompt[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        /**
-         * Whether the dispatcher is running or not
-         */
-        private final AtomicBoolean _isRunning = new AtomicBoolean(false);
+    /**
+     * Queues a response (or exception) and schedules the dispatcher
+     *
+     * @param response a non-null {@link String} or {@link Exception}
+     */
+    private void queueResponse(Object response) {
+        if (_queueDepth.get() >= MAX_QUEUED_RESPONSES) {
+            logger.debug("Response queue of {}:{} is full - dropping oldest response", _host, _port);
+            if (_responses.poll() != null) {
+                _queueDepth.decrementAndGet();
+            }
+        }
+        _responses.add(new QueuedResponse(response));
+        _queueDepth.incrementAndGet();
+        scheduleDispatch();
+    }
 
-        /**
-         * Locking to allow proper shutdown of the reader
-         */
-        private final CountDownLatch _running = new CountDownLatch(1);
+    /**
+     * Schedules the {@link #_dispatcher} unless it is already scheduled. Since the dispatcher is only scheduled when a
+     * listener is set, responses may pile up in the queue and be dispatched when a listener is added.
+     */
+    private void scheduleDispatch() {
+        final SocketReactor reactor = _reactor;
+        if (reactor != null && !_listeners.isEmpty() && !_responses.isEmpty()
+                && _dispatching.compareAndSet(false, true)) {
+            reactor.dispatch(_dispatcher);
+        }
+    }
 
-        /**
-         * Whether the dispatcher is currently processing a message
-         */
-        private final AtomicReference<Thread> _processingThread = new AtomicReference<Thread>();
+    /**
+     * A response together with the time it has been read
+     *
+     * @author agent - Initial contribution
+     */
+    private static class QueuedResponse {
+        private final Object _response;
+        private final long _received = System.nanoTime();
 
-        /**
-         * Stops the reader. Will wait 5 seconds for the runnable to stop (should stop within 1 second based on the poll
-         * timeout below)
-         */
-        public void stopRunning() {
-            if (_isRunning.getAndSet(false)) {
-                // only wait if stopRunning didn't get called as part of processing a message
-                // (which would happen if we are processing an exception that forced a session close)
-                final Thread processingThread = _processingThread.get();
-                if (processingThread != null && Thread.currentThread() != processingThread) {
-                    try {
-                        if (!_running.await(5, TimeUnit.SECONDS)) {
-                            logger.warn("Waited too long for dispatcher to finish");
-                        }
-                    } catch (InterruptedException e) {
-                        // do nothing
-                    }
-                }
-            }
+        private QueuedResponse(Object response) {
+            _response = response;
         }
+    }
 
+    /**
+     * The dispatcher runnable is responsible for reading the response queue and dispatching it to the current
+     * listeners. It runs on the thread pool of the {@link SocketReactor} and is scheduled at most once per session at
+     * any time, so the responses are dispatched in order.
+     *
+     * @author Tim Roberts
+     */
+    private class Dispatcher implements Runnable {
         /**
-         * Runs the logic to dispatch any responses to the current listeners until {@link #_isRunning} is false.
+         * Runs the logic to dispatch all queued responses to the current listeners
          */
         @Override
         public void run() {
-            _processingThread.set(Thread.currentThread());
-
-            _isRunning.set(true);
-            while (_isRunning.get()) {
-                try {
-
-                    // if no listeners, we don't want to start dispatching yet.
-                    if (_listeners.size() == 0) {
-                        Thread.sleep(250);
-                        continue;
-                    }
-
-                    final Object response = _responses.poll(1, TimeUnit.SECONDS);
-
-                    if (response != null) {
-                        if (response instanceof String) {
-                            try {
-                                logger.debug("Dispatching response: {}", response);
-                                final SocketSessionListener[] listeners = _listeners
-                                        .toArray(new SocketSessionListener[0]);
-                                for (SocketSessionListener listener : listeners) {
-                                    listener.responseReceived((String) response);
-                                }
-                            } catch (Exception e) {
-                                logger.warn("Exception occurred processing the response '{}': {}", response, e);
-                            }
-                        } else if (response instanceof Exception) {
-                            logger.debug("Dispatching exception: {}", response);
-                            final SocketSessionListener[] listeners = _listeners.toArray(new SocketSessionListener[0]);
-                            for (SocketSessionListener listener : listeners) {
-                                listener.responseException((Exception) response);
+            try {
+                QueuedResponse queued;
+                while (!_listeners.isEmpty() && (queued = _responses.poll()) != null) {
+                    _queueDepth.decrementAndGet();
+                    recordLatency(System.nanoTime() - queued._received);
+
+                    final Object response = queued._response;
+                    if (response instanceof String) {
+                        try {
+                            logger.debug("Dispatching response: {}", response);
+                            for (SocketSessionListener listener : _listeners) {
+                                listener.responseReceived((String) response);
                             }
-                        } else {
-                            logger.warn("Unknown response class: {}", response);
+                        } catch (Exception e) {
+                            logger.warn("Exception occurred processing the response '{}': {}", response, e);
+                        }
+                    } else if (response instanceof Exception) {
+                        logger.debug("Dispatching exception: {}", response);
+                        for (SocketSessionListener listener : _listeners) {
+                            listener.responseException((Exception) response);
                         }
+                    } else {
+                        logger.warn("Unknown response class: {}", response);
                     }
-                } catch (InterruptedException e) {
-                    // Do nothing
-                } catch (Exception e) {
-                    logger.debug("Uncaught exception {}", e.getMessage(), e);
-                    break;
                 }
+            } catch (Exception e) {
+                logger.debug("Uncaught exception {}", e.getMessage(), e);
+            } finally {
+                _dispatching.set(false);
+            }
+
+            // responses may have been queued after the queue was found empty
+            scheduleDispatch();
+        }
+
+        private void recordLatency(long latency) {
+            _dispatchedResponses.incrementAndGet();
+            _totalDispatchLatency.addAndGet(latency);
+            long max;
+            while (latency > (max = _maxDispatchLatency.get()) && !_maxDispatchLatency.compareAndSet(max, latency)) {
+                // retry until updated
             }
-            _isRunning.set(false);
-            _processingThread.set(null);
-            _running.countDown();
         }
     }
 }
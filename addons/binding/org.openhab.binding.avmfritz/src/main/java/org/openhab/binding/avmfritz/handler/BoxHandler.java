@@ -11,7 +11,7 @@ package org.openhab.binding.avmfritz.handler;
 import static org.openhab.binding.avmfritz.BindingConstants.*;
 
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -27,6 +27,7 @@ import org.eclipse.smarthome.core.thing.ThingStatusInfo;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.avmfritz.BindingConstants;
 import org.openhab.binding.avmfritz.config.AvmFritzConfiguration;
@@ -57,9 +58,13 @@ public class BoxHandler extends BaseBridgeHandler implements IFritzHandler {
      */
     private FritzahaWebInterface connection;
     /**
-     * Holder for last data received from the box.
+     * Holder for last data received from the box, by AIN.
      */
     private Map<String, DeviceModel> deviceList;
+    /**
+     * Handlers of the things of this bridge, by AIN.
+     */
+    private Map<String, DeviceHandler> handlers;
     /**
      * Job which will do the FRITZ!Box polling
      */
@@ -77,7 +82,8 @@ public class BoxHandler extends BaseBridgeHandler implements IFritzHandler {
      */
     public BoxHandler(Bridge bridge) {
         super(bridge);
-        this.deviceList = new TreeMap<String, DeviceModel>();
+        this.deviceList = new ConcurrentHashMap<String, DeviceModel>();
+        this.handlers = new ConcurrentHashMap<String, DeviceHandler>();
         this.pollingRunnable = new DeviceListPolling(this);
     }
 
@@ -116,16 +122,29 @@ public class BoxHandler extends BaseBridgeHandler implements IFritzHandler {
 
     /**
      * {@inheritDoc}
+     *
+     * Things are only updated if the data of their device has changed since the last poll.
      */
     @Override
     public void addDeviceList(DeviceModel model) {
         try {
             logger.debug("set device model: {}", model);
-            this.deviceList.put(model.getIdentifier(), model);
-            ThingUID thingUID = this.getThingUID(model);
-            Thing thing = this.getThingByUID(thingUID);
+            String ain = model.getIdentifier();
+            DeviceModel previous = this.deviceList.put(ain, model);
+            if (model.equals(previous)) {
+                logger.trace("device model of {} unchanged", ain);
+                return;
+            }
+            Thing thing = null;
+            DeviceHandler handler = this.handlers.get(ain);
+            if (handler != null) {
+                thing = handler.getThing();
+            } else {
+                ThingUID thingUID = this.getThingUID(model);
+                thing = thingUID != null ? this.getThingByUID(thingUID) : null;
+            }
             if (thing != null) {
-                logger.debug("update thing {} with device model: {}", thingUID, model);
+                logger.debug("update thing {} with device model: {}", thing.getUID(), model);
                 this.updateThingFromDevice(thing, model);
             }
         } catch (Exception e) {
@@ -133,6 +152,40 @@ public class BoxHandler extends BaseBridgeHandler implements IFritzHandler {
         }
     }
 
+    /**
+     * Adds the handler to the AIN index and makes sure its thing is updated by the next poll.
+     */
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        String ain = getAin(childThing);
+        if (ain != null && childHandler instanceof DeviceHandler) {
+            this.handlers.put(ain, (DeviceHandler) childHandler);
+            this.deviceList.remove(ain);
+        }
+    }
+
+    /**
+     * Removes the handler from the AIN index.
+     */
+    @Override
+    public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
+        String ain = getAin(childThing);
+        if (ain != null) {
+            this.handlers.remove(ain, childHandler);
+        }
+    }
+
+    /**
+     * Provides the AIN of a thing in the format of {@link DeviceModel#getIdentifier()}.
+     *
+     * @param thing Thing of this bridge
+     * @return AIN or null if not configured
+     */
+    private String getAin(Thing thing) {
+        Object ain = thing.getConfiguration().get(THING_AIN);
+        return ain != null ? ain.toString().replace(" ", "") : null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -61,6 +61,10 @@ public class DeviceHandler extends BaseThingHandler implements IFritzHandler {
      * Interface object for querying the FRITZ!Box web interface
      */
     protected FritzahaWebInterface connection;
+    /**
+     * Last data received from a PL546E in standalone mode
+     */
+    private DeviceModel lastModel;
     /**
      * Job which will do the FRITZ!Box polling
      */
@@ -173,10 +177,20 @@ public class DeviceHandler extends BaseThingHandler implements IFritzHandler {
         return this.connection;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The thing is only updated if the data of the device has changed since the last poll.
+     */
     @Override
     public void addDeviceList(DeviceModel model) {
         try {
             logger.debug("set device model: {}", model);
+            if (model.equals(this.lastModel)) {
+                logger.trace("device model of {} unchanged", model.getIdentifier());
+                return;
+            }
+            this.lastModel = model;
             Thing thing = this.getThing();
             if (thing != null) {
                 logger.debug("update thing {} with device model: {}", thing.getUID(), model);
@@ -12,6 +12,8 @@ import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 
 /**
@@ -141,4 +143,28 @@ public class DeviceModel {
                 .append("present", this.present).append("name", this.name).append(this.getSwitch())
                 .append(this.getPowermeter()).append(this.getTemperature()).toString();
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DeviceModel)) {
+            return false;
+        }
+        DeviceModel other = (DeviceModel) obj;
+        return new EqualsBuilder().append(ident, other.ident).append(deviceId, other.deviceId)
+                .append(bitmask, other.bitmask).append(firmwareVersion, other.firmwareVersion)
+                .append(deviceManufacturer, other.deviceManufacturer).append(productName, other.productName)
+                .append(present, other.present).append(name, other.name).append(switchModel, other.switchModel)
+                .append(powermeterModel, other.powermeterModel).append(temperatureModel, other.temperatureModel)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(ident).append(deviceId).append(bitmask).append(firmwareVersion)
+                .append(deviceManufacturer).append(productName).append(present).append(name).append(switchModel)
+                .append(powermeterModel).append(temperatureModel).toHashCode();
+    }
 }
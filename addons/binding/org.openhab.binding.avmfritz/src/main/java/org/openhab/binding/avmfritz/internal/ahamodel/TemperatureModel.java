@@ -13,6 +13,8 @@ import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 
 /**
@@ -51,4 +53,21 @@ public class TemperatureModel {
         return new ToStringBuilder(this).append("celsius", this.getCelsius()).append("offset", this.getOffset())
                 .toString();
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TemperatureModel)) {
+            return false;
+        }
+        TemperatureModel other = (TemperatureModel) obj;
+        return new EqualsBuilder().append(celsius, other.celsius).append(offset, other.offset).isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(celsius).append(offset).toHashCode();
+    }
 }
@@ -8,16 +8,13 @@
  */
 package org.openhab.binding.avmfritz.internal.hardware.callbacks;
 
-import java.io.StringReader;
-
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 import org.openhab.binding.avmfritz.internal.ahamodel.DeviceModel;
 import org.openhab.binding.avmfritz.internal.ahamodel.DevicelistModel;
 import org.openhab.binding.avmfritz.internal.discovery.AvmDiscoveryService;
 import org.openhab.binding.avmfritz.internal.hardware.FritzahaWebInterface;
+import org.openhab.binding.avmfritz.internal.util.JAXBUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,10 +49,7 @@ public class FritzAhaDiscoveryCallback extends FritzAhaReauthCallback {
         if (this.isValidRequest()) {
             logger.debug("discovery callback response {}", response);
             try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(DevicelistModel.class);
-                Unmarshaller jaxbUM = jaxbContext.createUnmarshaller();
-
-                DevicelistModel model = (DevicelistModel) jaxbUM.unmarshal(new StringReader(response));
+                DevicelistModel model = JAXBUtils.unmarshalDevicelist(response);
                 if (model != null) {
                     for (DeviceModel device : model.getDevicelist()) {
                         this.service.onDeviceAddedInternal(device);
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.avmfritz.internal.util;
+
+import java.io.StringReader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+
+import org.openhab.binding.avmfritz.internal.ahamodel.DevicelistModel;
+
+/**
+ * Unmarshals the responses to the <b>getdevicelistinfos</b> command.
+ *
+ * Creating a {@link JAXBContext} is expensive, so a single context is created on first use and shared. The context is
+ * thread-safe, but its {@link Unmarshaller}s are not: they are kept in a pool, from which every call borrows one
+ * for the time of the unmarshalling.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public final class JAXBUtils {
+
+    private static volatile JAXBContext context;
+
+    private static final Queue<Unmarshaller> UNMARSHALLERS = new ConcurrentLinkedQueue<Unmarshaller>();
+
+    private JAXBUtils() {
+    }
+
+    /**
+     * Unmarshals a device list.
+     *
+     * @param xml the response of the FRITZ!Box
+     * @return the device list
+     * @throws JAXBException if the response can not be unmarshalled
+     */
+    public static DevicelistModel unmarshalDevicelist(String xml) throws JAXBException {
+        Unmarshaller unmarshaller = UNMARSHALLERS.poll();
+        if (unmarshaller == null) {
+            unmarshaller = getContext().createUnmarshaller();
+        }
+        try {
+            return (DevicelistModel) unmarshaller.unmarshal(new StringReader(xml));
+        } finally {
+            UNMARSHALLERS.offer(unmarshaller);
+        }
+    }
+
+    private static JAXBContext getContext() throws JAXBException {
+        JAXBContext result = context;
+        if (result == null) {
+            synchronized (JAXBUtils.class) {
+                result = context;
+                if (result == null) {
+                    result = JAXBContext.newInstance(DevicelistModel.class);
+                    context = result;
+                }
+            }
+        }
+        return result;
+    }
+}
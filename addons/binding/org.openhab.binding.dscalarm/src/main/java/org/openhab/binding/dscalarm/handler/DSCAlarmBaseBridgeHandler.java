@@ -10,23 +10,25 @@ package org.openhab.binding.dscalarm.handler;
 
 import static org.openhab.binding.dscalarm.DSCAlarmBindingConstants.BRIDGE_RESET;
 
-import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
-import org.openhab.binding.dscalarm.config.DSCAlarmPartitionConfiguration;
-import org.openhab.binding.dscalarm.config.DSCAlarmZoneConfiguration;
 import org.openhab.binding.dscalarm.internal.DSCAlarmCode;
 import org.openhab.binding.dscalarm.internal.DSCAlarmEvent;
 import org.openhab.binding.dscalarm.internal.DSCAlarmMessage;
@@ -66,8 +68,40 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
     /** Determines if all things have been initialized. */
     private boolean allThingsInitialized = false;
 
-    /** Thing count. */
-    private int thingCount = 0;
+    /** Determines if child handlers have been added or removed since the last check. */
+    private volatile boolean childHandlersChanged = false;
+
+    /** The initialized child thing handlers indexed by thing type, partition and zone number. */
+    private final Map<String, DSCAlarmBaseThingHandler> thingHandlers = new ConcurrentHashMap<>();
+
+    /** Maximum number of decoded messages waiting to be dispatched. */
+    private static final int MESSAGE_QUEUE_CAPACITY = 512;
+
+    /** Seconds a reader waits for room in a full message queue before the message is dropped. */
+    private static final int MESSAGE_QUEUE_TIMEOUT = 5;
+
+    /** Decoded messages waiting to be dispatched to the thing handlers. */
+    private final BlockingQueue<ReceivedMessage> messageQueue = new ArrayBlockingQueue<>(MESSAGE_QUEUE_CAPACITY);
+
+    /** Determines if a message dispatcher is scheduled or running. */
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+
+    // Message statistics
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong messagesDispatched = new AtomicLong();
+    private final AtomicLong messagesDropped = new AtomicLong();
+    private final AtomicLong totalProcessingLatency = new AtomicLong();
+    private final AtomicLong maxProcessingLatency = new AtomicLong();
+    private long statisticsMessageCount = 0;
+    private long statisticsStartTime = 0;
+    private volatile double messageRate = 0;
+
+    private Runnable messageDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchMessages();
+        }
+    };
 
     /** Password for bridge connection authentication. */
     private String password = null;
@@ -179,6 +213,7 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
         setBridgeStatus(true);
 
         thingsHaveChanged = true;
+        allThingsInitialized = false;
     }
 
     /**
@@ -218,6 +253,11 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
 
         updateStatus(isOnline ? ThingStatus.ONLINE : ThingStatus.OFFLINE);
 
+        if (!isOnline) {
+            // the thing handlers are reset when the bridge goes offline
+            allThingsInitialized = false;
+        }
+
         ChannelUID channelUID = new ChannelUID(getThing().getUID(), BRIDGE_RESET);
         updateState(channelUID, isOnline ? OnOffType.ON : OnOffType.OFF);
     }
@@ -303,6 +343,8 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
     public synchronized void polling() {
         logger.debug("DSC Alarm Polling Task - '{}' is {}", getThing().getUID(), getThing().getStatus());
 
+        updateMessageStatistics();
+
         if (isConnected()) {
 
             if (pollStartTime == 0) {
@@ -338,45 +380,126 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
      * Check if things have changed.
      */
     public void checkThings() {
-        logger.debug("Checking Things!");
-
-        allThingsInitialized = true;
+        if (allThingsInitialized && !childHandlersChanged) {
+            return;
+        }
 
-        List<Thing> things = getThing().getThings();
+        logger.debug("Checking Things!");
 
-        if (things.size() != thingCount) {
+        if (childHandlersChanged) {
+            childHandlersChanged = false;
             thingsHaveChanged = true;
-            thingCount = things.size();
         }
 
-        for (Thing thing : things) {
+        allThingsInitialized = true;
 
-            DSCAlarmBaseThingHandler handler = (DSCAlarmBaseThingHandler) thing.getHandler();
+        for (DSCAlarmBaseThingHandler handler : thingHandlers.values()) {
+            Thing thing = handler.getThing();
 
-            if (handler != null) {
-                logger.debug("***Checking '{}' - Status: {}, Initialized: {}", thing.getUID(), thing.getStatus(),
-                        handler.isThingHandlerInitialized());
+            logger.debug("***Checking '{}' - Status: {}, Initialized: {}", thing.getUID(), thing.getStatus(),
+                    handler.isThingHandlerInitialized());
 
-                if (!handler.isThingHandlerInitialized() || !thing.getStatus().equals(ThingStatus.ONLINE)) {
+            if (!handler.isThingHandlerInitialized() || !thing.getStatus().equals(ThingStatus.ONLINE)) {
 
-                    if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
-                        handler.bridgeStatusChanged(getThing().getStatusInfo());
-                    }
+                if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
+                    handler.bridgeStatusChanged(getThing().getStatusInfo());
+                }
 
-                    if (handler.getDSCAlarmThingType().equals(DSCAlarmThingType.PANEL)) {
-                        if (panelThingHandler == null) {
-                            panelThingHandler = handler;
-                        }
-                    }
+                allThingsInitialized = false;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        if (childHandler instanceof DSCAlarmBaseThingHandler) {
+            DSCAlarmBaseThingHandler handler = (DSCAlarmBaseThingHandler) childHandler;
+            String key = getThingHandlerKey(handler);
 
-                    allThingsInitialized = false;
+            if (key != null) {
+                thingHandlers.put(key, handler);
+
+                if (handler.getDSCAlarmThingType() == DSCAlarmThingType.PANEL) {
+                    panelThingHandler = handler;
                 }
 
-            } else {
-                logger.error("checkThings(): Thing handler not found!");
+                childHandlersChanged = true;
+                logger.debug("childHandlerInitialized(): Thing '{}' indexed as '{}'", childThing.getUID(), key);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
+        if (childHandler instanceof DSCAlarmBaseThingHandler) {
+            DSCAlarmBaseThingHandler handler = (DSCAlarmBaseThingHandler) childHandler;
+            String key = getThingHandlerKey(handler);
+
+            if (key != null) {
+                thingHandlers.remove(key, handler);
+            }
+
+            if (handler.equals(panelThingHandler)) {
+                panelThingHandler = null;
             }
+
+            childHandlersChanged = true;
+            logger.debug("childHandlerDisposed(): Thing '{}' removed from index", childThing.getUID());
         }
+    }
 
+    /**
+     * Returns the index key of a thing handler.
+     *
+     * @param handler
+     * @return key or null if the thing type of the handler is unknown
+     */
+    private static String getThingHandlerKey(DSCAlarmBaseThingHandler handler) {
+        DSCAlarmThingType dscAlarmThingType = handler.getDSCAlarmThingType();
+        if (dscAlarmThingType == null) {
+            return null;
+        }
+
+        return getThingHandlerKey(dscAlarmThingType, handler.getPartitionNumber(), handler.getZoneNumber());
+    }
+
+    /**
+     * Returns the index key for a thing type, partition and zone. Panel and keypad things are unique per bridge,
+     * partition things are identified by their partition number and zone things by their zone number.
+     *
+     * @param dscAlarmThingType
+     * @param partitionId
+     * @param zoneId
+     * @return key
+     */
+    private static String getThingHandlerKey(DSCAlarmThingType dscAlarmThingType, int partitionId, int zoneId) {
+        switch (dscAlarmThingType) {
+            case PARTITION:
+                return dscAlarmThingType.name() + ":" + partitionId;
+            case ZONE:
+                return dscAlarmThingType.name() + ":" + zoneId;
+            default:
+                return dscAlarmThingType.name();
+        }
+    }
+
+    /**
+     * Find a Thing Handler.
+     *
+     * @param dscAlarmThingType
+     * @param partitionId
+     * @param zoneId
+     * @return thing handler or null if no thing handler is initialized for the thing
+     */
+    public DSCAlarmBaseThingHandler findThingHandler(DSCAlarmThingType dscAlarmThingType, int partitionId,
+            int zoneId) {
+        return thingHandlers.get(getThingHandlerKey(dscAlarmThingType, partitionId, zoneId));
     }
 
     /**
@@ -388,156 +511,211 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
      * @return thing
      */
     public Thing findThing(DSCAlarmThingType dscAlarmThingType, int partitionId, int zoneId) {
+        DSCAlarmBaseThingHandler handler = findThingHandler(dscAlarmThingType, partitionId, zoneId);
 
-        List<Thing> things = getThing().getThings();
+        if (handler != null) {
+            logger.debug("findThing(): Thing Found - {}, {}, {}", handler.getThing(), handler, dscAlarmThingType);
+            return handler.getThing();
+        }
 
-        Thing thing = null;
+        return null;
+    }
+
+    /**
+     * Handles an incoming message from the DSC Alarm System. The message is decoded by the calling (reader) thread
+     * and queued, the thing handlers are updated by the message dispatcher.
+     *
+     * @param incomingMessage
+     */
+    public void handleIncomingMessage(String incomingMessage) {
+        if (incomingMessage != null && !incomingMessage.isEmpty()) {
+            ReceivedMessage receivedMessage = new ReceivedMessage(new DSCAlarmMessage(incomingMessage));
 
-        for (Thing t : things) {
+            messagesReceived.incrementAndGet();
 
             try {
-                Configuration config = t.getConfiguration();
-                DSCAlarmBaseThingHandler handler = (DSCAlarmBaseThingHandler) t.getHandler();
-
-                if (handler != null) {
-                    DSCAlarmThingType handlerDSCAlarmThingType = handler.getDSCAlarmThingType();
-
-                    if (handlerDSCAlarmThingType != null) {
-                        if (handlerDSCAlarmThingType.equals(dscAlarmThingType)) {
-                            switch (handlerDSCAlarmThingType) {
-                                case PANEL:
-                                case KEYPAD:
-                                    thing = t;
-                                    logger.debug("findThing(): Thing Found - {}, {}, {}", t, handler,
-                                            handlerDSCAlarmThingType);
-                                    return thing;
-                                case PARTITION:
-                                    BigDecimal partitionNumber = (BigDecimal) config
-                                            .get(DSCAlarmPartitionConfiguration.PARTITION_NUMBER);
-                                    if (partitionId == partitionNumber.intValue()) {
-                                        thing = t;
-                                        logger.debug("findThing(): Thing Found - {}, {}, {}", t, handler,
-                                                handlerDSCAlarmThingType);
-                                        return thing;
-                                    }
-                                    break;
-                                case ZONE:
-                                    BigDecimal zoneNumber = (BigDecimal) config
-                                            .get(DSCAlarmZoneConfiguration.ZONE_NUMBER);
-                                    if (zoneId == zoneNumber.intValue()) {
-                                        thing = t;
-                                        logger.debug("findThing(): Thing Found - {}, {}, {}", t, handler,
-                                                handlerDSCAlarmThingType);
-                                        return thing;
-                                    }
-                                    break;
-                                default:
-                                    break;
-                            }
-                        }
-                    }
+                if (!messageQueue.offer(receivedMessage, MESSAGE_QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
+                    messagesDropped.incrementAndGet();
+                    logger.warn("handleIncomingMessage(): Message queue is full, message dropped: {}",
+                            incomingMessage);
+                    return;
                 }
-            } catch (Exception e) {
-                logger.debug("findThing(): Error Seaching Thing - {} ", e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             }
-        }
 
-        return thing;
+            if (dispatching.compareAndSet(false, true)) {
+                scheduler.execute(messageDispatcher);
+            }
+        } else {
+            logger.debug("handleIncomingMessage(): No Message Received!");
+        }
     }
 
     /**
-     * Handles an incoming message from the DSC Alarm System.
-     *
-     * @param incomingMessage
+     * Dispatches all queued messages in the order they have been received.
      */
-    public synchronized void handleIncomingMessage(String incomingMessage) {
-        if (incomingMessage != null && !incomingMessage.isEmpty()) {
-            DSCAlarmMessage dscAlarmMessage = new DSCAlarmMessage(incomingMessage);
-            DSCAlarmMessageType dscAlarmMessageType = dscAlarmMessage.getDSCAlarmMessageType();
-
-            logger.debug("handleIncomingMessage(): Message received: {} - {}", incomingMessage,
-                    dscAlarmMessage.toString());
-
-            DSCAlarmEvent event = new DSCAlarmEvent(this);
-            event.dscAlarmEventMessage(dscAlarmMessage);
-            DSCAlarmThingType dscAlarmThingType = null;
-            int partitionId = 0;
-            int zoneId = 0;
-
-            DSCAlarmCode dscAlarmCode = DSCAlarmCode
-                    .getDSCAlarmCodeValue(dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.CODE));
-
-            if (dscAlarmCode == DSCAlarmCode.LoginResponse) {
-                String dscAlarmMessageData = dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.DATA);
-                if (dscAlarmMessageData.equals("3")) {
-                    sendCommand(DSCAlarmCode.NetworkLogin);
-                    // onConnected();
-                } else if (dscAlarmMessageData.equals("1")) {
-                    onConnected();
+    private void dispatchMessages() {
+        do {
+            ReceivedMessage receivedMessage;
+            while ((receivedMessage = messageQueue.poll()) != null) {
+                try {
+                    dispatchMessage(receivedMessage.message);
+                } catch (Exception e) {
+                    logger.error("dispatchMessages(): Message not handled by bridge: {}", e.getMessage(), e);
                 }
-                return;
-            } else if (dscAlarmCode == DSCAlarmCode.CommandAcknowledge) {
-                String dscAlarmMessageData = dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.DATA);
-                if (dscAlarmMessageData.equals("000")) {
-                    setBridgeStatus(true);
+
+                long latency = System.nanoTime() - receivedMessage.receivedTime;
+                totalProcessingLatency.addAndGet(latency);
+                messagesDispatched.incrementAndGet();
+
+                long max = maxProcessingLatency.get();
+                while (latency > max && !maxProcessingLatency.compareAndSet(max, latency)) {
+                    max = maxProcessingLatency.get();
                 }
             }
 
-            switch (dscAlarmMessageType) {
-                case PANEL_EVENT:
-                    dscAlarmThingType = DSCAlarmThingType.PANEL;
-                    break;
-                case PARTITION_EVENT:
-                    dscAlarmThingType = DSCAlarmThingType.PARTITION;
-                    partitionId = Integer
-                            .parseInt(event.getDSCAlarmMessage().getMessageInfo(DSCAlarmMessageInfoType.PARTITION));
-                    break;
-                case ZONE_EVENT:
-                    dscAlarmThingType = DSCAlarmThingType.ZONE;
-                    zoneId = Integer.parseInt(event.getDSCAlarmMessage().getMessageInfo(DSCAlarmMessageInfoType.ZONE));
-                    break;
-                case KEYPAD_EVENT:
-                    dscAlarmThingType = DSCAlarmThingType.KEYPAD;
-                    break;
-                default:
-                    break;
+            dispatching.set(false);
+
+            // a message may have been queued after the queue was drained
+        } while (!messageQueue.isEmpty() && dispatching.compareAndSet(false, true));
+    }
+
+    /**
+     * Dispatches a decoded message to the thing handlers.
+     *
+     * @param dscAlarmMessage
+     */
+    private void dispatchMessage(DSCAlarmMessage dscAlarmMessage) {
+        DSCAlarmMessageType dscAlarmMessageType = dscAlarmMessage.getDSCAlarmMessageType();
+
+        logger.debug("handleIncomingMessage(): Message received: {}", dscAlarmMessage);
+
+        DSCAlarmEvent event = new DSCAlarmEvent(this);
+        event.dscAlarmEventMessage(dscAlarmMessage);
+        DSCAlarmThingType dscAlarmThingType = null;
+        int partitionId = 0;
+        int zoneId = 0;
+
+        DSCAlarmCode dscAlarmCode = DSCAlarmCode
+                .getDSCAlarmCodeValue(dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.CODE));
+
+        if (dscAlarmCode == DSCAlarmCode.LoginResponse) {
+            String dscAlarmMessageData = dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.DATA);
+            if (dscAlarmMessageData.equals("3")) {
+                sendCommand(DSCAlarmCode.NetworkLogin);
+                // onConnected();
+            } else if (dscAlarmMessageData.equals("1")) {
+                onConnected();
+            }
+            return;
+        } else if (dscAlarmCode == DSCAlarmCode.CommandAcknowledge) {
+            String dscAlarmMessageData = dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.DATA);
+            if (dscAlarmMessageData.equals("000")) {
+                setBridgeStatus(true);
             }
+        }
+
+        switch (dscAlarmMessageType) {
+            case PANEL_EVENT:
+                dscAlarmThingType = DSCAlarmThingType.PANEL;
+                break;
+            case PARTITION_EVENT:
+                dscAlarmThingType = DSCAlarmThingType.PARTITION;
+                partitionId = Integer.parseInt(dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.PARTITION));
+                break;
+            case ZONE_EVENT:
+                dscAlarmThingType = DSCAlarmThingType.ZONE;
+                zoneId = Integer.parseInt(dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.ZONE));
+                break;
+            case KEYPAD_EVENT:
+                dscAlarmThingType = DSCAlarmThingType.KEYPAD;
+                break;
+            default:
+                break;
+        }
 
-            if (dscAlarmThingType != null) {
+        if (dscAlarmThingType != null) {
 
-                Thing thing = findThing(dscAlarmThingType, partitionId, zoneId);
+            DSCAlarmBaseThingHandler thingHandler = findThingHandler(dscAlarmThingType, partitionId, zoneId);
 
-                logger.debug("handleIncomingMessage(): Thing Search - '{}'", thing);
+            if (thingHandler != null) {
+                Thing thing = thingHandler.getThing();
 
-                if (thing != null) {
-                    DSCAlarmBaseThingHandler thingHandler = (DSCAlarmBaseThingHandler) thing.getHandler();
+                logger.debug("handleIncomingMessage(): Thing Found - '{}'", thing.getUID());
 
-                    if (thingHandler != null) {
-                        if (thingHandler.isThingHandlerInitialized()) {
-                            thingHandler.dscAlarmEventReceived(event, thing);
+                if (thingHandler.isThingHandlerInitialized()) {
+                    thingHandler.dscAlarmEventReceived(event, thing);
 
-                            if (panelThingHandler != null) {
-                                if (!thingHandler.equals(panelThingHandler)) {
-                                    panelThingHandler.dscAlarmEventReceived(event, thing);
-                                }
-                            }
-                        } else {
-                            logger.debug("handleIncomingMessage(): Thing '{}' Not Refreshed!", thing.getUID());
+                    DSCAlarmBaseThingHandler panelHandler = panelThingHandler;
+                    if (panelHandler != null) {
+                        if (!thingHandler.equals(panelHandler)) {
+                            panelHandler.dscAlarmEventReceived(event, thing);
                         }
                     }
                 } else {
-                    logger.debug("handleIncomingMessage(): Thing Not Found! Send to Discovery Service!");
+                    logger.debug("handleIncomingMessage(): Thing '{}' Not Refreshed!", thing.getUID());
+                }
+            } else {
+                logger.debug("handleIncomingMessage(): Thing Not Found! Send to Discovery Service!");
 
-                    if (dscAlarmDiscoveryService != null) {
-                        dscAlarmDiscoveryService.addThing(getThing(), dscAlarmThingType, event);
-                    }
+                if (dscAlarmDiscoveryService != null) {
+                    dscAlarmDiscoveryService.addThing(getThing(), dscAlarmThingType, event);
                 }
             }
-        } else {
-            logger.debug("handleIncomingMessage(): No Message Received!");
         }
     }
 
+    /**
+     * Updates the message rate and logs the message statistics.
+     */
+    private void updateMessageStatistics() {
+        long now = System.currentTimeMillis();
+        long messageCount = messagesReceived.get();
+
+        if (statisticsStartTime != 0 && now > statisticsStartTime) {
+            messageRate = (messageCount - statisticsMessageCount) * 1000.0 / (now - statisticsStartTime);
+        }
+
+        statisticsStartTime = now;
+        statisticsMessageCount = messageCount;
+
+        logger.debug(
+                "Message Statistics - Received: {}, Dropped: {}, Queued: {}, Rate: {}/s, Latency: {} ms (max {} ms)",
+                messageCount, messagesDropped.get(), messageQueue.size(), String.format("%.2f", messageRate),
+                String.format("%.2f", getAverageProcessingLatency()), String.format("%.2f", getMaxProcessingLatency()));
+    }
+
+    /**
+     * Returns the number of messages received from the DSC Alarm.
+     */
+    public long getMessageCount() {
+        return messagesReceived.get();
+    }
+
+    /**
+     * Returns the number of received messages per second, measured over the last polling interval.
+     */
+    public double getMessageRate() {
+        return messageRate;
+    }
+
+    /**
+     * Returns the average time in milliseconds from receiving a message to having dispatched it to the things.
+     */
+    public double getAverageProcessingLatency() {
+        long dispatched = messagesDispatched.get();
+        return dispatched == 0 ? 0 : totalProcessingLatency.get() / (dispatched * 1000000.0);
+    }
+
+    /**
+     * Returns the maximum time in milliseconds from receiving a message to having dispatched it to the things.
+     */
+    public double getMaxProcessingLatency() {
+        return maxProcessingLatency.get() / 1000000.0;
+    }
+
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         logger.warn("No bridge commands defined.");
@@ -785,4 +963,16 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
 
         return cmd + strChecksum.toUpperCase() + "\r\n";
     }
+
+    /**
+     * A decoded message waiting to be dispatched.
+     */
+    private static class ReceivedMessage {
+        private final DSCAlarmMessage message;
+        private final long receivedTime = System.nanoTime();
+
+        private ReceivedMessage(DSCAlarmMessage message) {
+            this.message = message;
+        }
+    }
 }
@@ -12,6 +12,7 @@ import static org.openhab.binding.globalcache.GlobalCacheBindingConstants.*;
 
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.InetAddress;
@@ -21,15 +22,21 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.URLDecoder;
 import java.net.UnknownHostException;
-import java.util.concurrent.Executors;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.net.NetUtil;
 import org.eclipse.smarthome.core.thing.Channel;
@@ -64,9 +71,23 @@ import org.slf4j.LoggerFactory;
 public class GlobalCacheHandler extends BaseThingHandler {
     private Logger logger = LoggerFactory.getLogger(GlobalCacheHandler.class);
 
+    private static final Pattern HEX_CODE_PATTERN = Pattern
+            .compile("0000( +[0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f])+");
+
+    /*
+     * Executor shared by all GlobalCache handlers for running the command processors and the reply readers. It is
+     * owned by the handler factory.
+     */
+    private final ExecutorService commandExecutor;
+
+    /*
+     * Cache of the codes looked up in the MAP files (and converted to GC format), shared by all GlobalCache handlers.
+     * The cache is keyed by MAP file and command.
+     */
+    private static final Map<String, CachedCode> codeCache = new ConcurrentHashMap<String, CachedCode>();
+
     private InetAddress ifAddress;
     private CommandProcessor commandProcessor;
-    ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(MAX_GC_DEVICES);
     ScheduledFuture<?> scheduledFuture;
 
     private LinkedBlockingQueue<RequestMessage> sendQueue = null;
@@ -74,8 +95,9 @@ public class GlobalCacheHandler extends BaseThingHandler {
     // IR transaction counter
     private AtomicInteger irCounter;
 
-    public GlobalCacheHandler(Thing gcDevice) {
+    public GlobalCacheHandler(Thing gcDevice, ExecutorService commandExecutor) {
         super(gcDevice);
+        this.commandExecutor = commandExecutor;
         irCounter = new AtomicInteger(1);
         commandProcessor = new CommandProcessor();
         scheduledFuture = null;
@@ -97,7 +119,12 @@ public class GlobalCacheHandler extends BaseThingHandler {
             markThingOfflineWithError(ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, "No suitable network interface");
             return;
         }
-        scheduledFuture = scheduledExecutorService.schedule(commandProcessor, 2, TimeUnit.SECONDS);
+        scheduledFuture = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                commandExecutor.execute(commandProcessor);
+            }
+        }, 2, TimeUnit.SECONDS);
     }
 
     @Override
@@ -109,6 +136,16 @@ public class GlobalCacheHandler extends BaseThingHandler {
         }
     }
 
+    @Override
+    public void handleConfigurationUpdate(Map<String, Object> configurationParameters) {
+        Configuration configuration = getConfig();
+        String oldMapFile = (String) configuration.get(THING_CONFIG_MAP_FILENAME);
+        if (oldMapFile != null) {
+            invalidateCodeCache(oldMapFile);
+        }
+        super.handleConfigurationUpdate(configurationParameters);
+    }
+
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (command == null) {
@@ -234,6 +271,30 @@ public class GlobalCacheHandler extends BaseThingHandler {
             return null;
         }
 
+        // Use the previously transformed (and converted) code unless the MAP file has changed since
+        long mapFileModified = getMapFileLastModified(mapFile);
+        String cacheKey = mapFile + '\n' + command.toString();
+        CachedCode cachedCode = codeCache.get(cacheKey);
+        if (cachedCode != null) {
+            if (cachedCode.getMapFileModified() == mapFileModified) {
+                logger.trace("Using cached code for {} from map file '{}'", command, mapFile);
+                return cachedCode.getCode();
+            }
+            logger.debug("Map file '{}' has changed, invalidating cached codes", mapFile);
+            invalidateCodeCache(mapFile);
+        }
+
+        String code = transformCode(command, mapFile);
+        if (code != null) {
+            codeCache.put(cacheKey, new CachedCode(mapFile, code, mapFileModified));
+        }
+        return code;
+    }
+
+    /*
+     * Transform the command using the MAP file, converting hex codes to GC format.
+     */
+    private String transformCode(Command command, String mapFile) {
         TransformationService transformService = TransformationHelper.getTransformationService(bundleContext, "MAP");
         if (transformService == null) {
             logger.error("Failed to get MAP transformation service for thing {}; is bundle installed?", thingID());
@@ -271,12 +332,32 @@ public class GlobalCacheHandler extends BaseThingHandler {
         return code;
     }
 
+    /*
+     * Get the modification time of the MAP file in the transform directory, or 0 if it cannot be determined.
+     */
+    private long getMapFileLastModified(String mapFile) {
+        File file = new File(ConfigConstants.getConfigFolder() + File.separator
+                + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + mapFile);
+        return file.lastModified();
+    }
+
+    /*
+     * Remove all cached codes of the MAP file
+     */
+    private static void invalidateCodeCache(String mapFile) {
+        Iterator<CachedCode> iterator = codeCache.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getMapFile().equals(mapFile)) {
+                iterator.remove();
+            }
+        }
+    }
+
     /*
      * Check if the string looks like a hex code; if not then assume it's GC format
      */
     private boolean isHexCode(String code) {
-        Pattern pattern = Pattern.compile("0000( +[0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f])+");
-        return pattern.matcher(code).find();
+        return HEX_CODE_PATTERN.matcher(code).find();
     }
 
     /*
@@ -394,6 +475,36 @@ public class GlobalCacheHandler extends BaseThingHandler {
         return thing.getStatusInfo().getStatusDetail();
     }
 
+    /**
+     * The {@link CachedCode} class holds a code looked up in a MAP file, together with the modification time of the
+     * MAP file at the time of the lookup.
+     *
+     * @author agent - Initial contribution
+     */
+    private static class CachedCode {
+        private final String mapFile;
+        private final String code;
+        private final long mapFileModified;
+
+        CachedCode(String mapFile, String code, long mapFileModified) {
+            this.mapFile = mapFile;
+            this.code = code;
+            this.mapFileModified = mapFileModified;
+        }
+
+        public String getMapFile() {
+            return mapFile;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public long getMapFileModified() {
+            return mapFileModified;
+        }
+    }
+
     /**
      * The {@link HexCodeConversionException} class is responsible for
      *
@@ -410,13 +521,18 @@ public class GlobalCacheHandler extends BaseThingHandler {
     /**
      * The {@link CommandProcessor} class is responsible for handling communication with the GlobalCache
      * device. It waits for requests to arrive on a queue. When a request arrives, it sends the command to the
-     * GlobalCache device, waits for a response from the device, parses the response, then responds to the caller by
-     * placing a message in a response queue. Device response time is typically well below 100 ms, hence the reason
-     * fgor a relatively low timeout when reading the response queue.
+     * GlobalCache device without waiting for the reply of the device. The {@link ReplyReader} reads the replies and
+     * hands each reply to the processor, which then responds to the caller by placing a message in the caller's
+     * response queue.
+     *
+     * Commands for different module:connector addresses are pipelined, i.e. a command for connector 1:2 is sent while
+     * the command for connector 1:1 is still being executed by the device. Commands for the same module:connector
+     * are sent one after the other, the next one when the reply for the previous one has been received. Commands
+     * which do not address a connector (e.g. getversion) are sent only when no other command is outstanding.
      *
      * @author Mark Hilbush - Initial contribution
      */
-    private class CommandProcessor extends Thread {
+    private class CommandProcessor implements Runnable {
         private Logger logger = LoggerFactory.getLogger(CommandProcessor.class);
 
         private boolean terminate = false;
@@ -425,10 +541,22 @@ public class GlobalCacheHandler extends BaseThingHandler {
         private final int SEND_QUEUE_MAX_DEPTH = 10;
         private final int SEND_QUEUE_TIMEOUT = 2000;
 
+        // Time to wait for the reply of the device; callers give up after 3 seconds
+        private final int REPLY_TIMEOUT = 2500;
+        private final int REPLY_CHECK_INTERVAL = 250;
+
+        // Address used for commands which do not address a specific module:connector
+        private final String ANY_ADDRESS = "*";
+
         ConnectionManager connectionManager;
 
+        // Requests waiting to be sent to the device, in order of arrival
+        private final LinkedList<RequestMessage> pendingRequests = new LinkedList<RequestMessage>();
+
+        // Requests sent to the device and waiting for the reply, by module:connector address
+        private final Map<String, OutstandingRequest> outstandingRequests = new LinkedHashMap<>();
+
         public CommandProcessor() {
-            super("GlobalCache Command Processor");
             sendQueue = new LinkedBlockingQueue<RequestMessage>(SEND_QUEUE_MAX_DEPTH);
             logger.debug("Processor for thing {} created request queue, depth={}", thingID(), SEND_QUEUE_MAX_DEPTH);
         }
@@ -448,45 +576,33 @@ public class GlobalCacheHandler extends BaseThingHandler {
         @Override
         public void run() {
             logger.debug("Command processor STARTING for thing {} at IP {}", thingID(), getIP());
-            connectionManager = new ConnectionManager();
-            connectionManager.connect();
+            connectionManager = new ConnectionManager(this);
+            synchronized (this) {
+                connectionManager.connect();
+            }
             connectionManager.scheduleConnectionMonitorJob();
             sendQueue.clear();
             terminate = false;
 
             try {
                 RequestMessage requestMessage;
+                int pollTimeout = SEND_QUEUE_TIMEOUT;
                 while (!terminate) {
-                    requestMessage = sendQueue.poll(SEND_QUEUE_TIMEOUT, TimeUnit.MILLISECONDS);
-                    if (requestMessage != null) {
-                        if (requestMessage.getCommandName().equals(TERMINATE_COMMAND)) {
-                            logger.debug("Processor for thing {} received terminate message", thingID());
-                            break;
-                        }
+                    requestMessage = sendQueue.poll(pollTimeout, TimeUnit.MILLISECONDS);
+                    if (requestMessage != null && requestMessage.getCommandName().equals(TERMINATE_COMMAND)) {
+                        logger.debug("Processor for thing {} received terminate message", thingID());
+                        break;
+                    }
 
-                        String deviceReply;
-                        connectionManager.connect();
-                        if (connectionManager.isConnected()) {
-                            try {
-                                long startTime = System.currentTimeMillis();
-                                writeCommandToDevice(requestMessage);
-                                deviceReply = readReplyFromDevice(requestMessage);
-                                long endTime = System.currentTimeMillis();
-                                logger.debug("Transaction '{}' for thing {} at {} took {} ms",
-                                        requestMessage.getCommandName(), thingID(), getIP(), endTime - startTime);
-
-                            } catch (IOException e) {
-                                logger.error("Comm error for thing {} at {}: {}", thingID(), getIP(), e.getMessage());
-                                deviceReply = "ERROR: " + e.getMessage();
-                                connectionManager.setCommError(deviceReply);
-                                connectionManager.disconnect();
-                            }
-                        } else {
-                            deviceReply = "ERROR: " + "No connection to device";
+                    synchronized (this) {
+                        if (requestMessage != null) {
+                            pendingRequests.add(requestMessage);
                         }
+                        expireOutstandingRequests();
+                        sendPendingRequests();
 
-                        logger.trace("Processor for thing {} queuing response message: {}", thingID(), deviceReply);
-                        requestMessage.getReceiveQueue().put(new ResponseMessage(deviceReply));
+                        // Check for missing replies more often while commands are outstanding
+                        pollTimeout = outstandingRequests.isEmpty() ? SEND_QUEUE_TIMEOUT : REPLY_CHECK_INTERVAL;
                     }
                 }
             } catch (InterruptedException e) {
@@ -495,11 +611,187 @@ public class GlobalCacheHandler extends BaseThingHandler {
             }
 
             connectionManager.cancelConnectionMonitorJob();
-            connectionManager.disconnect();
+            synchronized (this) {
+                failAllRequests("ERROR: " + "Command processor terminated");
+                connectionManager.disconnect();
+            }
             connectionManager = null;
             logger.debug("Command processor TERMINATING for thing {} at IP {}", thingID(), getIP());
         }
 
+        /*
+         * Send the pending requests whose module:connector address is not busy, keeping the order of the requests
+         * for each address.
+         */
+        private void sendPendingRequests() {
+            Iterator<RequestMessage> iterator = pendingRequests.iterator();
+            while (iterator.hasNext() && !outstandingRequests.containsKey(ANY_ADDRESS)) {
+                RequestMessage requestMessage = iterator.next();
+                String address = getAddress(requestMessage);
+
+                if (ANY_ADDRESS.equals(address)) {
+                    if (!outstandingRequests.isEmpty()) {
+                        // Wait until all outstanding commands are complete, and keep later commands behind this one
+                        return;
+                    }
+                } else if (outstandingRequests.containsKey(address)) {
+                    continue;
+                }
+
+                iterator.remove();
+                sendRequest(requestMessage, address);
+            }
+        }
+
+        private void sendRequest(RequestMessage requestMessage, String address) {
+            connectionManager.connect();
+            if (!connectionManager.isConnected()) {
+                respond(requestMessage, "ERROR: " + "No connection to device");
+                return;
+            }
+
+            try {
+                writeCommandToDevice(requestMessage);
+            } catch (IOException e) {
+                logger.error("Comm error for thing {} at {}: {}", thingID(), getIP(), e.getMessage());
+                String deviceReply = "ERROR: " + e.getMessage();
+                respond(requestMessage, deviceReply);
+                handleCommError(deviceReply);
+                return;
+            }
+
+            // Nothing to wait for if it's a serial command, as the device won't reply to serial commands
+            if (requestMessage.isSerial()) {
+                respond(requestMessage, "successful");
+            } else {
+                outstandingRequests.put(address, new OutstandingRequest(requestMessage));
+            }
+        }
+
+        /*
+         * Called by the reply reader when a reply has been read from the device.
+         */
+        public synchronized void replyReceived(String deviceReply) {
+            OutstandingRequest outstandingRequest = removeOutstandingRequest(getAddress(deviceReply));
+            if (outstandingRequest == null) {
+                logger.debug("Processor for thing {} ignoring unexpected reply: {}", thingID(), deviceReply);
+                return;
+            }
+
+            logger.debug("Transaction '{}' for thing {} at {} took {} ms",
+                    outstandingRequest.getRequestMessage().getCommandName(), thingID(), getIP(),
+                    System.currentTimeMillis() - outstandingRequest.getSendTime());
+            respond(outstandingRequest.getRequestMessage(), deviceReply);
+            sendPendingRequests();
+        }
+
+        /*
+         * Called by the reply reader when reading from the device failed.
+         */
+        public synchronized void replyFailed(BufferedReader in, String errorMessage) {
+            // Ignore errors of readers of previous connections
+            if (connectionManager == null || in != connectionManager.getIn()) {
+                return;
+            }
+            logger.error("Comm error for thing {} at {}: {}", thingID(), getIP(), errorMessage);
+            handleCommError("ERROR: " + errorMessage);
+        }
+
+        private void handleCommError(String deviceReply) {
+            connectionManager.setCommError(deviceReply);
+            connectionManager.disconnect();
+            for (OutstandingRequest outstandingRequest : outstandingRequests.values()) {
+                respond(outstandingRequest.getRequestMessage(), deviceReply);
+            }
+            outstandingRequests.clear();
+        }
+
+        /*
+         * Find the outstanding request the reply belongs to. Replies without module:connector address (e.g. version
+         * or Flex error replies) belong to the oldest outstanding request.
+         */
+        private OutstandingRequest removeOutstandingRequest(String replyAddress) {
+            if (replyAddress != null && outstandingRequests.containsKey(replyAddress)) {
+                return outstandingRequests.remove(replyAddress);
+            }
+            Iterator<OutstandingRequest> iterator = outstandingRequests.values().iterator();
+            if (replyAddress == null && iterator.hasNext()) {
+                OutstandingRequest outstandingRequest = iterator.next();
+                iterator.remove();
+                return outstandingRequest;
+            }
+            return null;
+        }
+
+        private void expireOutstandingRequests() {
+            long now = System.currentTimeMillis();
+            Iterator<OutstandingRequest> iterator = outstandingRequests.values().iterator();
+            while (iterator.hasNext()) {
+                OutstandingRequest outstandingRequest = iterator.next();
+                if (now - outstandingRequest.getSendTime() > REPLY_TIMEOUT) {
+                    iterator.remove();
+                    logger.debug("Processor for thing {} timed out waiting for reply to '{}'", thingID(),
+                            outstandingRequest.getRequestMessage().getCommandName());
+                    respond(outstandingRequest.getRequestMessage(), "ERROR: " + "Timed out waiting for reply");
+                }
+            }
+        }
+
+        private void failAllRequests(String deviceReply) {
+            for (OutstandingRequest outstandingRequest : outstandingRequests.values()) {
+                respond(outstandingRequest.getRequestMessage(), deviceReply);
+            }
+            outstandingRequests.clear();
+            for (RequestMessage requestMessage : pendingRequests) {
+                respond(requestMessage, deviceReply);
+            }
+            pendingRequests.clear();
+        }
+
+        private void respond(RequestMessage requestMessage, String deviceReply) {
+            logger.trace("Processor for thing {} queuing response message: {}", thingID(), deviceReply);
+            // The caller may have given up already, so don't block on a full response queue
+            requestMessage.getReceiveQueue().offer(new ResponseMessage(deviceReply));
+        }
+
+        /*
+         * Get the module:connector address of the command, e.g. 1:3 for sendir,1:3,1,38000,...
+         */
+        private String getAddress(RequestMessage requestMessage) {
+            if (requestMessage.isSerial()) {
+                return requestMessage.getCommandType().name();
+            }
+            String address = getField(requestMessage.getDeviceCommand(), 1);
+            return isAddress(address) ? address : ANY_ADDRESS;
+        }
+
+        /*
+         * Get the module:connector address of the reply, e.g. 1:3 for completeir,1:3,1 or ERR_1:3,001
+         */
+        private String getAddress(String deviceReply) {
+            if (deviceReply.startsWith("ERR_")) {
+                String address = deviceReply.length() >= 7 ? deviceReply.substring(4, 7) : null;
+                return isAddress(address) ? address : null;
+            }
+            String address = getField(deviceReply, 1);
+            return isAddress(address) ? address : null;
+        }
+
+        private String getField(String message, int index) {
+            String[] fields = message.split(",", index + 2);
+            return fields.length > index ? fields[index].trim() : null;
+        }
+
+        private boolean isAddress(String address) {
+            if (address == null) {
+                return false;
+            }
+            int separator = address.indexOf(':');
+            return separator > 0 && separator < address.length() - 1
+                    && StringUtils.isNumeric(address.substring(0, separator))
+                    && StringUtils.isNumeric(address.substring(separator + 1));
+        }
+
         /*
          * Write the command to the device.
          */
@@ -532,23 +824,61 @@ public class GlobalCacheHandler extends BaseThingHandler {
             }
             return sb.toString();
         }
+    }
 
-        /*
-         * Read reply from the device, then remove the CR at the end of the line.
-         */
-        private String readReplyFromDevice(RequestMessage requestMessage) throws IOException {
-            // Nothing to do if it's a serial command, as the device won't reply to serial commands
-            if (requestMessage.isSerial()) {
-                return "successful";
-            }
+    /*
+     * The {@link OutstandingRequest} class holds a request sent to the device, which is waiting for the reply.
+     *
+     * @author agent - Initial contribution
+     */
+    private static class OutstandingRequest {
+        private final RequestMessage requestMessage;
+        private final long sendTime;
 
-            if (connectionManager.getIn() == null) {
-                logger.debug("Error reading from device because input stream object is null");
-                return "ERROR: BufferedReader is null!";
-            }
+        OutstandingRequest(RequestMessage requestMessage) {
+            this.requestMessage = requestMessage;
+            this.sendTime = System.currentTimeMillis();
+        }
+
+        public RequestMessage getRequestMessage() {
+            return requestMessage;
+        }
 
-            logger.trace("Processor for thing {} reading response from device", thingID());
-            return connectionManager.getIn().readLine().trim();
+        public long getSendTime() {
+            return sendTime;
+        }
+    }
+
+    /*
+     * The {@link ReplyReader} class reads the replies from the command connection of the device and hands them to the
+     * {@link CommandProcessor}. A reader is started for each connection and ends when the connection is closed.
+     *
+     * @author agent - Initial contribution
+     */
+    private class ReplyReader implements Runnable {
+        private final CommandProcessor commandProcessor;
+        private final BufferedReader in;
+
+        ReplyReader(CommandProcessor commandProcessor, BufferedReader in) {
+            this.commandProcessor = commandProcessor;
+            this.in = in;
+        }
+
+        @Override
+        public void run() {
+            try {
+                String deviceReply;
+                while ((deviceReply = in.readLine()) != null) {
+                    deviceReply = deviceReply.trim();
+                    if (!deviceReply.isEmpty()) {
+                        logger.trace("Reader for thing {} read reply from device: {}", thingID(), deviceReply);
+                        commandProcessor.replyReceived(deviceReply);
+                    }
+                }
+                commandProcessor.replyFailed(in, "Connection closed by device");
+            } catch (IOException e) {
+                commandProcessor.replyFailed(in, e.getMessage());
+            }
         }
     }
 
@@ -577,6 +907,8 @@ public class GlobalCacheHandler extends BaseThingHandler {
 
         private final int SOCKET_CONNECT_TIMEOUT = 1500;
 
+        private final CommandProcessor commandProcessor;
+
         ScheduledFuture<?> connectionMonitorJob;
         private final int CONNECTION_MONITOR_FREQUENCY = 60;
         private final int CONNECTION_MONITOR_START_DELAY = 15;
@@ -589,7 +921,8 @@ public class GlobalCacheHandler extends BaseThingHandler {
             }
         };
 
-        public ConnectionManager() {
+        public ConnectionManager(CommandProcessor commandProcessor) {
+            this.commandProcessor = commandProcessor;
             commandConnection = new DeviceConnection(COMMAND_NAME, COMMAND_PORT);
             serial1Connection = new DeviceConnection(SERIAL1_NAME, SERIAL1_PORT);
             serial2Connection = new DeviceConnection(SERIAL2_NAME, SERIAL2_PORT);
@@ -612,12 +945,19 @@ public class GlobalCacheHandler extends BaseThingHandler {
 
         /*
          * Connect to the command and serial port(s) on the device. The serial connections are established only for
-         * devices that support serial.
+         * devices that support serial. Once connected, a {@link ReplyReader} is started for the command connection.
          */
-        protected void connect() {
+        protected synchronized void connect() {
             if (isConnected()) {
                 return;
             }
+            doConnect();
+            if (isConnected()) {
+                commandExecutor.execute(new ReplyReader(commandProcessor, getIn()));
+            }
+        }
+
+        private void doConnect() {
 
             // If device doesn't have a serial module, just open the command connection
             if (!deviceSupportsSerial1()) {
@@ -677,7 +1017,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
             return true;
         }
 
-        protected void disconnect() {
+        protected synchronized void disconnect() {
             if (!isConnected()) {
                 return;
             }
@@ -10,11 +10,17 @@ package org.openhab.binding.globalcache.internal;
 
 import static org.openhab.binding.globalcache.GlobalCacheBindingConstants.SUPPORTED_THING_TYPES_UIDS;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.openhab.binding.globalcache.handler.GlobalCacheHandler;
+import org.osgi.service.component.ComponentContext;
 
 /**
  * The {@link GlobalCacheHandlerFactory} is responsible for creating thing handlers.
@@ -23,6 +29,34 @@ import org.openhab.binding.globalcache.handler.GlobalCacheHandler;
  */
 public class GlobalCacheHandlerFactory extends BaseThingHandlerFactory {
 
+    /*
+     * Executor shared by all GlobalCache handlers for running the command processors and the reply readers.
+     * Threads are created on demand and end when they have been idle for a minute.
+     */
+    private ExecutorService commandExecutor;
+
+    @Override
+    protected void activate(ComponentContext componentContext) {
+        super.activate(componentContext);
+        commandExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger threadCounter = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "GlobalCache-" + threadCounter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    protected void deactivate(ComponentContext componentContext) {
+        super.deactivate(componentContext);
+        commandExecutor.shutdownNow();
+        commandExecutor = null;
+    }
+
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
         return SUPPORTED_THING_TYPES_UIDS.contains(thingTypeUID);
@@ -34,7 +68,7 @@ public class GlobalCacheHandlerFactory extends BaseThingHandlerFactory {
         ThingTypeUID thingTypeUID = thing.getThingTypeUID();
 
         if (SUPPORTED_THING_TYPES_UIDS.contains(thingTypeUID)) {
-            return new GlobalCacheHandler(thing);
+            return new GlobalCacheHandler(thing, commandExecutor);
         }
 
         return null;
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.handler;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.builder.ChannelBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.converter.ConverterFactory;
+import org.openhab.binding.homematic.converter.TypeConverter;
+import org.openhab.binding.homematic.handler.HomematicThingHandler.ChannelRoute;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+import org.openhab.binding.homematic.type.UidUtils;
+
+/**
+ * Tests the dispatch of datapoint events through the routing table of the {@link HomematicThingHandler}. The routes
+ * must resolve the same channels and converters as the lookup they replaced, which generated the channel UID, searched
+ * the channel in the thing and resolved the converter for every event.
+ *
+ * @author agent - Initial contribution
+ */
+public class HomematicThingHandlerRoutingTest {
+
+    private static final String ADDRESS = "ABC1234567";
+    private static final String ITEM_TYPE = "Number";
+    private static final int CHANNELS = 20;
+    private static final int DATAPOINTS_PER_CHANNEL = 10;
+
+    private Thing thing;
+    private List<HmDatapoint> datapoints;
+    private HomematicThingHandler handler;
+
+    @Before
+    public void setUp() {
+        HmDevice device = new HmDevice();
+        device.setAddress(ADDRESS);
+
+        ThingUID thingUID = new ThingUID(new ThingTypeUID("homematic", "HM-Test"), ADDRESS);
+        ThingBuilder thingBuilder = ThingBuilder.create(new ThingTypeUID("homematic", "HM-Test"), thingUID);
+        datapoints = new ArrayList<HmDatapoint>();
+        for (int channelNumber = 1; channelNumber <= CHANNELS; channelNumber++) {
+            HmChannel channel = new HmChannel();
+            channel.setNumber(channelNumber);
+            device.addChannel(channel);
+            for (int i = 0; i < DATAPOINTS_PER_CHANNEL; i++) {
+                HmDatapoint dp = new HmDatapoint("DATAPOINT_" + i, "", HmValueType.INTEGER, 0, false,
+                        HmParamsetType.VALUES);
+                channel.addDatapoint(dp);
+                datapoints.add(dp);
+                thingBuilder.withChannel(ChannelBuilder.create(UidUtils.generateChannelUID(dp, thingUID), ITEM_TYPE)
+                        .build());
+            }
+        }
+        thing = thingBuilder.build();
+
+        handler = new HomematicThingHandler(thing);
+        handler.buildRoutes();
+    }
+
+    /**
+     * The lookup of a datapoint event before the routing table was introduced.
+     */
+    private TypeConverter<?> lookup(HmDatapoint dp) throws Exception {
+        ChannelUID channelUID = UidUtils.generateChannelUID(dp, thing.getUID());
+        Channel channel = thing.getChannel(channelUID.getId());
+        return channel == null ? null : ConverterFactory.createConverter(channel.getAcceptedItemType());
+    }
+
+    @Test
+    public void routesResolveTheSameChannelsAsTheLookup() throws Exception {
+        for (HmDatapoint dp : datapoints) {
+            ChannelRoute route = handler.getRoute(dp);
+            assertNotNull(route);
+            assertEquals(UidUtils.generateChannelUID(dp, thing.getUID()), route.getChannelUID());
+            assertSame(lookup(dp), route.getConverter());
+        }
+    }
+
+    @Test
+    public void datapointWithoutChannelHasNoRoute() {
+        HmChannel channel = new HmChannel();
+        channel.setNumber(CHANNELS + 1);
+        HmDevice device = new HmDevice();
+        device.setAddress(ADDRESS);
+        device.addChannel(channel);
+        HmDatapoint dp = new HmDatapoint("DATAPOINT_0", "", HmValueType.INTEGER, 0, false, HmParamsetType.VALUES);
+        channel.addDatapoint(dp);
+
+        assertNull(handler.getRoute(dp));
+    }
+}
@@ -10,8 +10,8 @@ package org.openhab.binding.homematic.converter;
 
 import static org.openhab.binding.homematic.HomematicBindingConstants.*;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openhab.binding.homematic.converter.type.DecimalTypeConverter;
 import org.openhab.binding.homematic.converter.type.OnOffTypeConverter;
@@ -25,7 +25,7 @@ import org.openhab.binding.homematic.converter.type.StringTypeConverter;
  * @author Gerhard Riegler - Initial contribution
  */
 public class ConverterFactory {
-    private static Map<String, TypeConverter<?>> converterCache = new HashMap<String, TypeConverter<?>>();
+    private static Map<String, TypeConverter<?>> converterCache = new ConcurrentHashMap<String, TypeConverter<?>>();
 
     /**
      * Returns the converter for a itemType.
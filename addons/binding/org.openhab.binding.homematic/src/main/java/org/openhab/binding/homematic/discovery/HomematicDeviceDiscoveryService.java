@@ -106,6 +106,7 @@ public class HomematicDeviceDiscoveryService extends AbstractDiscoveryService {
                 public void run() {
                     try {
                         bridgeHandler.getGateway().loadAllDeviceMetadata();
+                        bridgeHandler.waitForTypeGeneration();
                         bridgeHandler.getTypeGenerator().validateFirmwares();
                         logger.debug("Finished Homematic device discovery scan on gateway '{}'",
                                 bridgeHandler.getGateway().getId());
@@ -10,6 +10,11 @@ package org.openhab.binding.homematic.handler;
 
 import java.io.IOException;
 import java.util.Hashtable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
@@ -49,6 +54,8 @@ public class HomematicBridgeHandler extends BaseBridgeHandler implements Homemat
     private HomematicConfig config;
     private HomematicGateway gateway;
     private HomematicTypeGenerator typeGenerator;
+    // generates the types of the loaded devices while the metadata of the next devices is loaded
+    private volatile ExecutorService typeGenerationExecutor;
 
     private HomematicDeviceDiscoveryService discoveryService;
     private ServiceRegistration<?> discoveryServiceRegistration;
@@ -64,6 +71,19 @@ public class HomematicBridgeHandler extends BaseBridgeHandler implements Homemat
     @Override
     public void initialize() {
         config = createHomematicConfig();
+        synchronized (this) {
+            if (typeGenerationExecutor == null) {
+                final String threadName = "Homematic type generator " + getThing().getUID().getId();
+                typeGenerationExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+        }
         registerDeviceDiscoveryService();
         final HomematicBridgeHandler instance = this;
         scheduler.execute(new Runnable() {
@@ -128,6 +148,12 @@ public class HomematicBridgeHandler extends BaseBridgeHandler implements Homemat
             portPool.release(config.getXmlCallbackPort());
             portPool.release(config.getBinCallbackPort());
         }
+        synchronized (this) {
+            if (typeGenerationExecutor != null) {
+                typeGenerationExecutor.shutdownNow();
+                typeGenerationExecutor = null;
+            }
+        }
     }
 
     /**
@@ -289,10 +315,60 @@ public class HomematicBridgeHandler extends BaseBridgeHandler implements Homemat
      * {@inheritDoc}
      */
     @Override
-    public void onDeviceLoaded(HmDevice device) {
-        typeGenerator.generate(device);
-        if (discoveryService != null) {
-            discoveryService.deviceDiscovered(device);
+    public void onDeviceLoaded(final HmDevice device) {
+        ExecutorService executor = typeGenerationExecutor;
+        if (executor == null) {
+            generateTypes(device);
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    generateTypes(device);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            logger.debug("Bridge '{}' disposed, not generating the types of device '{}'",
+                    getThing().getUID().getId(), device.getAddress());
+        }
+    }
+
+    /**
+     * Generates the types of the device and adds it to the inbox.
+     */
+    private void generateTypes(HmDevice device) {
+        try {
+            typeGenerator.generate(device);
+            if (discoveryService != null) {
+                discoveryService.deviceDiscovered(device);
+            }
+        } catch (Exception ex) {
+            logger.error("Can't generate the types of device '{}': {}", device.getAddress(), ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Waits until the types of all loaded devices have been generated.
+     */
+    public void waitForTypeGeneration() {
+        ExecutorService executor = typeGenerationExecutor;
+        if (executor != null) {
+            try {
+                Future<?> future = executor.submit(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        // all previously loaded devices have been processed
+                    }
+                });
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                logger.debug("Error waiting for the type generation: {}", ex.getMessage());
+            }
         }
     }
 
@@ -13,6 +13,8 @@ import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -58,6 +60,10 @@ import org.slf4j.LoggerFactory;
 public class HomematicThingHandler extends BaseThingHandler {
     private Logger logger = LoggerFactory.getLogger(HomematicThingHandler.class);
 
+    // routing tables between the datapoints and the channels of the thing, rebuilt on initialization
+    private volatile Map<HmDatapointInfo, ChannelRoute> routesByDatapoint = Collections.emptyMap();
+    private volatile Map<ChannelUID, ChannelRoute> routesByChannel = Collections.emptyMap();
+
     public HomematicThingHandler(Thing thing) {
         super(thing);
     }
@@ -67,6 +73,7 @@ public class HomematicThingHandler extends BaseThingHandler {
      */
     @Override
     public void initialize() {
+        buildRoutes();
         scheduler.execute(new Runnable() {
 
             @Override
@@ -116,6 +123,29 @@ public class HomematicThingHandler extends BaseThingHandler {
         });
     }
 
+    /**
+     * Builds the routing tables for all channels of the thing, so events and commands don't have to look up the
+     * channel, the converter and the channel config each time.
+     */
+    void buildRoutes() {
+        Map<HmDatapointInfo, ChannelRoute> newRoutesByDatapoint = new HashMap<HmDatapointInfo, ChannelRoute>();
+        Map<ChannelUID, ChannelRoute> newRoutesByChannel = new HashMap<ChannelUID, ChannelRoute>();
+        for (Channel channel : getThing().getChannels()) {
+            ChannelRoute route = new ChannelRoute(channel);
+            newRoutesByDatapoint.put(route.dpInfo, route);
+            newRoutesByChannel.put(channel.getUID(), route);
+        }
+        routesByDatapoint = Collections.unmodifiableMap(newRoutesByDatapoint);
+        routesByChannel = Collections.unmodifiableMap(newRoutesByChannel);
+    }
+
+    /**
+     * Returns the route of the channel of the datapoint, or null if the thing has no channel for it.
+     */
+    ChannelRoute getRoute(HmDatapoint dp) {
+        return routesByDatapoint.get(new HmDatapointInfo(dp));
+    }
+
     /**
      * Sets a thing property with a datapoint value.
      */
@@ -152,7 +182,8 @@ public class HomematicThingHandler extends BaseThingHandler {
         HmDatapoint dp = null;
         try {
             HomematicGateway gateway = getHomematicGateway();
-            HmDatapointInfo dpInfo = UidUtils.createHmDatapointInfo(channelUID);
+            ChannelRoute route = routesByChannel.get(channelUID);
+            HmDatapointInfo dpInfo = route != null ? route.dpInfo : UidUtils.createHmDatapointInfo(channelUID);
             if (RefreshType.REFRESH == command) {
                 logger.debug("Refreshing {}", dpInfo);
                 dpInfo = new HmDatapointInfo(dpInfo.getAddress(), HmParamsetType.VALUES, 0,
@@ -160,23 +191,21 @@ public class HomematicThingHandler extends BaseThingHandler {
                 dp = gateway.getDatapoint(dpInfo);
                 gateway.sendDatapoint(dp, new HmDatapointConfig(), Boolean.TRUE);
             } else {
-                Channel channel = getThing().getChannel(channelUID.getId());
-                if (channel == null) {
+                if (route == null) {
                     logger.warn("Channel '{}' not found in thing '{}' on gateway '{}'", channelUID, getThing().getUID(),
                             gateway.getId());
                 } else {
                     if (StopMoveType.STOP == command && DATAPOINT_NAME_LEVEL.equals(dpInfo.getName())) {
                         // special case with stop type (rollershutter)
-                        dpInfo.setName(DATAPOINT_NAME_STOP);
-                        HmDatapoint stopDp = gateway.getDatapoint(dpInfo);
+                        HmDatapointInfo stopDpInfo = new HmDatapointInfo(dpInfo.getAddress(), dpInfo.getParamsetType(),
+                                dpInfo.getChannel(), DATAPOINT_NAME_STOP);
+                        HmDatapoint stopDp = gateway.getDatapoint(stopDpInfo);
                         ChannelUID stopChannelUID = UidUtils.generateChannelUID(stopDp, getThing().getUID());
                         handleCommand(stopChannelUID, OnOffType.ON);
                     } else {
                         dp = gateway.getDatapoint(dpInfo);
-                        TypeConverter<?> converter = ConverterFactory.createConverter(channel.getAcceptedItemType());
-                        Object newValue = converter.convertToBinding(command, dp);
-                        HmDatapointConfig config = getChannelConfig(channel, dp);
-                        gateway.sendDatapoint(dp, config, newValue);
+                        Object newValue = route.getConverter().convertToBinding(command, dp);
+                        gateway.sendDatapoint(dp, route.config, newValue);
                     }
                 }
             }
@@ -203,10 +232,11 @@ public class HomematicThingHandler extends BaseThingHandler {
     private void updateChannelState(ChannelUID channelUID)
             throws BridgeHandlerNotAvailableException, HomematicClientException, IOException, ConverterException {
         HomematicGateway gateway = getHomematicGateway();
-        HmDatapointInfo dpInfo = UidUtils.createHmDatapointInfo(channelUID);
-        HmDatapoint dp = gateway.getDatapoint(dpInfo);
-        Channel channel = getThing().getChannel(channelUID.getId());
-        updateChannelState(dp, channel);
+        ChannelRoute route = routesByChannel.get(channelUID);
+        if (route != null) {
+            HmDatapoint dp = gateway.getDatapoint(route.dpInfo);
+            updateChannelState(dp, route);
+        }
     }
 
     /**
@@ -224,10 +254,9 @@ public class HomematicThingHandler extends BaseThingHandler {
                 updateConfiguration(config);
             } else if (!HomematicTypeGeneratorImpl.isIgnoredDatapoint(dp)) {
                 // update channel
-                ChannelUID channelUID = UidUtils.generateChannelUID(dp, thing.getUID());
-                Channel channel = thing.getChannel(channelUID.getId());
-                if (channel != null) {
-                    updateChannelState(dp, channel);
+                ChannelRoute route = getRoute(dp);
+                if (route != null) {
+                    updateChannelState(dp, route);
                 } else {
                     logger.warn("Channel not found for datapoint '{}'", new HmDatapointInfo(dp));
                 }
@@ -242,15 +271,14 @@ public class HomematicThingHandler extends BaseThingHandler {
     /**
      * Converts the value of the datapoint to a State, updates the channel and also sets the thing status if necessary.
      */
-    private void updateChannelState(final HmDatapoint dp, Channel channel)
+    private void updateChannelState(final HmDatapoint dp, ChannelRoute route)
             throws IOException, BridgeHandlerNotAvailableException, ConverterException {
 
-        if (isLinked(channel)) {
+        if (isLinked(route.channelUID.getId())) {
             loadHomematicChannelValues(dp.getChannel());
 
-            TypeConverter<?> converter = ConverterFactory.createConverter(channel.getAcceptedItemType());
-            State state = converter.convertFromBinding(dp);
-            updateState(channel.getUID(), state);
+            State state = route.getConverter().convertFromBinding(dp);
+            updateState(route.channelUID, state);
         }
     }
 
@@ -313,20 +341,6 @@ public class HomematicThingHandler extends BaseThingHandler {
         super.updateStatus(status);
     }
 
-    /**
-     * Returns true, if the channel is linked at least to one item.
-     */
-    private boolean isLinked(Channel channel) {
-        return channel != null && super.isLinked(channel.getUID().getId());
-    }
-
-    /**
-     * Returns the config for a channel.
-     */
-    private HmDatapointConfig getChannelConfig(Channel channel, HmDatapoint dp) {
-        return channel.getConfiguration().as(HmDatapointConfig.class);
-    }
-
     /**
      * Returns the Homematic gateway if the bridge is available.
      */
@@ -395,4 +409,47 @@ public class HomematicThingHandler extends BaseThingHandler {
             logger.error("Error setting thing properties: {}", ex.getMessage(), ex);
         }
     }
+
+    /**
+     * The datapoint, the converter and the config of a channel.
+     */
+    static class ChannelRoute {
+        private final ChannelUID channelUID;
+        private final HmDatapointInfo dpInfo;
+        private final String itemType;
+        private final TypeConverter<?> converter;
+        private final HmDatapointConfig config;
+
+        public ChannelRoute(Channel channel) {
+            this.channelUID = channel.getUID();
+            this.dpInfo = UidUtils.createHmDatapointInfo(channelUID);
+            this.itemType = channel.getAcceptedItemType();
+            this.config = channel.getConfiguration().as(HmDatapointConfig.class);
+
+            TypeConverter<?> channelConverter = null;
+            try {
+                channelConverter = itemType == null ? null : ConverterFactory.createConverter(itemType);
+            } catch (ConverterException ex) {
+                // reported when the converter is used
+            }
+            this.converter = channelConverter;
+        }
+
+        /**
+         * Returns the UID of the channel.
+         */
+        public ChannelUID getChannelUID() {
+            return channelUID;
+        }
+
+        /**
+         * Returns the converter for the item type of the channel.
+         */
+        public TypeConverter<?> getConverter() throws ConverterException {
+            if (converter == null) {
+                throw new ConverterException("Can't find a converter for type '" + itemType + "'");
+            }
+            return converter;
+        }
+    }
 }
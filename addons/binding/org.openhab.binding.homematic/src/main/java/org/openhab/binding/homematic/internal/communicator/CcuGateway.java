@@ -10,21 +10,32 @@ package org.openhab.binding.homematic.internal.communicator;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
 import org.eclipse.jetty.client.util.StringContentProvider;
 import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownParameterSetException;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownRpcFailureException;
+import org.openhab.binding.homematic.internal.communicator.parser.CcuBulkScriptParser;
 import org.openhab.binding.homematic.internal.communicator.parser.CcuLoadDeviceNamesParser;
 import org.openhab.binding.homematic.internal.communicator.parser.CcuParamsetDescriptionParser;
 import org.openhab.binding.homematic.internal.communicator.parser.CcuValueParser;
@@ -35,6 +46,7 @@ import org.openhab.binding.homematic.internal.model.HmDevice;
 import org.openhab.binding.homematic.internal.model.HmParamsetType;
 import org.openhab.binding.homematic.internal.model.HmResult;
 import org.openhab.binding.homematic.internal.model.TclScript;
+import org.openhab.binding.homematic.internal.model.TclScriptDataEntry;
 import org.openhab.binding.homematic.internal.model.TclScriptDataList;
 import org.openhab.binding.homematic.internal.model.TclScriptList;
 import org.slf4j.Logger;
@@ -46,12 +58,40 @@ import com.thoughtworks.xstream.io.xml.StaxDriver;
 /**
  * HomematicGateway implementation for a CCU.
  *
+ * If the values or the metadata of a channel can not be loaded via RPC, they are loaded with a TclRega script. When
+ * many channels need to be loaded this way, e.g. while all things are initialized, a single script loads the data of
+ * all channels at once instead of one HTTP request per channel.
+ *
  * @author Gerhard Riegler - Initial contribution
  */
 public class CcuGateway extends AbstractHomematicGateway {
     private final Logger logger = LoggerFactory.getLogger(CcuGateway.class);
 
+    /**
+     * Number of channels loaded with a TclRega script within {@link #BULK_LOAD_WINDOW} ms, after which the data of all
+     * channels is loaded with a single script.
+     */
+    private static final int BULK_LOAD_THRESHOLD = 10;
+    private static final long BULK_LOAD_WINDOW = 60000;
+    /**
+     * The bulk scripts run considerably longer than the scripts for a single channel.
+     */
+    private static final int BULK_LOAD_TIMEOUT_FACTOR = 5;
+    /**
+     * The values are only taken from the bulk result during the loading burst, so they are at most a few seconds old.
+     */
+    private static final long BULK_VALUES_MAX_AGE = 5000;
+    private static final long BULK_DESCRIPTIONS_MAX_AGE = 300000;
+
     private Map<String, String> tclregaScripts;
+    private final BulkScriptCache bulkValues = new BulkScriptCache("getAllChannelValuesBulk", new String[] {},
+            new String[] {}, BULK_VALUES_MAX_AGE, true);
+    /**
+     * The paramset descriptions of all channels are loaded with the script for a single channel, without an address.
+     */
+    private final BulkScriptCache bulkDescriptions = new BulkScriptCache("getParamsetDescription",
+            new String[] { "device_address", "channel_number" }, new String[] { "", "" }, BULK_DESCRIPTIONS_MAX_AGE,
+            false);
     private HttpClient httpClient;
     private XStream xStream = new XStream(new StaxDriver());
 
@@ -90,6 +130,8 @@ public class CcuGateway extends AbstractHomematicGateway {
     protected void stopClients() {
         super.stopClients();
         tclregaScripts = null;
+        bulkValues.clear();
+        bulkDescriptions.clear();
         if (httpClient != null) {
             try {
                 httpClient.stop();
@@ -147,18 +189,35 @@ public class CcuGateway extends AbstractHomematicGateway {
             }
             if (dpNames.size() > 0) {
                 HmDevice device = channel.getDevice();
-                String channelName = String.format("%s.%s:%s.", device.getHmInterface().getName(), device.getAddress(),
+                String channelName = String.format("%s.%s:%s", device.getHmInterface().getName(), device.getAddress(),
                         channel.getNumber());
-                String datapointNames = StringUtils.join(dpNames.toArray(), "\\t");
-                TclScriptDataList resultList = sendScriptByName("getAllChannelValues", TclScriptDataList.class,
-                        new String[] { "channel_name", "datapoint_names" },
-                        new String[] { channelName, datapointNames });
+                TclScriptDataList resultList = bulkValues.get(channelName);
+                if (resultList != null) {
+                    retainEntries(resultList, dpNames);
+                } else {
+                    String datapointNames = StringUtils.join(dpNames.toArray(), "\\t");
+                    resultList = sendScriptByName("getAllChannelValues", TclScriptDataList.class,
+                            new String[] { "channel_name", "datapoint_names" },
+                            new String[] { channelName + ".", datapointNames });
+                }
                 new CcuValueParser(channel).parse(resultList);
                 channel.setInitialized(true);
             }
         }
     }
 
+    /**
+     * Removes all entries from the list, which are not contained in the datapoint names.
+     */
+    private void retainEntries(TclScriptDataList resultList, Collection<String> dpNames) {
+        Set<String> names = new HashSet<String>(dpNames);
+        for (Iterator<TclScriptDataEntry> it = resultList.getEntries().iterator(); it.hasNext();) {
+            if (!names.contains(it.next().name)) {
+                it.remove();
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -171,9 +230,13 @@ public class CcuGateway extends AbstractHomematicGateway {
                     "RpcMessage RPC failure (-3 Unknown paramset), fetching metadata with TclRega script for device: {}, channel: {}, paramset: {}",
                     channel.getDevice().getAddress(), channel.getNumber(), paramsetType);
 
-            TclScriptDataList resultList = sendScriptByName("getParamsetDescription", TclScriptDataList.class,
-                    new String[] { "device_address", "channel_number" },
-                    new String[] { channel.getDevice().getAddress(), channel.getNumber().toString() });
+            TclScriptDataList resultList = bulkDescriptions
+                    .get(channel.getDevice().getAddress() + ":" + channel.getNumber());
+            if (resultList == null) {
+                resultList = sendScriptByName("getParamsetDescription", TclScriptDataList.class,
+                        new String[] { "device_address", "channel_number" },
+                        new String[] { channel.getDevice().getAddress(), channel.getNumber().toString() });
+            }
             new CcuParamsetDescriptionParser(channel, paramsetType).parse(resultList);
         }
     }
@@ -218,11 +281,18 @@ public class CcuGateway extends AbstractHomematicGateway {
      */
     private <T> T sendScriptByName(String scriptName, Class<T> clazz, String[] variableNames, String[] values)
             throws IOException {
+        return sendScript(getScript(scriptName, variableNames, values), clazz);
+    }
+
+    /**
+     * Returns the TclRega script with the specified variables replaced by the values.
+     */
+    private String getScript(String scriptName, String[] variableNames, String[] values) {
         String script = tclregaScripts.get(scriptName);
         for (int i = 0; i < variableNames.length; i++) {
             script = StringUtils.replace(script, "{" + variableNames[i] + "}", values[i]);
         }
-        return sendScript(script, clazz);
+        return script;
     }
 
     /**
@@ -256,6 +326,37 @@ public class CcuGateway extends AbstractHomematicGateway {
         }
     }
 
+    /**
+     * Sends a TclRega script which returns entries of many channels to the CCU and parses the streamed result.
+     *
+     * @return the result lists by channel
+     */
+    private synchronized Map<String, TclScriptDataList> sendBulkScriptByName(String scriptName,
+            String[] variableNames, String[] values) throws IOException {
+        String script = StringUtils.trim(getScript(scriptName, variableNames, values));
+        if (StringUtils.isEmpty(script)) {
+            throw new RuntimeException("Homematic TclRegaScript is empty!");
+        }
+        long timeout = config.getTimeout() * BULK_LOAD_TIMEOUT_FACTOR;
+        try {
+            InputStreamResponseListener listener = new InputStreamResponseListener();
+            httpClient.POST(config.getTclRegaUrl()).content(new StringContentProvider(script, config.getEncoding()))
+                    .timeout(timeout, TimeUnit.SECONDS)
+                    .header(HttpHeader.CONTENT_TYPE, "text/plain;charset=" + config.getEncoding()).send(listener);
+
+            Response response = listener.get(timeout, TimeUnit.SECONDS);
+            if (response.getStatus() != HttpStatus.OK_200) {
+                throw new IOException(
+                        "TclRegaScript " + scriptName + " failed with HTTP status " + response.getStatus());
+            }
+            try (Reader reader = new InputStreamReader(listener.getInputStream(), config.getEncoding())) {
+                return new CcuBulkScriptParser().parse(reader);
+            }
+        } catch (InterruptedException | TimeoutException | ExecutionException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
     /**
      * Load predefined scripts from an XML file.
      */
@@ -273,4 +374,82 @@ public class CcuGateway extends AbstractHomematicGateway {
         return result;
     }
 
+    /**
+     * Holds the result of a bulk script for a while. The bulk script is only sent after
+     * {@link CcuGateway#BULK_LOAD_THRESHOLD} channels have requested their data within
+     * {@link CcuGateway#BULK_LOAD_WINDOW} ms, until then the channels are loaded on their own.
+     */
+    private class BulkScriptCache {
+        private final String scriptName;
+        private final String[] variableNames;
+        private final String[] values;
+        private final long maxAge;
+        private final boolean removeOnGet;
+
+        private Map<String, TclScriptDataList> resultLists;
+        private long loadTime;
+        private long windowStart;
+        private int requests;
+
+        /**
+         * @param scriptName the name of the bulk script
+         * @param variableNames the variables of the script
+         * @param values the values of the variables
+         * @param maxAge the time in ms the result of the script is used
+         * @param removeOnGet if true, the result of a channel is only returned once, so values are never loaded from
+         *            the same result twice. The result is discarded as soon as all channels have been returned.
+         */
+        public BulkScriptCache(String scriptName, String[] variableNames, String[] values, long maxAge,
+                boolean removeOnGet) {
+            this.scriptName = scriptName;
+            this.variableNames = variableNames;
+            this.values = values;
+            this.maxAge = maxAge;
+            this.removeOnGet = removeOnGet;
+        }
+
+        /**
+         * Returns the result list of the channel or null, if the channel should be loaded on its own.
+         */
+        public synchronized TclScriptDataList get(String channel) {
+            long now = System.currentTimeMillis();
+            if (resultLists != null && now - loadTime > maxAge) {
+                resultLists = null;
+            }
+            if (resultLists == null) {
+                if (now - windowStart > BULK_LOAD_WINDOW) {
+                    windowStart = now;
+                    requests = 0;
+                }
+                if (++requests < BULK_LOAD_THRESHOLD) {
+                    return null;
+                }
+                requests = 0;
+                loadTime = now;
+                try {
+                    long start = System.currentTimeMillis();
+                    resultLists = sendBulkScriptByName(scriptName, variableNames, values);
+                    logger.debug("Loaded {} channels with TclRega script {} in {} ms", resultLists.size(), scriptName,
+                            System.currentTimeMillis() - start);
+                } catch (IOException ex) {
+                    logger.debug("Can't load channels with TclRega script {}, loading them one by one: {}",
+                            scriptName, ex.getMessage());
+                    resultLists = new HashMap<String, TclScriptDataList>();
+                }
+            }
+            if (!removeOnGet) {
+                return resultLists.get(channel);
+            }
+            TclScriptDataList resultList = resultLists.remove(channel);
+            if (resultList != null && resultLists.isEmpty()) {
+                resultLists = null;
+            }
+            return resultList;
+        }
+
+        public synchronized void clear() {
+            resultLists = null;
+            requests = 0;
+        }
+    }
 }
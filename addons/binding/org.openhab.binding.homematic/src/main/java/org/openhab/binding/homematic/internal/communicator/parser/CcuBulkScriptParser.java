@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang.StringUtils;
+import org.openhab.binding.homematic.internal.model.TclScriptDataEntry;
+import org.openhab.binding.homematic.internal.model.TclScriptDataList;
+
+/**
+ * Parses the streamed result of a TclRega script which returns entries for the channels of all devices and groups the
+ * entries by channel. The response is read incrementally with a StAX reader, so the script result is never held in
+ * memory as a whole.
+ *
+ * The channel of an entry is taken from the channel attribute, e.g. <code>ABC1234567:1</code>. Without this attribute,
+ * the name of the entry has to be the full datapoint name, e.g. <code>BidCos-RF.ABC1234567:1.STATE</code>, which is
+ * split into the channel <code>BidCos-RF.ABC1234567:1</code> and the datapoint name <code>STATE</code>.
+ *
+ * @author agent - Initial contribution
+ */
+public class CcuBulkScriptParser implements RpcParser<Reader, Map<String, TclScriptDataList>> {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, TclScriptDataList> parse(Reader reader) throws IOException {
+        Map<String, TclScriptDataList> result = new HashMap<String, TclScriptDataList>();
+        XMLStreamReader xmlReader = null;
+        try {
+            xmlReader = XML_INPUT_FACTORY.createXMLStreamReader(reader);
+            int depth = 0;
+            while (xmlReader.hasNext()) {
+                int event = xmlReader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (depth == 2 && "entry".equals(xmlReader.getLocalName())) {
+                        addEntry(result, readEntry(xmlReader));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    if (depth == 0) {
+                        // the CCU appends its exec info after the list, which is not part of the document
+                        break;
+                    }
+                }
+            }
+        } catch (XMLStreamException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        } finally {
+            if (xmlReader != null) {
+                try {
+                    xmlReader.close();
+                } catch (XMLStreamException ex) {
+                    // ignore
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the entry to the list of its channel.
+     */
+    private void addEntry(Map<String, TclScriptDataList> result, TclScriptDataEntry entry) {
+        String channel = entry.channel;
+        if (channel == null) {
+            channel = StringUtils.substringBeforeLast(entry.name, ".");
+            entry.name = StringUtils.substringAfterLast(entry.name, ".");
+        }
+        if (StringUtils.isEmpty(channel) || StringUtils.isEmpty(entry.name)) {
+            return;
+        }
+        TclScriptDataList list = result.get(channel);
+        if (list == null) {
+            list = new TclScriptDataList();
+            result.put(channel, list);
+        }
+        list.getEntries().add(entry);
+    }
+
+    /**
+     * Reads the attributes of an entry element.
+     */
+    private TclScriptDataEntry readEntry(XMLStreamReader xmlReader) {
+        TclScriptDataEntry entry = new TclScriptDataEntry();
+        for (int i = 0; i < xmlReader.getAttributeCount(); i++) {
+            String value = xmlReader.getAttributeValue(i);
+            String name = xmlReader.getAttributeLocalName(i);
+            if ("channel".equals(name)) {
+                entry.channel = value;
+            } else if ("name".equals(name)) {
+                entry.name = value;
+            } else if ("description".equals(name)) {
+                entry.description = value;
+            } else if ("value".equals(name)) {
+                entry.value = value;
+            } else if ("valueType".equals(name)) {
+                entry.valueType = value;
+            } else if ("readOnly".equals(name)) {
+                entry.readOnly = Boolean.parseBoolean(value);
+            } else if ("options".equals(name)) {
+                entry.options = value;
+            } else if ("min".equals(name)) {
+                entry.minValue = value;
+            } else if ("max".equals(name)) {
+                entry.maxValue = value;
+            } else if ("unit".equals(name)) {
+                entry.unit = value;
+            } else if ("operations".equals(name)) {
+                entry.operations = value;
+            }
+        }
+        return entry;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
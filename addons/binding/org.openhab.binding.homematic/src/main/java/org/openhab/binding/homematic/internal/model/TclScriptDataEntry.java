@@ -19,6 +19,12 @@ import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
 @XStreamAlias("entry")
 public class TclScriptDataEntry {
 
+    /**
+     * The channel address of the entry, only set by scripts which return entries of several channels.
+     */
+    @XStreamAsAttribute
+    public String channel;
+
     @XStreamAsAttribute
     public String name;
 
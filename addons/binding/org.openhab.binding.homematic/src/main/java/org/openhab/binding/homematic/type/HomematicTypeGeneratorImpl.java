@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
@@ -63,6 +64,16 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
     private HomematicChannelTypeProvider channelTypeProvider;
     private HomematicConfigDescriptionProvider configDescriptionProvider;
     private Map<String, Set<String>> firmwaresByType = new HashMap<String, Set<String>>();
+    // device types and firmwares the types have already been generated for, e.g. HM-CC-RT-DN:1.4
+    private Set<String> generatedDevices = new HashSet<String>();
+
+    // generation statistics since the last validation of the firmwares
+    private int generatedDeviceCount;
+    private int skippedDeviceCount;
+    private long channelTypeNanos;
+    private long channelGroupTypeNanos;
+    private long configDescriptionNanos;
+    private long thingTypeNanos;
 
     private static final String[] STATUS_DATAPOINT_NAMES = new String[] { DATAPOINT_NAME_UNREACH,
             DATAPOINT_NAME_CONFIG_PENDING, DATAPOINT_NAME_DEVICE_IN_BOOTLOADER, DATAPOINT_NAME_UPDATE_PENDING };
@@ -79,12 +90,14 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
         }
     }
 
-    protected void setThingTypeProvider(HomematicThingTypeProvider thingTypeProvider) {
+    protected synchronized void setThingTypeProvider(HomematicThingTypeProvider thingTypeProvider) {
         this.thingTypeProvider = thingTypeProvider;
+        generatedDevices.clear();
     }
 
-    protected void unsetThingTypeProvider(HomematicThingTypeProvider thingTypeProvider) {
+    protected synchronized void unsetThingTypeProvider(HomematicThingTypeProvider thingTypeProvider) {
         this.thingTypeProvider = null;
+        generatedDevices.clear();
     }
 
     protected void setChannelTypeProvider(HomematicChannelTypeProvider channelTypeProvider) {
@@ -115,8 +128,15 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
      * {@inheritDoc}
      */
     @Override
-    public void generate(HmDevice device) {
+    public synchronized void generate(HmDevice device) {
         if (thingTypeProvider != null) {
+            String generatedDeviceKey = String.format("%s:%s:%s", device.getGatewayId(), device.getType(),
+                    device.getFirmware());
+            if (!device.isGatewayExtras() && generatedDevices.contains(generatedDeviceKey)) {
+                skippedDeviceCount++;
+                return;
+            }
+
             ThingTypeUID thingTypeUID = UidUtils.generateThingTypeUID(device);
             ThingType tt = thingTypeProvider.getThingType(thingTypeUID, Locale.getDefault());
             if (tt == null || device.isGatewayExtras()) {
@@ -125,6 +145,7 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
 
                 List<ChannelGroupType> groupTypes = new ArrayList<ChannelGroupType>();
                 for (HmChannel channel : device.getChannels()) {
+                    long start = System.nanoTime();
                     List<ChannelDefinition> channelDefinitions = new ArrayList<ChannelDefinition>();
                     // generate channel
                     for (HmDatapoint dp : channel.getDatapoints().values()) {
@@ -145,6 +166,9 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
                         }
                     }
 
+                    long groupStart = System.nanoTime();
+                    channelTypeNanos += groupStart - start;
+
                     // generate group
                     ChannelGroupTypeUID groupTypeUID = UidUtils.generateChannelGroupTypeUID(channel);
                     ChannelGroupType groupType = channelTypeProvider.getChannelGroupType(groupTypeUID,
@@ -156,12 +180,18 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
                         channelTypeProvider.addChannelGroupType(groupType);
                         groupTypes.add(groupType);
                     }
-
+                    channelGroupTypeNanos += System.nanoTime() - groupStart;
                 }
                 tt = createThingType(device, groupTypes);
                 thingTypeProvider.addThingType(tt);
+                generatedDeviceCount++;
+            } else {
+                skippedDeviceCount++;
             }
             addFirmware(device);
+            if (!device.isGatewayExtras()) {
+                generatedDevices.add(generatedDeviceKey);
+            }
         }
     }
 
@@ -169,7 +199,21 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
      * {@inheritDoc}
      */
     @Override
-    public void validateFirmwares() {
+    public synchronized void validateFirmwares() {
+        logger.debug(
+                "Generated the types of {} devices and reused them for {} devices, "
+                        + "took {} ms for channel types, {} ms for channel group types, "
+                        + "{} ms for config descriptions and {} ms for thing types",
+                generatedDeviceCount, skippedDeviceCount, TimeUnit.NANOSECONDS.toMillis(channelTypeNanos),
+                TimeUnit.NANOSECONDS.toMillis(channelGroupTypeNanos),
+                TimeUnit.NANOSECONDS.toMillis(configDescriptionNanos), TimeUnit.NANOSECONDS.toMillis(thingTypeNanos));
+        generatedDeviceCount = 0;
+        skippedDeviceCount = 0;
+        channelTypeNanos = 0;
+        channelGroupTypeNanos = 0;
+        configDescriptionNanos = 0;
+        thingTypeNanos = 0;
+
         for (String deviceType : firmwaresByType.keySet()) {
             Set<String> firmwares = firmwaresByType.get(deviceType);
             if (firmwares.size() > 1) {
@@ -201,6 +245,7 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
      * Creates the ThingType for the given device.
      */
     private ThingType createThingType(HmDevice device, List<ChannelGroupType> groupTypes) {
+        long start = System.nanoTime();
         String label = MetadataUtils.getDeviceName(device);
         String description = String.format("%s (%s)", label, device.getType());
 
@@ -213,9 +258,12 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
         properties.put(Thing.PROPERTY_MODEL_ID, device.getType());
 
         URI configDescriptionURI = getConfigDescriptionURI(device);
+        long configStart = System.nanoTime();
         if (configDescriptionProvider.getConfigDescription(configDescriptionURI, null) == null) {
             generateConfigDescription(device, configDescriptionURI);
         }
+        long configEnd = System.nanoTime();
+        configDescriptionNanos += configEnd - configStart;
 
         List<ChannelGroupDefinition> groupDefinitions = new ArrayList<ChannelGroupDefinition>();
         for (ChannelGroupType groupType : groupTypes) {
@@ -223,8 +271,10 @@ public class HomematicTypeGeneratorImpl implements HomematicTypeGenerator {
             groupDefinitions.add(new ChannelGroupDefinition(id, groupType.getUID()));
         }
 
-        return new ThingType(thingTypeUID, supportedBridgeTypeUids, label, description, null, groupDefinitions,
-                properties, configDescriptionURI);
+        ThingType thingType = new ThingType(thingTypeUID, supportedBridgeTypeUids, label, description, null,
+                groupDefinitions, properties, configDescriptionURI);
+        thingTypeNanos += System.nanoTime() - configEnd + configStart - start;
+        return thingType;
     }
 
     /**
@@ -24,6 +24,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.WordUtils;
@@ -44,8 +45,13 @@ public class MetadataUtils {
     private static ResourceBundle descriptionsBundle;
     private static Map<String, String> descriptions = new HashMap<String, String>();
     private static Map<String, Set<String>> standardDatapoints = new HashMap<String, Set<String>>();
+    // resolved descriptions by the keys joined with '|', and the keys without a description
+    private static Map<String, String> resolvedDescriptions = new ConcurrentHashMap<String, String>();
+    private static Set<String> unresolvedDescriptions = ConcurrentHashMap.newKeySet();
 
     protected static void initialize() {
+        resolvedDescriptions.clear();
+        unresolvedDescriptions.clear();
         // loads all Homematic device names
         loadBundle("homematic/generated-descriptions");
         loadBundle("homematic/extra-descriptions");
@@ -189,6 +195,25 @@ public class MetadataUtils {
      * Returns the description for the given keys.
      */
     public static String getDescription(String... keys) {
+        String resolveKey = StringUtils.join(keys, "|");
+        String resolvedDescription = resolvedDescriptions.get(resolveKey);
+        if (resolvedDescription != null || unresolvedDescriptions.contains(resolveKey)) {
+            return resolvedDescription;
+        }
+
+        String description = lookupDescription(keys);
+        if (description != null) {
+            resolvedDescriptions.put(resolveKey, description);
+        } else {
+            unresolvedDescriptions.add(resolveKey);
+        }
+        return description;
+    }
+
+    /**
+     * Looks up the description for the given keys, starting with the most specific key.
+     */
+    private static String lookupDescription(String... keys) {
         StringBuilder sb = new StringBuilder();
         for (int startIdx = 0; startIdx < keys.length; startIdx++) {
             String key = StringUtils.join(keys, "|", startIdx, keys.length);
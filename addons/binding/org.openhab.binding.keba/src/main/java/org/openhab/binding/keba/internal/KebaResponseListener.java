@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.keba.internal;
+
+/**
+ * The {@link KebaResponseListener} is notified by the {@link KebaUdpEngine} about the datagrams received from a
+ * single charging station.
+ *
+ * @author agent - Initial contribution
+ */
+public interface KebaResponseListener {
+
+    /**
+     * Called by the engine thread for every datagram received from the charging station, which includes responses to
+     * requests as well as the messages the station sends on its own. Implementations must not block.
+     *
+     * @param response the received data, without trailing line breaks
+     */
+    void onResponse(String response);
+
+    /**
+     * Called when the charging station did not respond to a request in time.
+     *
+     * @param request the request that has not been answered
+     */
+    void onTimeout(String request);
+
+}
@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.keba.internal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link KebaUdpEngine} is the single UDP endpoint shared by all KEBA charging stations. It owns one
+ * {@link DatagramChannel} bound to the KEBA port and one {@link Selector}, which is served by a single thread.
+ *
+ * Received datagrams are dispatched by their source address to the {@link KebaResponseListener} of the station.
+ * Requests are queued per station and are sent one after the other: the next request is sent as soon as the station
+ * has answered the previous one, or the response timeout has expired, but never earlier than the minimum request
+ * interval the station requires. A report is answered by the report with the requested ID, any other command by the
+ * confirmation "TCH-OK". The messages the station broadcasts on its own are passed to the listener only. Requests of
+ * different stations are independent of each other.
+ *
+ * The engine is started with the first registered station and stopped when the last station is unregistered.
+ *
+ * @author agent - Initial contribution
+ */
+public class KebaUdpEngine implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(KebaUdpEngine.class);
+
+    public static final int PORT_NUMBER = 7090;
+
+    /** Minimum time in milliseconds between two requests to the same charging station */
+    public static final int MIN_REQUEST_INTERVAL = 100;
+
+    /** Time in milliseconds to wait for the response to a request */
+    public static final int RESPONSE_TIMEOUT = 2000;
+
+    private static final String REPORT_REQUEST = "report ";
+    private static final String COMMAND_CONFIRMATION = "TCH-OK";
+    private static final Pattern REPORT_ID = Pattern.compile("\"ID\"\\s*:\\s*\"?(\\d+)");
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final String THREADPOOL_NAME = "keba";
+
+    private static final KebaUdpEngine INSTANCE = new KebaUdpEngine();
+
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THREADPOOL_NAME);
+    private final Map<InetAddress, Station> stations = new ConcurrentHashMap<>();
+
+    private volatile Selector selector;
+    private volatile DatagramChannel channel;
+    private volatile Thread engineThread;
+
+    private KebaUdpEngine() {
+    }
+
+    public static KebaUdpEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a charging station and starts the engine if needed.
+     *
+     * @param address the address of the charging station
+     * @param listener the listener of the datagrams received from the station
+     * @throws IOException if the UDP port could not be opened
+     */
+    public synchronized void register(InetAddress address, KebaResponseListener listener) throws IOException {
+        if (stations.isEmpty()) {
+            start();
+        }
+        Station previous = stations.put(address, new Station(address, listener));
+        if (previous != null) {
+            logger.warn("The charging station '{}' has been registered twice", address);
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Unregisters a charging station and stops the engine if it was the last station.
+     *
+     * @param address the address of the charging station
+     * @param listener the listener the station has been registered with
+     */
+    public synchronized void unregister(InetAddress address, KebaResponseListener listener) {
+        Station station = stations.get(address);
+        if (station == null || station.listener != listener) {
+            return;
+        }
+        stations.remove(address);
+        station.cancel();
+        if (stations.isEmpty()) {
+            stop();
+        }
+    }
+
+    /**
+     * Queues a request for a charging station.
+     *
+     * @param address the address of the charging station
+     * @param request the request, e.g. "report 1"
+     */
+    public void send(InetAddress address, String request) {
+        Station station = stations.get(address);
+        if (station == null) {
+            logger.debug("Dropping request '{}' to the unregistered charging station '{}'", request, address);
+            return;
+        }
+        station.requests.add(request);
+        station.sendNext();
+    }
+
+    private void start() throws IOException {
+        Selector newSelector = Selector.open();
+        DatagramChannel newChannel = null;
+        try {
+            newChannel = DatagramChannel.open();
+            newChannel.socket().setReuseAddress(true);
+            newChannel.bind(new InetSocketAddress(PORT_NUMBER));
+            newChannel.configureBlocking(false);
+            newChannel.register(newSelector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            closeQuietly(newChannel, newSelector);
+            throw e;
+        }
+
+        logger.debug("Listening for KEBA charging stations on {}", newChannel.getLocalAddress());
+
+        selector = newSelector;
+        channel = newChannel;
+
+        Thread thread = new Thread(this, "KEBA UDP Engine");
+        thread.setDaemon(true);
+        engineThread = thread;
+        thread.start();
+    }
+
+    private void stop() {
+        logger.debug("Stopping the KEBA UDP engine");
+        engineThread = null;
+        closeQuietly(channel, selector);
+        channel = null;
+        selector = null;
+    }
+
+    private void closeQuietly(DatagramChannel datagramChannel, Selector datagramSelector) {
+        try {
+            if (datagramChannel != null) {
+                datagramChannel.close();
+            }
+            if (datagramSelector != null) {
+                // wakes up the engine thread
+                datagramSelector.close();
+            }
+        } catch (IOException e) {
+            logger.debug("An exception occurred while closing the UDP channel: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void run() {
+        Thread thread = Thread.currentThread();
+        Selector threadSelector = selector;
+        DatagramChannel threadChannel = channel;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        while (engineThread == thread) {
+            try {
+                if (threadSelector.select() == 0) {
+                    continue;
+                }
+                threadSelector.selectedKeys().clear();
+
+                SocketAddress source;
+                while ((source = threadChannel.receive(buffer)) != null) {
+                    buffer.flip();
+                    String response = StandardCharsets.US_ASCII.decode(buffer).toString();
+                    buffer.clear();
+                    dispatch(((InetSocketAddress) source).getAddress(), response);
+                }
+            } catch (IOException | RuntimeException e) {
+                if (engineThread == thread) {
+                    logger.warn("An exception occurred while receiving data from the charging stations: {}",
+                            e.getMessage());
+                }
+            }
+        }
+
+        logger.debug("KEBA UDP engine stopped");
+    }
+
+    private void dispatch(InetAddress source, String response) {
+        Station station = stations.get(source);
+        if (station == null) {
+            logger.debug("Received '{}' from '{}' which is not a registered charging station", response, source);
+            return;
+        }
+
+        logger.trace("Received '{}' from '{}'", response, source);
+        station.responseReceived(response);
+        try {
+            station.listener.onResponse(StringUtils.chomp(response));
+        } catch (RuntimeException e) {
+            logger.warn("An exception occurred while handling the data of '{}': {}", source, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The request queue of a single charging station.
+     */
+    private class Station {
+        private final InetSocketAddress address;
+        private final KebaResponseListener listener;
+        private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+
+        // guarded by this
+        private String pendingRequest;
+        private long lastRequestTimestamp;
+        private ScheduledFuture<?> job;
+        private boolean cancelled;
+
+        private final Runnable timeout = new Runnable() {
+            @Override
+            public void run() {
+                String request;
+                synchronized (Station.this) {
+                    job = null;
+                    request = pendingRequest;
+                    pendingRequest = null;
+                }
+                if (request != null) {
+                    logger.debug("No response to '{}' from '{}'", request, address);
+                    listener.onTimeout(request);
+                }
+                sendNext();
+            }
+        };
+
+        private final Runnable next = new Runnable() {
+            @Override
+            public void run() {
+                synchronized (Station.this) {
+                    job = null;
+                }
+                sendNext();
+            }
+        };
+
+        private Station(InetAddress address, KebaResponseListener listener) {
+            this.address = new InetSocketAddress(address, PORT_NUMBER);
+            this.listener = listener;
+        }
+
+        private synchronized void responseReceived(String response) {
+            if (pendingRequest != null && isResponseTo(pendingRequest, response)) {
+                pendingRequest = null;
+                if (job != null) {
+                    job.cancel(false);
+                    job = null;
+                }
+                sendNext();
+            }
+        }
+
+        /**
+         * Checks whether a received datagram answers a request. A report request "report N" is answered by the report
+         * with the ID N, any other request by the confirmation of the command.
+         */
+        private boolean isResponseTo(String request, String response) {
+            if (request.startsWith(REPORT_REQUEST)) {
+                Matcher matcher = REPORT_ID.matcher(response);
+                return matcher.find() && matcher.group(1).equals(request.substring(REPORT_REQUEST.length()).trim());
+            }
+            return response.contains(COMMAND_CONFIRMATION);
+        }
+
+        /**
+         * Sends the next queued request if the previous one has been answered and the minimum request interval has
+         * expired, otherwise waits for the response or the interval.
+         */
+        private synchronized void sendNext() {
+            if (cancelled || pendingRequest != null || job != null || requests.isEmpty()) {
+                return;
+            }
+
+            long delay = lastRequestTimestamp + MIN_REQUEST_INTERVAL - System.currentTimeMillis();
+            if (delay > 0) {
+                job = scheduler.schedule(next, delay, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            String request = requests.poll();
+            DatagramChannel currentChannel = channel;
+            if (currentChannel == null) {
+                return;
+            }
+
+            try {
+                logger.debug("Sending '{}' to '{}'", request, address);
+                currentChannel.send(ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII)), address);
+            } catch (IOException e) {
+                logger.debug("An exception occurred while sending '{}' to '{}': {}", request, address,
+                        e.getMessage());
+            }
+
+            lastRequestTimestamp = System.currentTimeMillis();
+            pendingRequest = request;
+            job = scheduler.schedule(timeout, RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            requests.clear();
+            if (job != null) {
+                job.cancel(false);
+                job = null;
+            }
+        }
+    }
+}
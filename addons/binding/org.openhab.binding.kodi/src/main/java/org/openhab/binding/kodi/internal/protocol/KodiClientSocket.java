@@ -9,9 +9,20 @@
 package org.openhab.binding.kodi.internal.protocol;
 
 import java.net.URI;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
@@ -24,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -32,6 +44,9 @@ import com.google.gson.JsonParser;
  * KodiClientSocket implements the low level communication to kodi through websocket. Usually this communication is done
  * through port 9090
  *
+ * Requests are sent without waiting for the response of previous requests, responses are correlated to their request
+ * by the JSON-RPC id. Several requests can be sent in one frame as JSON-RPC batch.
+ *
  * @author Paul Frank
  *
  */
@@ -41,9 +56,20 @@ public class KodiClientSocket {
     private final ScheduledExecutorService scheduler;
     private static final int REQUEST_TIMEOUT_MS = 60000;
 
-    private CountDownLatch commandLatch = null;
-    private JsonObject commandResponse = null;
-    private int nextMessageId = 1;
+    /** Timeouts of methods which are expected to respond quickly, all other methods use REQUEST_TIMEOUT_MS */
+    private static final Map<String, Integer> METHOD_TIMEOUTS_MS;
+    static {
+        Map<String, Integer> timeouts = new HashMap<>();
+        timeouts.put("Application.GetProperties", 10000);
+        timeouts.put("Player.GetActivePlayers", 10000);
+        timeouts.put("Player.GetProperties", 10000);
+        timeouts.put("Player.GetItem", 10000);
+        METHOD_TIMEOUTS_MS = Collections.unmodifiableMap(timeouts);
+    }
+
+    private final AtomicInteger nextMessageId = new AtomicInteger(1);
+    private final Map<Integer, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+    private final Map<String, KodiMethodStatistics> statistics = new ConcurrentHashMap<>();
 
     private boolean connected = false;
 
@@ -55,6 +81,20 @@ public class KodiClientSocket {
 
     private final KodiClientSocketEventListener eventHandler;
 
+    /**
+     * A request waiting for its response.
+     */
+    private class PendingRequest {
+        private final String methodName;
+        private final long sentTime = System.currentTimeMillis();
+        private final CompletableFuture<JsonElement> future = new CompletableFuture<>();
+        private ScheduledFuture<?> timeoutJob;
+
+        PendingRequest(String methodName) {
+            this.methodName = methodName;
+        }
+    }
+
     public KodiClientSocket(KodiClientSocketEventListener eventHandler, URI uri, ScheduledExecutorService scheduler) {
         this.eventHandler = eventHandler;
         this.uri = uri;
@@ -94,6 +134,7 @@ public class KodiClientSocket {
             }
             session = null;
         }
+        failPendingRequests();
         try {
             client.stop();
         } catch (Exception e) {
@@ -109,6 +150,13 @@ public class KodiClientSocket {
         return connected;
     }
 
+    /**
+     * Returns the latency statistics of the methods called so far.
+     */
+    public Collection<KodiMethodStatistics> getMethodStatistics() {
+        return statistics.values();
+    }
+
     @WebSocket
     public class KodiWebSocketListener {
 
@@ -137,14 +185,42 @@ public class KodiClientSocket {
         @OnWebSocketMessage
         public void onMessage(String message) {
             logger.debug("Message received from server: {}", message);
-            final JsonObject json = parser.parse(message).getAsJsonObject();
+            JsonElement element = parser.parse(message);
+            if (element.isJsonArray()) {
+                // response to a batch request
+                for (JsonElement response : element.getAsJsonArray()) {
+                    if (response.isJsonObject()) {
+                        handleMessage(response.getAsJsonObject());
+                    }
+                }
+            } else {
+                handleMessage(element.getAsJsonObject());
+            }
+        }
+
+        private void handleMessage(final JsonObject json) {
             if (json.has("id")) {
                 logger.debug("Response received from server: {}", json);
+                if (json.get("id").isJsonNull()) {
+                    logger.debug("Error response without request id received: {}", json);
+                    return;
+                }
                 int messageId = json.get("id").getAsInt();
-                if (messageId == nextMessageId - 1) {
-                    commandResponse = json;
-                    commandLatch.countDown();
+                PendingRequest request = pendingRequests.remove(messageId);
+                if (request == null) {
+                    logger.debug("Response for unknown or expired request {} received", messageId);
+                    return;
+                }
+                if (request.timeoutJob != null) {
+                    request.timeoutJob.cancel(false);
+                }
+                long latency = System.currentTimeMillis() - request.sentTime;
+                getStatistics(request.methodName).addResponse(latency);
+                logger.debug("callMethod {} returned after {} ms", request.methodName, latency);
+                if (json.has("error")) {
+                    logger.debug("callMethod {} returned error {}", request.methodName, json.get("error"));
                 }
+                request.future.complete(json.get("result"));
             } else {
                 logger.debug("Event received from server: {}", json);
                 try {
@@ -175,6 +251,7 @@ public class KodiClientSocket {
             session = null;
             connected = false;
             logger.debug("Closing a WebSocket due to {}", reason);
+            failPendingRequests();
             scheduler.submit(new Runnable() {
 
                 @Override
@@ -198,37 +275,138 @@ public class KodiClientSocket {
         }
     }
 
-    public JsonElement callMethod(String methodName) {
-        return callMethod(methodName, null);
+    private KodiMethodStatistics getStatistics(String methodName) {
+        KodiMethodStatistics result = statistics.get(methodName);
+        if (result == null) {
+            statistics.putIfAbsent(methodName, new KodiMethodStatistics(methodName));
+            result = statistics.get(methodName);
+        }
+        return result;
     }
 
-    public synchronized JsonElement callMethod(String methodName, JsonObject params) {
-        try {
-            JsonObject payloadObject = new JsonObject();
-            payloadObject.addProperty("jsonrpc", "2.0");
-            payloadObject.addProperty("id", nextMessageId);
-            payloadObject.addProperty("method", methodName);
+    private static int getTimeout(String methodName) {
+        Integer timeout = METHOD_TIMEOUTS_MS.get(methodName);
+        return timeout != null ? timeout : REQUEST_TIMEOUT_MS;
+    }
 
-            if (params != null) {
-                payloadObject.add("params", params);
+    /**
+     * Fails all requests waiting for a response, e.g. because the connection is closed.
+     */
+    private void failPendingRequests() {
+        for (Integer messageId : new ArrayList<>(pendingRequests.keySet())) {
+            PendingRequest request = pendingRequests.remove(messageId);
+            if (request != null) {
+                if (request.timeoutJob != null) {
+                    request.timeoutJob.cancel(false);
+                }
+                request.future.completeExceptionally(new IllegalStateException("connection closed"));
             }
+        }
+    }
 
-            String message = mapper.toJson(payloadObject);
+    /**
+     * Creates the payload of a request and registers it as pending.
+     */
+    private JsonObject prepareRequest(final KodiRequest kodiRequest, List<PendingRequest> requests) {
+        final int messageId = nextMessageId.getAndIncrement();
 
-            commandLatch = new CountDownLatch(1);
-            commandResponse = null;
-            nextMessageId++;
+        JsonObject payloadObject = new JsonObject();
+        payloadObject.addProperty("jsonrpc", "2.0");
+        payloadObject.addProperty("id", messageId);
+        payloadObject.addProperty("method", kodiRequest.getMethodName());
 
-            sendMessage(message);
-            if (commandLatch.await(REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
-                logger.debug("callMethod returns {}", commandResponse.toString());
-                return commandResponse.get("result");
-            } else {
-                logger.error("Timeout during callMethod({}, {})", methodName, params != null ? params.toString() : "");
-                return null;
+        if (kodiRequest.getParams() != null) {
+            payloadObject.add("params", kodiRequest.getParams());
+        }
+
+        final PendingRequest request = new PendingRequest(kodiRequest.getMethodName());
+        pendingRequests.put(messageId, request);
+        request.timeoutJob = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (pendingRequests.remove(messageId) == request) {
+                    getStatistics(request.methodName).addTimeout();
+                    logger.error("Timeout during callMethod({}, {})", kodiRequest.getMethodName(),
+                            kodiRequest.getParams() != null ? kodiRequest.getParams().toString() : "");
+                    request.future.completeExceptionally(new TimeoutException(kodiRequest.getMethodName()));
+                }
             }
+        }, getTimeout(kodiRequest.getMethodName()), TimeUnit.MILLISECONDS);
+        requests.add(request);
+        return payloadObject;
+    }
+
+    private void send(String message, List<PendingRequest> requests) {
+        try {
+            sendMessage(message);
         } catch (Exception e) {
-            logger.error("Error during callMethod", e);
+            for (PendingRequest request : requests) {
+                pendingRequests.values().remove(request);
+                if (request.timeoutJob != null) {
+                    request.timeoutJob.cancel(false);
+                }
+                request.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Sends a request without waiting for the response.
+     *
+     * @return the future result of the method call
+     */
+    public CompletableFuture<JsonElement> callMethodAsync(String methodName, JsonObject params) {
+        List<PendingRequest> requests = new ArrayList<>(1);
+        JsonObject payload = prepareRequest(new KodiRequest(methodName, params), requests);
+        send(mapper.toJson(payload), requests);
+        return requests.get(0).future;
+    }
+
+    /**
+     * Sends several requests as one JSON-RPC batch without waiting for the responses.
+     *
+     * @return the future results of the method calls in the order of the requests
+     */
+    public List<CompletableFuture<JsonElement>> callMethodsAsync(List<KodiRequest> kodiRequests) {
+        List<PendingRequest> requests = new ArrayList<>(kodiRequests.size());
+        JsonArray batch = new JsonArray();
+        for (KodiRequest kodiRequest : kodiRequests) {
+            batch.add(prepareRequest(kodiRequest, requests));
+        }
+        send(mapper.toJson(batch), requests);
+
+        List<CompletableFuture<JsonElement>> result = new ArrayList<>(requests.size());
+        for (PendingRequest request : requests) {
+            result.add(request.future);
+        }
+        return result;
+    }
+
+    public JsonElement callMethod(String methodName) {
+        return callMethod(methodName, null);
+    }
+
+    public JsonElement callMethod(String methodName, JsonObject params) {
+        return getResult(callMethodAsync(methodName, params));
+    }
+
+    /**
+     * Waits for the result of a method call.
+     *
+     * @return the result or null if the call failed or timed out
+     */
+    public JsonElement getResult(CompletableFuture<JsonElement> future) {
+        try {
+            JsonElement result = future.get();
+            logger.debug("callMethod returns {}", result);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                logger.error("Error during callMethod", e.getCause());
+            }
             return null;
         }
     }
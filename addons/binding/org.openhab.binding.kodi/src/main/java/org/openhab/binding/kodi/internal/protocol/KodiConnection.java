@@ -9,6 +9,10 @@
 package org.openhab.binding.kodi.internal.protocol;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.openhab.binding.kodi.internal.KodiEventListener;
@@ -39,6 +43,9 @@ public class KodiConnection implements KodiClientSocketEventListener {
     private int volume = 0;
     private KodiState currentState = KodiState.Stop;
 
+    /** Player found active by the last request, its status is requested together with the active players */
+    private volatile int lastActivePlayer = -1;
+
     private final KodiEventListener listener;
 
     public KodiConnection(KodiEventListener listener) {
@@ -66,7 +73,11 @@ public class KodiConnection implements KodiClientSocketEventListener {
     }
 
     private int getActivePlayer() {
-        JsonElement response = socket.callMethod("Player.GetActivePlayers");
+        lastActivePlayer = getActivePlayer(socket.callMethod("Player.GetActivePlayers"));
+        return lastActivePlayer;
+    }
+
+    private int getActivePlayer(JsonElement response) {
         if (response != null) {
             boolean playing = response.isJsonArray() && response.getAsJsonArray().size() > 0;
             if (playing) {
@@ -77,18 +88,18 @@ public class KodiConnection implements KodiClientSocketEventListener {
         return -1;
     }
 
-    public synchronized void playerPlayPause() {
+    public void playerPlayPause() {
         int activePlayer = getActivePlayer();
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
-        socket.callMethod("Player.PlayPause", params);
+        socket.callMethodAsync("Player.PlayPause", params);
     }
 
-    public synchronized void playerStop() {
+    public void playerStop() {
         int activePlayer = getActivePlayer();
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
-        socket.callMethod("Player.Stop", params);
+        socket.callMethodAsync("Player.Stop", params);
     }
 
     public synchronized void playerNext() {
@@ -140,70 +151,91 @@ public class KodiConnection implements KodiClientSocketEventListener {
         this.volume += VOLUMESTEP;
         JsonObject params = new JsonObject();
         params.addProperty("volume", volume);
-        socket.callMethod("Application.SetVolume", params);
+        socket.callMethodAsync("Application.SetVolume", params);
     }
 
     public synchronized void decreaseVolume() {
         this.volume -= VOLUMESTEP;
         JsonObject params = new JsonObject();
         params.addProperty("volume", volume);
-        socket.callMethod("Application.SetVolume", params);
+        socket.callMethodAsync("Application.SetVolume", params);
     }
 
     public synchronized void setVolume(int volume) {
         this.volume = volume;
         JsonObject params = new JsonObject();
         params.addProperty("volume", volume);
-        socket.callMethod("Application.SetVolume", params);
+        socket.callMethodAsync("Application.SetVolume", params);
     }
 
     public int getVolume() {
         return volume;
     }
 
-    public synchronized void setMute(boolean mute) {
+    public void setMute(boolean mute) {
         JsonObject params = new JsonObject();
         params.addProperty("mute", mute);
-        socket.callMethod("Application.SetMute", params);
+        socket.callMethodAsync("Application.SetMute", params);
     }
 
-    private int getSpeed(int activePlayer) {
+    private KodiRequest getSpeedRequest(int activePlayer) {
         final String[] properties = { "speed", "position" };
 
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
         params.add("properties", getJsonArray(properties));
-        JsonElement response = socket.callMethod("Player.GetProperties", params);
-
-        JsonObject result = response.getAsJsonObject();
-        return result.get("speed").getAsInt();
+        return new KodiRequest("Player.GetProperties", params);
     }
 
+    /**
+     * Updates the player state and the current item. The status of the last active player is requested in the same
+     * batch as the active players, so usually a single frame is exchanged with kodi.
+     */
     public synchronized void updatePlayerStatus() {
         if (socket.isConnected()) {
-            int activePlayer = getActivePlayer();
+            int expectedPlayer = lastActivePlayer;
+
+            List<KodiRequest> requests = new ArrayList<>(3);
+            requests.add(new KodiRequest("Player.GetActivePlayers"));
+            if (expectedPlayer >= 0) {
+                requests.add(getSpeedRequest(expectedPlayer));
+                requests.add(getItemRequest(expectedPlayer));
+            }
+            List<CompletableFuture<JsonElement>> responses = socket.callMethodsAsync(requests);
+
+            int activePlayer = getActivePlayer(socket.getResult(responses.get(0)));
+            lastActivePlayer = activePlayer;
             if (activePlayer >= 0) {
-                int speed = getSpeed(activePlayer);
-                if (speed == 0) {
-                    updateState(KodiState.Stop);
-                } else if (speed == 1) {
-                    updateState(KodiState.Play);
-                } else if (speed < 0) {
-                    updateState(KodiState.Rewind);
+                if (activePlayer != expectedPlayer) {
+                    // another player became active, request its status
+                    requests.clear();
+                    requests.add(getSpeedRequest(activePlayer));
+                    requests.add(getItemRequest(activePlayer));
+                    responses = socket.callMethodsAsync(requests);
                 } else {
-                    updateState(KodiState.FastForward);
+                    responses = responses.subList(1, responses.size());
+                }
+
+                JsonElement speedResponse = socket.getResult(responses.get(0));
+                if (speedResponse instanceof JsonObject) {
+                    int speed = speedResponse.getAsJsonObject().get("speed").getAsInt();
+                    if (speed == 0) {
+                        updateState(KodiState.Stop);
+                    } else if (speed == 1) {
+                        updateState(KodiState.Play);
+                    } else if (speed < 0) {
+                        updateState(KodiState.Rewind);
+                    } else {
+                        updateState(KodiState.FastForward);
+                    }
                 }
-                requestPlayerUpdate(activePlayer);
+                updatePlayerItem(socket.getResult(responses.get(1)), true);
             } else {
                 updateState(KodiState.Stop);
             }
         }
     }
 
-    private void requestPlayerUpdate(int activePlayer) {
-        requestPlayerUpdate(activePlayer, true);
-    }
-
     private void updateFanartUrl(String imagePath) {
         if (imagePath == null || imagePath.isEmpty()) {
             return;
@@ -225,14 +257,25 @@ public class KodiConnection implements KodiClientSocketEventListener {
          */
     }
 
-    private void requestPlayerUpdate(int activePlayer, boolean updateMediaType) {
+    private KodiRequest getItemRequest(int activePlayer) {
         final String[] properties = { "title", "album", "artist", "director", "thumbnail", "file", "fanart",
                 "showtitle", "streamdetails" };
 
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
         params.add("properties", getJsonArray(properties));
-        JsonElement response = socket.callMethod("Player.GetItem", params);
+        return new KodiRequest("Player.GetItem", params);
+    }
+
+    private void requestPlayerUpdate(int activePlayer, boolean updateMediaType) {
+        KodiRequest request = getItemRequest(activePlayer);
+        updatePlayerItem(socket.callMethod(request.getMethodName(), request.getParams()), updateMediaType);
+    }
+
+    private void updatePlayerItem(JsonElement response, boolean updateMediaType) {
+        if (!(response instanceof JsonObject) || !((JsonObject) response).has("item")) {
+            return;
+        }
 
         JsonObject item = ((JsonObject) response).get("item").getAsJsonObject();
 
@@ -359,6 +402,7 @@ public class KodiConnection implements KodiClientSocketEventListener {
             JsonObject data = json.get("data").getAsJsonObject();
             JsonObject player = data.get("player").getAsJsonObject();
             Integer playerId = player.get("playerid").getAsInt();
+            lastActivePlayer = playerId;
 
             updateState(KodiState.Play);
 
@@ -473,20 +517,20 @@ public class KodiConnection implements KodiClientSocketEventListener {
         }
     }
 
-    public synchronized void playURI(String uri) {
+    public void playURI(String uri) {
         JsonObject item = new JsonObject();
         item.addProperty("file", uri);
 
         JsonObject params = new JsonObject();
         params.add("item", item);
-        socket.callMethod("Player.Open", params);
+        socket.callMethodAsync("Player.Open", params);
     }
 
-    public synchronized void showNotification(String message) {
+    public void showNotification(String message) {
         JsonObject params = new JsonObject();
         params.addProperty("title", "openHAB");
         params.addProperty("message", message);
-        socket.callMethod("GUI.ShowNotification", params);
+        socket.callMethodAsync("GUI.ShowNotification", params);
     }
 
     public boolean checkConnection() {
@@ -504,11 +548,23 @@ public class KodiConnection implements KodiClientSocketEventListener {
                 return false;
             }
         } else {
+            if (logger.isTraceEnabled()) {
+                for (KodiMethodStatistics methodStatistics : socket.getMethodStatistics()) {
+                    logger.trace("{}", methodStatistics);
+                }
+            }
             // Ping kodi with the get version command. This prevents the idle timeout on the websocket
             return !getVersion().isEmpty();
         }
     }
 
+    /**
+     * Returns the latency statistics of the JSON-RPC methods called on this connection.
+     */
+    public Collection<KodiMethodStatistics> getMethodStatistics() {
+        return socket.getMethodStatistics();
+    }
+
     public String getConnectionName() {
         return wsUri.toString();
     }
@@ -536,13 +592,13 @@ public class KodiConnection implements KodiClientSocketEventListener {
     }
 
     public void input(String key) {
-        socket.callMethod("Input." + key);
+        socket.callMethodAsync("Input." + key, null);
     }
 
     public void inputText(String text) {
         JsonObject params = new JsonObject();
         params.addProperty("text", text);
-        socket.callMethod("Input.SendText", params);
+        socket.callMethodAsync("Input.SendText", params);
     }
 
     public void playNotificationSoundURI(String uri) {
@@ -551,6 +607,6 @@ public class KodiConnection implements KodiClientSocketEventListener {
 
     public void sendSystemCommand(String command) {
         String method = "System." + command;
-        socket.callMethod(method);
+        socket.callMethodAsync(method, null);
     }
 }
\ No newline at end of file
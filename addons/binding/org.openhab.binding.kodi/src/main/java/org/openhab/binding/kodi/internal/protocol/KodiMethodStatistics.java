@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.kodi.internal.protocol;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KodiMethodStatistics keeps the number of calls, the timeouts and the latency of the responses of a JSON-RPC method.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class KodiMethodStatistics {
+
+    private final String methodName;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+
+    KodiMethodStatistics(String methodName) {
+        this.methodName = methodName;
+    }
+
+    void addResponse(long latencyMs) {
+        calls.incrementAndGet();
+        totalLatencyMs.addAndGet(latencyMs);
+        long max = maxLatencyMs.get();
+        while (latencyMs > max && !maxLatencyMs.compareAndSet(max, latencyMs)) {
+            max = maxLatencyMs.get();
+        }
+    }
+
+    void addTimeout() {
+        calls.incrementAndGet();
+        timeouts.incrementAndGet();
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getAverageLatencyMs() {
+        long responses = calls.get() - timeouts.get();
+        return responses > 0 ? totalLatencyMs.get() / responses : 0;
+    }
+
+    public long getMaxLatencyMs() {
+        return maxLatencyMs.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: calls=%d, timeouts=%d, avg=%dms, max=%dms", methodName, getCalls(), getTimeouts(),
+                getAverageLatencyMs(), getMaxLatencyMs());
+    }
+}
@@ -12,13 +12,13 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
@@ -28,6 +28,7 @@ import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.lutron.config.IPBridgeConfig;
 import org.openhab.binding.lutron.internal.discovery.LutronDeviceDiscoveryService;
@@ -43,10 +44,21 @@ import org.slf4j.LoggerFactory;
 /**
  * Handler responsible for communicating with the main Lutron control hub.
  *
+ * Commands are written by a dedicated sender thread, received lines are handled by the reader thread of the telnet
+ * session. Updates are routed to the child handlers through an index by integration id. Zone level updates, which
+ * the main repeater sends in bursts while an output is fading, are coalesced per output.
+ *
  * @author Allan Tong - Initial contribution
  */
 public class IPBridgeHandler extends BaseBridgeHandler {
-    private static final Pattern STATUS_REGEX = Pattern.compile("~(OUTPUT|DEVICE|SYSTEM),([^,]+),(.*)");
+    /** Types of the status messages sent by the main repeater, which start with "~TYPE," **/
+    private static final LutronCommandType[] STATUS_TYPES = { LutronCommandType.OUTPUT, LutronCommandType.DEVICE,
+            LutronCommandType.SYSTEM };
+
+    private static final String ACTION_ZONELEVEL = "1";
+
+    /** Time in milliseconds zone level updates of an output are collected, before the latest one is dispatched **/
+    private static final int OUTPUT_LEVEL_COALESCE_INTERVAL = 100;
 
     private static final String DB_UPDATE_DATE_FORMAT = "MM/dd/yyyy HH:mm:ss";
 
@@ -67,13 +79,19 @@ public class IPBridgeHandler extends BaseBridgeHandler {
     private TelnetSession session;
     private BlockingQueue<LutronCommand> sendQueue = new LinkedBlockingQueue<>();
 
-    private ScheduledFuture<?> messageSender;
+    private volatile Thread messageSender;
     private ScheduledFuture<?> keepAlive;
     private ScheduledFuture<?> keepAliveReconnect;
 
-    private Date lastDbUpdateDate;
+    private volatile Date lastDbUpdateDate;
     private ServiceRegistration<DiscoveryService> discoveryServiceRegistration;
 
+    /** Child handlers by integration id **/
+    private final Map<Integer, LutronHandler> handlers = new ConcurrentHashMap<>();
+
+    /** Latest zone level update of an output, which has not been dispatched yet, by integration id **/
+    private final Map<Integer, String[]> pendingOutputLevels = new ConcurrentHashMap<>();
+
     public IPBridgeHandler(Bridge bridge) {
         super(bridge);
 
@@ -170,12 +188,15 @@ public class IPBridgeHandler extends BaseBridgeHandler {
             return;
         }
 
-        this.messageSender = this.scheduler.schedule(new Runnable() {
+        // The sender blocks while waiting for commands, so it must not use a thread of the shared scheduler
+        this.messageSender = new Thread(new Runnable() {
             @Override
             public void run() {
                 sendCommands();
             }
-        }, 0, TimeUnit.SECONDS);
+        }, "Lutron IP bridge sender " + config.getIpAddress());
+        this.messageSender.setDaemon(true);
+        this.messageSender.start();
 
         updateStatus(ThingStatus.ONLINE);
 
@@ -188,8 +209,10 @@ public class IPBridgeHandler extends BaseBridgeHandler {
     }
 
     private void sendCommands() {
+        Thread thread = Thread.currentThread();
+
         try {
-            while (true) {
+            while (this.messageSender == thread) {
                 LutronCommand command = this.sendQueue.take();
 
                 this.logger.debug("Sending command {}", command);
@@ -228,7 +251,12 @@ public class IPBridgeHandler extends BaseBridgeHandler {
         }
 
         if (this.messageSender != null) {
-            this.messageSender.cancel(true);
+            // This method can be called from the sender thread when a write fails. Don't interrupt
+            // ourselves, as that would abort the login of the reconnection attempt.
+            if (this.messageSender != Thread.currentThread()) {
+                this.messageSender.interrupt();
+            }
+            this.messageSender = null;
         }
 
         try {
@@ -271,13 +299,43 @@ public class IPBridgeHandler extends BaseBridgeHandler {
         this.sendQueue.add(command);
     }
 
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        if (childHandler instanceof LutronHandler) {
+            LutronHandler handler = (LutronHandler) childHandler;
+            try {
+                this.handlers.put(handler.getIntegrationId(), handler);
+            } catch (IllegalStateException e) {
+                this.logger.debug("Thing {} has no integration id", childThing.getUID());
+            }
+        }
+    }
+
+    @Override
+    public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
+        if (childHandler instanceof LutronHandler) {
+            this.handlers.values().remove(childHandler);
+        }
+    }
+
     private LutronHandler findThingHandler(int integrationId) {
+        LutronHandler handler = this.handlers.get(integrationId);
+        if (handler != null) {
+            return handler;
+        }
+
+        // Children initialized before this handler are not indexed yet
         for (Thing thing : getThing().getThings()) {
             if (thing.getHandler() instanceof LutronHandler) {
-                LutronHandler handler = (LutronHandler) thing.getHandler();
+                handler = (LutronHandler) thing.getHandler();
 
-                if (handler.getIntegrationId() == integrationId) {
-                    return handler;
+                try {
+                    if (handler.getIntegrationId() == integrationId) {
+                        this.handlers.put(integrationId, handler);
+                        return handler;
+                    }
+                } catch (IllegalStateException e) {
+                    // handler not initialized
                 }
             }
         }
@@ -299,36 +357,114 @@ public class IPBridgeHandler extends BaseBridgeHandler {
                 this.keepAliveReconnect.cancel(true);
             }
 
-            Matcher matcher = STATUS_REGEX.matcher(line);
+            if (!parseStatus(line)) {
+                this.logger.info("Ignoring message {}", line);
+            }
+        }
+    }
 
-            if (matcher.find()) {
-                LutronCommandType type = LutronCommandType.valueOf(matcher.group(1));
+    /**
+     * Parses a status message of the form "~TYPE,integrationId,parameter,...", which may be preceded by a prompt.
+     *
+     * @return false if the line is not a status message
+     */
+    private boolean parseStatus(String line) {
+        int start = line.indexOf('~');
+        if (start == -1) {
+            return false;
+        }
 
-                if (type == LutronCommandType.SYSTEM) {
-                    // SYSTEM messages are assumed to be a response to the SYSTEM_DBEXPORTDATETIME
-                    // query. The response returns the last time the device database was updated.
-                    setDbUpdateDate(matcher.group(2), matcher.group(3));
+        int typeEnd = line.indexOf(',', start + 1);
+        int idEnd = typeEnd == -1 ? -1 : line.indexOf(',', typeEnd + 1);
+        if (idEnd == -1) {
+            return false;
+        }
 
-                    continue;
-                }
+        LutronCommandType type = null;
+        for (LutronCommandType statusType : STATUS_TYPES) {
+            String name = statusType.name();
+            if (typeEnd - start - 1 == name.length() && line.startsWith(name, start + 1)) {
+                type = statusType;
+                break;
+            }
+        }
+        if (type == null) {
+            return false;
+        }
+
+        if (type == LutronCommandType.SYSTEM) {
+            // SYSTEM messages are assumed to be a response to the SYSTEM_DBEXPORTDATETIME
+            // query. The response returns the last time the device database was updated.
+            setDbUpdateDate(line.substring(typeEnd + 1, idEnd), line.substring(idEnd + 1));
+
+            return true;
+        }
+
+        int integrationId;
+        try {
+            integrationId = Integer.parseInt(line.substring(typeEnd + 1, idEnd));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        String[] parameters = splitParameters(line, idEnd + 1);
+
+        if (type == LutronCommandType.OUTPUT && parameters.length > 1 && ACTION_ZONELEVEL.equals(parameters[0])) {
+            coalesceOutputLevel(integrationId, parameters);
+        } else {
+            dispatchUpdate(integrationId, type, parameters);
+        }
+
+        return true;
+    }
+
+    private static String[] splitParameters(String line, int start) {
+        int count = 1;
+        for (int i = line.indexOf(',', start); i != -1; i = line.indexOf(',', i + 1)) {
+            count++;
+        }
 
-                Integer integrationId = new Integer(matcher.group(2));
-                LutronHandler handler = findThingHandler(integrationId);
+        String[] parameters = new String[count];
+        int begin = start;
+        for (int i = 0; i < count - 1; i++) {
+            int end = line.indexOf(',', begin);
+            parameters[i] = line.substring(begin, end);
+            begin = end + 1;
+        }
+        parameters[count - 1] = line.substring(begin);
 
-                if (handler != null) {
-                    String paramString = matcher.group(3);
+        return parameters;
+    }
 
-                    try {
-                        handler.handleUpdate(type, paramString.split(","));
-                    } catch (Exception e) {
-                        this.logger.error("Error processing update", e);
+    /**
+     * Dispatches a zone level update after the coalesce interval. Updates of the same output received in the
+     * meantime replace the pending update, so only the latest level of a fade is dispatched.
+     */
+    private void coalesceOutputLevel(final int integrationId, String[] parameters) {
+        if (this.pendingOutputLevels.put(integrationId, parameters) == null) {
+            this.scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    String[] latest = pendingOutputLevels.remove(integrationId);
+                    if (latest != null) {
+                        dispatchUpdate(integrationId, LutronCommandType.OUTPUT, latest);
                     }
-                } else {
-                    this.logger.info("No thing configured for integration ID {}", integrationId);
                 }
-            } else {
-                this.logger.info("Ignoring message {}", line);
+            }, OUTPUT_LEVEL_COALESCE_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void dispatchUpdate(int integrationId, LutronCommandType type, String[] parameters) {
+        LutronHandler handler = findThingHandler(integrationId);
+
+        if (handler != null) {
+            try {
+                handler.handleUpdate(type, parameters);
+            } catch (Exception e) {
+                this.logger.error("Error processing update", e);
             }
+        } else {
+            this.logger.info("No thing configured for integration ID {}", integrationId);
         }
     }
 
@@ -349,15 +485,23 @@ public class IPBridgeHandler extends BaseBridgeHandler {
             Date date = new SimpleDateFormat(DB_UPDATE_DATE_FORMAT).parse(dateString + " " + timeString);
 
             if (this.lastDbUpdateDate == null || date.after(this.lastDbUpdateDate)) {
-                scanForDevices();
-
+                // Set the date first, the scan uses it to decide whether the cached project file is up to date
                 this.lastDbUpdateDate = date;
+
+                scanForDevices();
             }
         } catch (ParseException e) {
             logger.error("Failed to parse DB update date {} {}", dateString, timeString);
         }
     }
 
+    /**
+     * @return the time the device database was last updated, or null if it has not been received yet
+     */
+    public Date getDbUpdateDate() {
+        return this.lastDbUpdateDate;
+    }
+
     private void scanForDevices() {
         try {
             DiscoveryService service = this.bundleContext.getService(this.discoveryServiceRegistration.getReference());
@@ -10,14 +10,23 @@ package org.openhab.binding.lutron.internal.discovery;
 
 import static org.openhab.binding.lutron.LutronBindingConstants.*;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
 import org.eclipse.smarthome.config.discovery.DiscoveryResult;
 import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
@@ -25,14 +34,11 @@ import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.lutron.handler.IPBridgeHandler;
 import org.openhab.binding.lutron.internal.LutronHandlerFactory;
-import org.openhab.binding.lutron.internal.discovery.project.Area;
 import org.openhab.binding.lutron.internal.discovery.project.Device;
-import org.openhab.binding.lutron.internal.discovery.project.DeviceGroup;
-import org.openhab.binding.lutron.internal.discovery.project.DeviceNode;
 import org.openhab.binding.lutron.internal.discovery.project.DeviceType;
 import org.openhab.binding.lutron.internal.discovery.project.Output;
 import org.openhab.binding.lutron.internal.discovery.project.OutputType;
-import org.openhab.binding.lutron.internal.discovery.project.Project;
+import org.openhab.binding.lutron.internal.xml.DbXmlInfoListener;
 import org.openhab.binding.lutron.internal.xml.DbXmlInfoReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,10 +46,16 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@link LutronDeviceDiscoveryService} finds all devices paired with a Lutron bridge.
  *
+ * The project file of the bridge is streamed, every device and output is reported as soon as it has been read. The
+ * file is cached per device database version, so it is only downloaded again after the database has been updated.
+ *
  * @author Allan Tong - Initial contribution
  */
 public class LutronDeviceDiscoveryService extends AbstractDiscoveryService {
 
+    private static final String CACHE_FOLDER_NAME = "lutron";
+    private static final String CACHE_FILE_EXTENSION = ".xml";
+
     private final Logger logger = LoggerFactory.getLogger(LutronDeviceDiscoveryService.class);
 
     private IPBridgeHandler bridgeHandler;
@@ -78,55 +90,118 @@ public class LutronDeviceDiscoveryService extends AbstractDiscoveryService {
     }
 
     private void readDeviceDatabase() throws IOException {
-        String address = "http://" + this.bridgeHandler.getIPBridgeConfig().getIpAddress() + "/DbXmlInfo.xml";
-        URL dbXmlInfoUrl = new URL(address);
+        DbXmlInfoListener listener = new DbXmlInfoListener() {
+            @Override
+            public void deviceRead(Device device, List<String> location) {
+                processDevice(device, location);
+            }
+
+            @Override
+            public void outputRead(Output output, List<String> location) {
+                processOutput(output, location);
+            }
+        };
 
-        Project project = this.dbXmlInfoReader.readFromXML(dbXmlInfoUrl);
+        Date dbUpdateDate = this.bridgeHandler.getDbUpdateDate();
+        File cacheFile = dbUpdateDate != null ? getCacheFile(dbUpdateDate) : null;
 
-        if (project != null) {
-            Stack<String> locationContext = new Stack<>();
+        if (cacheFile != null && cacheFile.isFile()) {
+            logger.debug("Reading unchanged project file from {}", cacheFile);
 
-            for (Area area : project.getAreas()) {
-                processArea(area, locationContext);
+            try (InputStream in = new BufferedInputStream(new FileInputStream(cacheFile))) {
+                this.dbXmlInfoReader.read(in, listener);
+                return;
+            } catch (IOException e) {
+                logger.debug("Could not read cached project file {}, downloading it again: {}", cacheFile,
+                        e.getMessage());
+                cacheFile.delete();
             }
-        } else {
-            logger.info("Could not read project file at {}", address);
         }
-    }
 
-    private void processArea(Area area, Stack<String> context) {
-        context.push(area.getName());
+        String address = "http://" + this.bridgeHandler.getIPBridgeConfig().getIpAddress() + "/DbXmlInfo.xml";
+        URL dbXmlInfoUrl = new URL(address);
 
-        for (DeviceNode deviceNode : area.getDeviceNodes()) {
-            if (deviceNode instanceof DeviceGroup) {
-                processDeviceGroup((DeviceGroup) deviceNode, context);
-            } else if (deviceNode instanceof Device) {
-                processDevice((Device) deviceNode, context);
+        if (cacheFile == null || !downloadToCache(dbXmlInfoUrl, cacheFile)) {
+            // The project file is not cached, read it while downloading
+            try (InputStream in = new BufferedInputStream(dbXmlInfoUrl.openStream())) {
+                this.dbXmlInfoReader.read(in, listener);
             }
+            return;
         }
 
-        for (Output output : area.getOutputs()) {
-            processOutput(output, context);
+        try (InputStream in = new BufferedInputStream(new FileInputStream(cacheFile))) {
+            this.dbXmlInfoReader.read(in, listener);
+        } catch (IOException e) {
+            cacheFile.delete();
+            throw e;
         }
+    }
+
+    /**
+     * Returns the file caching the project file of the given device database version. The file name contains the
+     * bridge and the database update time, so a file of an outdated version is never read.
+     */
+    private File getCacheFile(Date dbUpdateDate) {
+        return new File(getCacheFolder(), getCacheFilePrefix() + dbUpdateDate.getTime() + CACHE_FILE_EXTENSION);
+    }
 
-        for (Area subarea : area.getAreas()) {
-            processArea(subarea, context);
+    private String getCacheFilePrefix() {
+        return this.bridgeHandler.getThing().getUID().getAsString().replace(':', '_') + "-";
+    }
+
+    /**
+     * Determines if the given file is a cached project file of this bridge. The bridge ID may contain '-' itself, so
+     * the rest of the name must be the database update time, otherwise it belongs to another bridge.
+     */
+    private boolean isCacheFileOfBridge(File file, String prefix) {
+        String name = file.getName();
+        if (!name.startsWith(prefix) || !name.endsWith(CACHE_FILE_EXTENSION)) {
+            return false;
         }
+        String version = name.substring(prefix.length(), name.length() - CACHE_FILE_EXTENSION.length());
+        return !version.isEmpty() && StringUtils.isNumeric(version);
+    }
 
-        context.pop();
+    private static File getCacheFolder() {
+        return new File(ConfigConstants.getUserDataFolder() + File.separator + CACHE_FOLDER_NAME);
     }
 
-    private void processDeviceGroup(DeviceGroup deviceGroup, Stack<String> context) {
-        context.push(deviceGroup.getName());
+    /**
+     * Downloads the project file into the cache file and removes cached files of older versions.
+     *
+     * @return false if the cache folder is not available
+     */
+    private boolean downloadToCache(URL dbXmlInfoUrl, File cacheFile) throws IOException {
+        File folder = cacheFile.getParentFile();
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            logger.debug("Cache folder {} not available", folder);
+            return false;
+        }
+
+        String prefix = getCacheFilePrefix();
+        File[] outdatedFiles = folder.listFiles();
+        if (outdatedFiles != null) {
+            for (File file : outdatedFiles) {
+                if (isCacheFileOfBridge(file, prefix)) {
+                    file.delete();
+                }
+            }
+        }
+
+        logger.debug("Downloading project file {} to {}", dbXmlInfoUrl, cacheFile);
 
-        for (Device device : deviceGroup.getDevices()) {
-            processDevice(device, context);
+        File tempFile = new File(folder, cacheFile.getName() + ".tmp");
+        try (InputStream in = dbXmlInfoUrl.openStream()) {
+            Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            tempFile.delete();
         }
 
-        context.pop();
+        return true;
     }
 
-    private void processDevice(Device device, Stack<String> context) {
+    private void processDevice(Device device, List<String> context) {
         DeviceType type = device.getDeviceType();
 
         if (type != null) {
@@ -151,7 +226,7 @@ public class LutronDeviceDiscoveryService extends AbstractDiscoveryService {
         }
     }
 
-    private void processOutput(Output output, Stack<String> context) {
+    private void processOutput(Output output, List<String> context) {
         OutputType type = output.getOutputType();
 
         if (type != null) {
@@ -194,7 +269,7 @@ public class LutronDeviceDiscoveryService extends AbstractDiscoveryService {
         logger.debug("Discovered {}", uid);
     }
 
-    private String generateLabel(Stack<String> context, String deviceName) {
+    private String generateLabel(List<String> context, String deviceName) {
         return String.join(" ", context) + " " + deviceName;
     }
 }
@@ -14,9 +14,15 @@ package org.openhab.binding.lutron.internal.discovery.project;
  * @author Allan Tong - Initial contribution
  */
 public class Output {
-    private String name;
-    private Integer integrationId;
-    private String type;
+    private final String name;
+    private final Integer integrationId;
+    private final String type;
+
+    public Output(String name, Integer integrationId, String type) {
+        this.name = name;
+        this.integrationId = integrationId;
+        this.type = type;
+    }
 
     public String getName() {
         return name;
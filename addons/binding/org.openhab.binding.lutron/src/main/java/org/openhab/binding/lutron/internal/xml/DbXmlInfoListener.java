@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.lutron.internal.xml;
+
+import java.util.List;
+
+import org.openhab.binding.lutron.internal.discovery.project.Device;
+import org.openhab.binding.lutron.internal.discovery.project.Output;
+
+/**
+ * Receives the devices and outputs read by the {@link DbXmlInfoReader}, in the order they appear in the project file.
+ *
+ * @author agent - Initial contribution
+ */
+public interface DbXmlInfoListener {
+
+    /**
+     * @param device the device
+     * @param location the names of the enclosing areas and device group, outermost first
+     */
+    void deviceRead(Device device, List<String> location);
+
+    /**
+     * @param output the output
+     * @param location the names of the enclosing areas, outermost first
+     */
+    void outputRead(Output output, List<String> location);
+}
@@ -8,77 +8,131 @@
  */
 package org.openhab.binding.lutron.internal.xml;
 
-import org.eclipse.smarthome.config.xml.util.XmlDocumentReader;
-import org.openhab.binding.lutron.internal.discovery.project.Area;
-import org.openhab.binding.lutron.internal.discovery.project.Component;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.openhab.binding.lutron.internal.discovery.project.Device;
-import org.openhab.binding.lutron.internal.discovery.project.DeviceGroup;
 import org.openhab.binding.lutron.internal.discovery.project.Output;
-import org.openhab.binding.lutron.internal.discovery.project.Project;
-
-import com.thoughtworks.xstream.XStream;
 
 /**
- * The {@link DbXmlInfoReader} reads Lutron XML project files and converts them to {@link Project}
- * objects describing the device things contained within the Lutron system.
+ * The {@link DbXmlInfoReader} reads Lutron XML project files (DbXmlInfo.xml) and reports the devices and outputs
+ * contained within the Lutron system to a {@link DbXmlInfoListener}.
+ *
+ * The file is read with a StAX stream reader, so only the current element and the names of the enclosing areas are
+ * held in memory, regardless of the size of the project. The reader is only interested in device thing information
+ * and skips everything else contained in DbXmlInfo, which also makes it tolerant of potential future changes to the
+ * XML schema.
  *
  * @author Allan Tong - Initial contribution
  */
-public class DbXmlInfoReader extends XmlDocumentReader<Project> {
+public class DbXmlInfoReader {
+
+    private static final String AREAS = "Areas";
+    private static final String AREA = "Area";
+    private static final String DEVICE_GROUPS = "DeviceGroups";
+    private static final String DEVICE_GROUP = "DeviceGroup";
+    private static final String DEVICES = "Devices";
+    private static final String DEVICE = "Device";
+    private static final String OUTPUTS = "Outputs";
+    private static final String OUTPUT = "Output";
+
+    private static final String ATTR_NAME = "Name";
+    private static final String ATTR_INTEGRATION_ID = "IntegrationID";
+    private static final String ATTR_DEVICE_TYPE = "DeviceType";
+    private static final String ATTR_OUTPUT_TYPE = "OutputType";
+
+    private final XMLInputFactory factory;
 
     public DbXmlInfoReader() {
-        super.setClassLoader(Project.class.getClassLoader());
+        this.factory = XMLInputFactory.newInstance();
+        this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
     }
 
-    @Override
-    public void registerConverters(XStream xstream) {
+    /**
+     * Reads a project file.
+     *
+     * @param in the project file
+     * @param listener the listener, which is called for every device and output while reading
+     * @throws IOException if the project file can not be read or is not well formed
+     */
+    public void read(InputStream in, DbXmlInfoListener listener) throws IOException {
+        // names of the open elements, the innermost last
+        List<String> elements = new ArrayList<>();
+        // names of the enclosing areas and device group, the innermost last
+        List<String> location = new ArrayList<>();
+        List<String> unmodifiableLocation = Collections.unmodifiableList(location);
+
+        XMLStreamReader reader = null;
+        try {
+            reader = this.factory.createXMLStreamReader(in);
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT: {
+                        String element = reader.getLocalName();
+                        String parent = elements.isEmpty() ? null : elements.get(elements.size() - 1);
+
+                        if (isLocation(element, parent)) {
+                            String name = reader.getAttributeValue(null, ATTR_NAME);
+                            location.add(name != null ? name : "");
+                        } else if (DEVICE.equals(element) && (DEVICES.equals(parent) || DEVICE_GROUPS.equals(parent))) {
+                            listener.deviceRead(new Device(reader.getAttributeValue(null, ATTR_NAME),
+                                    getIntegrationId(reader), reader.getAttributeValue(null, ATTR_DEVICE_TYPE)),
+                                    unmodifiableLocation);
+                        } else if (OUTPUT.equals(element) && OUTPUTS.equals(parent)) {
+                            listener.outputRead(new Output(reader.getAttributeValue(null, ATTR_NAME),
+                                    getIntegrationId(reader), reader.getAttributeValue(null, ATTR_OUTPUT_TYPE)),
+                                    unmodifiableLocation);
+                        }
+
+                        elements.add(element);
+                        break;
+                    }
+                    case XMLStreamConstants.END_ELEMENT: {
+                        String element = elements.remove(elements.size() - 1);
+                        String parent = elements.isEmpty() ? null : elements.get(elements.size() - 1);
+
+                        if (isLocation(element, parent)) {
+                            location.remove(location.size() - 1);
+                        }
+                        break;
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Error reading project file: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // ignore
+                }
+            }
+        }
     }
 
-    @Override
-    public void registerAliases(XStream xstream) {
-        xstream.alias("Project", Project.class);
-        xstream.aliasField("AppVer", Project.class, "appVersion");
-        xstream.aliasField("XMLVer", Project.class, "xmlVersion");
-        xstream.aliasField("Areas", Project.class, "areas");
-
-        xstream.alias("Area", Area.class);
-        xstream.aliasField("Name", Area.class, "name");
-        xstream.useAttributeFor(Area.class, "name");
-        xstream.aliasField("DeviceGroups", Area.class, "deviceNodes");
-        xstream.aliasField("Outputs", Area.class, "outputs");
-        xstream.aliasField("Areas", Area.class, "areas");
-
-        xstream.alias("DeviceGroup", DeviceGroup.class);
-        xstream.aliasField("Name", DeviceGroup.class, "name");
-        xstream.useAttributeFor(DeviceGroup.class, "name");
-        xstream.aliasField("Devices", DeviceGroup.class, "devices");
-
-        xstream.alias("Device", Device.class);
-        xstream.aliasField("Name", Device.class, "name");
-        xstream.useAttributeFor(Device.class, "name");
-        xstream.aliasField("IntegrationID", Device.class, "integrationId");
-        xstream.useAttributeFor(Device.class, "integrationId");
-        xstream.aliasField("DeviceType", Device.class, "type");
-        xstream.useAttributeFor(Device.class, "type");
-        xstream.aliasField("Components", Device.class, "components");
-
-        xstream.alias("Component", Component.class);
-        xstream.aliasField("ComponentNumber", Component.class, "componentNumber");
-        xstream.useAttributeFor(Component.class, "componentNumber");
-        xstream.aliasField("ComponentType", Component.class, "type");
-        xstream.useAttributeFor(Component.class, "type");
-
-        xstream.alias("Output", Output.class);
-        xstream.aliasField("Name", Output.class, "name");
-        xstream.useAttributeFor(Output.class, "name");
-        xstream.aliasField("IntegrationID", Output.class, "integrationId");
-        xstream.useAttributeFor(Output.class, "integrationId");
-        xstream.aliasField("OutputType", Output.class, "type");
-        xstream.useAttributeFor(Output.class, "type");
-
-        // This reader is only interested in device thing information and does not read
-        // everything contained in DbXmlInfo. Ignoring unknown elements also makes the
-        // binding more tolerant of potential future changes to the XML schema.
-        xstream.ignoreUnknownElements();
+    private static boolean isLocation(String element, String parent) {
+        return (AREA.equals(element) && AREAS.equals(parent))
+                || (DEVICE_GROUP.equals(element) && DEVICE_GROUPS.equals(parent));
+    }
+
+    private static Integer getIntegrationId(XMLStreamReader reader) {
+        String value = reader.getAttributeValue(null, ATTR_INTEGRATION_ID);
+
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.max.internal.handler;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.max.internal.command.L_Command;
+import org.openhab.binding.max.internal.command.S_Command;
+import org.openhab.binding.max.internal.device.ThermostatModeType;
+
+/**
+ * Tests cases for {@link MaxCubeCommandScheduler}.
+ *
+ * @author agent - Initial version
+ */
+public class MaxCubeCommandSchedulerTest {
+
+    private MaxCubeCommandScheduler scheduler;
+
+    @Before
+    public void before() {
+        scheduler = new MaxCubeCommandScheduler(5);
+        scheduler.startCycle();
+    }
+
+    private SendCommand radioCommand(String serial, double temperature) {
+        return new SendCommand(serial, new S_Command("0b0da3", 0, ThermostatModeType.MANUAL, temperature),
+                "Set " + temperature);
+    }
+
+    @Test
+    public void mergeTest() {
+        SendCommand first = radioCommand("KEQ0565026", 20.0);
+        SendCommand other = new SendCommand("Cube", new L_Command(), "Refresh");
+        SendCommand second = radioCommand("KEQ0565026", 21.0);
+
+        assertTrue(scheduler.queue(first.getKey(), first));
+        assertTrue(scheduler.queue(other.getKey(), other));
+        assertTrue(scheduler.queue(second.getKey(), second));
+
+        assertEquals(2, scheduler.size());
+        assertSame(second, scheduler.poll());
+        assertSame(other, scheduler.poll());
+        assertNull(scheduler.poll());
+    }
+
+    @Test
+    public void queueFullTest() {
+        for (int i = 0; i < 5; i++) {
+            SendCommand command = radioCommand("KEQ000000" + i, 20.0);
+            assertTrue(scheduler.queue(command.getKey(), command));
+        }
+        SendCommand command = radioCommand("KEQ0565026", 20.0);
+        assertFalse(scheduler.queue(command.getKey(), command));
+
+        // replacing a pending command is still possible
+        command = radioCommand("KEQ0000000", 22.0);
+        assertTrue(scheduler.queue(command.getKey(), command));
+    }
+
+    @Test
+    public void dutyCycleLimitTest() {
+        scheduler.updateCubeState(MaxCubeCommandScheduler.DUTY_CYCLE_LIMIT, 10);
+
+        SendCommand radio = radioCommand("KEQ0565026", 20.0);
+        SendCommand other = new SendCommand("Cube", new L_Command(), "Refresh");
+        scheduler.queue(radio.getKey(), radio);
+        scheduler.queue(other.getKey(), other);
+
+        assertSame(other, scheduler.poll());
+        assertNull(scheduler.poll());
+
+        scheduler.updateCubeState(0, 10);
+        scheduler.startCycle();
+        assertSame(radio, scheduler.poll());
+    }
+
+    @Test
+    public void noFreeMemoryTest() {
+        scheduler.updateCubeState(0, 0);
+
+        SendCommand radio = radioCommand("KEQ0565026", 20.0);
+        scheduler.queue(radio.getKey(), radio);
+
+        assertNull(scheduler.poll());
+    }
+
+    @Test
+    public void burstTest() {
+        for (int i = 0; i < 5; i++) {
+            SendCommand command = radioCommand("KEQ000000" + i, 20.0);
+            scheduler.queue(command.getKey(), command);
+        }
+
+        scheduler.updateCubeState(0, 10);
+        for (int i = 0; i < MaxCubeCommandScheduler.RADIO_BURST_SIZE; i++) {
+            assertNotNull(scheduler.poll());
+        }
+        assertNull(scheduler.poll());
+
+        scheduler.updateCubeState(MaxCubeCommandScheduler.DUTY_CYCLE_BURST_LIMIT, 10);
+        scheduler.startCycle();
+        assertNotNull(scheduler.poll());
+        assertNull(scheduler.poll());
+    }
+
+    @Test
+    public void requeueTest() {
+        SendCommand discarded = radioCommand("KEQ0565026", 20.0);
+        SendCommand newer = radioCommand("KEQ0565026", 21.0);
+        scheduler.queue(newer.getKey(), newer);
+
+        scheduler.requeue(discarded.getKey(), discarded);
+        assertSame(newer, scheduler.poll());
+
+        scheduler.requeue(discarded.getKey(), discarded);
+        assertSame(discarded, scheduler.poll());
+    }
+}
@@ -12,19 +12,24 @@ import static org.openhab.binding.max.MaxBinding.*;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
 import java.net.ConnectException;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -101,7 +106,10 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     /** timeout on network connection **/
     private static final int NETWORK_TIMEOUT = 10000;
 
-    private ArrayList<Device> devices = new ArrayList<Device>();
+    // iterated without lock, changes of the list and of both indexes are made while holding the lock of the list
+    private final List<Device> devices = new CopyOnWriteArrayList<Device>();
+    private Map<String, Device> devicesByRfAddress = new ConcurrentHashMap<String, Device>();
+    private Map<String, Device> devicesBySerial = new ConcurrentHashMap<String, Device>();
     private ArrayList<RoomInformation> rooms;
     private HashSet<String> lastActiveDevices = new HashSet<String>();
 
@@ -112,12 +120,15 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     private static final DecimalType DEFAULT_ON_TEMPERATURE = new DecimalType(30.5);
 
     private ArrayList<DeviceConfiguration> configurations = new ArrayList<DeviceConfiguration>();
+    private Map<String, DeviceConfiguration> configurationsBySerial = new ConcurrentHashMap<>();
 
     /** maximum queue size that we're allowing */
     private static final int MAX_COMMANDS = 50;
-    private ArrayBlockingQueue<SendCommand> commandQueue = new ArrayBlockingQueue<SendCommand>(MAX_COMMANDS);
+    private MaxCubeCommandScheduler commandScheduler = new MaxCubeCommandScheduler(MAX_COMMANDS);
 
-    private SendCommand lastCommandId = null;
+    /** last radio command sent, used to resend it when discarded by the Cube */
+    private SendCommand lastRadioCommand = null;
+    private String lastRadioCommandKey = null;
 
     private String ipAddress;
     private int port;
@@ -148,6 +159,20 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     private BufferedReader reader = null;
     private OutputStreamWriter writer = null;
 
+    /**
+     * In exclusive mode, the thread reading and processing all lines received on the connection
+     */
+    private volatile Thread readerThread = null;
+
+    private final Object responseLock = new Object();
+
+    /**
+     * The start of the line which completes the response the sender is waiting for, null if it has been received.
+     * Guarded by {@link #responseLock}, like {@link #connectionClosed}.
+     */
+    private String awaitedTerminator = null;
+    private boolean connectionClosed = false;
+
     private boolean previousOnline = false;
 
     private Set<DeviceStatusListener> deviceStatusListeners = new CopyOnWriteArraySet<>();
@@ -327,19 +352,24 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     }
 
     /**
-     * Takes a command from the command queue and send it to
-     * {@link executeCommand} for execution.
+     * Takes the commands from the command scheduler which can be sent with respect
+     * to the Cube's duty cycle and send them to {@link executeCommand} for execution.
      *
      */
-    private synchronized void sendCommands() {
+    private void sendCommands() {
 
-        SendCommand sendCommand = commandQueue.poll();
-        if (sendCommand != null) {
+        commandScheduler.startCycle();
+        SendCommand sendCommand;
+        while ((sendCommand = commandScheduler.poll()) != null) {
             CubeCommand cmd = sendCommand.getCubeCommand();
             if (cmd == null) {
                 cmd = getCommand(sendCommand);
             }
             if (cmd != null) {
+                if (MaxCubeCommandScheduler.isRadioCommand(sendCommand)) {
+                    lastRadioCommand = sendCommand;
+                    lastRadioCommandKey = getSchedulingKey(sendCommand);
+                }
                 // Actual sending of the data to the Max! Cube Lan Gateway
                 logger.debug("Command {} ({}:{}) sent to MAX! Cube at IP: {}", sendCommand.getId(),
                         sendCommand.getKey(), sendCommand.getCommandText(), ipAddress);
@@ -350,9 +380,14 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                 } else {
                     logger.warn("Error sending command {} ({}:{}) to MAX! Cube at IP: {}", sendCommand.getId(),
                             sendCommand.getKey(), sendCommand.getCommandText(), ipAddress);
+                    break;
                 }
             }
         }
+        if (commandScheduler.size() > 0) {
+            logger.debug("{} commands waiting. Duty Cycle: {}, Free Memory Slots: {}", commandScheduler.size(),
+                    dutyCycle, freeMemorySlots);
+        }
     }
 
     /**
@@ -449,7 +484,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
      * @param {@link CubeCommand}
      * @return boolean success
      */
-    private synchronized boolean sendCubeCommand(CubeCommand command) {
+    private boolean sendCubeCommand(CubeCommand command) {
         synchronized (MaxCubeBridgeHandler.class) {
             boolean sendSuccess = false;
             try {
@@ -476,6 +511,9 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                             this.socketConnect();
                         }
 
+                        if (readerThread != null) {
+                            expectResponse(command.getReturnStrings());
+                        }
                         writer.write(command.getCommandString());
                         logger.trace("Write string to Max! Cube {}: {}", ipAddress, command.getCommandString());
                         writer.flush();
@@ -524,32 +562,16 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         if (terminator == null) {
             return;
         }
+        if (readerThread != null) {
+            awaitResponse();
+            return;
+        }
         boolean cont = true;
         while (cont) {
             String raw = reader.readLine();
             if (raw != null) {
                 logger.trace("message block: '{}'", raw);
-                try {
-                    this.messageProcessor.addReceivedLine(raw);
-                    if (this.messageProcessor.isMessageAvailable()) {
-                        Message message = this.messageProcessor.pull();
-                        processMessage(message);
-
-                    }
-                } catch (UnprocessableMessageException e) {
-                    if (raw.contentEquals("M:")) {
-                        logger.info("No Rooms information found. Configure your MAX! Cube: {}", ipAddress);
-                        this.messageProcessor.reset();
-                    } else {
-                        logger.info("Message could not be processed: '{}' from MAX! Cube lan gateway: {}:", raw,
-                                ipAddress);
-                        this.messageProcessor.reset();
-                    }
-                } catch (Exception e) {
-                    logger.info("Error while handling message block: '{}' from MAX! Cube lan gateway: {}:", raw,
-                            ipAddress, e.getMessage(), e);
-                    this.messageProcessor.reset();
-                }
+                processReceivedLine(raw);
                 if (terminator == null || raw.startsWith(terminator)) {
                     cont = false;
                 }
@@ -559,6 +581,90 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         }
     }
 
+    /**
+     * Sets the start of the line which completes the response to the next command. This has to be called before the
+     * command is written, as the response is processed by the reader thread.
+     *
+     * @param terminator String with ending messagetype e.g. L:
+     */
+    private void expectResponse(String terminator) {
+        synchronized (responseLock) {
+            awaitedTerminator = terminator;
+        }
+    }
+
+    /**
+     * Waits until the reader thread has processed the line completing the expected response.
+     *
+     * @throws IOException if the response is not received in time or the connection has been closed
+     */
+    private void awaitResponse() throws IOException {
+        long deadline = System.currentTimeMillis() + socket.getSoTimeout();
+        synchronized (responseLock) {
+            while (awaitedTerminator != null) {
+                if (connectionClosed) {
+                    throw new IOException("Connection to MAX! Cube closed");
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException("No response from MAX! Cube");
+                }
+                try {
+                    responseLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for MAX! Cube");
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes a line received by the reader thread and wakes up the sender, if the line completes the response it
+     * is waiting for.
+     *
+     * @param raw the line received from the Cube
+     */
+    private void onLineReceived(String raw) {
+        logger.trace("message block: '{}'", raw);
+        processReceivedLine(raw);
+        synchronized (responseLock) {
+            if (awaitedTerminator != null && raw.startsWith(awaitedTerminator)) {
+                awaitedTerminator = null;
+                responseLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Adds a received line to the message processor and processes the message
+     * once it is complete.
+     *
+     * @param raw the line received from the Cube
+     */
+    private void processReceivedLine(String raw) {
+        try {
+            this.messageProcessor.addReceivedLine(raw);
+            if (this.messageProcessor.isMessageAvailable()) {
+                Message message = this.messageProcessor.pull();
+                processMessage(message);
+
+            }
+        } catch (UnprocessableMessageException e) {
+            if (raw.contentEquals("M:")) {
+                logger.info("No Rooms information found. Configure your MAX! Cube: {}", ipAddress);
+                this.messageProcessor.reset();
+            } else {
+                logger.info("Message could not be processed: '{}' from MAX! Cube lan gateway: {}:", raw, ipAddress);
+                this.messageProcessor.reset();
+            }
+        } catch (Exception e) {
+            logger.info("Error while handling message block: '{}' from MAX! Cube lan gateway: {}:", raw, ipAddress,
+                    e.getMessage(), e);
+            this.messageProcessor.reset();
+        }
+    }
+
     /**
      * Processes the message
      *
@@ -577,6 +683,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                     dutyCycle = dutyCycleMsg;
                     updateCubeState();
                 }
+                commandScheduler.updateCubeState(dutyCycle, freeMemorySlots);
                 if (!propertiesSet) {
                     setProperties((H_Message) message);
                     queueCommand(new SendCommand("Cube(" + getThing().getUID().getId() + ")", new F_Command(),
@@ -593,20 +700,14 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                 }
                 setProperties(msg);
                 for (DeviceInformation di : msg.devices) {
-                    DeviceConfiguration c = null;
-                    for (DeviceConfiguration conf : configurations) {
-                        if (conf.getSerialNumber().equalsIgnoreCase(di.getSerialNumber())) {
-                            c = conf;
-                            break;
-                        }
-                    }
+                    DeviceConfiguration c = configurationsBySerial.get(di.getSerialNumber().toUpperCase());
 
                     if (c != null) {
                         configurations.remove(c);
                     }
 
                     c = DeviceConfiguration.create(di);
-                    configurations.add(c);
+                    addConfiguration(c);
                     c.setRoomId(di.getRoomId());
                     String roomName = "";
                     for (RoomInformation room : msg.rooms) {
@@ -617,16 +718,11 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                     c.setRoomName(roomName);
                 }
             } else if (message.getType() == MessageType.C) {
-                DeviceConfiguration c = null;
-                for (DeviceConfiguration conf : configurations) {
-                    if (conf.getSerialNumber().equalsIgnoreCase(((C_Message) message).getSerialNumber())) {
-                        c = conf;
-                        break;
-                    }
-                }
+                DeviceConfiguration c = configurationsBySerial
+                        .get(((C_Message) message).getSerialNumber().toUpperCase());
 
                 if (c == null) {
-                    configurations.add(DeviceConfiguration.create(message));
+                    addConfiguration(DeviceConfiguration.create(message));
                 } else {
                     c.setValues((C_Message) message);
                     Device di = getDevice(((C_Message) message).getSerialNumber());
@@ -651,15 +747,28 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                     }
                 }
             } else if (message.getType() == MessageType.L) {
-                ((L_Message) message).updateDevices(devices, configurations);
+                synchronized (devices) {
+                    int knownDevices = devices.size();
+                    ((L_Message) message).updateDevices(devices, devicesByRfAddress, configurations);
+                    for (int i = knownDevices; i < devices.size(); i++) {
+                        Device device = devices.get(i);
+                        devicesBySerial.put(device.getSerialNumber().toUpperCase(), device);
+                    }
+                }
                 logger.trace("{} devices found.", devices.size());
             } else if (message.getType() == MessageType.S) {
                 dutyCycle = ((S_Message) message).getDutyCycle();
                 freeMemorySlots = ((S_Message) message).getFreeMemorySlots();
                 updateCubeState();
+                commandScheduler.updateCubeState(dutyCycle, freeMemorySlots);
                 if (((S_Message) message).isCommandDiscarded()) {
                     logger.warn("Last Send Command discarded. Duty Cycle: {}, Free Memory Slots: {}", dutyCycle,
                             freeMemorySlots);
+                    if (lastRadioCommand != null) {
+                        // resend once the duty cycle permits, unless superseded by a newer command
+                        commandScheduler.requeue(lastRadioCommandKey, lastRadioCommand);
+                        lastRadioCommand = null;
+                    }
                 } else {
                     logger.debug("S message. Duty Cycle: {}, Free Memory Slots: {}", dutyCycle, freeMemorySlots);
                 }
@@ -744,15 +853,6 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         logger.debug("NTP properties updated");
     }
 
-    private Device getDevice(String serialNumber, ArrayList<Device> devices) {
-        for (Device device : devices) {
-            if (device.getSerialNumber().toUpperCase().equals(serialNumber)) {
-                return device;
-            }
-        }
-        return null;
-    }
-
     /**
      * Returns the MAX! Device decoded during the last refreshData
      *
@@ -762,7 +862,29 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
      */
 
     public Device getDevice(String serialNumber) {
-        return getDevice(serialNumber, devices);
+        if (serialNumber == null) {
+            return null;
+        }
+        return devicesBySerial.get(serialNumber.toUpperCase());
+    }
+
+    /**
+     * Returns the MAX! Device with the given RF address
+     *
+     * @param rfAddress
+     *            the RF address of the device as String
+     * @return device the {@link Device} or null if not known
+     */
+    public Device getDeviceByRfAddress(String rfAddress) {
+        if (rfAddress == null) {
+            return null;
+        }
+        return devicesByRfAddress.get(rfAddress.toUpperCase());
+    }
+
+    private void addConfiguration(DeviceConfiguration configuration) {
+        configurations.add(configuration);
+        configurationsBySerial.put(configuration.getSerialNumber().toUpperCase(), configuration);
     }
 
     /**
@@ -777,18 +899,9 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
      *            String the channelUID used to send the command and the the
      *            command data
      */
-    public synchronized void queueCommand(SendCommand sendCommand) {
-
-        if (commandQueue.offer(sendCommand)) {
-            if (lastCommandId != null) {
-                if (lastCommandId.getKey().equals(sendCommand.getKey())) {
-                    if (commandQueue.remove(lastCommandId)) {
-                        logger.debug("Removed Command id {} ({}) from queue. Superceeded by {}", lastCommandId.getId(),
-                                lastCommandId.getKey(), sendCommand.getId());
-                    }
-                }
-            }
-            lastCommandId = sendCommand;
+    public void queueCommand(SendCommand sendCommand) {
+
+        if (commandScheduler.queue(getSchedulingKey(sendCommand), sendCommand)) {
             logger.debug("Command queued id {} ({}:{}).", sendCommand.getId(), sendCommand.getKey(),
                     sendCommand.getCommandText());
 
@@ -798,6 +911,24 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
 
     }
 
+    /**
+     * Returns the key used to merge pending commands. Channel commands for
+     * thermostats assigned to a room are sent to the whole room, hence they
+     * supersede pending commands for other thermostats in the same room.
+     *
+     * @param sendCommand the {@link SendCommand}
+     * @return the key
+     */
+    private String getSchedulingKey(SendCommand sendCommand) {
+        if (sendCommand.getCubeCommand() == null && sendCommand.getChannelUID() != null) {
+            Device device = getDevice(sendCommand.getDeviceSerial());
+            if (device instanceof HeatingThermostat && device.getRoomId() != 0) {
+                return "room" + device.getRoomId() + "-" + sendCommand.getChannelUID().getId();
+            }
+        }
+        return sendCommand.getKey();
+    }
+
     /**
      * Processes device command and sends it to the MAX! Cube Lan Gateway.
      *
@@ -813,13 +944,14 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         Command command = sendCommand.getCommand();
 
         // send command to MAX! Cube LAN Gateway
-        HeatingThermostat device = (HeatingThermostat) getDevice(serialNumber, devices);
+        Device maxDevice = getDevice(serialNumber);
 
-        if (device == null) {
+        if (!(maxDevice instanceof HeatingThermostat)) {
             logger.debug("Cannot send command to device with serial number {}, device not listed.", serialNumber);
             return null;
         }
 
+        HeatingThermostat device = (HeatingThermostat) maxDevice;
         String rfAddress = device.getRFAddress();
         S_Command cmd = null;
 
@@ -870,7 +1002,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     public void sendDeviceAndRoomNameUpdate(String comment) {
         if (devices.size() > 0) {
             SendCommand sendCommand = new SendCommand("Cube(" + getThing().getUID().getId() + ")",
-                    new M_Command(devices, rooms), comment);
+                    new M_Command(new ArrayList<Device>(devices), rooms), comment);
             queueCommand(sendCommand);
         } else {
             logger.debug("No devices to build room & device update message. Try later");
@@ -888,7 +1020,11 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
             SendCommand sendCommand = new SendCommand(maxDeviceSerial, new T_Command(device.getRFAddress(), true),
                     "Delete device " + maxDeviceSerial + " from Cube!");
             queueCommand(sendCommand);
-            devices.remove(device);
+            synchronized (devices) {
+                devices.remove(device);
+                devicesByRfAddress.remove(device.getRFAddress().toUpperCase());
+                devicesBySerial.remove(maxDeviceSerial.toUpperCase());
+            }
             sendDeviceAndRoomNameUpdate("Remove name entry for " + maxDeviceSerial);
             sendCommand = new SendCommand(maxDeviceSerial, new Q_Command(), "Reload Data");
             queueCommand(sendCommand);
@@ -915,13 +1051,27 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         socket = new Socket(ipAddress, port);
         socket.setSoTimeout((NETWORK_TIMEOUT));
         logger.debug("Open new connection... to {} port {}", ipAddress, port);
-        reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
         writer = new OutputStreamWriter(socket.getOutputStream());
         requestCount = 0;
+        if (exclusive) {
+            // the Cube sends its state right after connecting and further messages without a request
+            reader = null;
+            synchronized (responseLock) {
+                awaitedTerminator = "L:";
+                connectionClosed = false;
+            }
+            Thread thread = new Thread(new SocketReader(socket), "MAX! Cube reader " + ipAddress);
+            thread.setDaemon(true);
+            readerThread = thread;
+            thread.start();
+        } else {
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        }
         return true;
     }
 
     private void socketClose() {
+        readerThread = null;
         try {
             socket.close();
         } catch (Exception e) {
@@ -929,6 +1079,65 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         socket = null;
     }
 
+    /**
+     * Reads the lines received on an exclusive connection until it is closed. Only complete lines are processed, the
+     * reader thread does not hold the lock of the command senders, so it never blocks them.
+     */
+    private class SocketReader implements Runnable {
+        private final Socket readerSocket;
+
+        private SocketReader(Socket readerSocket) {
+            this.readerSocket = readerSocket;
+        }
+
+        @Override
+        public void run() {
+            StringBuilder line = new StringBuilder();
+            byte[] buffer = new byte[1024];
+            try {
+                InputStream in = readerSocket.getInputStream();
+                while (readerThread == Thread.currentThread()) {
+                    int read;
+                    try {
+                        read = in.read(buffer);
+                    } catch (SocketTimeoutException e) {
+                        continue;
+                    }
+                    if (read < 0) {
+                        logger.debug("Connection closed by MAX! Cube {}", ipAddress);
+                        break;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        char c = (char) (buffer[i] & 0xFF);
+                        if (c == '\n') {
+                            onLineReceived(line.toString());
+                            line.setLength(0);
+                        } else if (c != '\r') {
+                            line.append(c);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (readerThread == Thread.currentThread()) {
+                    logger.debug("IO error occurred reading from MAX! Cube: {}", e.getMessage());
+                }
+            } finally {
+                try {
+                    // reconnect on next execution
+                    readerSocket.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+                synchronized (responseLock) {
+                    if (readerThread == Thread.currentThread()) {
+                        connectionClosed = true;
+                        responseLock.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
     private void updateCubeState() {
         updateState(new ChannelUID(getThing().getUID(), CHANNEL_FREE_MEMORY), new DecimalType(freeMemorySlots));
         updateState(new ChannelUID(getThing().getUID(), CHANNEL_DUTY_CYCLE), new DecimalType(dutyCycle));
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.max.internal.handler;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.max.internal.command.CubeCommand;
+import org.openhab.binding.max.internal.command.S_Command;
+import org.openhab.binding.max.internal.command.S_ConfigCommand;
+import org.openhab.binding.max.internal.command.Z_Command;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link MaxCubeCommandScheduler} holds the commands waiting to be sent to the MAX! Cube and decides which
+ * command may be sent next.
+ *
+ * Pending commands with the same scheduling key are merged, the newest command replaces the older one while keeping
+ * its position in the queue. Commands which need to be transmitted by radio are paced based on the duty cycle and
+ * the free memory slots last reported by the Cube, commands handled by the Cube itself are always passed.
+ *
+ * @author agent - Initial contribution
+ */
+public class MaxCubeCommandScheduler {
+
+    /** Duty cycle (%) from which on no further radio commands are sent */
+    static final int DUTY_CYCLE_LIMIT = 80;
+
+    /** Duty cycle (%) below which multiple radio commands are sent per cycle */
+    static final int DUTY_CYCLE_BURST_LIMIT = 40;
+
+    /** Maximum number of radio commands sent per cycle */
+    static final int RADIO_BURST_SIZE = 3;
+
+    /** Time after which a blocking duty cycle report is no longer trusted and a single command is tried */
+    static final long CUBE_STATE_EXPIRY = TimeUnit.MINUTES.toMillis(2);
+
+    private final Logger logger = LoggerFactory.getLogger(MaxCubeCommandScheduler.class);
+
+    private final int maxCommands;
+    private final LinkedHashMap<String, SendCommand> pendingCommands = new LinkedHashMap<String, SendCommand>();
+
+    private int dutyCycle = 0;
+    private int freeMemorySlots = -1;
+    private long cubeStateTimestamp = 0;
+    private int radioCommandsInCycle = 0;
+
+    public MaxCubeCommandScheduler(int maxCommands) {
+        this.maxCommands = maxCommands;
+    }
+
+    /**
+     * Adds a command to the schedule. A pending command with the same key is replaced.
+     *
+     * @param key the scheduling key, commands with the same key supersede each other
+     * @param sendCommand the command to be sent
+     * @return false if the command could not be queued as the queue is full
+     */
+    public synchronized boolean queue(String key, SendCommand sendCommand) {
+        SendCommand superseded = pendingCommands.get(key);
+        if (superseded == null && pendingCommands.size() >= maxCommands) {
+            return false;
+        }
+        pendingCommands.put(key, sendCommand);
+        if (superseded != null) {
+            logger.debug("Removed Command id {} ({}) from queue. Superceeded by {}", superseded.getId(),
+                    superseded.getKey(), sendCommand.getId());
+        }
+        return true;
+    }
+
+    /**
+     * Adds a previously sent command again, unless a newer command with the same key is already waiting.
+     *
+     * @param key the scheduling key
+     * @param sendCommand the command to be sent again
+     */
+    public synchronized void requeue(String key, SendCommand sendCommand) {
+        if (!pendingCommands.containsKey(key) && pendingCommands.size() < maxCommands) {
+            pendingCommands.put(key, sendCommand);
+        }
+    }
+
+    /**
+     * Starts a new send cycle, resetting the number of radio commands sent.
+     */
+    public synchronized void startCycle() {
+        radioCommandsInCycle = 0;
+    }
+
+    /**
+     * Takes the next command which can be sent with respect to the current Cube state.
+     *
+     * @return the {@link SendCommand} or null if no command can be sent in this cycle
+     */
+    public synchronized SendCommand poll() {
+        boolean radioAllowed = isRadioAllowed();
+        Iterator<Entry<String, SendCommand>> iterator = pendingCommands.entrySet().iterator();
+        while (iterator.hasNext()) {
+            SendCommand sendCommand = iterator.next().getValue();
+            boolean radio = isRadioCommand(sendCommand);
+            if (!radio || radioAllowed) {
+                iterator.remove();
+                if (radio) {
+                    radioCommandsInCycle++;
+                    if (isBlocked()) {
+                        // wait another period before the next try if the Cube does not report a new state
+                        cubeStateTimestamp = System.currentTimeMillis();
+                    }
+                }
+                return sendCommand;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Updates the Cube state used for pacing the radio commands.
+     *
+     * @param dutyCycle the duty cycle reported by the Cube
+     * @param freeMemorySlots the free memory slots reported by the Cube
+     */
+    public synchronized void updateCubeState(int dutyCycle, int freeMemorySlots) {
+        this.dutyCycle = dutyCycle;
+        this.freeMemorySlots = freeMemorySlots;
+        cubeStateTimestamp = System.currentTimeMillis();
+    }
+
+    public synchronized int size() {
+        return pendingCommands.size();
+    }
+
+    public synchronized void clear() {
+        pendingCommands.clear();
+    }
+
+    private boolean isBlocked() {
+        return dutyCycle >= DUTY_CYCLE_LIMIT || freeMemorySlots == 0;
+    }
+
+    private boolean isRadioAllowed() {
+        if (isBlocked()) {
+            if (radioCommandsInCycle == 0 && System.currentTimeMillis() - cubeStateTimestamp > CUBE_STATE_EXPIRY) {
+                // No newer state is reported unless something is sent, try a single command
+                return true;
+            }
+            return false;
+        }
+        int burstSize = dutyCycle < DUTY_CYCLE_BURST_LIMIT ? RADIO_BURST_SIZE : 1;
+        return radioCommandsInCycle < burstSize;
+    }
+
+    /**
+     * @return true if the command needs to be transmitted by the Cube to a device
+     */
+    static boolean isRadioCommand(SendCommand sendCommand) {
+        CubeCommand cubeCommand = sendCommand.getCubeCommand();
+        // commands without cube command are translated into S commands
+        return cubeCommand == null || cubeCommand instanceof S_Command || cubeCommand instanceof S_ConfigCommand
+                || cubeCommand instanceof Z_Command;
+    }
+}
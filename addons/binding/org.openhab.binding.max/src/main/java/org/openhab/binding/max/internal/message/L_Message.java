@@ -10,7 +10,9 @@ package org.openhab.binding.max.internal.message;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.net.util.Base64;
 import org.openhab.binding.max.internal.Utils;
@@ -52,6 +54,24 @@ public final class L_Message extends Message {
     }
 
     public Collection<? extends Device> updateDevices(List<Device> devices, List<DeviceConfiguration> configurations) {
+        Map<String, Device> devicesByRfAddress = new HashMap<String, Device>();
+        for (Device device : devices) {
+            devicesByRfAddress.put(device.getRFAddress().toUpperCase(), device);
+        }
+        return updateDevices(devices, devicesByRfAddress, configurations);
+    }
+
+    /**
+     * Updates the devices with the real time information of this message. Devices not yet known are created and
+     * added to both the list and the index.
+     *
+     * @param devices the list of known devices
+     * @param devicesByRfAddress index of the known devices by their upper case RF address
+     * @param configurations the device configurations used to create new devices
+     * @return the list of devices
+     */
+    public Collection<? extends Device> updateDevices(List<Device> devices, Map<String, Device> devicesByRfAddress,
+            List<DeviceConfiguration> configurations) {
 
         byte[] decodedRawMessage = Base64.decodeBase64(getPayload().getBytes());
 
@@ -60,24 +80,15 @@ public final class L_Message extends Message {
         while (tokenizer.hasMoreElements()) {
             byte[] token = tokenizer.nextElement();
             String rfAddress = Utils.toHex(token[0] & 0xFF, token[1] & 0xFF, token[2] & 0xFF);
-            // logger.debug("token: "+token+" rfaddress: "+rfAddress);
-
-            Device foundDevice = null;
-            for (Device device : devices) {
-                // logger.debug(device.getRFAddress().toUpperCase()+ " vs "+rfAddress);
-                if (device.getRFAddress().toUpperCase().equals(rfAddress)) {
-                    // logger.debug("Updating device..."+rfAddress);
-                    foundDevice = device;
-                }
-            }
+
+            Device foundDevice = devicesByRfAddress.get(rfAddress);
             if (foundDevice != null) {
-                foundDevice = Device.update(token, configurations, foundDevice);
-                // devices.remove(token);
-                // devices.add(foundDevice);
+                Device.update(token, configurations, foundDevice);
             } else {
                 Device tempDevice = Device.create(token, configurations);
                 if (tempDevice != null) {
                     devices.add(tempDevice);
+                    devicesByRfAddress.put(rfAddress, tempDevice);
                 }
             }
         }
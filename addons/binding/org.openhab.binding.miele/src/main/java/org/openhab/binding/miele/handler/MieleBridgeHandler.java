@@ -21,9 +21,9 @@ import java.net.HttpURLConnection;
 import java.net.InetAddress;
 import java.net.MalformedURLException;
 import java.net.MulticastSocket;
-import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -71,6 +72,9 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
             .compile("^(([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.){3}([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
 
     protected final int POLLING_PERIOD = 15; // in seconds
+    protected final int FULL_REFRESH_PERIOD = 300; // in seconds
+    protected final int EVENT_LISTENER_RESTART_DELAY = 5; // in seconds
+    protected final int HTTP_TIMEOUT = 10000; // in milliseconds
     protected final int JSON_RPC_PORT = 2810;
     protected final String JSON_RPC_MULTICAST_IP1 = "239.255.68.139";
     protected final String JSON_RPC_MULTICAST_IP2 = "224.255.68.139";
@@ -85,7 +89,14 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
     protected ScheduledFuture<?> pollingJob;
     protected ScheduledFuture<?> eventListenerJob;
 
-    protected List<HomeDevice> previousHomeDevices = new CopyOnWriteArrayList<HomeDevice>();
+    protected Map<String, HomeDevice> cachedHomeDevicesByUID = new ConcurrentHashMap<String, HomeDevice>();
+    // hash of the home device as last seen by the polling job, by UID
+    protected Map<String, Integer> applianceStateHashes = new ConcurrentHashMap<String, Integer>();
+    // UIDs of the appliances whose device class objects have to be fetched by the next polling cycle
+    protected Set<String> dirtyAppliances = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    protected volatile boolean fullRefreshRequested = true;
+    protected long lastFullRefresh;
+    protected volatile MulticastSocket eventSocket;
 
     protected URL url;
     protected Map<String, String> headers;
@@ -207,64 +218,52 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
 
                     if (currentBridgeConnectionState) {
                         if (getThing().getStatus() == ThingStatus.ONLINE) {
-                            List<HomeDevice> currentHomeDevices = getHomeDevices();
-                            for (HomeDevice hd : currentHomeDevices) {
-                                boolean isExisting = false;
-                                for (HomeDevice phd : previousHomeDevices) {
-                                    if (phd.UID.equals(hd.UID)) {
-                                        isExisting = true;
-                                        break;
-                                    }
-                                }
-                                if (!isExisting) {
+                            Map<String, HomeDevice> currentHomeDevices = new HashMap<String, HomeDevice>();
+                            for (HomeDevice hd : getHomeDevices()) {
+                                currentHomeDevices.put(hd.UID, hd);
+                            }
+
+                            for (HomeDevice hd : currentHomeDevices.values()) {
+                                if (!cachedHomeDevicesByUID.containsKey(hd.UID)) {
                                     logger.info("A new appliance with ID '{}' has been added", hd.UID);
                                     for (ApplianceStatusListener listener : applianceStatusListeners) {
                                         listener.onApplianceAdded(hd);
                                     }
                                 }
+                                Integer stateHash = gson.toJson(hd).hashCode();
+                                if (!stateHash.equals(applianceStateHashes.put(hd.UID, stateHash))) {
+                                    dirtyAppliances.add(hd.UID);
+                                }
                             }
 
-                            for (HomeDevice hd : previousHomeDevices) {
-                                boolean isCurrent = false;
-                                for (HomeDevice chd : currentHomeDevices) {
-                                    if (chd.UID.equals(hd.UID)) {
-                                        isCurrent = true;
-                                        break;
-                                    }
-                                }
-                                if (!isCurrent) {
+                            for (HomeDevice hd : cachedHomeDevicesByUID.values()) {
+                                if (!currentHomeDevices.containsKey(hd.UID)) {
                                     logger.info("The appliance with ID '{}' has been removed", hd);
+                                    applianceStateHashes.remove(hd.UID);
                                     for (ApplianceStatusListener listener : applianceStatusListeners) {
                                         listener.onApplianceRemoved(hd);
                                     }
                                 }
                             }
 
-                            previousHomeDevices = currentHomeDevices;
+                            cachedHomeDevicesByUID = new ConcurrentHashMap<String, HomeDevice>(currentHomeDevices);
+
+                            // multicast events may get lost, so all appliances are refreshed once in a while
+                            long now = System.currentTimeMillis();
+                            boolean fullRefresh = fullRefreshRequested
+                                    || now - lastFullRefresh >= TimeUnit.SECONDS.toMillis(FULL_REFRESH_PERIOD);
+                            if (fullRefresh) {
+                                fullRefreshRequested = false;
+                                lastFullRefresh = now;
+                            }
 
                             for (Thing appliance : getThing().getThings()) {
                                 if (appliance.getStatus() == ThingStatus.ONLINE) {
                                     String UID = "hdm:ZigBee:"
                                             + (String) appliance.getConfiguration().getProperties().get(APPLIANCE_ID);
 
-                                    Object[] args = new Object[2];
-                                    args[0] = UID;
-                                    args[1] = true;
-                                    JsonElement result = invokeRPC("HDAccess/getDeviceClassObjects", args);
-
-                                    if (result != null) {
-                                        for (JsonElement obj : result.getAsJsonArray()) {
-                                            try {
-                                                DeviceClassObject dco = gson.fromJson(obj, DeviceClassObject.class);
-
-                                                for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                                    listener.onApplianceStateChanged(UID, dco);
-                                                }
-                                            } catch (Exception e) {
-                                                logger.error("An exception occurred while quering an appliance : '{}'",
-                                                        e.getMessage());
-                                            }
-                                        }
+                                    if (dirtyAppliances.remove(UID) || fullRefresh) {
+                                        fetchDeviceClassObjects(UID);
                                     }
                                 }
                             }
@@ -279,6 +278,28 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
             }
         }
 
+        private void fetchDeviceClassObjects(String UID) {
+            logger.trace("Fetching the device class objects of appliance '{}'", UID);
+            Object[] args = new Object[2];
+            args[0] = UID;
+            args[1] = true;
+            JsonElement result = invokeRPC("HDAccess/getDeviceClassObjects", args);
+
+            if (result != null) {
+                for (JsonElement obj : result.getAsJsonArray()) {
+                    try {
+                        DeviceClassObject dco = gson.fromJson(obj, DeviceClassObject.class);
+
+                        for (ApplianceStatusListener listener : applianceStatusListeners) {
+                            listener.onApplianceStateChanged(UID, dco);
+                        }
+                    } catch (Exception e) {
+                        logger.error("An exception occurred while quering an appliance : '{}'", e.getMessage());
+                    }
+                }
+            }
+        }
+
         private boolean isReachable(String ipAddress) {
             try {
                 // note that InetAddress.isReachable is unreliable, see
@@ -326,88 +347,101 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         @Override
         public void run() {
             if (IP_PATTERN.matcher((String) getConfig().get(INTERFACE)).matches()) {
-                while (true) {
-                    // Get the address that we are going to connect to.
-                    InetAddress address1 = null;
-                    InetAddress address2 = null;
-                    try {
-                        address1 = InetAddress.getByName(JSON_RPC_MULTICAST_IP1);
-                        address2 = InetAddress.getByName(JSON_RPC_MULTICAST_IP2);
-                    } catch (UnknownHostException e) {
-                        logger.error("An exception occurred while setting up the multicast receiver : '{}'",
-                                e.getMessage());
-                    }
+                // Get the address that we are going to connect to.
+                InetAddress address1 = null;
+                InetAddress address2 = null;
+                try {
+                    address1 = InetAddress.getByName(JSON_RPC_MULTICAST_IP1);
+                    address2 = InetAddress.getByName(JSON_RPC_MULTICAST_IP2);
+                } catch (UnknownHostException e) {
+                    logger.error("An exception occurred while setting up the multicast receiver : '{}'",
+                            e.getMessage());
+                    return;
+                }
 
-                    byte[] buf = new byte[256];
-                    MulticastSocket clientSocket = null;
+                byte[] buf = new byte[256];
+                DatagramPacket packet = new DatagramPacket(buf, buf.length);
 
-                    while (true) {
-                        try {
-                            clientSocket = new MulticastSocket(JSON_RPC_PORT);
-                            clientSocket.setSoTimeout(100);
-
-                            clientSocket.setInterface(InetAddress.getByName((String) getConfig().get(INTERFACE)));
-                            clientSocket.joinGroup(address1);
-                            clientSocket.joinGroup(address2);
-
-                            while (true) {
-                                try {
-                                    buf = new byte[256];
-                                    DatagramPacket packet = new DatagramPacket(buf, buf.length);
-                                    clientSocket.receive(packet);
-
-                                    String event = new String(packet.getData());
-                                    logger.debug("Received a multicast event '{}' from '{}:{}'",
-                                            new Object[] { event, packet.getAddress(), packet.getPort() });
-
-                                    DeviceProperty dp = new DeviceProperty();
-                                    String uid = null;
-
-                                    String[] parts = StringUtils.split(event, "&");
-                                    for (String p : parts) {
-                                        String[] subparts = StringUtils.split(p, "=");
-                                        switch (subparts[0]) {
-                                            case "property": {
-                                                dp.Name = subparts[1];
-                                                break;
-                                            }
-                                            case "value": {
-                                                dp.Value = subparts[1];
-                                                break;
-                                            }
-                                            case "id": {
-                                                uid = subparts[1];
-                                                break;
-                                            }
-                                        }
+                while (!Thread.currentThread().isInterrupted()) {
+                    MulticastSocket clientSocket = null;
+                    try {
+                        clientSocket = new MulticastSocket(JSON_RPC_PORT);
+                        // block until the next event arrives, the socket is closed when the handler is disposed
+                        clientSocket.setSoTimeout(0);
+
+                        clientSocket.setInterface(InetAddress.getByName((String) getConfig().get(INTERFACE)));
+                        clientSocket.joinGroup(address1);
+                        clientSocket.joinGroup(address2);
+                        eventSocket = clientSocket;
+
+                        while (!Thread.currentThread().isInterrupted()) {
+                            packet.setLength(buf.length);
+                            clientSocket.receive(packet);
+
+                            String event = new String(packet.getData(), packet.getOffset(), packet.getLength(),
+                                    StandardCharsets.UTF_8);
+                            logger.debug("Received a multicast event '{}' from '{}:{}'",
+                                    new Object[] { event, packet.getAddress(), packet.getPort() });
+
+                            DeviceProperty dp = new DeviceProperty();
+                            String uid = null;
+
+                            String[] parts = StringUtils.split(event, "&");
+                            for (String p : parts) {
+                                String[] subparts = StringUtils.split(p, "=");
+                                switch (subparts[0]) {
+                                    case "property": {
+                                        dp.Name = subparts[1];
+                                        break;
                                     }
-
-                                    for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                        listener.onAppliancePropertyChanged(uid, dp);
+                                    case "value": {
+                                        dp.Value = subparts[1];
+                                        break;
+                                    }
+                                    case "id": {
+                                        uid = subparts[1];
+                                        break;
                                     }
-                                } catch (SocketTimeoutException e) {
-                                    Thread.sleep(500);
                                 }
                             }
-                        } catch (Exception ex) {
-                            logger.error("An exception occurred while receiving multicast packets : '{}'",
-                                    ex.getMessage());
+
+                            for (ApplianceStatusListener listener : applianceStatusListeners) {
+                                listener.onAppliancePropertyChanged(uid, dp);
+                            }
+
+                            // the next polling cycle fetches the other properties of the appliance
+                            if (uid != null) {
+                                dirtyAppliances.add(uid);
+                            }
                         }
+                    } catch (Exception ex) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            // the handler has been disposed and the socket closed
+                            break;
+                        }
+                        logger.error("An exception occurred while receiving multicast packets : '{}'",
+                                ex.getMessage());
+                    }
 
-                        // restart the cycle with a clean slate
+                    // restart the cycle with a clean slate
+                    if (clientSocket != null) {
                         try {
-                            if (clientSocket != null) {
-                                clientSocket.leaveGroup(address1);
-                                clientSocket.leaveGroup(address2);
-                            }
+                            clientSocket.leaveGroup(address1);
+                            clientSocket.leaveGroup(address2);
                         } catch (IOException e) {
-                            logger.error("An exception occurred while leaving multicast group : '{}'", e.getMessage());
-                        }
-                        if (clientSocket != null) {
-                            clientSocket.close();
+                            logger.debug("An exception occurred while leaving multicast group : '{}'",
+                                    e.getMessage());
                         }
+                        clientSocket.close();
+                    }
+
+                    try {
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(EVENT_LISTENER_RESTART_DELAY));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
                     }
                 }
+                logger.debug("The Miele multicast event listener has been stopped");
             } else {
                 logger.error("Invalid IP address for the multicast interface : '{}'", getConfig().get(INTERFACE));
             }
@@ -483,6 +517,10 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         return result;
     }
 
+    /**
+     * Posts the data to the gateway. The response is always read completely and the streams are closed, so the JVM
+     * can keep the connection alive and reuse it for the next request.
+     */
     protected String post(URL url, Map<String, String> headers, String data) throws IOException {
 
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
@@ -493,21 +531,29 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
             }
         }
 
+        byte[] requestData = data.getBytes(StandardCharsets.UTF_8);
+
         connection.addRequestProperty("Accept-Encoding", "gzip");
+        connection.addRequestProperty("Connection", "keep-alive");
+        connection.addRequestProperty("Content-Type", "application/json");
 
         connection.setRequestMethod("POST");
         connection.setDoOutput(true);
+        connection.setConnectTimeout(HTTP_TIMEOUT);
+        connection.setReadTimeout(HTTP_TIMEOUT);
+        connection.setFixedLengthStreamingMode(requestData.length);
         connection.connect();
 
         OutputStream out = null;
+        int statusCode;
 
         try {
             out = connection.getOutputStream();
 
-            out.write(data.getBytes());
+            out.write(requestData);
             out.flush();
 
-            int statusCode = connection.getResponseCode();
+            statusCode = connection.getResponseCode();
             if (statusCode != HttpURLConnection.HTTP_OK) {
                 logger.error("An unexpected status code was returned : '{}'", statusCode);
             }
@@ -522,9 +568,12 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
 
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
 
-        InputStream in = connection.getInputStream();
+        InputStream in = statusCode < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream()
+                : connection.getErrorStream();
+        if (in == null) {
+            return null;
+        }
         try {
-            in = connection.getInputStream();
             if ("gzip".equalsIgnoreCase(responseEncoding)) {
                 in = new GZIPInputStream(in);
             }
@@ -538,12 +587,14 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
             bos.flush();
             bos.close();
         } finally {
-            if (in != null) {
-                in.close();
-            }
+            in.close();
         }
 
-        return bos.toString();
+        if (statusCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+            // the body has only been read to keep the connection alive
+            return null;
+        }
+        return new String(bos.toByteArray(), StandardCharsets.UTF_8);
     }
 
     private synchronized void onUpdate() {
@@ -575,6 +626,7 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
      */
     public void onConnectionResumed() {
         updateStatus(ThingStatus.ONLINE);
+        fullRefreshRequested = true;
         for (Thing thing : getThing().getThings()) {
             MieleApplianceHandler<?> handler = (MieleApplianceHandler<?>) thing.getHandler();
             if (handler != null) {
@@ -590,6 +642,8 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         boolean result = applianceStatusListeners.add(applianceStatusListener);
         if (result && isInitialized()) {
             onUpdate();
+            // the new listener needs the current state of its appliance
+            fullRefreshRequested = true;
 
             for (HomeDevice hd : getHomeDevices()) {
                 applianceStatusListener.onApplianceAdded(hd);
@@ -623,5 +677,15 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
             pollingJob.cancel(true);
             pollingJob = null;
         }
+        if (eventListenerJob != null) {
+            eventListenerJob.cancel(true);
+            eventListenerJob = null;
+        }
+        MulticastSocket socket = eventSocket;
+        eventSocket = null;
+        if (socket != null) {
+            // unblocks the event listener
+            socket.close();
+        }
     }
 }
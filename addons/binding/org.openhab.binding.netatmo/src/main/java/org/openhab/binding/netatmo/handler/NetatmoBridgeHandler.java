@@ -9,10 +9,17 @@
 package org.openhab.binding.netatmo.handler;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.oltu.oauth2.client.request.OAuthClientRequest;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
@@ -27,20 +34,40 @@ import io.swagger.client.api.StationApi;
 import io.swagger.client.api.ThermostatApi;
 import io.swagger.client.auth.OAuth;
 import io.swagger.client.auth.OAuthFlow;
+import io.swagger.client.model.NADashboardData;
+import io.swagger.client.model.NAMain;
+import io.swagger.client.model.NAPlug;
 import io.swagger.client.model.NAStationDataBody;
 import io.swagger.client.model.NAThermostatDataBody;
 import retrofit.RestAdapter.LogLevel;
 import retrofit.RetrofitError;
+import retrofit.mime.TypedByteArray;
+import retrofit.mime.TypedInput;
 
 /**
  * {@link NetatmoBridgeHandler} is the handler for a Netatmo API and connects it
  * to the framework. The devices and modules uses the
  * {@link NetatmoBridgeHandler} to request informations about their status
  *
+ * The data of all stations and thermostats of the account is fetched with a single unfiltered call per API and
+ * shared by all devices. The next fetch is scheduled shortly after the devices are expected to upload their next
+ * measurements, based on the time of their last measurement. When the API reports that the rate limit has been
+ * reached, the bridge backs off exponentially.
+ *
  * @author Gaël L'hopital - Initial contribution OH2 version
  *
  */
 public class NetatmoBridgeHandler extends BaseBridgeHandler {
+    private static final int DATA_UPLOAD_PERIOD = 600; // in seconds, the devices upload their data every 10 minutes
+    private static final int DATA_UPLOAD_DELAY = 30; // in seconds, the time given to the API to process an upload
+    private static final int MIN_REFRESH_INTERVAL = 60; // in seconds
+    private static final int DEFAULT_REFRESH_INTERVAL = 600000; // in milliseconds
+    private static final int INITIAL_BACKOFF = 60; // in seconds
+    private static final int MAX_BACKOFF = 3600; // in seconds
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_FORBIDDEN = 403;
+    private static final String ERROR_USER_USAGE_REACHED = "\"code\":26";
+
     private Logger logger = LoggerFactory.getLogger(NetatmoBridgeHandler.class);
     private NetatmoBridgeConfiguration configuration;
     private ApiClient apiClient;
@@ -48,6 +75,35 @@ public class NetatmoBridgeHandler extends BaseBridgeHandler {
     private ThermostatApi thermostatApi = null;
     private PartnerApi partnerApi = null;
 
+    // account wide data, guarded by this
+    private NAStationDataBody stationsDataBody;
+    private long stationsDataTimestamp;
+    private NAThermostatDataBody thermostatsDataBody;
+    private long thermostatsDataTimestamp;
+    private long backoff;
+    private long backoffUntil;
+
+    private ScheduledFuture<?> refreshJob;
+
+    private Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                refreshDevices();
+            } catch (Exception e) {
+                logger.error("An error occurred while refreshing the Netatmo devices : {}", e.getMessage());
+            } finally {
+                long delay = getNextRefreshDelay();
+                synchronized (NetatmoBridgeHandler.this) {
+                    // the job is reset when the handler is disposed
+                    if (refreshJob != null) {
+                        scheduleRefresh(delay);
+                    }
+                }
+            }
+        }
+    };
+
     public NetatmoBridgeHandler(Bridge bridge) {
         super(bridge);
     }
@@ -71,6 +127,158 @@ public class NetatmoBridgeHandler extends BaseBridgeHandler {
             }
         }
         super.initialize();
+        scheduleRefresh(0);
+    }
+
+    @Override
+    public void dispose() {
+        logger.debug("Disposing Netatmo API bridge handler.");
+        synchronized (this) {
+            if (refreshJob != null) {
+                refreshJob.cancel(true);
+                refreshJob = null;
+            }
+            stationsDataBody = null;
+            thermostatsDataBody = null;
+        }
+        super.dispose();
+    }
+
+    private synchronized void scheduleRefresh(long delay) {
+        if (refreshJob != null) {
+            refreshJob.cancel(false);
+        }
+        logger.debug("Scheduling the next refresh of the Netatmo devices in {} ms", delay);
+        refreshJob = scheduler.schedule(refreshRunnable, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fetches the data of the whole account and hands it to all device handlers, which update their modules.
+     */
+    private void refreshDevices() {
+        invalidateData();
+        for (NetatmoDeviceHandler<?> handler : getDeviceHandlers().values()) {
+            handler.updateChannels(handler.getConfiguration().getEquipmentId());
+        }
+    }
+
+    /**
+     * Computes the delay until the devices are expected to have uploaded new data. A device which did not upload
+     * in time is checked every minute until it is one upload period late, then the configured refresh interval of
+     * the devices applies.
+     */
+    private long getNextRefreshDelay() {
+        Map<String, NetatmoDeviceHandler<?>> handlers = getDeviceHandlers();
+        long now = System.currentTimeMillis();
+        long refreshInterval = Long.MAX_VALUE;
+        for (NetatmoDeviceHandler<?> handler : handlers.values()) {
+            long interval = handler.getConfiguration().refreshInterval;
+            refreshInterval = Math.min(refreshInterval, interval > 0 ? interval : DEFAULT_REFRESH_INTERVAL);
+        }
+        if (refreshInterval == Long.MAX_VALUE) {
+            refreshInterval = DEFAULT_REFRESH_INTERVAL;
+        }
+
+        long next = now + refreshInterval;
+        synchronized (this) {
+            if (stationsDataBody != null && stationsDataBody.getDevices() != null) {
+                for (NAMain station : stationsDataBody.getDevices()) {
+                    if (handlers.containsKey(station.getId().toLowerCase())) {
+                        NADashboardData dashboardData = station.getDashboardData();
+                        Integer lastData = dashboardData != null && dashboardData.getTimeUtc() != null
+                                ? dashboardData.getTimeUtc() : station.getLastStatusStore();
+                        next = Math.min(next, getExpectedDataTime(lastData, now));
+                    }
+                }
+            }
+            if (thermostatsDataBody != null && thermostatsDataBody.getDevices() != null) {
+                for (NAPlug plug : thermostatsDataBody.getDevices()) {
+                    if (handlers.containsKey(plug.getId().toLowerCase())) {
+                        next = Math.min(next, getExpectedDataTime(plug.getLastStatusStore(), now));
+                    }
+                }
+            }
+            next = Math.max(next, backoffUntil);
+        }
+        return Math.max(next - now, TimeUnit.SECONDS.toMillis(MIN_REFRESH_INTERVAL));
+    }
+
+    private long getExpectedDataTime(Integer lastData, long now) {
+        if (lastData == null) {
+            return Long.MAX_VALUE;
+        }
+        long expected = TimeUnit.SECONDS.toMillis(lastData + DATA_UPLOAD_PERIOD + DATA_UPLOAD_DELAY);
+        if (expected > now) {
+            return expected;
+        } else if (now - expected < TimeUnit.SECONDS.toMillis(DATA_UPLOAD_PERIOD)) {
+            return now;
+        } else {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private Map<String, NetatmoDeviceHandler<?>> getDeviceHandlers() {
+        Map<String, NetatmoDeviceHandler<?>> handlers = new HashMap<String, NetatmoDeviceHandler<?>>();
+        for (Thing thing : getThing().getThings()) {
+            if (thing.getHandler() instanceof NetatmoDeviceHandler) {
+                NetatmoDeviceHandler<?> handler = (NetatmoDeviceHandler<?>) thing.getHandler();
+                if (handler.getConfiguration() != null) {
+                    handlers.put(handler.getConfiguration().getEquipmentId(), handler);
+                }
+            }
+        }
+        return handlers;
+    }
+
+    /**
+     * Discards the data fetched so far, so the next request of a device fetches it again, e.g. after a setpoint of
+     * a thermostat has been changed.
+     */
+    public synchronized void invalidateData() {
+        stationsDataTimestamp = 0;
+        thermostatsDataTimestamp = 0;
+    }
+
+    private boolean isDataExpired(long timestamp) {
+        return System.currentTimeMillis() - timestamp >= TimeUnit.SECONDS.toMillis(MIN_REFRESH_INTERVAL);
+    }
+
+    private boolean isBackingOff() {
+        if (System.currentTimeMillis() < backoffUntil) {
+            logger.debug("Netatmo API rate limit reached, not calling the API before {}", backoffUntil);
+            return true;
+        }
+        return false;
+    }
+
+    private void onCallSucceeded() {
+        backoff = 0;
+        backoffUntil = 0;
+    }
+
+    private void onCallFailed(String api, Exception e) {
+        if (e instanceof RetrofitError && isRateLimited((RetrofitError) e)) {
+            backoff = backoff == 0 ? TimeUnit.SECONDS.toMillis(INITIAL_BACKOFF)
+                    : Math.min(backoff * 2, TimeUnit.SECONDS.toMillis(MAX_BACKOFF));
+            backoffUntil = System.currentTimeMillis() + backoff;
+            logger.warn("Netatmo API rate limit reached while calling {} API, backing off for {} s", api,
+                    TimeUnit.MILLISECONDS.toSeconds(backoff));
+        } else {
+            logger.error("An error occurred while calling {} API : {}", api, e.getMessage());
+        }
+    }
+
+    private boolean isRateLimited(RetrofitError e) {
+        if (e.getResponse() == null) {
+            return false;
+        }
+        int status = e.getResponse().getStatus();
+        if (status == HTTP_TOO_MANY_REQUESTS) {
+            return true;
+        }
+        TypedInput body = e.getResponse().getBody();
+        return status == HTTP_FORBIDDEN && body instanceof TypedByteArray && new String(
+                ((TypedByteArray) body).getBytes(), StandardCharsets.UTF_8).contains(ERROR_USER_USAGE_REACHED);
     }
 
     // We'll use TrustingOkHttpClient because Netatmo certificate is a StartTTLS
@@ -132,25 +340,69 @@ public class NetatmoBridgeHandler extends BaseBridgeHandler {
         return partnerApi;
     }
 
-    public NAStationDataBody getStationsDataBody(String equipmentId) {
-        if (getStationApi() != null) {
+    /**
+     * Returns the station data of the account, or of a single station.
+     *
+     * @param equipmentId the id of the station, or null for all stations
+     * @return the station data, or null if it is not available
+     */
+    public synchronized NAStationDataBody getStationsDataBody(String equipmentId) {
+        if (getStationApi() != null && isDataExpired(stationsDataTimestamp) && !isBackingOff()) {
             try {
-                return getStationApi().getstationsdata(equipmentId).getBody();
+                stationsDataBody = getStationApi().getstationsdata(null).getBody();
+                stationsDataTimestamp = System.currentTimeMillis();
+                onCallSucceeded();
             } catch (Exception e) {
-                logger.error("An error occurred while calling station API : {}", e.getMessage());
+                onCallFailed("station", e);
+            }
+        }
+        if (stationsDataBody == null || equipmentId == null) {
+            return stationsDataBody;
+        }
+        if (stationsDataBody.getDevices() != null) {
+            for (NAMain station : stationsDataBody.getDevices()) {
+                if (equipmentId.equalsIgnoreCase(station.getId())) {
+                    NAStationDataBody result = new NAStationDataBody();
+                    result.setUser(stationsDataBody.getUser());
+                    result.setDevices(Collections.<NAMain> singletonList(station));
+                    return result;
+                }
             }
         }
+        logger.debug("The station '{}' is not part of the Netatmo account", equipmentId);
         return null;
     }
 
-    public NAThermostatDataBody getThermostatsDataBody(String equipmentId) {
-        if (getThermostatApi() != null) {
+    /**
+     * Returns the thermostat data of the account, or of a single thermostat.
+     *
+     * @param equipmentId the id of the thermostat plug, or null for all thermostats
+     * @return the thermostat data, or null if it is not available
+     */
+    public synchronized NAThermostatDataBody getThermostatsDataBody(String equipmentId) {
+        if (getThermostatApi() != null && isDataExpired(thermostatsDataTimestamp) && !isBackingOff()) {
             try {
-                return getThermostatApi().getthermostatsdata(equipmentId).getBody();
+                thermostatsDataBody = getThermostatApi().getthermostatsdata(null).getBody();
+                thermostatsDataTimestamp = System.currentTimeMillis();
+                onCallSucceeded();
             } catch (Exception e) {
-                logger.error("An error occurred while calling thermostat API : {}", e.getMessage());
+                onCallFailed("thermostat", e);
+            }
+        }
+        if (thermostatsDataBody == null || equipmentId == null) {
+            return thermostatsDataBody;
+        }
+        if (thermostatsDataBody.getDevices() != null) {
+            for (NAPlug plug : thermostatsDataBody.getDevices()) {
+                if (equipmentId.equalsIgnoreCase(plug.getId())) {
+                    NAThermostatDataBody result = new NAThermostatDataBody();
+                    result.setUser(thermostatsDataBody.getUser());
+                    result.setDevices(Collections.<NAPlug> singletonList(plug));
+                    return result;
+                }
             }
         }
+        logger.debug("The thermostat '{}' is not part of the Netatmo account", equipmentId);
         return null;
     }
 
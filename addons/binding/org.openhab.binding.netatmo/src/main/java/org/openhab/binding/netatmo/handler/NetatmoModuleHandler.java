@@ -93,6 +93,7 @@ public abstract class NetatmoModuleHandler<X extends NetatmoModuleConfiguration>
 
     protected void requestParentRefresh() {
         logger.debug("Updating parent modules of {}", configuration.getEquipmentId());
+        getBridgeHandler().invalidateData();
         for (Thing thing : getBridge().getThings()) {
             ThingHandler thingHandler = thing.getHandler();
             if (thingHandler instanceof NetatmoDeviceHandler) {
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.onkyo.internal.eiscp;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link EiscpPacketDecoder}.
+ *
+ * @author agent - Initial contribution
+ */
+public class EiscpPacketDecoderTest {
+
+    private EiscpPacketDecoder decoder;
+
+    @Before
+    public void setUp() {
+        decoder = new EiscpPacketDecoder();
+    }
+
+    private static byte[] packet(String command, String value) {
+        return EiscpProtocol.createEiscpPacket(new EiscpMessage.MessageBuilder().command(command).value(value).build());
+    }
+
+    private static byte[] packet(int headerSize, int version, byte[] data) {
+        ByteBuffer packet = ByteBuffer.allocate(16 + data.length);
+        packet.put("ISCP".getBytes(StandardCharsets.US_ASCII));
+        packet.putInt(headerSize);
+        packet.putInt(data.length);
+        packet.put((byte) version);
+        packet.put(new byte[3]);
+        packet.put(data);
+        return packet.array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    private List<EiscpMessage> decode(byte[] bytes) {
+        return decoder.decode(bytes, bytes.length);
+    }
+
+    private static List<String> toStrings(List<EiscpMessage> messages) {
+        List<String> strings = new ArrayList<>();
+        for (EiscpMessage message : messages) {
+            strings.add(message.getCommand() + ":" + message.getValue());
+        }
+        return strings;
+    }
+
+    @Test
+    public void decodesSinglePacket() {
+        assertEquals(Arrays.asList("PWR:01"), toStrings(decode(packet("PWR", "01"))));
+    }
+
+    @Test
+    public void decodesSeveralPacketsOfASingleRead() {
+        byte[] bytes = concat(packet("PWR", "01"), packet("MVL", "2A"), packet("SLI", "10"));
+
+        assertEquals(Arrays.asList("PWR:01", "MVL:2A", "SLI:10"), toStrings(decode(bytes)));
+    }
+
+    @Test
+    public void valueEndsAtTheFirstEndCharacter() {
+        byte[] bytes = packet(16, 1, "!1PWR01\u001A\r\n".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(Arrays.asList("PWR:01"), toStrings(decode(bytes)));
+    }
+
+    @Test
+    public void decodesPacketSplitOverSeveralReads() {
+        byte[] bytes = concat(packet("PWR", "01"), packet("MVL", "2A"));
+
+        List<EiscpMessage> messages = new ArrayList<>();
+        for (byte b : bytes) {
+            messages.addAll(decoder.decode(new byte[] { b }, 1));
+        }
+
+        assertEquals(Arrays.asList("PWR:01", "MVL:2A"), toStrings(messages));
+    }
+
+    @Test
+    public void decodesPacketSplitWithinTheHeader() {
+        byte[] bytes = packet("PWR", "01");
+
+        assertTrue(decoder.decode(bytes, 7).isEmpty());
+        byte[] rest = Arrays.copyOfRange(bytes, 7, bytes.length);
+        assertEquals(Arrays.asList("PWR:01"), toStrings(decode(rest)));
+    }
+
+    @Test
+    public void resynchronisesOnMagicAfterGarbage() {
+        byte[] garbage = "xxISCISxISC".getBytes(StandardCharsets.US_ASCII);
+        byte[] bytes = concat(garbage, packet("PWR", "01"), garbage, packet("MVL", "2A"));
+
+        assertEquals(Arrays.asList("PWR:01", "MVL:2A"), toStrings(decode(bytes)));
+    }
+
+    @Test
+    public void resynchronisesOnMagicSplitOverSeveralReads() {
+        byte[] bytes = concat("garbageIS".getBytes(StandardCharsets.US_ASCII), packet("PWR", "01"));
+
+        assertTrue(decoder.decode(bytes, 9).isEmpty());
+        assertEquals(Arrays.asList("PWR:01"), toStrings(decode(Arrays.copyOfRange(bytes, 9, bytes.length))));
+    }
+
+    @Test
+    public void skipsPacketWithUnsupportedHeader() {
+        byte[] data = "!1PWR01\r".getBytes(StandardCharsets.US_ASCII);
+        byte[] bytes = concat(packet(20, 1, data), packet(16, 2, data), packet("MVL", "2A"));
+
+        assertEquals(Arrays.asList("MVL:2A"), toStrings(decode(bytes)));
+    }
+
+    @Test
+    public void skipsMessageWithIllegalStartChar() {
+        byte[] bytes = concat(packet(16, 1, "?1PWR01\r".getBytes(StandardCharsets.US_ASCII)), packet("MVL", "2A"));
+
+        assertEquals(Arrays.asList("MVL:2A"), toStrings(decode(bytes)));
+    }
+
+    @Test
+    public void decodesPacketOfMaximumDataSize() {
+        byte[] data = new byte[EiscpPacketDecoder.MAX_DATA_SIZE];
+        Arrays.fill(data, (byte) 'a');
+        System.arraycopy("!1NLT".getBytes(StandardCharsets.US_ASCII), 0, data, 0, 5);
+        data[data.length - 1] = 0x1A;
+
+        List<EiscpMessage> messages = decode(concat(packet(16, 1, data), packet("PWR", "01")));
+
+        assertEquals(2, messages.size());
+        assertEquals("NLT", messages.get(0).getCommand());
+        assertEquals(EiscpPacketDecoder.MAX_DATA_SIZE - 6, messages.get(0).getValue().length());
+        assertEquals("PWR", messages.get(1).getCommand());
+    }
+
+    @Test
+    public void skipsPacketExceedingMaximumDataSize() {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        header.put("ISCP".getBytes(StandardCharsets.US_ASCII));
+        header.putInt(16);
+        header.putInt(EiscpPacketDecoder.MAX_DATA_SIZE + 1);
+        header.put((byte) 1);
+
+        // the decoder must not wait for the announced data
+        byte[] bytes = concat(header.array(), packet("PWR", "01"));
+        assertEquals(Arrays.asList("PWR:01"), toStrings(decode(bytes)));
+    }
+
+    @Test
+    public void resetDropsIncompletePacket() {
+        byte[] bytes = packet("PWR", "01");
+        assertTrue(decoder.decode(bytes, bytes.length - 2).isEmpty());
+
+        decoder.reset();
+
+        assertEquals(Arrays.asList("MVL:2A"), toStrings(decode(packet("MVL", "2A"))));
+    }
+}
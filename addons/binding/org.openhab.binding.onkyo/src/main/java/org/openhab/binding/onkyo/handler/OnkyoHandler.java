@@ -11,6 +11,7 @@ package org.openhab.binding.onkyo.handler;
 import static org.openhab.binding.onkyo.OnkyoBindingConstants.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -84,7 +85,8 @@ public class OnkyoHandler extends UpnpAudioSinkHandler implements OnkyoEventList
         configuration = getConfigAs(OnkyoDeviceConfiguration.class);
         logger.info("Using configuration: {}", configuration.toString());
 
-        connection = new OnkyoConnection(configuration.ipAddress, configuration.port);
+        // all things of the same receiver share a single eISCP session
+        connection = OnkyoConnection.getConnection(configuration.ipAddress, configuration.port);
         connection.addEventListener(this);
 
         scheduler.execute(new Runnable() {
@@ -706,31 +708,44 @@ public class OnkyoHandler extends UpnpAudioSinkHandler implements OnkyoEventList
      * @return
      */
     private void checkStatus() {
-        sendCommand(EiscpCommand.POWER_QUERY);
+        if (connection == null) {
+            return;
+        }
 
-        if (connection != null && connection.isConnected()) {
+        if (connection.isConnected()) {
+            List<EiscpCommand> queries = new ArrayList<>();
 
-            sendCommand(EiscpCommand.VOLUME_QUERY);
-            sendCommand(EiscpCommand.SOURCE_QUERY);
-            sendCommand(EiscpCommand.MUTE_QUERY);
-            sendCommand(EiscpCommand.NETUSB_TITLE_QUERY);
-            sendCommand(EiscpCommand.LISTEN_MODE_QUERY);
+            queries.add(EiscpCommand.POWER_QUERY);
+            queries.add(EiscpCommand.VOLUME_QUERY);
+            queries.add(EiscpCommand.SOURCE_QUERY);
+            queries.add(EiscpCommand.MUTE_QUERY);
+            queries.add(EiscpCommand.NETUSB_TITLE_QUERY);
+            queries.add(EiscpCommand.LISTEN_MODE_QUERY);
 
             if (isChannelAvailable(CHANNEL_POWERZONE2)) {
-                sendCommand(EiscpCommand.ZONE2_POWER_QUERY);
-                sendCommand(EiscpCommand.ZONE2_VOLUME_QUERY);
-                sendCommand(EiscpCommand.ZONE2_SOURCE_QUERY);
-                sendCommand(EiscpCommand.ZONE2_MUTE_QUERY);
+                queries.add(EiscpCommand.ZONE2_POWER_QUERY);
+                queries.add(EiscpCommand.ZONE2_VOLUME_QUERY);
+                queries.add(EiscpCommand.ZONE2_SOURCE_QUERY);
+                queries.add(EiscpCommand.ZONE2_MUTE_QUERY);
             }
 
             if (isChannelAvailable(CHANNEL_POWERZONE3)) {
-                sendCommand(EiscpCommand.ZONE3_POWER_QUERY);
-                sendCommand(EiscpCommand.ZONE3_VOLUME_QUERY);
-                sendCommand(EiscpCommand.ZONE3_SOURCE_QUERY);
-                sendCommand(EiscpCommand.ZONE3_MUTE_QUERY);
+                queries.add(EiscpCommand.ZONE3_POWER_QUERY);
+                queries.add(EiscpCommand.ZONE3_VOLUME_QUERY);
+                queries.add(EiscpCommand.ZONE3_SOURCE_QUERY);
+                queries.add(EiscpCommand.ZONE3_MUTE_QUERY);
+            }
+
+            // pipeline all queries in a single write, the responses are received as status updates
+            List<EiscpMessage> messages = new ArrayList<>(queries.size());
+            for (EiscpCommand query : queries) {
+                messages.add(new EiscpMessage.MessageBuilder().command(query.getCommand()).value(query.getValue())
+                        .build());
             }
+            connection.send(messages);
         } else {
-            updateStatus(ThingStatus.OFFLINE);
+            // the connection is reopened by its supervision
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
         }
     }
 
@@ -8,31 +8,44 @@
  */
 package org.openhab.binding.onkyo.internal;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.net.SocketTimeoutException;
-import java.net.UnknownHostException;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
-
-import javax.xml.bind.DatatypeConverter;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.onkyo.internal.eiscp.EiscpCommand;
-import org.openhab.binding.onkyo.internal.eiscp.EiscpException;
 import org.openhab.binding.onkyo.internal.eiscp.EiscpMessage;
+import org.openhab.binding.onkyo.internal.eiscp.EiscpPacketDecoder;
 import org.openhab.binding.onkyo.internal.eiscp.EiscpProtocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class open a TCP/IP connection to the Onkyo device and send a command.
+ * This class manages the eISCP session to an Onkyo device.
+ *
+ * A receiver accepts only a limited number of eISCP connections, so there is a single shared connection per device,
+ * which is obtained by {@link #getConnection(String, int)} and used by all handlers of the device. The connection is
+ * closed when the last user has called {@link #closeConnection()}.
+ *
+ * The received packets are decoded by a single listener thread per connection. Supervision and reconnection are
+ * driven by the binding scheduler. Commands are written without waiting for the response of previous commands;
+ * a response to a query is correlated with the query by its command.
  *
  * @author Pauli Anttila
  */
@@ -43,14 +56,20 @@ public class OnkyoConnection {
     /** default eISCP port. **/
     public static final int DEFAULT_EISCP_PORT = 60128;
 
+    /** Name of the binding thread pool **/
+    private static final String THREADPOOL_NAME = "onkyo";
+
     /** Connection timeout in milliseconds **/
     private static final int CONNECTION_TIMEOUT = 5000;
 
     /** Connection test interval in milliseconds **/
     private static final int CONNECTION_TEST_INTERVAL = 60000;
 
-    /** Socket timeout in milliseconds **/
-    private static final int SOCKET_TIMEOUT = CONNECTION_TEST_INTERVAL + 10000;
+    /** Maximum time without received data in milliseconds, before the connection is restarted **/
+    private static final int SUPERVISION_TIMEOUT = CONNECTION_TEST_INTERVAL + 10000;
+
+    /** Time in milliseconds after which a query without response fails **/
+    private static final int QUERY_TIMEOUT = 10000;
 
     /** Connection retry count on error situations **/
     private static final int FAST_CONNECTION_RETRY_COUNT = 3;
@@ -59,41 +78,101 @@ public class OnkyoConnection {
     private static final int FAST_CONNECTION_RETRY_DELAY = 1000;
     private static final int SLOW_CONNECTION_RETRY_DELAY = 60000;
 
-    private String ip;
-    private int port;
+    private static final int READ_BUFFER_SIZE = 1024;
+
+    /** Shared connections by host and port **/
+    private static final Map<String, OnkyoConnection> CONNECTIONS = new HashMap<>();
+
+    private final String ip;
+    private final int port;
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THREADPOOL_NAME);
+    private final List<OnkyoEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Queries waiting for a response, by command **/
+    private final Map<String, Queue<PendingQuery>> pendingQueries = new ConcurrentHashMap<>();
+
+    /** Number of users of the connection, guarded by CONNECTIONS **/
+    private int referenceCount = 0;
+
     private Socket eiscpSocket = null;
+    private OutputStream outStream = null;
     private DataListener dataListener = null;
-    private DataOutputStream outStream = null;
-    private DataInputStream inStream = null;
-    private boolean connected = false;
-    private List<OnkyoEventListener> listeners = new ArrayList<OnkyoEventListener>();
-    private int retryCount = 1;
-    private ConnectionSupervisor connectionSupervisor = null;
-
-    public OnkyoConnection(String ip) {
-        this.ip = ip;
-        this.port = DEFAULT_EISCP_PORT;
-    }
+    private volatile boolean connected = false;
+    private volatile long lastReceivedTimestamp;
+    private ScheduledFuture<?> supervisionJob = null;
+    private ScheduledFuture<?> reconnectJob = null;
+    private volatile int connectionAttempts = 0;
 
-    public OnkyoConnection(String ip, int port) {
+    private OnkyoConnection(String ip, int port) {
         this.ip = ip;
         this.port = port;
     }
 
     /**
-     * Open connection to the Onkyo device.
+     * Returns the shared connection to the Onkyo device. Every call must be paired with a call of
+     * {@link #closeConnection()}.
+     *
+     * @param ip the host of the device
+     * @param port the eISCP port of the device
+     * @return the connection
+     */
+    public static OnkyoConnection getConnection(String ip, int port) {
+        synchronized (CONNECTIONS) {
+            String key = ip + ":" + port;
+            OnkyoConnection connection = CONNECTIONS.get(key);
+            if (connection == null) {
+                connection = new OnkyoConnection(ip, port);
+                CONNECTIONS.put(key, connection);
+            }
+            connection.referenceCount++;
+            return connection;
+        }
+    }
+
+    /**
+     * Open connection to the Onkyo device, if it is not open yet, and starts the supervision.
      *
      **/
-    public void openConnection() {
-        connectSocket();
+    public synchronized void openConnection() {
+        if (supervisionJob == null) {
+            logger.debug("Connection supervisor started, interval {} milliseconds", CONNECTION_TEST_INTERVAL);
+            supervisionJob = scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    superviseConnection();
+                }
+            }, CONNECTION_TEST_INTERVAL, CONNECTION_TEST_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+        if (!connectSocket()) {
+            sendConnectionErrorEvent();
+            scheduleReconnect();
+        }
     }
 
     /**
-     * Closes the connection to the Onkyo device.
+     * Releases the connection. The connection to the Onkyo device is closed when it has no users left.
      *
      **/
     public void closeConnection() {
-        closeSocket();
+        synchronized (CONNECTIONS) {
+            if (--referenceCount > 0) {
+                return;
+            }
+            CONNECTIONS.remove(getConnectionName());
+        }
+
+        synchronized (this) {
+            if (supervisionJob != null) {
+                supervisionJob.cancel(false);
+                supervisionJob = null;
+                logger.debug("closed connection supervisor!");
+            }
+            if (reconnectJob != null) {
+                reconnectJob.cancel(false);
+                reconnectJob = null;
+            }
+            closeSocket();
+        }
     }
 
     public void addEventListener(OnkyoEventListener listener) {
@@ -118,48 +197,94 @@ public class OnkyoConnection {
      * @param cmd eISCP command to send
      */
     public void send(final String cmd, final String value) {
+        send(Collections.singletonList(new EiscpMessage.MessageBuilder().command(cmd).value(value).build()));
+    }
 
+    /**
+     * Sends several commands to Onkyo device at once, without waiting for their responses.
+     *
+     * @param messages eISCP commands to send
+     */
+    public void send(List<EiscpMessage> messages) {
         try {
-            sendCommand(new EiscpMessage.MessageBuilder().command(cmd).value(value).build());
-        } catch (Exception e) {
-            logger.error("Could not send command to device on {}: {}", ip + ":" + port, e);
+            sendCommands(messages);
+        } catch (IOException e) {
+            logger.debug("Could not send command to device on {}: {}", getConnectionName(), e.getMessage());
         }
-
     }
 
-    private void sendCommand(EiscpMessage msg) {
-        logger.debug("Send command: {} to {}:{} ({})", msg.toString(), ip, port, eiscpSocket);
-        sendCommand(msg, retryCount);
+    /**
+     * Sends a query to Onkyo device. The returned future is completed by the next message received for the same
+     * command, or fails if no such message is received within the query timeout.
+     *
+     * @param cmd eISCP command to send
+     * @param value value of the command, usually "QSTN"
+     * @return the future response
+     */
+    public Future<EiscpMessage> query(final String cmd, final String value) {
+        final PendingQuery query = new PendingQuery();
+
+        Queue<PendingQuery> pendingQueue = pendingQueries.get(cmd);
+        if (pendingQueue == null) {
+            pendingQueries.putIfAbsent(cmd, new ConcurrentLinkedQueue<PendingQuery>());
+            pendingQueue = pendingQueries.get(cmd);
+        }
+        final Queue<PendingQuery> queue = pendingQueue;
+
+        query.timeoutJob = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (queue.remove(query)) {
+                    query.completeExceptionally(new IOException("No response received from " + getConnectionName()));
+                }
+            }
+        }, QUERY_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        // register before sending, the response may arrive before the send call returns
+        queue.add(query);
+
+        try {
+            EiscpMessage message = new EiscpMessage.MessageBuilder().command(cmd).value(value).build();
+            sendCommands(Collections.singletonList(message));
+        } catch (IOException e) {
+            if (queue.remove(query)) {
+                query.timeoutJob.cancel(false);
+                query.completeExceptionally(e);
+            }
+        }
+
+        return query;
     }
 
     /**
-     * Sends to command to the receiver.
+     * Writes the commands to the receiver.
      *
-     * @param eiscpCmd the eISCP command to send.
-     * @param retry retry count when connection fails.
+     * @param messages the eISCP commands to send.
      **/
-    private void sendCommand(EiscpMessage msg, int retry) {
+    private synchronized void sendCommands(List<EiscpMessage> messages) throws IOException {
+        int retry = 1;
 
-        if (connectSocket()) {
-            try {
+        while (true) {
+            if (!connectSocket()) {
+                throw new IOException("Not connected to " + getConnectionName());
+            }
 
-                String data = EiscpProtocol.createEiscpPdu(msg);
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Sending {} bytes: {}", data.length(),
-                            DatatypeConverter.printHexBinary(data.toString().getBytes()));
+            try {
+                for (EiscpMessage msg : messages) {
+                    logger.debug("Send command: {} to {}", msg, getConnectionName());
+                    outStream.write(EiscpProtocol.createEiscpPacket(msg));
                 }
-
-                outStream.writeBytes(data);
                 outStream.flush();
+                return;
             } catch (IOException ioException) {
-                logger.error("Error occurred when sending command: {}", ioException.getMessage());
+                logger.debug("Error occurred when sending command: {}", ioException.getMessage());
 
-                if (retry > 0) {
-                    logger.debug("Retry {}...", retry);
+                if (retry-- > 0) {
+                    logger.debug("Retry...");
                     closeSocket();
-                    sendCommand(msg, retry--);
                 } else {
-                    sendConnectionErrorEvent();
+                    connectionLost(ioException.getMessage());
+                    throw ioException;
                 }
             }
         }
@@ -172,37 +297,25 @@ public class OnkyoConnection {
     private synchronized boolean connectSocket() {
 
         if (eiscpSocket == null || !connected || !eiscpSocket.isConnected()) {
+            Socket socket = new Socket();
             try {
-                // Creating a socket to connect to the server
-                eiscpSocket = new Socket();
-
-                // start connection tester
-                if (connectionSupervisor == null) {
-                    connectionSupervisor = new ConnectionSupervisor(CONNECTION_TEST_INTERVAL);
-                }
-
-                eiscpSocket.connect(new InetSocketAddress(ip, port), CONNECTION_TIMEOUT);
+                socket.connect(new InetSocketAddress(ip, port), CONNECTION_TIMEOUT);
 
                 logger.debug("Connected to {}:{}", ip, port);
 
-                // Get Input and Output streams
-                outStream = new DataOutputStream(eiscpSocket.getOutputStream());
-                inStream = new DataInputStream(eiscpSocket.getInputStream());
-
-                eiscpSocket.setSoTimeout(SOCKET_TIMEOUT);
-                outStream.flush();
+                eiscpSocket = socket;
+                outStream = socket.getOutputStream();
+                lastReceivedTimestamp = System.currentTimeMillis();
                 connected = true;
 
                 // start status update listener
-                if (dataListener == null) {
-                    dataListener = new DataListener();
-                    dataListener.start();
-                }
+                dataListener = new DataListener(socket.getInputStream());
+                dataListener.start();
 
-            } catch (UnknownHostException unknownHost) {
-                logger.error("You are trying to connect to an unknown host: {}", unknownHost.getMessage());
             } catch (IOException ioException) {
-                logger.error("Can't connect: {}", ioException.getMessage());
+                logger.debug("Can't connect to {}:{}: {}", ip, port, ioException.getMessage());
+                IOUtils.closeQuietly(socket);
+                closeSocket();
             }
         }
 
@@ -210,205 +323,191 @@ public class OnkyoConnection {
     }
 
     /**
-     * Closes the socket connection.
-     *
-     * @return true if the closed successfully
+     * Closes the socket connection. The data listener of the socket stops when the socket is closed.
      **/
-    private boolean closeSocket() {
-        try {
-            if (dataListener != null) {
-                dataListener.setInterrupted(true);
-                dataListener = null;
-                logger.debug("closed data listener!");
-            }
-            if (connectionSupervisor != null) {
-                connectionSupervisor.stopConnectionTester();
-                connectionSupervisor = null;
-                logger.debug("closed connection tester!");
-            }
-            if (inStream != null) {
-                IOUtils.closeQuietly(inStream);
-                inStream = null;
-                logger.debug("closed input stream!");
-            }
-            if (outStream != null) {
-                IOUtils.closeQuietly(outStream);
-                outStream = null;
-                logger.debug("closed output stream!");
-            }
-            if (eiscpSocket != null) {
-                IOUtils.closeQuietly(eiscpSocket);
-                eiscpSocket = null;
-                logger.debug("closed socket!");
-            }
-            connected = false;
-        } catch (Exception e) {
-            logger.error("Closing connection throws an exception, {}", e.getMessage());
+    private synchronized void closeSocket() {
+        connected = false;
+        dataListener = null;
+        if (outStream != null) {
+            IOUtils.closeQuietly(outStream);
+            outStream = null;
+            logger.debug("closed output stream!");
         }
-
-        return connected;
+        if (eiscpSocket != null) {
+            IOUtils.closeQuietly(eiscpSocket);
+            eiscpSocket = null;
+            logger.debug("closed socket!");
+        }
+        failPendingQueries();
     }
 
     /**
-     * This method wait any state messages form receiver.
+     * Closes the socket after an error, informs the listeners and schedules the reconnection.
      *
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws EiscpException
-     **/
-    private void waitStateMessages() throws NumberFormatException, IOException, InterruptedException, EiscpException {
+     * @param reason the reason of the connection loss
+     */
+    private synchronized void connectionLost(String reason) {
+        logger.debug("Connection to {} lost: {}", getConnectionName(), reason);
+        closeSocket();
+        sendConnectionErrorEvent();
+        scheduleReconnect();
+    }
 
-        if (connected) {
+    private synchronized void scheduleReconnect() {
+        if (supervisionJob == null || (reconnectJob != null && !reconnectJob.isDone())) {
+            // closed or already scheduled
+            return;
+        }
 
-            logger.trace("Waiting status messages");
+        // sleep a while, to prevent fast looping if error situation is permanent
+        int delay = FAST_CONNECTION_RETRY_DELAY;
+        if (++connectionAttempts >= FAST_CONNECTION_RETRY_COUNT) {
+            // slow down after few faster attempts
+            if (connectionAttempts == FAST_CONNECTION_RETRY_COUNT) {
+                logger.info("Connection failed {} times to {}:{}, slowing down automatic connection to {} seconds.",
+                        FAST_CONNECTION_RETRY_COUNT, ip, port, SLOW_CONNECTION_RETRY_DELAY / 1000);
+            }
+            delay = SLOW_CONNECTION_RETRY_DELAY;
+        }
 
-            while (true) {
-                EiscpMessage message = EiscpProtocol.getNextMessage(inStream);
-                sendMessageEvent(message);
+        reconnectJob = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                reconnect();
             }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
 
+    private synchronized void reconnect() {
+        reconnectJob = null;
+        if (supervisionJob == null) {
+            return;
+        }
+
+        logger.debug("Reconnecting...");
+        if (connectSocket()) {
+            logger.debug("Test connection to {}:{}", ip, port);
+            send(EiscpCommand.POWER_QUERY.getCommand(), EiscpCommand.POWER_QUERY.getValue());
         } else {
-            throw new IOException("Not Connected to Receiver");
+            sendConnectionErrorEvent();
+            scheduleReconnect();
         }
     }
 
-    private class DataListener extends Thread {
-
-        private boolean interrupted = false;
-
-        DataListener() {
+    /**
+     * Run periodically by the scheduler: restarts a connection without received data and sends the connection test.
+     */
+    private void superviseConnection() {
+        if (!connected) {
+            scheduleReconnect();
+            return;
         }
 
-        public void setInterrupted(boolean interrupted) {
-            this.interrupted = interrupted;
-            this.interrupt();
+        if (System.currentTimeMillis() - lastReceivedTimestamp > SUPERVISION_TIMEOUT) {
+            logger.debug("No data received during supervision interval ({} sec)!", SUPERVISION_TIMEOUT / 1000);
+            connectionLost("supervision timeout");
+            return;
         }
 
-        @Override
-        public void run() {
-
-            logger.debug("Data listener started");
-
-            boolean restartConnection = false;
-            long connectionAttempts = 0;
+        logger.debug("Test connection to {}:{}", ip, port);
+        query(EiscpCommand.POWER_QUERY.getCommand(), EiscpCommand.POWER_QUERY.getValue());
+    }
 
-            // as long as no interrupt is requested, continue running
-            while (!interrupted) {
-                try {
-                    waitStateMessages();
-                    connectionAttempts = 0;
-                } catch (EiscpException e) {
+    private void messageReceived(EiscpMessage message) {
+        lastReceivedTimestamp = System.currentTimeMillis();
+        connectionAttempts = 0;
 
-                    logger.error("Error occurred during message waiting: {}", e.getMessage());
+        Queue<PendingQuery> queue = pendingQueries.get(message.getCommand());
+        if (queue != null) {
+            PendingQuery query = queue.poll();
+            if (query != null) {
+                query.timeoutJob.cancel(false);
+                query.complete(message);
+            }
+        }
 
-                } catch (SocketTimeoutException e) {
+        sendMessageEvent(message);
+    }
 
-                    logger.error("No data received during supervision interval ({} sec)!", SOCKET_TIMEOUT);
+    private void failPendingQueries() {
+        for (Queue<PendingQuery> queue : pendingQueries.values()) {
+            PendingQuery query;
+            while ((query = queue.poll()) != null) {
+                query.timeoutJob.cancel(false);
+                query.completeExceptionally(new IOException("Connection to " + getConnectionName() + " closed"));
+            }
+        }
+    }
 
-                    restartConnection = true;
+    private class DataListener extends Thread {
 
-                } catch (Exception e) {
+        private final InputStream inStream;
+        private final EiscpPacketDecoder decoder = new EiscpPacketDecoder();
 
-                    if (!interrupted && !this.isInterrupted()) {
-                        logger.debug("Error occurred during message waiting: {}", e.getMessage());
-                        sendConnectionErrorEvent();
-                        restartConnection = true;
+        DataListener(InputStream inStream) {
+            super("OnkyoConnection " + getConnectionName());
+            setDaemon(true);
+            this.inStream = inStream;
+        }
 
-                        // sleep a while, to prevent fast looping if error situation is permanent
-                        if (++connectionAttempts < FAST_CONNECTION_RETRY_COUNT) {
-                            mysleep(FAST_CONNECTION_RETRY_DELAY);
-                        } else {
-                            // slow down after few faster attempts
-                            if (connectionAttempts == FAST_CONNECTION_RETRY_COUNT) {
-                                logger.info(
-                                        "Connection failed {} times to {}:{}, slowing down automatic connection to {} seconds.",
-                                        FAST_CONNECTION_RETRY_COUNT, ip, port, SLOW_CONNECTION_RETRY_DELAY / 1000);
-                            }
-                            mysleep(SLOW_CONNECTION_RETRY_DELAY);
-                        }
-                    }
-                }
+        private boolean isActive() {
+            synchronized (OnkyoConnection.this) {
+                return dataListener == this;
+            }
+        }
 
-                if (restartConnection) {
-                    restartConnection = false;
+        @Override
+        public void run() {
 
-                    // reopen connection
-                    logger.debug("Reconnecting...");
+            logger.debug("Data listener started");
 
-                    try {
-                        connected = false;
-                        connectSocket();
-                        logger.debug("Test connection to {}:{}", ip, port);
-                        sendCommand(new EiscpMessage.MessageBuilder().command(EiscpCommand.POWER_QUERY.getCommand())
-                                .value(EiscpCommand.POWER_QUERY.getValue()).build());
+            byte[] bytes = new byte[READ_BUFFER_SIZE];
 
-                    } catch (Exception ex) {
-                        logger.error("Reconnection invoking error: {}", ex.getMessage());
+            try {
+                int length;
+                while ((length = inStream.read(bytes)) != -1) {
+                    for (EiscpMessage message : decoder.decode(bytes, length)) {
+                        messageReceived(message);
                     }
                 }
+
+                if (isActive()) {
+                    connectionLost("connection closed by the receiver");
+                }
+            } catch (IOException e) {
+                if (isActive()) {
+                    connectionLost(e.getMessage());
+                }
             }
 
             logger.debug("Data listener stopped");
         }
-
-        private void mysleep(long milli) {
-            try {
-                sleep(milli);
-            } catch (InterruptedException e) {
-                interrupted = true;
-            }
-        }
     }
 
-    private class ConnectionSupervisor {
-        private Timer timer;
-
-        public ConnectionSupervisor(int milliseconds) {
-            logger.debug("Connection supervisor started, interval {} milliseconds", milliseconds);
-
-            timer = new Timer();
-            timer.schedule(new Task(), milliseconds, milliseconds);
-        }
-
-        public void stopConnectionTester() {
-            timer.cancel();
-        }
-
-        class Task extends TimerTask {
-            @Override
-            public void run() {
-                logger.debug("Test connection to {}:{}", ip, port);
-                sendCommand(new EiscpMessage.MessageBuilder().command(EiscpCommand.POWER_QUERY.getCommand())
-                        .value(EiscpCommand.POWER_QUERY.getValue()).build());
-            }
-        }
+    private static class PendingQuery extends CompletableFuture<EiscpMessage> {
+        /** Fails the query after the query timeout, cancelled when the query is completed otherwise **/
+        private ScheduledFuture<?> timeoutJob;
     }
 
     private void sendConnectionErrorEvent() {
         // send message to event listeners
-        try {
-            Iterator<OnkyoEventListener> iterator = listeners.iterator();
-
-            while (iterator.hasNext()) {
-                iterator.next().connectionError(ip);
+        for (OnkyoEventListener listener : listeners) {
+            try {
+                listener.connectionError(ip);
+            } catch (Exception ex) {
+                logger.debug("Event listener invoking error: {}", ex.getMessage());
             }
-
-        } catch (Exception ex) {
-            logger.debug("Event listener invoking error: {}", ex.getMessage());
         }
     }
 
     private void sendMessageEvent(EiscpMessage message) {
         // send message to event listeners
-        try {
-            Iterator<OnkyoEventListener> iterator = listeners.iterator();
-
-            while (iterator.hasNext()) {
-                iterator.next().statusUpdateReceived(ip, message);
+        for (OnkyoEventListener listener : listeners) {
+            try {
+                listener.statusUpdateReceived(ip, message);
+            } catch (Exception e) {
+                logger.error("Event listener invoking error: {}", e.getMessage());
             }
-
-        } catch (Exception e) {
-            logger.error("Event listener invoking error: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
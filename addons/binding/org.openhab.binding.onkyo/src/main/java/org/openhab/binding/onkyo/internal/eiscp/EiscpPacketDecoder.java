@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.onkyo.internal.eiscp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decodes eISCP packets from a stream of received bytes.
+ *
+ * The received bytes are collected in a {@link ByteBuffer}, so a packet may be split over several reads and a single
+ * read may contain several packets. Bytes that do not belong to a valid packet are skipped until the next "ISCP"
+ * magic is found.
+ *
+ * Instances are not thread safe, each connection uses its own decoder.
+ *
+ * @author agent - Initial contribution
+ */
+public class EiscpPacketDecoder {
+
+    private final Logger logger = LoggerFactory.getLogger(EiscpPacketDecoder.class);
+
+    /** "ISCP" as big endian integer **/
+    private static final int MAGIC = 0x49534350;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int VERSION = 1;
+
+    /** Upper limit of the data size, larger packets are treated as garbage **/
+    static final int MAX_DATA_SIZE = 64 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private static final byte START_CHAR = '!';
+    private static final byte EOF = 0x1A;
+
+    /** Buffer in write mode holding the received bytes, which have not been decoded yet **/
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /**
+     * Adds received bytes and decodes all packets completed by them.
+     *
+     * @param bytes the received bytes
+     * @param length the number of received bytes
+     * @return the decoded messages, empty if no packet has been completed
+     */
+    public List<EiscpMessage> decode(byte[] bytes, int length) {
+        ensureCapacity(length);
+        buffer.put(bytes, 0, length);
+        buffer.flip();
+
+        List<EiscpMessage> messages = new ArrayList<>();
+        try {
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int start = buffer.position();
+
+                if (buffer.getInt(start) != MAGIC) {
+                    buffer.position(start + 1);
+                    continue;
+                }
+
+                int headerSize = buffer.getInt(start + 4);
+                int dataSize = buffer.getInt(start + 8);
+                int version = buffer.get(start + 12);
+
+                if (headerSize != HEADER_SIZE || version != VERSION || dataSize < 5 || dataSize > MAX_DATA_SIZE) {
+                    logger.debug("Skipping eISCP packet with header size {}, version {} and data size {}", headerSize,
+                            version, dataSize);
+                    buffer.position(start + 1);
+                    continue;
+                }
+
+                if (buffer.remaining() < HEADER_SIZE + dataSize) {
+                    // wait for the rest of the packet
+                    break;
+                }
+
+                if (logger.isTraceEnabled()) {
+                    byte[] packet = new byte[HEADER_SIZE + dataSize];
+                    buffer.duplicate().get(packet);
+                    logger.trace("Received eISCP message, {}", DatatypeConverter.printHexBinary(packet));
+                }
+
+                buffer.position(start + HEADER_SIZE);
+                EiscpMessage message = decodeData(buffer, dataSize);
+                buffer.position(start + HEADER_SIZE + dataSize);
+
+                if (message != null) {
+                    messages.add(message);
+                }
+            }
+        } finally {
+            buffer.compact();
+        }
+
+        return messages;
+    }
+
+    /**
+     * Drops all buffered bytes, e.g. when the connection has been reopened.
+     */
+    public void reset() {
+        buffer.clear();
+    }
+
+    /**
+     * Decodes the data of a packet, which starts at the position of the buffer.
+     *
+     * The data ends with "[EOF]", "[EOF][CR]", "[EOF][CR][LF]" or a similar sequence depending on the model, so the
+     * value ends at the first [EOF], [CR], [LF] or [NULL] character.
+     */
+    private EiscpMessage decodeData(ByteBuffer data, int dataSize) {
+        int start = data.position();
+
+        if (data.get(start) != START_CHAR) {
+            logger.debug("Skipping eISCP message with illegal start char {}", data.get(start));
+            return null;
+        }
+
+        // data[1] is the unit type, data[2..4] the command
+        int valueStart = start + 5;
+        int valueEnd = valueStart;
+        int dataEnd = start + dataSize;
+        while (valueEnd < dataEnd && !isEndChar(data.get(valueEnd))) {
+            valueEnd++;
+        }
+
+        byte[] command = new byte[3];
+        byte[] value = new byte[valueEnd - valueStart];
+        data.position(start + 2);
+        data.get(command);
+        data.get(value);
+
+        return new EiscpMessage.MessageBuilder().command(new String(command, StandardCharsets.US_ASCII))
+                .value(new String(value, StandardCharsets.UTF_8)).build();
+    }
+
+    private static boolean isEndChar(byte b) {
+        return b == EOF || b == '\r' || b == '\n' || b == 0x00;
+    }
+
+    private void ensureCapacity(int length) {
+        if (buffer.remaining() < length) {
+            int capacity = buffer.capacity();
+            while (capacity - buffer.position() < length) {
+                capacity *= 2;
+            }
+            ByteBuffer newBuffer = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+}
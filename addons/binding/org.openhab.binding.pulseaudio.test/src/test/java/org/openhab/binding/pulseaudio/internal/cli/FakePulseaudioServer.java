@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.pulseaudio.internal.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link FakePulseaudioServer} answers the commands of the CLI protocol with fixed answers on a local port. Like
+ * the pulseaudio server, it closes the connection after each answer. Unknown commands get an empty answer.
+ *
+ * Keep the answers below 1024 bytes, the client trims every chunk it reads from the socket.
+ *
+ * @author agent - Initial contribution
+ */
+class FakePulseaudioServer implements Runnable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, String> answers = new ConcurrentHashMap<>();
+
+    FakePulseaudioServer() throws IOException {
+        serverSocket = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(this, "Fake pulseaudio server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    String getHost() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    void setAnswer(String command, String answer) {
+        answers.put(command, answer);
+    }
+
+    void close() throws IOException {
+        serverSocket.close();
+    }
+
+    @Override
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                String command = in.readLine();
+                String answer = command != null ? answers.get(command.trim()) : null;
+                if (answer != null) {
+                    OutputStream out = socket.getOutputStream();
+                    out.write(answer.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // the server socket has been closed or the client went away
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.pulseaudio.internal.cli;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.pulseaudio.internal.PulseaudioClient;
+import org.openhab.binding.pulseaudio.internal.items.AbstractAudioDeviceConfig.State;
+import org.openhab.binding.pulseaudio.internal.items.SinkInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link Parser}. The client the parser resolves the modules and sinks with reads them from a
+ * {@link FakePulseaudioServer}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParserTest {
+
+    private final Logger logger = LoggerFactory.getLogger(ParserTest.class);
+
+    private static final String MODULES = "2 module(s) loaded.\n" //
+            + "    index: 0\n" //
+            + "\tname: <module-alsa-card>\n" //
+            + "\targument: <device_id=\"0\">\n" //
+            + "\tused: 2\n" //
+            + "    index: 1\n" //
+            + "\tname: <module-native-protocol-tcp>\n" //
+            + "\tused: -1\n";
+
+    private static final String SINKS = "2 sink(s) available.\n" //
+            + "  * index: 0\n" //
+            + "\tname: <alsa_output.analog-stereo>\n" //
+            + "\tdriver: <module-alsa-card.c>\n" //
+            + "\tstate: RUNNING\n" //
+            + "\tvolume: 0:  80% 1:  80%\n" //
+            + "\tmuted: no\n" //
+            + "\tmodule: 0\n" //
+            + "    index: 1\n" //
+            + "\tname: <alsa_output.hdmi-stereo>\n" //
+            + "\tdriver: <module-alsa-card.c>\n" //
+            + "\tstate: SUSPENDED\n" //
+            + "\tvolume: 0: 100% 1: 100%\n" //
+            + "\tmuted: yes\n" //
+            + "\tmodule: 0\n";
+
+    private static final int LARGE_ANSWER_SIZE = 2000;
+    private static final int TIMING_RUNS = 5;
+
+    private FakePulseaudioServer server;
+    private PulseaudioClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakePulseaudioServer();
+        server.setAnswer("list-modules", MODULES);
+        server.setAnswer("list-sinks", SINKS);
+        client = new PulseaudioClient(server.getHost(), server.getPort());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.disconnect();
+        server.close();
+    }
+
+    /**
+     * builds the answer to the list-sink-inputs command with the given number of sink-inputs, which are spread over
+     * both sinks
+     */
+    private static String sinkInputs(int count) {
+        StringBuilder answer = new StringBuilder();
+        answer.append(count).append(" sink input(s) available.\n");
+        for (int i = 0; i < count; i++) {
+            int sink = i % 2;
+            answer.append("    index: ").append(i).append('\n');
+            answer.append("\tdriver: <protocol-native.c>\n");
+            answer.append("\tflags: \n");
+            answer.append("\tstate: ").append(i % 3 == 0 ? "CORKED" : "RUNNING").append('\n');
+            answer.append("\tsink: ").append(sink).append(sink == 0 ? " <alsa_output.analog-stereo>\n"
+                    : " <alsa_output.hdmi-stereo>\n");
+            answer.append("\tvolume: 0:  ").append(i % 101).append("% 1:  ").append(i % 101).append("%\n");
+            answer.append("\t        balance 0.00\n");
+            answer.append("\tmuted: ").append(i % 2 == 0 ? "no" : "yes").append('\n');
+            answer.append("\tcurrent latency: 70.48 ms\n");
+            answer.append("\tmodule: 1\n");
+            answer.append("\tclient: ").append(i + 100).append(" <mpd>\n");
+            answer.append("\tproperties:\n");
+            answer.append("\t\tmedia.name = \"Stream ").append(i).append("\"\n");
+            answer.append("\t\tapplication.name = \"mpd\"\n");
+        }
+        return answer.toString();
+    }
+
+    @Test
+    public void parsesSinkInputs() {
+        List<SinkInput> sinkInputs = Parser.parseSinkInputs(sinkInputs(2), client);
+
+        assertEquals(2, sinkInputs.size());
+        SinkInput first = sinkInputs.get(0);
+        assertEquals(0, first.getId());
+        assertEquals("Stream 0", first.getPaName());
+        assertEquals(State.CORKED, first.getState());
+        assertEquals(0, first.getVolume());
+        assertFalse(first.isMuted());
+        assertSame(client.getSink(0), first.getSink());
+        assertSame(client.getModule(1), first.getModule());
+
+        SinkInput second = sinkInputs.get(1);
+        assertEquals(1, second.getId());
+        assertEquals("Stream 1", second.getPaName());
+        assertEquals(State.RUNNING, second.getState());
+        assertEquals(1, second.getVolume());
+        assertTrue(second.isMuted());
+        assertSame(client.getSink("alsa_output.hdmi-stereo"), second.getSink());
+    }
+
+    @Test
+    public void sinkInputWithoutMediaNameIsParsed() {
+        String answer = "1 sink input(s) available.\n" //
+                + "    index: 7\n" //
+                + "\tstate: RUNNING\n" //
+                + "\tsink: 1 <alsa_output.hdmi-stereo>\n" //
+                + "\tmodule: 1\n";
+
+        List<SinkInput> sinkInputs = Parser.parseSinkInputs(answer, client);
+
+        assertEquals(1, sinkInputs.size());
+        assertEquals(7, sinkInputs.get(0).getId());
+        assertSame(client.getSink(1), sinkInputs.get(0).getSink());
+    }
+
+    @Test
+    public void itemsWithoutSinkAreIgnored() {
+        String answer = "1 sink input(s) available.\n" //
+                + "    index: 7\n" //
+                + "\tstate: RUNNING\n" //
+                + "\tmodule: 1\n";
+
+        assertTrue(Parser.parseSinkInputs(answer, client).isEmpty());
+        assertTrue(Parser.parseSinkInputs("0 sink input(s) available.\n", client).isEmpty());
+    }
+
+    @Test
+    public void parsesLargeSinkInputAnswer() {
+        List<SinkInput> sinkInputs = Parser.parseSinkInputs(sinkInputs(LARGE_ANSWER_SIZE), client);
+
+        assertEquals(LARGE_ANSWER_SIZE, sinkInputs.size());
+        for (int i = 0; i < LARGE_ANSWER_SIZE; i++) {
+            SinkInput sinkInput = sinkInputs.get(i);
+            assertEquals(i, sinkInput.getId());
+            assertEquals("Stream " + i, sinkInput.getPaName());
+            assertEquals(i % 101, sinkInput.getVolume());
+            assertSame(client.getSink(i % 2), sinkInput.getSink());
+        }
+    }
+
+    /**
+     * Measures the parsing of a generated list-sink-inputs answer with {@value #LARGE_ANSWER_SIZE} entries and logs
+     * the fastest of {@value #TIMING_RUNS} runs. The time depends on the machine and is not checked.
+     */
+    @Test
+    public void timeLargeSinkInputAnswer() {
+        String answer = sinkInputs(LARGE_ANSWER_SIZE);
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < TIMING_RUNS; run++) {
+            long start = System.nanoTime();
+            List<SinkInput> sinkInputs = Parser.parseSinkInputs(answer, client);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+            assertEquals(LARGE_ANSWER_SIZE, sinkInputs.size());
+        }
+        logger.info("Parsing {} sink-inputs ({} characters) took {} ms", LARGE_ANSWER_SIZE, answer.length(),
+                fastest / 1000000.0);
+    }
+}
@@ -39,7 +39,10 @@ public class PulseaudioBindingConstants {
     // List of all Parameters
     public static final String BRIDGE_PARAMETER_HOST = "host";
     public static final String BRIDGE_PARAMETER_PORT = "port";
-    public static final String BRIDGE_PARAMETER_REFRESH_INTERVAL = "refresh";
+    public static final String BRIDGE_PARAMETER_REFRESH_INTERVAL = "refreshInterval";
+    public static final String BRIDGE_PARAMETER_MODULE_REFRESH_INTERVAL = "moduleRefreshInterval";
+    public static final String BRIDGE_PARAMETER_SINK_INPUT_REFRESH_INTERVAL = "sinkInputRefreshInterval";
+    public static final String BRIDGE_PARAMETER_SOURCE_OUTPUT_REFRESH_INTERVAL = "sourceOutputRefreshInterval";
     
     public static final String DEVICE_PARAMETER_NAME = "name";
 }
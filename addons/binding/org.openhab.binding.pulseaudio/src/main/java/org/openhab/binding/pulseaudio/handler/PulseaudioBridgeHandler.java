@@ -13,8 +13,10 @@ import static org.openhab.binding.pulseaudio.PulseaudioBindingConstants.*;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
@@ -31,6 +33,10 @@ import org.eclipse.smarthome.core.types.RefreshType;
 import org.openhab.binding.pulseaudio.PulseaudioBindingConstants;
 import org.openhab.binding.pulseaudio.internal.PulseaudioClient;
 import org.openhab.binding.pulseaudio.internal.items.AbstractAudioDeviceConfig;
+import org.openhab.binding.pulseaudio.internal.items.Sink;
+import org.openhab.binding.pulseaudio.internal.items.SinkInput;
+import org.openhab.binding.pulseaudio.internal.items.Source;
+import org.openhab.binding.pulseaudio.internal.items.SourceOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,37 +56,39 @@ public class PulseaudioBridgeHandler extends BaseBridgeHandler {
     public String host = "localhost";
     public int port = 4712;
 
+    /**
+     * refresh interval of sinks and sources, the default for all other types
+     */
     public int refreshInterval = 30000;
+    public int moduleRefreshInterval = 300000;
+    public int sinkInputRefreshInterval = 30000;
+    public int sourceOutputRefreshInterval = 30000;
 
     private PulseaudioClient client;
 
     private HashSet<String> lastActiveDevices = new HashSet<String>();
 
+    /**
+     * fingerprint of the state each device had when it has been delivered to the listeners the last time
+     */
+    private final Map<String, String> deviceFingerprints = new HashMap<String, String>();
+
+    private int pollingInterval;
+    // written by the polling job and by refresh commands, which run on different threads
+    private volatile long lastModuleUpdate;
+    private volatile long lastDeviceUpdate;
+    private volatile long lastSinkInputUpdate;
+    private volatile long lastSourceOutputUpdate;
+
     private ScheduledFuture<?> pollingJob;
     private Runnable pollingRunnable = new Runnable() {
         @Override
         public void run() {
-            client.update();
-            for (AbstractAudioDeviceConfig device : client.getItems()) {
-                if (lastActiveDevices != null && lastActiveDevices.contains(device.getPaName())) {
-                    for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
-                        try {
-                            deviceStatusListener.onDeviceStateChanged(getThing().getUID(), device);
-                        } catch (Exception e) {
-                            logger.error("An exception occurred while calling the DeviceStatusListener", e);
-                        }
-                    }
-                } else {
-                    for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
-                        try {
-                            deviceStatusListener.onDeviceAdded(getThing(), device);
-                            deviceStatusListener.onDeviceStateChanged(getThing().getUID(), device);
-                        } catch (Exception e) {
-                            logger.error("An exception occurred while calling the DeviceStatusListener", e);
-                        }
-                        lastActiveDevices.add(device.getPaName());
-                    }
-                }
+            try {
+                updateDueItems();
+            } catch (Exception e) {
+                logger.warn("An exception occurred while updating pulseaudio server '{}': {}", host, e.getMessage(),
+                        e);
             }
         }
     };
@@ -94,7 +102,10 @@ public class PulseaudioBridgeHandler extends BaseBridgeHandler {
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (command instanceof RefreshType) {
-            client.update();
+            if (client != null) {
+                updateAllItems();
+                notifyDeviceStatusListeners(true);
+            }
         } else {
             logger.warn("received invalid command for pulseaudio bridge '{}'.", host);
         }
@@ -102,10 +113,113 @@ public class PulseaudioBridgeHandler extends BaseBridgeHandler {
 
     private synchronized void startAutomaticRefresh() {
         if (pollingJob == null || pollingJob.isCancelled()) {
-            pollingJob = scheduler.scheduleAtFixedRate(pollingRunnable, 0, refreshInterval, TimeUnit.MILLISECONDS);
+            // the client has just read everything
+            markAllItemsUpdated();
+            pollingInterval = Math.min(Math.min(refreshInterval, moduleRefreshInterval),
+                    Math.min(sinkInputRefreshInterval, sourceOutputRefreshInterval));
+            pollingJob = scheduler.scheduleAtFixedRate(pollingRunnable, 0, pollingInterval, TimeUnit.MILLISECONDS);
         }
     }
 
+    /**
+     * updates the types whose refresh interval has expired and notifies the listeners about the changed devices
+     */
+    private void updateDueItems() {
+        long now = System.currentTimeMillis();
+        // the polling job does not run exactly on time, accept an interval if it has nearly expired
+        long tolerance = pollingInterval / 2;
+        if (now - lastModuleUpdate >= moduleRefreshInterval - tolerance) {
+            client.updateModules();
+            lastModuleUpdate = now;
+        }
+        if (now - lastDeviceUpdate >= refreshInterval - tolerance) {
+            client.updateSinks();
+            client.updateSources();
+            lastDeviceUpdate = now;
+        }
+        if (now - lastSinkInputUpdate >= sinkInputRefreshInterval - tolerance) {
+            client.updateSinkInputs();
+            lastSinkInputUpdate = now;
+        }
+        if (now - lastSourceOutputUpdate >= sourceOutputRefreshInterval - tolerance) {
+            client.updateSourceOutputs();
+            lastSourceOutputUpdate = now;
+        }
+        notifyDeviceStatusListeners(false);
+    }
+
+    private void updateAllItems() {
+        client.update();
+        markAllItemsUpdated();
+    }
+
+    private void markAllItemsUpdated() {
+        long now = System.currentTimeMillis();
+        lastModuleUpdate = now;
+        lastDeviceUpdate = now;
+        lastSinkInputUpdate = now;
+        lastSourceOutputUpdate = now;
+    }
+
+    /**
+     * notifies the listeners about new devices and about the devices whose state has changed since the last
+     * notification
+     *
+     * @param all notify the listeners about all devices, whether their state has changed or not
+     */
+    private synchronized void notifyDeviceStatusListeners(boolean all) {
+        Set<String> seen = new HashSet<String>();
+        for (AbstractAudioDeviceConfig device : client.getItems()) {
+            String key = device.getClass().getSimpleName() + "#" + device.getId();
+            String fingerprint = getFingerprint(device);
+            seen.add(key);
+            if (!all && fingerprint.equals(deviceFingerprints.get(key))) {
+                continue;
+            }
+            if (deviceStatusListeners.isEmpty()) {
+                // nothing has been delivered, the device is notified again once a listener is registered
+                continue;
+            }
+            deviceFingerprints.put(key, fingerprint);
+
+            boolean added = lastActiveDevices.add(device.getPaName());
+            for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
+                try {
+                    if (added) {
+                        deviceStatusListener.onDeviceAdded(getThing(), device);
+                    }
+                    deviceStatusListener.onDeviceStateChanged(getThing().getUID(), device);
+                } catch (Exception e) {
+                    logger.error("An exception occurred while calling the DeviceStatusListener", e);
+                }
+            }
+        }
+        // forget the devices which are gone, so they are notified again once they reappear
+        deviceFingerprints.keySet().retainAll(seen);
+    }
+
+    /**
+     * builds a string of everything the listeners get to know about a device
+     */
+    private static String getFingerprint(AbstractAudioDeviceConfig device) {
+        StringBuilder fingerprint = new StringBuilder(device.getPaName());
+        fingerprint.append('|').append(device.getState()).append('|').append(device.isMuted()).append('|')
+                .append(device.getVolume());
+        if (device instanceof Sink) {
+            fingerprint.append('|').append(((Sink) device).getCombinedSinkNames());
+        } else if (device instanceof SinkInput) {
+            Sink sink = ((SinkInput) device).getSink();
+            fingerprint.append('|').append(sink != null ? sink.getPaName() : null);
+        } else if (device instanceof Source) {
+            Sink monitorOf = ((Source) device).getMonitorOf();
+            fingerprint.append('|').append(monitorOf != null ? monitorOf.getPaName() : null);
+        } else if (device instanceof SourceOutput) {
+            Source source = ((SourceOutput) device).getSource();
+            fingerprint.append('|').append(source != null ? source.getPaName() : null);
+        }
+        return fingerprint.toString();
+    }
+
     public AbstractAudioDeviceConfig getDevice(String name) {
         return client.getGenericAudioItem(name);
     }
@@ -129,6 +243,12 @@ public class PulseaudioBridgeHandler extends BaseBridgeHandler {
         if (conf.get(BRIDGE_PARAMETER_REFRESH_INTERVAL) != null) {
             this.refreshInterval = ((BigDecimal) conf.get(BRIDGE_PARAMETER_REFRESH_INTERVAL)).intValue();
         }
+        this.moduleRefreshInterval = getInterval(conf, BRIDGE_PARAMETER_MODULE_REFRESH_INTERVAL,
+                10 * refreshInterval);
+        this.sinkInputRefreshInterval = getInterval(conf, BRIDGE_PARAMETER_SINK_INPUT_REFRESH_INTERVAL,
+                refreshInterval);
+        this.sourceOutputRefreshInterval = getInterval(conf, BRIDGE_PARAMETER_SOURCE_OUTPUT_REFRESH_INTERVAL,
+                refreshInterval);
 
         if (host != null && !host.isEmpty()) {
             Runnable connectRunnable = new Runnable() {
@@ -157,18 +277,48 @@ public class PulseaudioBridgeHandler extends BaseBridgeHandler {
         }
     }
 
+    private int getInterval(Configuration conf, String parameter, int defaultInterval) {
+        Object value = conf.get(parameter);
+        if (value instanceof BigDecimal && ((BigDecimal) value).intValue() > 0) {
+            return ((BigDecimal) value).intValue();
+        }
+        return defaultInterval;
+    }
+
     @Override
     public void dispose() {
-        pollingJob.cancel(true);
-        client.disconnect();
+        if (pollingJob != null) {
+            pollingJob.cancel(true);
+            pollingJob = null;
+        }
+        if (client != null) {
+            client.disconnect();
+        }
         super.dispose();
     }
 
-    public boolean registerDeviceStatusListener(DeviceStatusListener deviceStatusListener) {
+    public boolean registerDeviceStatusListener(final DeviceStatusListener deviceStatusListener) {
         if (deviceStatusListener == null) {
             throw new IllegalArgumentException("It's not allowed to pass a null deviceStatusListener.");
         }
-        return deviceStatusListeners.add(deviceStatusListener);
+        boolean added = deviceStatusListeners.add(deviceStatusListener);
+        final PulseaudioClient currentClient = client;
+        if (added && currentClient != null) {
+            // the other listeners are only notified about changes, so the new one needs the current states once
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (AbstractAudioDeviceConfig device : currentClient.getItems()) {
+                        try {
+                            deviceStatusListener.onDeviceStateChanged(getThing().getUID(), device);
+                        } catch (Exception e) {
+                            logger.error("An exception occurred while calling the DeviceStatusListener", e);
+                        }
+                    }
+                }
+            });
+        }
+        return added;
     }
 
     public boolean unregisterDeviceStatusListener(DeviceStatusListener deviceStatusListener) {
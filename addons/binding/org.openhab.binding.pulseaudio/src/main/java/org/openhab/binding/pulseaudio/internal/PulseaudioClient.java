@@ -16,12 +16,18 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.pulseaudio.internal.cli.Parser;
 import org.openhab.binding.pulseaudio.internal.items.AbstractAudioDeviceConfig;
 import org.openhab.binding.pulseaudio.internal.items.AbstractAudioDeviceConfig.State;
+import org.openhab.binding.pulseaudio.internal.items.AbstractDeviceConfig;
 import org.openhab.binding.pulseaudio.internal.items.Module;
 import org.openhab.binding.pulseaudio.internal.items.Sink;
 import org.openhab.binding.pulseaudio.internal.items.SinkInput;
@@ -37,6 +43,9 @@ import org.slf4j.LoggerFactory;
  *
  * On the pulseaudio server the module-cli-protocol-tcp has to be loaded.
  *
+ * The modules, sinks, sources, sink-inputs and source-outputs can be updated independently of each other. Each type
+ * is held in an index by id and by name, which is replaced as a whole on every update of that type.
+ *
  * @author Tobias Bräutigam
  * @since 1.2.0
  */
@@ -48,8 +57,17 @@ public class PulseaudioClient {
     private int port;
     private Socket client;
 
-    private List<AbstractAudioDeviceConfig> items;
-    private List<Module> modules;
+    private volatile ItemIndex<Module> modules = new ItemIndex<Module>(Collections.<Module> emptyList());
+    private volatile ItemIndex<Sink> sinks = new ItemIndex<Sink>(Collections.<Sink> emptyList());
+    private volatile ItemIndex<Source> sources = new ItemIndex<Source>(Collections.<Source> emptyList());
+    private volatile ItemIndex<SinkInput> sinkInputs = new ItemIndex<SinkInput>(Collections.<SinkInput> emptyList());
+    private volatile ItemIndex<SourceOutput> sourceOutputs = new ItemIndex<SourceOutput>(
+            Collections.<SourceOutput> emptyList());
+
+    /**
+     * set while parsing, if an item refers to a module which is not known yet
+     */
+    private boolean unknownModule;
 
     /**
      * corresponding name to execute actions on sink items
@@ -119,9 +137,6 @@ public class PulseaudioClient {
         this.host = host;
         this.port = port;
 
-        items = new ArrayList<AbstractAudioDeviceConfig>();
-        modules = new ArrayList<Module>();
-
         connect();
         update();
     }
@@ -133,17 +148,94 @@ public class PulseaudioClient {
     /**
      * updates the item states and their relationships
      */
-    public void update() {
-        modules.clear();
-        modules.addAll(Parser.parseModules(listModules()));
+    public synchronized void update() {
+        updateModules();
+        updateSinks();
+        updateSources();
+        updateSinkInputs();
+        updateSourceOutputs();
+
+        logger.debug("Pulseaudio server {}: {} modules and {} items updated", host, modules.size(),
+                sinks.size() + sources.size() + sinkInputs.size() + sourceOutputs.size());
+    }
+
+    /**
+     * updates the loaded modules
+     */
+    public synchronized void updateModules() {
+        modules = new ItemIndex<Module>(Parser.parseModules(listModules()));
+        logger.trace("Pulseaudio server {}: {} modules updated", host, modules.size());
+    }
 
-        items.clear();
-        items.addAll(Parser.parseSinks(listSinks(), this));
-        items.addAll(Parser.parseSources(listSources(), this));
-        items.addAll(Parser.parseSinkInputs(listSinkInputs(), this));
-        items.addAll(Parser.parseSourceOutputs(listSourceOutputs(), this));
+    /**
+     * updates the sinks, the modules are updated as well if a sink belongs to an unknown module
+     */
+    public synchronized void updateSinks() {
+        String raw = listSinks();
+        unknownModule = false;
+        Collection<Sink> result = Parser.parseSinks(raw, this);
+        if (updateModulesIfUnknown()) {
+            result = Parser.parseSinks(raw, this);
+        }
+        sinks = new ItemIndex<Sink>(result);
+        logger.trace("Pulseaudio server {}: {} sinks updated", host, sinks.size());
+    }
 
-        logger.debug("Pulseaudio server {}: {} modules and {} items updated", host, modules.size(), items.size());
+    /**
+     * updates the sources, the modules are updated as well if a source belongs to an unknown module
+     */
+    public synchronized void updateSources() {
+        String raw = listSources();
+        unknownModule = false;
+        Collection<Source> result = Parser.parseSources(raw, this);
+        if (updateModulesIfUnknown()) {
+            result = Parser.parseSources(raw, this);
+        }
+        sources = new ItemIndex<Source>(result);
+        logger.trace("Pulseaudio server {}: {} sources updated", host, sources.size());
+    }
+
+    /**
+     * updates the sink-inputs, the modules are updated as well if a sink-input belongs to an unknown module
+     */
+    public synchronized void updateSinkInputs() {
+        String raw = listSinkInputs();
+        unknownModule = false;
+        Collection<SinkInput> result = Parser.parseSinkInputs(raw, this);
+        if (updateModulesIfUnknown()) {
+            result = Parser.parseSinkInputs(raw, this);
+        }
+        sinkInputs = new ItemIndex<SinkInput>(result);
+        logger.trace("Pulseaudio server {}: {} sink-inputs updated", host, sinkInputs.size());
+    }
+
+    /**
+     * updates the source-outputs, the modules are updated as well if a source-output belongs to an unknown module
+     */
+    public synchronized void updateSourceOutputs() {
+        String raw = listSourceOutputs();
+        unknownModule = false;
+        Collection<SourceOutput> result = Parser.parseSourceOutputs(raw, this);
+        if (updateModulesIfUnknown()) {
+            result = Parser.parseSourceOutputs(raw, this);
+        }
+        sourceOutputs = new ItemIndex<SourceOutput>(result);
+        logger.trace("Pulseaudio server {}: {} source-outputs updated", host, sourceOutputs.size());
+    }
+
+    /**
+     * updates the modules if the last parsed items referred to a module which was not known
+     *
+     * @return true if the modules have been updated
+     */
+    private boolean updateModulesIfUnknown() {
+        if (!unknownModule) {
+            return false;
+        }
+        logger.debug("Pulseaudio server {}: unknown module referenced, updating modules", host);
+        updateModules();
+        unknownModule = false;
+        return true;
     }
 
     private String listModules() {
@@ -173,12 +265,11 @@ public class PulseaudioClient {
      * @return the corresponding {@link Module} to the given <code>id</code>
      */
     public Module getModule(int id) {
-        for (Module module : modules) {
-            if (module.getId() == id) {
-                return module;
-            }
+        Module module = modules.get(id);
+        if (module == null && id >= 0) {
+            unknownModule = true;
         }
-        return null;
+        return module;
     }
 
     /**
@@ -198,12 +289,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Sink} to the given <code>name</code>
      */
     public Sink getSink(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name) && item instanceof Sink) {
-                return (Sink) item;
-            }
-        }
-        return null;
+        return sinks.get(name);
     }
 
     /**
@@ -212,12 +298,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Sink} to the given <code>id</code>
      */
     public Sink getSink(int id) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getId() == id && item instanceof Sink) {
-                return (Sink) item;
-            }
-        }
-        return null;
+        return sinks.get(id);
     }
 
     /**
@@ -226,12 +307,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link SinkInput} to the given <code>name</code>
      */
     public SinkInput getSinkInput(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name) && item instanceof SinkInput) {
-                return (SinkInput) item;
-            }
-        }
-        return null;
+        return sinkInputs.get(name);
     }
 
     /**
@@ -240,12 +316,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link SinkInput} to the given <code>id</code>
      */
     public SinkInput getSinkInput(int id) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getId() == id && item instanceof SinkInput) {
-                return (SinkInput) item;
-            }
-        }
-        return null;
+        return sinkInputs.get(id);
     }
 
     /**
@@ -254,12 +325,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Source} to the given <code>name</code>
      */
     public Source getSource(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name) && item instanceof Source) {
-                return (Source) item;
-            }
-        }
-        return null;
+        return sources.get(name);
     }
 
     /**
@@ -268,12 +334,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Source} to the given <code>id</code>
      */
     public Source getSource(int id) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getId() == id && item instanceof Source) {
-                return (Source) item;
-            }
-        }
-        return null;
+        return sources.get(id);
     }
 
     /**
@@ -282,12 +343,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link SourceOutput} to the given <code>name</code>
      */
     public SourceOutput getSourceOutput(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name) && item instanceof SourceOutput) {
-                return (SourceOutput) item;
-            }
-        }
-        return null;
+        return sourceOutputs.get(name);
     }
 
     /**
@@ -296,12 +352,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link SourceOutput} to the given <code>id</code>
      */
     public SourceOutput getSourceOutput(int id) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getId() == id && item instanceof SourceOutput) {
-                return (SourceOutput) item;
-            }
-        }
-        return null;
+        return sourceOutputs.get(id);
     }
 
     /**
@@ -310,15 +361,31 @@ public class PulseaudioClient {
      * @return the corresponding {@link AbstractAudioDeviceConfig} to the given <code>name</code>
      */
     public AbstractAudioDeviceConfig getGenericAudioItem(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name)) {
-                return item;
-            }
+        AbstractAudioDeviceConfig item = sinks.get(name);
+        if (item == null) {
+            item = sources.get(name);
         }
-        return null;
+        if (item == null) {
+            item = sinkInputs.get(name);
+        }
+        if (item == null) {
+            item = sourceOutputs.get(name);
+        }
+        return item;
     }
 
+    /**
+     * returns a snapshot of all sinks, sources, sink-inputs and source-outputs
+     *
+     * @return the list of all audio items
+     */
     public List<AbstractAudioDeviceConfig> getItems() {
+        List<AbstractAudioDeviceConfig> items = new ArrayList<AbstractAudioDeviceConfig>(
+                sinks.size() + sources.size() + sinkInputs.size() + sourceOutputs.size());
+        items.addAll(sinks.getItems());
+        items.addAll(sources.getItems());
+        items.addAll(sinkInputs.getItems());
+        items.addAll(sourceOutputs.getItems());
         return items;
     }
 
@@ -614,4 +681,49 @@ public class PulseaudioClient {
         }
     }
 
+    /**
+     * An immutable index of the items of one type by their id and their (case insensitive) name. If several items
+     * share the same id or name, the first one wins.
+     */
+    private static class ItemIndex<T extends AbstractDeviceConfig> {
+        private final List<T> items;
+        private final Map<Integer, T> byId;
+        private final Map<String, T> byName;
+
+        private ItemIndex(Collection<? extends T> items) {
+            this.items = Collections.unmodifiableList(new ArrayList<T>(items));
+            this.byId = new HashMap<Integer, T>(items.size() * 2);
+            this.byName = new HashMap<String, T>(items.size() * 2);
+            for (T item : this.items) {
+                if (!byId.containsKey(item.getId())) {
+                    byId.put(item.getId(), item);
+                }
+                String key = nameKey(item.getPaName());
+                if (key != null && !byName.containsKey(key)) {
+                    byName.put(key, item);
+                }
+            }
+        }
+
+        private static String nameKey(String name) {
+            return name != null ? name.toLowerCase(Locale.ROOT) : null;
+        }
+
+        private T get(int id) {
+            return byId.get(id);
+        }
+
+        private T get(String name) {
+            String key = nameKey(name);
+            return key != null ? byName.get(key) : null;
+        }
+
+        private List<T> getItems() {
+            return items;
+        }
+
+        private int size() {
+            return items.size();
+        }
+    }
 }
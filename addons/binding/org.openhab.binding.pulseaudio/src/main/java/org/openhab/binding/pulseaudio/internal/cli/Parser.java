@@ -10,8 +10,9 @@ package org.openhab.binding.pulseaudio.internal.cli;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Hashtable;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -40,6 +41,8 @@ public class Parser {
     private static final Pattern fallBackPattern = Pattern
             .compile("^([0-9]+)([a-z\\s._]+)[:=]\\s*<?\"?([^>\"]+)\"?>?$");
     private static final Pattern numberValuePattern = Pattern.compile("^([0-9]+).*$");
+    private static final Pattern indexPattern = Pattern.compile("index: ", Pattern.LITERAL);
+    private static final Pattern lineFeedPattern = Pattern.compile("\n", Pattern.LITERAL);
 
     /**
      * parses the pulseaudio servers answer to the list-modules command and returns a list of
@@ -50,31 +53,14 @@ public class Parser {
      */
     public static List<Module> parseModules(String raw) {
         List<Module> modules = new ArrayList<Module>();
-        String[] parts = raw.split("index: ");
+        String[] parts = indexPattern.split(raw);
         if (parts.length <= 1) {
             return modules;
         }
         // skip first part
         for (int i = 1; i < parts.length; i++) {
-            String[] lines = parts[i].split("\n");
-            Hashtable<String, String> properties = new Hashtable<String, String>();
-            int id = 0;
-            try {
-                id = Integer.valueOf(lines[0].trim());
-            } catch (NumberFormatException e) {
-                // sometime the line feed is missing here
-                Matcher matcher = fallBackPattern.matcher(lines[0].trim());
-                if (matcher.find()) {
-                    id = Integer.valueOf(matcher.group(1));
-                    properties.put(matcher.group(2).trim(), matcher.group(3).trim());
-                }
-            }
-            for (int j = 1; j < lines.length; j++) {
-                Matcher matcher = pattern.matcher(lines[j]);
-                if (matcher.find()) {
-                    properties.put(matcher.group(1).trim(), matcher.group(2).trim());
-                }
-            }
+            Map<String, String> properties = new HashMap<String, String>();
+            int id = parseProperties(parts[i], properties);
             if (properties.containsKey("name")) {
                 Module module = new Module(id, properties.get("name"));
                 if (properties.containsKey("argument")) {
@@ -94,33 +80,16 @@ public class Parser {
      * @return list of sinks
      */
     public static Collection<Sink> parseSinks(String raw, PulseaudioClient client) {
-        Hashtable<String, Sink> sinks = new Hashtable<String, Sink>();
-        String[] parts = raw.split("index: ");
+        Map<String, Sink> sinks = new HashMap<String, Sink>();
+        String[] parts = indexPattern.split(raw);
         if (parts.length <= 1) {
             return sinks.values();
         }
         // skip first part
         List<Sink> combinedSinks = new ArrayList<Sink>();
         for (int i = 1; i < parts.length; i++) {
-            String[] lines = parts[i].split("\n");
-            Hashtable<String, String> properties = new Hashtable<String, String>();
-            int id = 0;
-            try {
-                id = Integer.valueOf(lines[0].trim());
-            } catch (NumberFormatException e) {
-                // sometime the line feed is missing here
-                Matcher matcher = fallBackPattern.matcher(lines[0].trim());
-                if (matcher.find()) {
-                    id = Integer.valueOf(matcher.group(1));
-                    properties.put(matcher.group(2).trim(), matcher.group(3).trim());
-                }
-            }
-            for (int j = 1; j < lines.length; j++) {
-                Matcher matcher = pattern.matcher(lines[j]);
-                if (matcher.find()) {
-                    properties.put(matcher.group(1).trim(), matcher.group(2).trim());
-                }
-            }
+            Map<String, String> properties = new HashMap<String, String>();
+            int id = parseProperties(parts[i], properties);
             if (properties.containsKey("name")) {
                 Sink sink = new Sink(id, properties.get("name"),
                         client.getModule(getNumberValue(properties.get("module"))));
@@ -164,30 +133,13 @@ public class Parser {
      */
     public static List<SinkInput> parseSinkInputs(String raw, PulseaudioClient client) {
         List<SinkInput> items = new ArrayList<SinkInput>();
-        String[] parts = raw.split("index: ");
+        String[] parts = indexPattern.split(raw);
         if (parts.length <= 1) {
             return items;
         }
         for (int i = 1; i < parts.length; i++) {
-            String[] lines = parts[i].split("\n");
-            Hashtable<String, String> properties = new Hashtable<String, String>();
-            int id = 0;
-            try {
-                id = Integer.valueOf(lines[0].trim());
-            } catch (NumberFormatException e) {
-                // sometime the line feed is missing here
-                Matcher matcher = fallBackPattern.matcher(lines[0].trim());
-                if (matcher.find()) {
-                    id = Integer.valueOf(matcher.group(1));
-                    properties.put(matcher.group(2).trim(), matcher.group(3).trim());
-                }
-            }
-            for (int j = 1; j < lines.length; j++) {
-                Matcher matcher = pattern.matcher(lines[j]);
-                if (matcher.find()) {
-                    properties.put(matcher.group(1).trim(), matcher.group(2).trim());
-                }
-            }
+            Map<String, String> properties = new HashMap<String, String>();
+            int id = parseProperties(parts[i], properties);
             if (properties.containsKey("sink")) {
                 String name = properties.containsKey("media.name") ? properties.get("media.name")
                         : properties.get("sink");
@@ -223,31 +175,14 @@ public class Parser {
      */
     public static List<Source> parseSources(String raw, PulseaudioClient client) {
         List<Source> sources = new ArrayList<Source>();
-        String[] parts = raw.split("index: ");
+        String[] parts = indexPattern.split(raw);
         if (parts.length <= 1) {
             return sources;
         }
         // skip first part
         for (int i = 1; i < parts.length; i++) {
-            String[] lines = parts[i].split("\n");
-            Hashtable<String, String> properties = new Hashtable<String, String>();
-            int id = 0;
-            try {
-                id = Integer.valueOf(lines[0].trim());
-            } catch (NumberFormatException e) {
-                // sometime the line feed is missing here
-                Matcher matcher = fallBackPattern.matcher(lines[0].trim());
-                if (matcher.find()) {
-                    id = Integer.valueOf(matcher.group(1));
-                    properties.put(matcher.group(2).trim(), matcher.group(3).trim());
-                }
-            }
-            for (int j = 1; j < lines.length; j++) {
-                Matcher matcher = pattern.matcher(lines[j]);
-                if (matcher.find()) {
-                    properties.put(matcher.group(1).trim(), matcher.group(2).trim());
-                }
-            }
+            Map<String, String> properties = new HashMap<String, String>();
+            int id = parseProperties(parts[i], properties);
             if (properties.containsKey("name")) {
                 Source source = new Source(id, properties.get("name"),
                         client.getModule(getNumberValue(properties.get("module"))));
@@ -282,31 +217,14 @@ public class Parser {
      */
     public static List<SourceOutput> parseSourceOutputs(String raw, PulseaudioClient client) {
         List<SourceOutput> items = new ArrayList<SourceOutput>();
-        String[] parts = raw.split("index: ");
+        String[] parts = indexPattern.split(raw);
         if (parts.length <= 1) {
             return items;
         }
         // skip first part
         for (int i = 1; i < parts.length; i++) {
-            String[] lines = parts[i].split("\n");
-            Hashtable<String, String> properties = new Hashtable<String, String>();
-            int id = 0;
-            try {
-                id = Integer.valueOf(lines[0].trim());
-            } catch (NumberFormatException e) {
-                // sometime the line feed is missing here
-                Matcher matcher = fallBackPattern.matcher(lines[0].trim());
-                if (matcher.find()) {
-                    id = Integer.valueOf(matcher.group(1));
-                    properties.put(matcher.group(2).trim(), matcher.group(3).trim());
-                }
-            }
-            for (int j = 1; j < lines.length; j++) {
-                Matcher matcher = pattern.matcher(lines[j]);
-                if (matcher.find()) {
-                    properties.put(matcher.group(1).trim(), matcher.group(2).trim());
-                }
-            }
+            Map<String, String> properties = new HashMap<String, String>();
+            int id = parseProperties(parts[i], properties);
             if (properties.containsKey("source")) {
                 SourceOutput item = new SourceOutput(id, properties.get("source"),
                         client.getModule(getNumberValue(properties.get("module"))));
@@ -332,6 +250,35 @@ public class Parser {
         return items;
     }
 
+    /**
+     * parses one item of a list-* answer, i.e. the part following an "index: " marker
+     *
+     * @param part the item as sent by the pulseaudio server
+     * @param properties the map the properties of the item are added to
+     * @return the index of the item
+     */
+    private static int parseProperties(String part, Map<String, String> properties) {
+        String[] lines = lineFeedPattern.split(part);
+        int id = 0;
+        try {
+            id = Integer.valueOf(lines[0].trim());
+        } catch (NumberFormatException e) {
+            // sometime the line feed is missing here
+            Matcher matcher = fallBackPattern.matcher(lines[0].trim());
+            if (matcher.find()) {
+                id = Integer.valueOf(matcher.group(1));
+                properties.put(matcher.group(2).trim(), matcher.group(3).trim());
+            }
+        }
+        for (int j = 1; j < lines.length; j++) {
+            Matcher matcher = pattern.matcher(lines[j]);
+            if (matcher.find()) {
+                properties.put(matcher.group(1).trim(), matcher.group(2).trim());
+            }
+        }
+        return id;
+    }
+
     /**
      * converts the volume value given by the pulseaudio server
      * to a percentage value. The pulseaudio server sends 2 values for left and right channel volume
@@ -11,13 +11,18 @@ package org.openhab.binding.russound.internal.net;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -26,7 +31,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Represents a restartable socket connection to the underlying telnet session. Commands can be sent via
  * {@link #sendCommand(String)} and responses will be received on any {@link SocketSessionListener}. This implementation
- * of {@link SocketSession} communicates using a {@link SocketChannel} connection.
+ * of {@link SocketSession} communicates using a non-blocking {@link SocketChannel} connection that is served by the
+ * {@link SocketReactor} shared by all sessions. Responses are framed directly within the read buffer and dispatched as
+ * soon as they have been read.
  *
  * @author Tim Roberts
  */
@@ -49,9 +56,25 @@ public class SocketChannelSession implements SocketSession {
     private final AtomicReference<SocketChannel> socketChannel = new AtomicReference<SocketChannel>();
 
     /**
-     * The responses read from the {@link #responseReader}
+     * The maximum number of responses kept while no listener is registered
      */
-    private final BlockingQueue<Object> responses = new ArrayBlockingQueue<Object>(50);
+    private static final int MAX_QUEUED_RESPONSES = 1000;
+
+    /**
+     * The prompts that are treated as responses for purposes of logging in
+     */
+    private static final byte[] LOGIN_PROMPT = "Login: ".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] PASSWORD_PROMPT = "Password: ".getBytes(StandardCharsets.ISO_8859_1);
+
+    /**
+     * The responses read from the socket waiting to be dispatched
+     */
+    private final Queue<QueuedResponse> responses = new ConcurrentLinkedQueue<QueuedResponse>();
+
+    /**
+     * The number of responses waiting in {@link #responses} (size() is not constant time on the queue)
+     */
+    private final AtomicInteger queueDepth = new AtomicInteger();
 
     /**
      * The {@link SocketSessionListener} that the {@link #dispatcher} will call
@@ -59,14 +82,41 @@ public class SocketChannelSession implements SocketSession {
     private List<SocketSessionListener> sessionListeners = new CopyOnWriteArrayList<SocketSessionListener>();
 
     /**
-     * The thread dispatching responses - will be null if not connected
+     * The dispatcher of the responses, runs on the thread pool of the {@link SocketReactor}
+     */
+    private final Dispatcher dispatcher = new Dispatcher();
+
+    /**
+     * Whether the {@link #dispatcher} has been scheduled or is running
+     */
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+
+    /**
+     * The buffer the responses are read into and framed from. Only used by the reactor thread.
+     */
+    private ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+
+    /**
+     * The commands that could not be written completely yet. Guarded by itself.
      */
-    private Thread dispatchingThread = null;
+    private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<ByteBuffer>();
 
     /**
-     * The thread processing responses - will be null if not connected
+     * The reactor serving this session - will be null if not connected
      */
-    private Thread responseThread = null;
+    private volatile SocketReactor reactor;
+
+    /**
+     * The selection key of the {@link #socketChannel} - will be null until registered by the reactor
+     */
+    private volatile SelectionKey selectionKey;
+
+    /**
+     * Statistics about the dispatched responses
+     */
+    private final AtomicLong dispatchedResponses = new AtomicLong();
+    private final AtomicLong totalDispatchLatency = new AtomicLong();
+    private final AtomicLong maxDispatchLatency = new AtomicLong();
 
     /**
      * Creates the socket session from the given host and port
@@ -99,6 +149,7 @@ public class SocketChannelSession implements SocketSession {
             throw new IllegalArgumentException("listener cannot be null");
         }
         sessionListeners.add(listener);
+        scheduleDispatch();
     }
 
     /*
@@ -148,15 +199,25 @@ public class SocketChannelSession implements SocketSession {
         logger.debug("Connecting to {}:{}", host, port);
         channel.socket().connect(new InetSocketAddress(host, port), timeout);
 
-        socketChannel.set(channel);
-
         responses.clear();
+        queueDepth.set(0);
+        readBuffer.clear();
+        synchronized (pendingWrites) {
+            pendingWrites.clear();
+        }
 
-        dispatchingThread = new Thread(new Dispatcher());
-        responseThread = new Thread(new ResponseReader());
-
-        dispatchingThread.start();
-        responseThread.start();
+        final SocketReactor socketReactor = SocketReactor.acquire();
+        try {
+            socketChannel.set(channel);
+            reactor = socketReactor;
+            socketReactor.register(channel, this);
+        } catch (IOException e) {
+            socketChannel.set(null);
+            reactor = null;
+            SocketReactor.release();
+            channel.close();
+            throw e;
+        }
     }
 
     /*
@@ -166,19 +227,20 @@ public class SocketChannelSession implements SocketSession {
      */
     @Override
     public void disconnect() throws IOException {
-        if (isConnected()) {
-            logger.debug("Disconnecting from {}:{}", host, port);
+        final SocketChannel channel = socketChannel.getAndSet(null);
+        if (channel != null) {
+            logger.debug("Disconnecting from {}:{} ({})", host, port, getStatistics());
 
-            final SocketChannel channel = socketChannel.getAndSet(null);
             channel.close();
+            selectionKey = null;
 
-            dispatchingThread.interrupt();
-            dispatchingThread = null;
-
-            responseThread.interrupt();
-            responseThread = null;
+            if (reactor != null) {
+                reactor = null;
+                SocketReactor.release();
+            }
 
             responses.clear();
+            queueDepth.set(0);
         }
     }
 
@@ -212,148 +274,309 @@ public class SocketChannelSession implements SocketSession {
             throw new IOException("Cannot send message - disconnected");
         }
 
-        ByteBuffer toSend = ByteBuffer.wrap((command + "\r\n").getBytes());
+        write(command, ByteBuffer.wrap((command + "\r\n").getBytes()));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.openhab.binding.russound.internal.net.SocketSession#sendCommands(java.util.List)
+     */
+    @Override
+    public synchronized void sendCommands(List<String> commands) throws IOException {
+        if (commands == null || commands.isEmpty()) {
+            throw new IllegalArgumentException("commands cannot be null or empty");
+        }
+
+        if (!isConnected()) {
+            throw new IOException("Cannot send message - disconnected");
+        }
+
+        final StringBuilder sb = new StringBuilder(commands.size() * 32);
+        for (String command : commands) {
+            if (command == null) {
+                throw new IllegalArgumentException("command cannot be null");
+            }
+            sb.append(command).append("\r\n");
+        }
+
+        write(commands.toString(), ByteBuffer.wrap(sb.toString().getBytes()));
+    }
 
+    /**
+     * Writes the command(s) to the channel. Whatever cannot be written immediately is written by the
+     * {@link SocketReactor} once the channel is writable again.
+     *
+     * @param description a non-null description of the command(s) used for logging
+     * @param toSend a non-null buffer containing the command(s)
+     * @throws IOException an exception that occurred while writing
+     */
+    private void write(String description, ByteBuffer toSend) throws IOException {
         final SocketChannel channel = socketChannel.get();
         if (channel == null) {
-            logger.debug("Cannot send command '{}' - socket channel was closed", command);
+            logger.debug("Cannot send command '{}' - socket channel was closed", description);
         } else {
-            logger.debug("Sending Command: '{}'", command);
-            channel.write(toSend);
+            logger.debug("Sending Command: '{}'", description);
+            synchronized (pendingWrites) {
+                if (pendingWrites.isEmpty()) {
+                    channel.write(toSend);
+                }
+                if (toSend.hasRemaining()) {
+                    // socket buffer is full - let the reactor write the rest once the channel is writable
+                    pendingWrites.add(toSend);
+                    final SocketReactor socketReactor = reactor;
+                    final SelectionKey key = selectionKey;
+                    if (socketReactor != null && key != null) {
+                        socketReactor.enableWrite(key);
+                    }
+                }
+            }
         }
     }
 
     /**
-     * This is the runnable that will read from the socket and add messages to the responses queue (to be processed by
-     * the dispatcher)
+     * Returns the number of responses read but not yet dispatched to the listeners
      *
-     * @author Tim Roberts
+     * @return the number of queued responses
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Returns the average time between reading a response and dispatching it to the listeners
      *
+     * @return the average dispatch latency in milliseconds
      */
-    private class ResponseReader implements Runnable {
+    public double getAverageDispatchLatency() {
+        final long dispatched = dispatchedResponses.get();
+        return dispatched == 0 ? 0
+                : totalDispatchLatency.get() / (double) dispatched / TimeUnit.MILLISECONDS.toNanos(1);
+    }
 
-        /**
-         * Runs the logic to read from the socket until {@link #isRunning} is false. A 'response' is anything that ends
-         * with a carriage-return/newline combo. Additionally, the special "Login: " and "Password: " prompts are
-         * treated as responses for purposes of logging in.
-         */
-        @Override
-        public void run() {
-            final StringBuilder sb = new StringBuilder(100);
-            final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+    /**
+     * Returns the longest time between reading a response and dispatching it to the listeners
+     *
+     * @return the maximum dispatch latency in milliseconds
+     */
+    public long getMaxDispatchLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDispatchLatency.get());
+    }
 
-            responses.clear();
+    private String getStatistics() {
+        return String.format("dispatched: %d, queued: %d, avg latency: %.2fms, max latency: %dms",
+                dispatchedResponses.get(), getQueueDepth(), getAverageDispatchLatency(), getMaxDispatchLatency());
+    }
 
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    // if reader is null, sleep and try again
-                    if (readBuffer == null) {
-                        Thread.sleep(250);
-                        continue;
-                    }
+    /**
+     * Called by the {@link SocketReactor} once the channel has been registered
+     *
+     * @param key the non-null selection key of the channel
+     */
+    void setSelectionKey(SelectionKey key) {
+        selectionKey = key;
+        synchronized (pendingWrites) {
+            if (!pendingWrites.isEmpty()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+    }
 
-                    final SocketChannel channel = socketChannel.get();
-                    if (channel == null) {
-                        // socket was closed
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
+    /**
+     * Called by the {@link SocketReactor} when the channel can take more data. Writes the pending commands and stops
+     * the write notifications once everything has been written.
+     */
+    void onWritable() {
+        final SocketChannel channel = socketChannel.get();
+        final SelectionKey key = selectionKey;
+        if (channel == null || key == null) {
+            return;
+        }
 
-                    int bytesRead = channel.read(readBuffer);
-                    if (bytesRead == -1) {
-                        responses.put(new IOException("server closed connection"));
-                        break;
-                    } else if (bytesRead == 0) {
-                        readBuffer.clear();
-                        continue;
+        synchronized (pendingWrites) {
+            try {
+                ByteBuffer toSend;
+                while ((toSend = pendingWrites.peek()) != null) {
+                    channel.write(toSend);
+                    if (toSend.hasRemaining()) {
+                        return;
                     }
+                    pendingWrites.poll();
+                }
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            } catch (IOException e) {
+                key.cancel();
+                queueResponse(e);
+            }
+        }
+    }
 
-                    readBuffer.flip();
-                    while (readBuffer.hasRemaining()) {
-                        final char ch = (char) readBuffer.get();
-                        sb.append(ch);
-                        if (ch == '\n' || ch == ' ') {
-                            final String str = sb.toString();
-                            if (str.endsWith("\r\n") || str.endsWith("Login: ") || str.endsWith("Password: ")) {
-                                sb.setLength(0);
-                                final String response = str.substring(0, str.length() - 2);
-                                responses.put(response);
-                            }
-                        }
-                    }
+    /**
+     * Called by the {@link SocketReactor} when data is available on the channel. A 'response' is anything that ends
+     * with a carriage-return/newline combo. Additionally, the special "Login: " and "Password: " prompts are treated
+     * as responses for purposes of logging in. The responses are framed in place within the read buffer, only the
+     * partial response at the end of the buffer is kept for the next read.
+     */
+    void onReadable() {
+        final SocketChannel channel = socketChannel.get();
+        final SelectionKey key = selectionKey;
+        if (channel == null || key == null) {
+            return;
+        }
 
-                    readBuffer.flip();
-
-                } catch (InterruptedException e) {
-                    // Ending thread execution
-                    Thread.currentThread().interrupt();
-                } catch (AsynchronousCloseException e) {
-                    // socket was closed by another thread but interrupt our loop anyway
-                    Thread.currentThread().interrupt();
-                } catch (IOException e) {
-                    // set before pushing the response since we'll likely call back our stop
-                    Thread.currentThread().interrupt();
-
-                    try {
-                        responses.put(e);
-                        break;
-                    } catch (InterruptedException e1) {
-                        // Do nothing - probably shutting down
-                        // Since we set isRunning to false, will drop out of loop and end the thread
-                    }
-                }
+        try {
+            if (!readBuffer.hasRemaining()) {
+                // a single response exceeds the buffer - grow it
+                final ByteBuffer largerBuffer = ByteBuffer.allocate(readBuffer.capacity() * 2);
+                readBuffer.flip();
+                largerBuffer.put(readBuffer);
+                readBuffer = largerBuffer;
+            }
+
+            final int bytesRead = channel.read(readBuffer);
+            if (bytesRead == -1) {
+                key.cancel();
+                queueResponse(new IOException("server closed connection"));
+                return;
+            }
+        } catch (IOException e) {
+            key.cancel();
+            queueResponse(e);
+            return;
+        }
+
+        final byte[] data = readBuffer.array();
+        final int limit = readBuffer.position();
+        int start = 0;
+        for (int i = 0; i < limit; i++) {
+            final byte ch = data[i];
+            final boolean endOfLine = ch == '\n' && i > start && data[i - 1] == '\r';
+            final boolean prompt = ch == ' '
+                    && (endsWith(data, start, i, LOGIN_PROMPT) || endsWith(data, start, i, PASSWORD_PROMPT));
+            if (endOfLine || prompt) {
+                queueResponse(new String(data, start, i + 1 - start - 2, StandardCharsets.ISO_8859_1));
+                start = i + 1;
             }
         }
+
+        if (start > 0) {
+            readBuffer.flip();
+            readBuffer.position(start);
+            readBuffer.compact();
+        }
     }
 
     /**
-     * The dispatcher runnable is responsible for reading the response queue and dispatching it to the current callable.
-     * Since the dispatcher is ONLY started when a callable is set, responses may pile up in the queue and be dispatched
-     * when a callable is set. Unlike the socket reader, this can be assigned to another thread (no state outside of the
-     * class).
+     * Checks whether the response starting at start and ending with the byte at end ends with the given prompt
+     */
+    private static boolean endsWith(byte[] data, int start, int end, byte[] prompt) {
+        final int offset = end + 1 - prompt.length;
+        if (offset < start) {
+            return false;
+        }
+        for (int i = 0; i < prompt.length; i++) {
+            if (data[offset + i] != prompt[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queues a response (or exception) and schedules the dispatcher
+     *
+     * @param response a non-null {@link String} or {@link IOException}
+     */
+    private void queueResponse(Object response) {
+        if (queueDepth.get() >= MAX_QUEUED_RESPONSES) {
+            logger.debug("Response queue of {}:{} is full - dropping oldest response", host, port);
+            if (responses.poll() != null) {
+                queueDepth.decrementAndGet();
+            }
+        }
+        responses.add(new QueuedResponse(response));
+        queueDepth.incrementAndGet();
+        scheduleDispatch();
+    }
+
+    /**
+     * Schedules the {@link #dispatcher} unless it is already scheduled. Since the dispatcher is only scheduled when a
+     * listener is set, responses may pile up in the queue and be dispatched when a listener is added.
+     */
+    private void scheduleDispatch() {
+        final SocketReactor socketReactor = reactor;
+        if (socketReactor != null && !sessionListeners.isEmpty() && !responses.isEmpty()
+                && dispatching.compareAndSet(false, true)) {
+            socketReactor.dispatch(dispatcher);
+        }
+    }
+
+    /**
+     * A response together with the time it has been read
+     *
+     * @author agent - Initial contribution
+     */
+    private static class QueuedResponse {
+        private final Object response;
+        private final long received = System.nanoTime();
+
+        private QueuedResponse(Object response) {
+            this.response = response;
+        }
+    }
+
+    /**
+     * The dispatcher runnable is responsible for reading the response queue and dispatching it to the current
+     * listeners. It runs on the thread pool of the {@link SocketReactor} and is scheduled at most once per session at
+     * any time, so the responses are dispatched in order.
      *
      * @author Tim Roberts
      */
     private class Dispatcher implements Runnable {
         /**
-         * Runs the logic to dispatch any responses to the current listeners until {@link #isRunning} is false.
+         * Runs the logic to dispatch all queued responses to the current listeners
          */
         @Override
         public void run() {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    final SocketSessionListener[] listeners = sessionListeners.toArray(new SocketSessionListener[0]);
-
-                    // if no listeners, we don't want to start dispatching yet.
-                    if (listeners.length == 0) {
-                        Thread.sleep(250);
-                        continue;
-                    }
-
-                    final Object response = responses.poll(1, TimeUnit.SECONDS);
-
-                    if (response != null) {
-                        if (response instanceof String) {
-                            logger.debug("Dispatching response: {}", response);
-                            for (SocketSessionListener listener : listeners) {
-                                listener.responseReceived((String) response);
-                            }
-                        } else if (response instanceof IOException) {
-                            logger.debug("Dispatching exception: {}", response);
-                            for (SocketSessionListener listener : listeners) {
-                                listener.responseException((IOException) response);
-                            }
-                        } else {
-                            logger.warn("Unknown response class: {}", response);
+            try {
+                QueuedResponse queued;
+                while (!sessionListeners.isEmpty() && (queued = responses.poll()) != null) {
+                    queueDepth.decrementAndGet();
+                    recordLatency(System.nanoTime() - queued.received);
+
+                    final Object response = queued.response;
+                    if (response instanceof String) {
+                        logger.debug("Dispatching response: {}", response);
+                        for (SocketSessionListener listener : sessionListeners) {
+                            listener.responseReceived((String) response);
+                        }
+                    } else if (response instanceof IOException) {
+                        logger.debug("Dispatching exception: {}", response);
+                        for (SocketSessionListener listener : sessionListeners) {
+                            listener.responseException((IOException) response);
                         }
+                    } else {
+                        logger.warn("Unknown response class: {}", response);
                     }
-                } catch (InterruptedException e) {
-                    // Ending thread execution
-                    Thread.currentThread().interrupt();
-                } catch (Exception e) {
-                    logger.debug("Uncaught exception {}: {}", e.getMessage(), e);
-                    Thread.currentThread().interrupt();
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.debug("Uncaught exception {}: {}", e.getMessage(), e);
+            } finally {
+                dispatching.set(false);
+            }
+
+            // responses may have been queued after the queue was found empty
+            scheduleDispatch();
+        }
+
+        private void recordLatency(long latency) {
+            dispatchedResponses.incrementAndGet();
+            totalDispatchLatency.addAndGet(latency);
+            long max;
+            while (latency > (max = maxDispatchLatency.get()) && !maxDispatchLatency.compareAndSet(max, latency)) {
+                // retry until updated
             }
         }
     }
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.russound.internal.net;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link SocketReactor} serves all {@link SocketChannelSession}s with a single selector thread. The selector thread
+ * reads from (and writes pending commands to) all registered channels and lets the session frame the responses. The
+ * responses are then dispatched to the session listeners on a shared thread pool, so a listener blocking on a
+ * response (like the {@link WaitingSessionListener}) never blocks the selector thread.
+ *
+ * The reactor is started with the first session and stopped once the last session has been released.
+ *
+ * This class is a copy of org.openhab.binding.atlona.internal.net.SocketReactor, as bindings can't share internal
+ * packages. Apply any fix to both copies.
+ *
+ * @author agent - Initial contribution
+ */
+class SocketReactor implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(SocketReactor.class);
+
+    /**
+     * The shared reactor - will be null if no session is using it
+     */
+    private static SocketReactor instance;
+
+    /**
+     * The number of sessions using the shared reactor
+     */
+    private static int references;
+
+    /**
+     * The selector all session channels are registered with
+     */
+    private final Selector selector;
+
+    /**
+     * Tasks (registrations, interest changes) that need to be run by the selector thread
+     */
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<Runnable>();
+
+    /**
+     * The thread pool dispatching the responses to the listeners
+     */
+    private final ExecutorService dispatchers;
+
+    /**
+     * The selector thread
+     */
+    private final Thread selectorThread;
+
+    private volatile boolean running = true;
+
+    private SocketReactor() throws IOException {
+        selector = Selector.open();
+        dispatchers = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "Russound Dispatcher " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        selectorThread = new Thread(this, "Russound Socket Reactor");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    /**
+     * Returns the shared reactor, starting it if needed. Every call must be matched by a call to {@link #release()}.
+     *
+     * @return the non-null shared reactor
+     * @throws IOException if the selector could not be opened
+     */
+    static synchronized SocketReactor acquire() throws IOException {
+        if (instance == null) {
+            instance = new SocketReactor();
+        }
+        references++;
+        return instance;
+    }
+
+    /**
+     * Releases the shared reactor, stopping it when it is no longer used by any session
+     */
+    static synchronized void release() {
+        if (references > 0 && --references == 0 && instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Registers the connected channel of the session for reading. The channel is switched to non-blocking mode.
+     *
+     * @param channel a non-null, connected channel
+     * @param session the non-null session owning the channel
+     * @throws IOException if the channel could not be switched to non-blocking mode
+     */
+    void register(final SocketChannel channel, final SocketChannelSession session) throws IOException {
+        channel.configureBlocking(false);
+        runOnSelector(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    session.setSelectionKey(channel.register(selector, SelectionKey.OP_READ, session));
+                } catch (ClosedChannelException e) {
+                    logger.debug("Channel was closed before it could be registered");
+                }
+            }
+        });
+    }
+
+    /**
+     * Asks the selector thread to call {@link SocketChannelSession#onWritable()} once the channel can take more data.
+     *
+     * @param key the non-null key of the session channel
+     */
+    void enableWrite(final SelectionKey key) {
+        runOnSelector(new Runnable() {
+            @Override
+            public void run() {
+                if (key.isValid()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the response dispatching of a session on the shared dispatcher pool
+     *
+     * @param dispatcher the non-null dispatcher to run
+     */
+    void dispatch(Runnable dispatcher) {
+        dispatchers.execute(dispatcher);
+    }
+
+    private void runOnSelector(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void shutdown() {
+        running = false;
+        selector.wakeup();
+        dispatchers.shutdown();
+    }
+
+    /**
+     * Runs the selector loop until the reactor is shut down
+     */
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+
+                Runnable task;
+                while ((task = pendingTasks.poll()) != null) {
+                    task.run();
+                }
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+
+                    final SocketChannelSession session = (SocketChannelSession) key.attachment();
+                    try {
+                        if (key.isValid() && key.isWritable()) {
+                            session.onWritable();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            session.onReadable();
+                        }
+                    } catch (CancelledKeyException e) {
+                        // session was disconnected in the meantime
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Exception in the socket reactor: {}", e.getMessage(), e);
+            } catch (RuntimeException e) {
+                logger.warn("Uncaught exception in the socket reactor: {}", e.getMessage(), e);
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.debug("Exception closing the selector: {}", e.getMessage(), e);
+        }
+    }
+}
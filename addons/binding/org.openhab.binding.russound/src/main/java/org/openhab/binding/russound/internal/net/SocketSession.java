@@ -9,6 +9,7 @@
 package org.openhab.binding.russound.internal.net;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * This is a socket session interface that defines the contract for a socket session. A socket session will initiate
@@ -82,4 +83,13 @@ public interface SocketSession {
      */
     void sendCommand(String command) throws IOException;
 
+    /**
+     * Sends the specified commands to the underlying socket with a single write. The commands are processed by the
+     * system one after the other, just like commands sent by {@link #sendCommand(String)}.
+     *
+     * @param commands a non-null, non-empty list of non-null, non-empty commands
+     * @throws java.io.IOException an exception that occurred while sending
+     */
+    void sendCommands(List<String> commands) throws IOException;
+
 }
\ No newline at end of file
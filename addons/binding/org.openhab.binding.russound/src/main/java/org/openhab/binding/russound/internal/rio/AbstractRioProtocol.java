@@ -9,6 +9,7 @@
 package org.openhab.binding.russound.internal.rio;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
@@ -30,15 +31,19 @@ public abstract class AbstractRioProtocol implements SocketSessionListener {
      */
     private final SocketSession session;
 
+    /**
+     * The {@link RioResponseRouter} of the {@link #session} forwarding the responses to this protocol handler
+     */
+    private final RioResponseRouter router;
+
     /**
      * The {@link RioSystemHandler} to call back to update status and state
      */
     private final RioHandlerCallback callback;
 
     /**
-     * Constructs the protocol handler from given parameters and will add this handler as a
-     * {@link SocketSessionListener} to the specified {@link SocketSession} via
-     * {@link SocketSession#addListener(SocketSessionListener)}
+     * Constructs the protocol handler from given parameters. The handler will only receive the responses of the route
+     * keys it has been added to via {@link #addRoute(String)}.
      *
      * @param session a non-null {@link SocketSession} (may be connected or disconnected)
      * @param callback a non-null {@link RioHandlerCallback} to update state and status
@@ -54,10 +59,20 @@ public abstract class AbstractRioProtocol implements SocketSessionListener {
         }
 
         this.session = session;
-        this.session.addListener(this);
+        this.router = RioResponseRouter.getRouter(session);
         this.callback = callback;
     }
 
+    /**
+     * Adds this handler to the given route key of the {@link RioResponseRouter} of the session. The handler will
+     * receive all responses for that route key.
+     *
+     * @param routeKey a non-null route key (see {@link RioResponseRouter})
+     */
+    protected void addRoute(String routeKey) {
+        router.addRoute(routeKey, this);
+    }
+
     /**
      * Sends the command and puts the thing into {@link ThingStatus#OFFLINE} if an IOException occurs
      *
@@ -75,6 +90,24 @@ public abstract class AbstractRioProtocol implements SocketSessionListener {
         }
     }
 
+    /**
+     * Sends the commands with a single write and puts the thing into {@link ThingStatus#OFFLINE} if an IOException
+     * occurs
+     *
+     * @param commands a non-null, non-empty list of non-null, non-empty commands to send
+     */
+    protected void sendCommands(List<String> commands) {
+        if (commands == null || commands.isEmpty()) {
+            throw new IllegalArgumentException("commands cannot be null or empty");
+        }
+        try {
+            session.sendCommands(commands);
+        } catch (IOException e) {
+            getCallback().statusChanged(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                    "Exception occurred sending commands: " + e);
+        }
+    }
+
     /**
      * Updates the state via the {@link RioHandlerCallback#stateChanged(String, State)}
      *
@@ -107,11 +140,11 @@ public abstract class AbstractRioProtocol implements SocketSessionListener {
     }
 
     /**
-     * Disposes of the protocol by removing ourselves from listening to the socket via
-     * {@link SocketSession#removeListener(SocketSessionListener)}
+     * Disposes of the protocol by removing ourselves from all routes of the {@link RioResponseRouter} via
+     * {@link RioResponseRouter#removeListener(SocketSessionListener)}
      */
     public void dispose() {
-        session.removeListener(this);
+        router.removeListener(this);
     }
 
     /**
@@ -107,15 +107,18 @@ public class RioPresetsProtocol extends AbstractRioProtocol {
      */
     public RioPresetsProtocol(SocketSession session, RioHandlerCallback callback) {
         super(session, callback);
+        addRoute(RioResponseRouter.ALL_SOURCES);
 
         gson = GsonUtilities.createGson();
+        final List<String> commands = new ArrayList<String>(8);
         for (int s = 1; s <= 8; s++) {
-            sendCommand("GET S[" + s + "].type");
+            commands.add("GET S[" + s + "].type");
 
             for (int x = 1; x <= 36; x++) {
                 presets[s - 1][x - 1] = new RioPreset(x);
             }
         }
+        sendCommands(commands);
     }
 
     /**
@@ -205,13 +208,15 @@ public class RioPresetsProtocol extends AbstractRioProtocol {
                 lastUpdateTime[sourceId - 1] = now;
 
                 if (isTuner[sourceId - 1]) {
+                    final List<String> commands = new ArrayList<String>(72);
                     for (int x = 1; x <= 36; x++) {
                         final RioPreset preset = presets[sourceId - 1][x - 1];
-                        sendCommand("GET S[" + sourceId + "].B[" + preset.getBank() + "].P[" + preset.getBankPreset()
-                                + "].valid");
-                        sendCommand("GET S[" + sourceId + "].B[" + preset.getBank() + "].P[" + preset.getBankPreset()
-                                + "].name");
+                        final String presetKey = "S[" + sourceId + "].B[" + preset.getBank() + "].P["
+                                + preset.getBankPreset() + "]";
+                        commands.add("GET " + presetKey + ".valid");
+                        commands.add("GET " + presetKey + ".name");
                     }
+                    sendCommands(commands);
                 }
             }
         } finally {
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.russound.internal.rio;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.openhab.binding.russound.internal.net.SocketSession;
+import org.openhab.binding.russound.internal.net.SocketSessionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RioResponseRouter} is the single {@link SocketSessionListener} of a {@link SocketSession} for all the
+ * protocol handlers using that session. Instead of every protocol handler matching every response, the router parses
+ * the prefix of a response (like <code>C[1].Z[2]</code> of <code>N C[1].Z[2].volume="10"</code> or
+ * <code>S[3]</code> of <code>S S[3].name="Tuner"</code>) once and forwards the response only to the protocol handlers
+ * that registered for that route key. Responses without a registered route key (like the version, failures or the
+ * media management menus) are forwarded to the handlers registered for {@link #UNROUTED}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RioResponseRouter implements SocketSessionListener {
+    private final Logger logger = LoggerFactory.getLogger(RioResponseRouter.class);
+
+    /**
+     * The route key of all system responses (<code>System.xxx</code>)
+     */
+    public static final String SYSTEM = "SYSTEM";
+
+    /**
+     * The route key of all source responses (<code>S[x].xxx</code>), regardless of the source
+     */
+    public static final String ALL_SOURCES = "S[*]";
+
+    /**
+     * The route key of all responses that did not match any other registered route key
+     */
+    public static final String UNROUTED = "";
+
+    /**
+     * The routers by session
+     */
+    private static final Map<SocketSession, RioResponseRouter> ROUTERS = new WeakHashMap<>();
+
+    /**
+     * The listeners by route key
+     */
+    private final ConcurrentHashMap<String, List<SocketSessionListener>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * All listeners registered for any route key - these will receive any exception
+     */
+    private final CopyOnWriteArraySet<SocketSessionListener> listeners = new CopyOnWriteArraySet<>();
+
+    private RioResponseRouter() {
+    }
+
+    /**
+     * Returns the router for the given session, registering a new router as listener of the session if needed.
+     *
+     * @param session a non-null {@link SocketSession}
+     * @return the non-null {@link RioResponseRouter} of the session
+     */
+    public static synchronized RioResponseRouter getRouter(SocketSession session) {
+        if (session == null) {
+            throw new IllegalArgumentException("session cannot be null");
+        }
+
+        RioResponseRouter router = ROUTERS.get(session);
+        if (router == null) {
+            router = new RioResponseRouter();
+            ROUTERS.put(session, router);
+            session.addListener(router);
+        }
+        return router;
+    }
+
+    /**
+     * Returns the route key for a controller
+     *
+     * @param controller the controller identifier
+     * @return the non-null route key
+     */
+    public static String controllerKey(int controller) {
+        return "C[" + controller + "]";
+    }
+
+    /**
+     * Returns the route key for a zone
+     *
+     * @param controller the controller identifier
+     * @param zone the zone identifier
+     * @return the non-null route key
+     */
+    public static String zoneKey(int controller, int zone) {
+        return "C[" + controller + "].Z[" + zone + "]";
+    }
+
+    /**
+     * Returns the route key for a source
+     *
+     * @param source the source identifier
+     * @return the non-null route key
+     */
+    public static String sourceKey(int source) {
+        return "S[" + source + "]";
+    }
+
+    /**
+     * Adds a listener for the given route key
+     *
+     * @param routeKey a non-null route key
+     * @param listener a non-null {@link SocketSessionListener}
+     */
+    public void addRoute(String routeKey, SocketSessionListener listener) {
+        if (routeKey == null) {
+            throw new IllegalArgumentException("routeKey cannot be null");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+
+        List<SocketSessionListener> routeListeners = routes.get(routeKey);
+        if (routeListeners == null) {
+            routeListeners = new CopyOnWriteArrayList<SocketSessionListener>();
+            final List<SocketSessionListener> existing = routes.putIfAbsent(routeKey, routeListeners);
+            if (existing != null) {
+                routeListeners = existing;
+            }
+        }
+        routeListeners.add(listener);
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes the listener from all route keys
+     *
+     * @param listener a non-null {@link SocketSessionListener}
+     */
+    public void removeListener(SocketSessionListener listener) {
+        listeners.remove(listener);
+        for (List<SocketSessionListener> routeListeners : routes.values()) {
+            routeListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Parses the route key of the given response. The route key is the (uppercased) first element of the response
+     * path, extended by the zone element for zone responses:
+     * <ul>
+     * <li><code>S C[1].Z[2].name="Kitchen"</code> results in <code>C[1].Z[2]</code></li>
+     * <li><code>S C[1].type="MCA-C5"</code> results in <code>C[1]</code></li>
+     * <li><code>N S[3].songName="Song"</code> results in <code>S[3]</code></li>
+     * <li><code>S System.status="ON"</code> results in <code>SYSTEM</code></li>
+     * </ul>
+     *
+     * @param response a possibly null, possibly empty response
+     * @return the route key or null if the response is not a notification or get response
+     */
+    static String getRouteKey(String response) {
+        if (response == null || response.length() < 3 || response.charAt(1) != ' ') {
+            return null;
+        }
+
+        final char type = Character.toUpperCase(response.charAt(0));
+        if (type != 'S' && type != 'N') {
+            return null;
+        }
+
+        int end = getElementEnd(response, 2);
+        if (end < response.length() && response.charAt(end) == '.' && response.regionMatches(true, 2, "C[", 0, 2)
+                && response.regionMatches(true, end + 1, "Z[", 0, 2)) {
+            end = getElementEnd(response, end + 1);
+        }
+        return response.substring(2, end).toUpperCase();
+    }
+
+    /**
+     * Returns the index of the end of the path element starting at the given index
+     */
+    private static int getElementEnd(String response, int start) {
+        for (int i = start; i < response.length(); i++) {
+            final char ch = response.charAt(i);
+            if (ch == '.' || ch == '=' || ch == ' ') {
+                return i;
+            }
+        }
+        return response.length();
+    }
+
+    /**
+     * Forwards the response to the listeners of its route key (and of {@link #ALL_SOURCES} for source responses). If
+     * no listener is registered for the route key, the response is forwarded to the listeners of {@link #UNROUTED}.
+     *
+     * @param response a possibly null, possibly empty response
+     */
+    @Override
+    public void responseReceived(String response) throws InterruptedException {
+        if (response == null || response.isEmpty()) {
+            return;
+        }
+
+        final String routeKey = getRouteKey(response);
+
+        boolean routed = false;
+        if (routeKey != null) {
+            routed |= forward(routeKey, response);
+            if (routeKey.startsWith("S[")) {
+                routed |= forward(ALL_SOURCES, response);
+            }
+        }
+
+        if (!routed) {
+            logger.trace("No route for response: {}", response);
+            forward(UNROUTED, response);
+        }
+    }
+
+    /**
+     * Forwards the response to all listeners of the given route key
+     *
+     * @return true if there was at least one listener
+     */
+    private boolean forward(String routeKey, String response) throws InterruptedException {
+        final List<SocketSessionListener> routeListeners = routes.get(routeKey);
+        if (routeListeners == null || routeListeners.isEmpty()) {
+            return false;
+        }
+        for (SocketSessionListener listener : routeListeners) {
+            listener.responseReceived(response);
+        }
+        return true;
+    }
+
+    /**
+     * Forwards the exception to all registered listeners
+     *
+     * @param e the exception
+     */
+    @Override
+    public void responseException(IOException e) throws InterruptedException {
+        for (SocketSessionListener listener : listeners) {
+            listener.responseException(e);
+        }
+    }
+}
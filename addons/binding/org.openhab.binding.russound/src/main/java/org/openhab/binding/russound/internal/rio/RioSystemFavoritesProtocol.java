@@ -89,6 +89,7 @@ public class RioSystemFavoritesProtocol extends AbstractRioProtocol {
      */
     public RioSystemFavoritesProtocol(SocketSession session, RioHandlerCallback callback) {
         super(session, callback);
+        addRoute(RioResponseRouter.SYSTEM);
 
         gson = GsonUtilities.createGson();
 
@@ -161,10 +162,12 @@ public class RioSystemFavoritesProtocol extends AbstractRioProtocol {
             final long now = System.currentTimeMillis();
             if (now > lastUpdateTime + UPDATE_TIME_SPAN) {
                 lastUpdateTime = now;
+                final List<String> commands = new ArrayList<String>(64);
                 for (int x = 1; x <= 32; x++) {
-                    sendCommand("GET System.favorite[" + x + "].valid");
-                    sendCommand("GET System.favorite[" + x + "].name");
+                    commands.add("GET System.favorite[" + x + "].valid");
+                    commands.add("GET System.favorite[" + x + "].name");
                 }
+                sendCommands(commands);
             }
         } finally {
             lastUpdateLock.unlock();
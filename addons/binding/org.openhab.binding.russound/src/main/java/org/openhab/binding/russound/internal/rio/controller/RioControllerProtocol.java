@@ -17,6 +17,7 @@ import org.openhab.binding.russound.internal.net.SocketSessionListener;
 import org.openhab.binding.russound.internal.rio.AbstractRioProtocol;
 import org.openhab.binding.russound.internal.rio.RioConstants;
 import org.openhab.binding.russound.internal.rio.RioHandlerCallback;
+import org.openhab.binding.russound.internal.rio.RioResponseRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +56,7 @@ class RioControllerProtocol extends AbstractRioProtocol {
     RioControllerProtocol(int controller, SocketSession session, RioHandlerCallback callback) {
         super(session, callback);
         this.controller = controller;
+        addRoute(RioResponseRouter.controllerKey(controller));
     }
 
     /**
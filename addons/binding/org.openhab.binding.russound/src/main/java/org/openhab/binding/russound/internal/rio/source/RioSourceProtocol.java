@@ -8,8 +8,10 @@
  */
 package org.openhab.binding.russound.internal.rio.source;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
@@ -27,6 +29,7 @@ import org.openhab.binding.russound.internal.net.SocketSessionListener;
 import org.openhab.binding.russound.internal.rio.AbstractRioProtocol;
 import org.openhab.binding.russound.internal.rio.RioConstants;
 import org.openhab.binding.russound.internal.rio.RioHandlerCallback;
+import org.openhab.binding.russound.internal.rio.RioResponseRouter;
 import org.openhab.binding.russound.internal.rio.StatefulHandlerCallback;
 import org.openhab.binding.russound.internal.rio.models.GsonUtilities;
 import org.openhab.binding.russound.internal.rio.models.RioBank;
@@ -158,6 +161,10 @@ class RioSourceProtocol extends AbstractRioProtocol {
             throw new IllegalArgumentException("Source must be between 1-12: " + source);
         }
         this.source = source;
+        addRoute(RioResponseRouter.sourceKey(source));
+        // media management menus are not prefixed by the source
+        addRoute(RioResponseRouter.UNROUTED);
+
         httpClient = new HttpClient();
         httpClient.setFollowRedirects(true);
         httpClient.start();
@@ -351,9 +358,11 @@ class RioSourceProtocol extends AbstractRioProtocol {
      * Refreshes the names of the banks
      */
     void refreshBanks() {
+        final List<String> commands = new ArrayList<String>(6);
         for (int b = 1; b <= 6; b++) {
-            sendCommand("GET S[" + source + "].B[" + b + "]." + BANK_NAME);
+            commands.add("GET S[" + source + "].B[" + b + "]." + BANK_NAME);
         }
+        sendCommands(commands);
     }
 
     /**
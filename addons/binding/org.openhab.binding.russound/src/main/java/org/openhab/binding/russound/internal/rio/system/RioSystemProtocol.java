@@ -22,6 +22,7 @@ import org.openhab.binding.russound.internal.net.SocketSessionListener;
 import org.openhab.binding.russound.internal.rio.AbstractRioProtocol;
 import org.openhab.binding.russound.internal.rio.RioConstants;
 import org.openhab.binding.russound.internal.rio.RioHandlerCallback;
+import org.openhab.binding.russound.internal.rio.RioResponseRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +64,8 @@ class RioSystemProtocol extends AbstractRioProtocol {
      */
     RioSystemProtocol(SocketSession session, RioHandlerCallback callback) {
         super(session, callback);
+        addRoute(RioResponseRouter.SYSTEM);
+        addRoute(RioResponseRouter.UNROUTED);
     }
 
     /**
@@ -25,6 +25,7 @@ import org.openhab.binding.russound.internal.rio.AbstractRioProtocol;
 import org.openhab.binding.russound.internal.rio.RioConstants;
 import org.openhab.binding.russound.internal.rio.RioHandlerCallback;
 import org.openhab.binding.russound.internal.rio.RioPresetsProtocol;
+import org.openhab.binding.russound.internal.rio.RioResponseRouter;
 import org.openhab.binding.russound.internal.rio.RioSystemFavoritesProtocol;
 import org.openhab.binding.russound.internal.rio.models.GsonUtilities;
 import org.openhab.binding.russound.internal.rio.models.RioFavorite;
@@ -79,6 +80,11 @@ class RioZoneProtocol extends AbstractRioProtocol
     private static final String ZONE_MMInit = "MMInit"; // button
     private static final String ZONE_MMContextMenu = "MMContextMenu"; // button
 
+    // The keys requested (with a single write) when the zone comes online
+    private static final String[] ZONE_INITIAL_STATE = { ZONE_SOURCE, ZONE_ENABLED, ZONE_NAME, ZONE_STATUS,
+            ZONE_VOLUME, ZONE_MUTE, ZONE_BASS, ZONE_TREBLE, ZONE_BALANCE, ZONE_LOUDNESS, ZONE_TURNONVOLUME,
+            ZONE_DONOTDISTURB, ZONE_PARTYMODE, ZONE_PAGE, ZONE_SHAREDSOURCE };
+
     // Favorites
     private static final String FAV_NAME = "name";
     private static final String FAV_VALID = "valid";
@@ -128,6 +134,7 @@ class RioZoneProtocol extends AbstractRioProtocol
 
         this.controller = controller;
         this.zone = zone;
+        addRoute(RioResponseRouter.zoneKey(controller, zone));
 
         this.favoritesProtocol = favoritesProtocol;
         this.favoritesProtocol.addListener(this);
@@ -147,9 +154,7 @@ class RioZoneProtocol extends AbstractRioProtocol
      */
     void postOnline() {
         watchZone(true);
-        refreshZoneSource();
-        refreshZoneEnabled();
-        refreshZoneName();
+        refreshZoneKeys(ZONE_INITIAL_STATE);
 
         systemFavoritesUpdated(favoritesProtocol.getJson());
     }
@@ -168,6 +173,19 @@ class RioZoneProtocol extends AbstractRioProtocol
         sendCommand("GET C[" + controller + "].Z[" + zone + "]." + keyname);
     }
 
+    /**
+     * Helper method to refresh multiple zone keys with a single write
+     *
+     * @param keynames a non-null, non-empty array of non-null, non-empty keynames
+     */
+    private void refreshZoneKeys(String... keynames) {
+        final List<String> commands = new ArrayList<String>(keynames.length);
+        for (String keyname : keynames) {
+            commands.add("GET C[" + controller + "].Z[" + zone + "]." + keyname);
+        }
+        sendCommands(commands);
+    }
+
     /**
      * Refresh a zone name
      */
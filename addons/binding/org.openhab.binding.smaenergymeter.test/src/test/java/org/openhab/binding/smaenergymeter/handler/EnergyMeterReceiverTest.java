@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.smaenergymeter.handler.EnergyMeterTelegrams.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the dispatch of the received telegrams by the serial number of the sending device. The telegrams are passed
+ * to the {@link EnergyMeterReceiver} directly, its receiver thread listens on a random port.
+ *
+ * @author agent - Initial contribution
+ */
+public class EnergyMeterReceiverTest {
+
+    private static final int RANDOM_PORT = 0;
+
+    private EnergyMeterReceiver receiver;
+    private List<RecordingListener> listeners;
+
+    /**
+     * Records the serial numbers of the telegrams it receives.
+     */
+    private static class RecordingListener implements EnergyMeterListener {
+        private final String serialNumber;
+        private final List<String> serialNumbers = new ArrayList<>();
+
+        private RecordingListener(String serialNumber) {
+            this.serialNumber = serialNumber;
+        }
+
+        @Override
+        public void telegramReceived(EnergyMeterTelegram telegram) {
+            serialNumbers.add(telegram.getSerialNumber());
+        }
+    }
+
+    @Before
+    public void setUp() {
+        receiver = EnergyMeterReceiver.getReceiver(EnergyMeter.DEFAULT_MCAST_GRP, RANDOM_PORT);
+        listeners = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        for (RecordingListener listener : listeners) {
+            receiver.removeListener(listener.serialNumber, listener);
+        }
+    }
+
+    private RecordingListener addListener(String serialNumber) {
+        RecordingListener listener = new RecordingListener(serialNumber);
+        receiver.addListener(serialNumber, listener);
+        listeners.add(listener);
+        return listener;
+    }
+
+    private void dispatch(byte[] telegram) {
+        receiver.dispatch(telegram, telegram.length);
+    }
+
+    @Test
+    public void telegramsAreDispatchedBySerialNumber() {
+        RecordingListener meterA = addListener(SERIAL_NUMBER_A);
+        RecordingListener meterB = addListener(SERIAL_NUMBER_B);
+        RecordingListener allMeters = addListener(null);
+
+        dispatch(TELEGRAM_A);
+        dispatch(TELEGRAM_B);
+        dispatch(TELEGRAM_A);
+
+        assertEquals(Arrays.asList(SERIAL_NUMBER_A, SERIAL_NUMBER_A), meterA.serialNumbers);
+        assertEquals(Arrays.asList(SERIAL_NUMBER_B), meterB.serialNumbers);
+        assertEquals(Arrays.asList(SERIAL_NUMBER_A, SERIAL_NUMBER_B, SERIAL_NUMBER_A), allMeters.serialNumbers);
+    }
+
+    @Test
+    public void invalidAndTruncatedTelegramsAreNotDispatched() {
+        RecordingListener allMeters = addListener(null);
+
+        dispatch(new byte[] { 'S', 'M', 'A', 0 });
+        dispatch(bytes("0102030405060708090A0B0C0D0E0F101112131415161718191A1B1C"));
+        receiver.dispatch(TELEGRAM_A, 0x1C - 1);
+
+        assertTrue(allMeters.serialNumbers.isEmpty());
+    }
+
+    @Test
+    public void removedListenerIsNotNotified() {
+        RecordingListener meterA = addListener(SERIAL_NUMBER_A);
+        RecordingListener otherMeterA = addListener(SERIAL_NUMBER_A);
+        receiver.removeListener(SERIAL_NUMBER_A, meterA);
+        listeners.remove(meterA);
+
+        dispatch(TELEGRAM_A);
+
+        assertTrue(meterA.serialNumbers.isEmpty());
+        assertEquals(Arrays.asList(SERIAL_NUMBER_A), otherMeterA.serialNumbers);
+    }
+
+    @Test
+    public void failingListenerDoesNotStopTheDispatch() {
+        EnergyMeterListener failingListener = new EnergyMeterListener() {
+            @Override
+            public void telegramReceived(EnergyMeterTelegram telegram) {
+                throw new IllegalStateException();
+            }
+        };
+        receiver.addListener(SERIAL_NUMBER_A, failingListener);
+        RecordingListener meterA = addListener(SERIAL_NUMBER_A);
+
+        try {
+            dispatch(TELEGRAM_A);
+        } finally {
+            receiver.removeListener(SERIAL_NUMBER_A, failingListener);
+        }
+
+        assertEquals(Arrays.asList(SERIAL_NUMBER_A), meterA.serialNumbers);
+    }
+
+    @Test
+    public void energyMeterWithoutSerialNumberUsesTheFirstDevice() {
+        EnergyMeter meter = new EnergyMeter(EnergyMeter.DEFAULT_MCAST_GRP, RANDOM_PORT, null);
+        meter.start();
+        try {
+            dispatch(TELEGRAM_B);
+            dispatch(TELEGRAM_A);
+            dispatch(TELEGRAM_B);
+        } finally {
+            meter.stop();
+        }
+
+        assertEquals(SERIAL_NUMBER_B, meter.getSerialNumber());
+        assertEquals(2, meter.completePeriod());
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.smaenergymeter.handler.EnergyMeterTelegram.*;
+import static org.openhab.binding.smaenergymeter.handler.EnergyMeterTelegrams.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link EnergyMeterTelegram}.
+ *
+ * @author agent - Initial contribution
+ */
+public class EnergyMeterTelegramTest {
+
+    private static EnergyMeterTelegram parse(byte[] bytes) throws IOException {
+        return EnergyMeterTelegram.parse(bytes, bytes.length);
+    }
+
+    @Test
+    public void decodesHeader() throws IOException {
+        EnergyMeterTelegram telegram = parse(TELEGRAM_A);
+
+        assertEquals(SERIAL_NUMBER_A, telegram.getSerialNumber());
+        assertEquals(0x0A0B0C0DL, telegram.getTicker());
+    }
+
+    @Test
+    public void decodesActualValuesAndMeterReadings() throws IOException {
+        EnergyMeterTelegram telegram = parse(TELEGRAM_A);
+
+        assertEquals(Long.valueOf(1234), telegram.getRawValue(1, TYPE_ACTUAL));
+        assertEquals(Long.valueOf(200000000), telegram.getRawValue(1, TYPE_COUNTER));
+        assertEquals(Long.valueOf(0), telegram.getRawValue(2, TYPE_ACTUAL));
+        assertEquals(Long.valueOf(30000000), telegram.getRawValue(2, TYPE_COUNTER));
+        assertEquals(Long.valueOf(50000), telegram.getRawValue(14, TYPE_ACTUAL));
+        assertNull(telegram.getRawValue(21, TYPE_ACTUAL));
+        // the software version is not a measurement
+        assertEquals(5, telegram.getMeasurementCount());
+
+        assertEquals(Double.valueOf(123.4), EnergyMeterMeasurement.POWER_IN.getValue(telegram));
+        assertEquals(Double.valueOf(50.0), EnergyMeterMeasurement.FREQUENCY.getValue(telegram));
+    }
+
+    @Test
+    public void decodesTelegramsOfDifferentMeters() throws IOException {
+        EnergyMeterTelegram telegram = parse(TELEGRAM_B);
+
+        assertEquals(SERIAL_NUMBER_B, telegram.getSerialNumber());
+        assertEquals(0x100L, telegram.getTicker());
+        assertEquals(Long.valueOf(5678), telegram.getRawValue(2, TYPE_ACTUAL));
+    }
+
+    @Test
+    public void unknownTypeEndsTheMeasurements() throws IOException {
+        EnergyMeterTelegram telegram = parse(TELEGRAM_B);
+
+        // the length of the unknown value is unknown, so the following measurements can't be decoded
+        assertEquals(2, telegram.getMeasurementCount());
+        assertEquals(Long.valueOf(0), telegram.getRawValue(1, TYPE_ACTUAL));
+        assertNull(telegram.getRawValue(3, 7));
+        assertNull(telegram.getRawValue(21, TYPE_ACTUAL));
+    }
+
+    @Test
+    public void truncatedMeasurementIsIgnored() throws IOException {
+        // cut within the meter reading of the purchased energy
+        EnergyMeterTelegram telegram = EnergyMeterTelegram.parse(TELEGRAM_A, 0x1C + 8 + 4 + 6);
+
+        assertEquals(SERIAL_NUMBER_A, telegram.getSerialNumber());
+        assertEquals(1, telegram.getMeasurementCount());
+        assertEquals(Long.valueOf(1234), telegram.getRawValue(1, TYPE_ACTUAL));
+        assertNull(telegram.getRawValue(1, TYPE_COUNTER));
+    }
+
+    @Test
+    public void truncatedHeaderIsRejected() {
+        try {
+            EnergyMeterTelegram.parse(TELEGRAM_A, 0x1C - 1);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void dataLengthLimitsTheMeasurements() throws IOException {
+        byte[] bytes = Arrays.copyOf(TELEGRAM_A, TELEGRAM_A.length);
+        // the data ends after the purchased power
+        bytes[0x0D] = 0x0C + 8;
+
+        EnergyMeterTelegram telegram = parse(bytes);
+
+        assertEquals(1, telegram.getMeasurementCount());
+        assertEquals(Long.valueOf(1234), telegram.getRawValue(1, TYPE_ACTUAL));
+    }
+
+    @Test
+    public void otherSmaTelegramsAreIgnored() throws IOException {
+        byte[] bytes = Arrays.copyOf(TELEGRAM_A, TELEGRAM_A.length);
+        // protocol 0x6065 of the inverters
+        bytes[0x11] = 0x65;
+
+        assertNull(parse(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void otherTelegramsAreRejected() throws IOException {
+        byte[] bytes = Arrays.copyOf(TELEGRAM_A, TELEGRAM_A.length);
+        bytes[0] = 'X';
+
+        parse(bytes);
+    }
+}
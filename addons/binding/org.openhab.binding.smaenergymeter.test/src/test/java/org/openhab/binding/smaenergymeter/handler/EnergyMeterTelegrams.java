@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+/**
+ * The {@link EnergyMeterTelegrams} class holds the telegrams of two SMA Energy Meters used by the tests.
+ *
+ * @author agent - Initial contribution
+ */
+class EnergyMeterTelegrams {
+
+    static final String SERIAL_NUMBER_A = "1900123456";
+    static final String SERIAL_NUMBER_B = "1900654321";
+
+    /**
+     * Telegram of meter A: purchased power 123.4 W, purchased energy 200000000 Ws, supplied power 0 W, supplied energy
+     * 30000000 Ws, frequency 50 Hz and the software version, followed by the end marker.
+     */
+    static final byte[] TELEGRAM_A = bytes("534D4100 000402A0 00000001 0044 0010" // header, data length 68
+            + "6069 010E 71419540 0A0B0C0D" // protocol, SUSy id, serial number, ticker
+            + "00010400 000004D2" // 1.4.0 purchased power
+            + "00010800 000000000BEBC200" // 1.8.0 purchased energy
+            + "00020400 00000000" // 2.4.0 supplied power
+            + "00020800 0000000001C9C380" // 2.8.0 supplied energy
+            + "000E0400 0000C350" // 14.4.0 frequency
+            + "90000000 01020452" // software version
+            + "00000000"); // end marker
+
+    /**
+     * Telegram of meter B: purchased power 0 W, supplied power 567.8 W and a measurement of the unknown type 7, which
+     * is followed by the purchased power of L1.
+     */
+    static final byte[] TELEGRAM_B = bytes("534D4100 000402A0 00000001 002C 0010" // header, data length 44
+            + "6069 010E 7149AEF1 00000100" // protocol, SUSy id, serial number, ticker
+            + "00010400 00000000" // 1.4.0 purchased power
+            + "00020400 0000162E" // 2.4.0 supplied power
+            + "00030700 00000063" // unknown type 7
+            + "00150400 0000006F" // 21.4.0 purchased power L1
+            + "00000000"); // end marker
+
+    private EnergyMeterTelegrams() {
+    }
+
+    /**
+     * Converts a hex string, which may contain blanks, to bytes.
+     */
+    static byte[] bytes(String hex) {
+        String digits = hex.replace(" ", "");
+        byte[] bytes = new byte[digits.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(digits.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+}
@@ -10,10 +10,10 @@ package org.openhab.binding.smaenergymeter.discovery;
 
 import static org.openhab.binding.smaenergymeter.SMAEnergyMeterBindingConstants.*;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
@@ -23,6 +23,9 @@ import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.smaenergymeter.handler.EnergyMeter;
+import org.openhab.binding.smaenergymeter.handler.EnergyMeterListener;
+import org.openhab.binding.smaenergymeter.handler.EnergyMeterReceiver;
+import org.openhab.binding.smaenergymeter.handler.EnergyMeterTelegram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +37,8 @@ import org.slf4j.LoggerFactory;
  */
 public class SMAEnergyMeterDiscoveryService extends AbstractDiscoveryService {
 
+    private static final int DISCOVERY_TIME = 5000;
+
     private final Logger logger = LoggerFactory.getLogger(SMAEnergyMeterDiscoveryService.class);
 
     public SMAEnergyMeterDiscoveryService() {
@@ -63,29 +68,47 @@ public class SMAEnergyMeterDiscoveryService extends AbstractDiscoveryService {
     }
 
     private synchronized void discover() {
-        logger.debug("Try to discover a SMA Energy Meter device");
+        logger.debug("Try to discover SMA Energy Meter devices");
+
+        final Set<String> serialNumbers = new ConcurrentSkipListSet<>();
+        EnergyMeterListener listener = new EnergyMeterListener() {
+            @Override
+            public void telegramReceived(EnergyMeterTelegram telegram) {
+                serialNumbers.add(telegram.getSerialNumber());
+            }
+        };
 
-        EnergyMeter energyMeter = new EnergyMeter(EnergyMeter.DEFAULT_MCAST_GRP, EnergyMeter.DEFAULT_MCAST_PORT);
+        EnergyMeterReceiver receiver = EnergyMeterReceiver.getReceiver(EnergyMeter.DEFAULT_MCAST_GRP,
+                EnergyMeter.DEFAULT_MCAST_PORT);
+        receiver.addListener(null, listener);
         try {
-            energyMeter.update();
-        } catch (IOException e) {
+            // the devices send a telegram every second
+            Thread.sleep(DISCOVERY_TIME);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            receiver.removeListener(null, listener);
+        }
+
+        if (serialNumbers.isEmpty()) {
             logger.debug("No SMA Energy Meter found.");
-            logger.debug("Diagnostic: ", e);
             return;
         }
 
-        logger.debug("Adding a new SMA Engergy Meter with S/N '{}' to inbox", energyMeter.getSerialNumber());
-        Map<String, Object> properties = new HashMap<>();
-        properties.put(Thing.PROPERTY_VENDOR, "SMA");
-        properties.put(Thing.PROPERTY_SERIAL_NUMBER, energyMeter.getSerialNumber());
-        ThingUID uid = new ThingUID(THING_TYPE_ENERGY_METER, energyMeter.getSerialNumber());
-        DiscoveryResult result = DiscoveryResultBuilder.create(uid)
-                .withProperties(properties)
-                .withLabel("SMA Energy Meter")
-                .build();
-        thingDiscovered(result);
-
-        logger.debug("Thing discovered '{}'", result);
+        for (String serialNumber : serialNumbers) {
+            logger.debug("Adding a new SMA Engergy Meter with S/N '{}' to inbox", serialNumber);
+            Map<String, Object> properties = new HashMap<>();
+            properties.put(Thing.PROPERTY_VENDOR, "SMA");
+            properties.put(Thing.PROPERTY_SERIAL_NUMBER, serialNumber);
+            ThingUID uid = new ThingUID(THING_TYPE_ENERGY_METER, serialNumber);
+            DiscoveryResult result = DiscoveryResultBuilder.create(uid)
+                    .withProperties(properties)
+                    .withLabel("SMA Energy Meter")
+                    .build();
+            thingDiscovered(result);
+
+            logger.debug("Thing discovered '{}'", result);
+        }
     }
 
 }
@@ -8,99 +8,176 @@
  */
 package org.openhab.binding.smaenergymeter.handler;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.InetAddress;
-import java.net.MulticastSocket;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
 
 /**
- * The {@link EnergyMeter} class is responsible for communication with the SMA device
- * and extracting the data fields out of the received telegrams.
+ * The {@link EnergyMeter} class collects the telegrams of a single SMA device received by the shared
+ * {@link EnergyMeterReceiver} and aggregates the measurements over a period. For every measurement the mean, minimum,
+ * maximum and last value of the last completed period are available.
  *
  * @author Osman Basha - Initial contribution
  */
-public class EnergyMeter {
+public class EnergyMeter implements EnergyMeterListener {
 
-    private String multicastGroup;
-    private int port;
+    private final EnergyMeterReceiver receiver;
+
+    /** The serial number the meter is registered with at the receiver, null for all devices */
+    private String registeredSerialNumber;
 
     private String serialNumber;
     private Date lastUpdate;
 
-    private final FieldDTO powerIn;
-    private final FieldDTO energyIn;
-    private final FieldDTO powerOut;
-    private final FieldDTO energyOut;
+    private Map<EnergyMeterMeasurement, Aggregate> currentPeriod = new EnumMap<>(EnergyMeterMeasurement.class);
+    private Map<EnergyMeterMeasurement, Aggregate> completedPeriod = new EnumMap<>(EnergyMeterMeasurement.class);
+    private int telegramCount;
 
     public static final String DEFAULT_MCAST_GRP = "239.12.255.254";
     public static final int DEFAULT_MCAST_PORT = 9522;
 
-    public EnergyMeter(String multicastGroup, int port) {
-        this.multicastGroup = multicastGroup;
-        this.port = port;
+    /**
+     * Creates an energy meter.
+     *
+     * @param multicastGroup the IP address of the multicast group
+     * @param port the port of the multicast group
+     * @param serialNumber the serial number of the device or null to use the first device sending a telegram
+     */
+    public EnergyMeter(String multicastGroup, int port, String serialNumber) {
+        this.receiver = EnergyMeterReceiver.getReceiver(multicastGroup, port);
+        this.serialNumber = serialNumber;
+    }
 
-        powerIn = new FieldDTO(0x20, 4, 10);
-        energyIn = new FieldDTO(0x28, 8, 3600000);
-        powerOut = new FieldDTO(0x34, 4, 10);
-        energyOut = new FieldDTO(0x3C, 8, 3600000);
+    /**
+     * Starts collecting the telegrams of the device.
+     */
+    public synchronized void start() {
+        registeredSerialNumber = serialNumber;
+        receiver.addListener(registeredSerialNumber, this);
     }
 
-    public void update() throws IOException {
-        byte[] bytes = new byte[600];
-        try (MulticastSocket socket = new MulticastSocket(port)) {
-            socket.setSoTimeout(5000);
-            InetAddress address = InetAddress.getByName(multicastGroup);
-            socket.joinGroup(address);
+    /**
+     * Stops collecting the telegrams of the device.
+     */
+    public synchronized void stop() {
+        receiver.removeListener(registeredSerialNumber, this);
+    }
 
-            DatagramPacket msgPacket = new DatagramPacket(bytes, bytes.length);
-            socket.receive(msgPacket);
+    @Override
+    public synchronized void telegramReceived(EnergyMeterTelegram telegram) {
+        if (serialNumber == null) {
+            serialNumber = telegram.getSerialNumber();
+        } else if (!serialNumber.equals(telegram.getSerialNumber())) {
+            return;
+        }
 
-            String sma = new String(Arrays.copyOfRange(bytes, 0x00, 0x03));
-            if (!sma.equals("SMA")) {
-                throw new IOException("Not a SMA telegram." + sma);
+        for (EnergyMeterMeasurement measurement : EnergyMeterMeasurement.values()) {
+            Double value = measurement.getValue(telegram);
+            if (value != null) {
+                Aggregate aggregate = currentPeriod.get(measurement);
+                if (aggregate == null) {
+                    aggregate = new Aggregate();
+                    currentPeriod.put(measurement, aggregate);
+                }
+                aggregate.add(value);
             }
+        }
 
-            ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOfRange(bytes, 0x14, 0x18));
-            serialNumber = String.valueOf(buffer.getInt());
+        telegramCount++;
+        lastUpdate = new Date(System.currentTimeMillis());
+    }
 
-            powerIn.updateValue(bytes);
-            energyIn.updateValue(bytes);
-            powerOut.updateValue(bytes);
-            energyOut.updateValue(bytes);
+    /**
+     * Completes the current period. The values of the completed period are returned by the getters until the next
+     * period is completed.
+     *
+     * @return the number of telegrams received in the completed period
+     */
+    public synchronized int completePeriod() {
+        int count = telegramCount;
 
-            lastUpdate = new Date(System.currentTimeMillis());
-        } catch (Exception e) {
-            throw new IOException(e);
-        }
+        completedPeriod = currentPeriod;
+        currentPeriod = new EnumMap<>(EnergyMeterMeasurement.class);
+        telegramCount = 0;
+
+        return count;
     }
 
-    public String getSerialNumber() {
+    public synchronized String getSerialNumber() {
         return serialNumber;
     }
 
-    public Date getLastUpdate() {
+    public synchronized Date getLastUpdate() {
         return lastUpdate;
     }
 
+    /**
+     * @return the mean value of the measurement in the completed period or null if it has not been received
+     */
+    public synchronized DecimalType getMean(EnergyMeterMeasurement measurement) {
+        Aggregate aggregate = completedPeriod.get(measurement);
+        return aggregate == null ? null : new DecimalType(aggregate.sum / aggregate.count);
+    }
+
+    /**
+     * @return the minimum value of the measurement in the completed period or null if it has not been received
+     */
+    public synchronized DecimalType getMin(EnergyMeterMeasurement measurement) {
+        Aggregate aggregate = completedPeriod.get(measurement);
+        return aggregate == null ? null : new DecimalType(aggregate.min);
+    }
+
+    /**
+     * @return the maximum value of the measurement in the completed period or null if it has not been received
+     */
+    public synchronized DecimalType getMax(EnergyMeterMeasurement measurement) {
+        Aggregate aggregate = completedPeriod.get(measurement);
+        return aggregate == null ? null : new DecimalType(aggregate.max);
+    }
+
+    /**
+     * @return the last value of the measurement in the completed period or null if it has not been received
+     */
+    public synchronized DecimalType getLast(EnergyMeterMeasurement measurement) {
+        Aggregate aggregate = completedPeriod.get(measurement);
+        return aggregate == null ? null : new DecimalType(aggregate.last);
+    }
+
     public DecimalType getPowerIn() {
-        return new DecimalType(powerIn.getValue());
+        return getMean(EnergyMeterMeasurement.POWER_IN);
     }
 
     public DecimalType getPowerOut() {
-        return new DecimalType(powerOut.getValue());
+        return getMean(EnergyMeterMeasurement.POWER_OUT);
     }
 
     public DecimalType getEnergyIn() {
-        return new DecimalType(energyIn.getValue());
+        return getLast(EnergyMeterMeasurement.ENERGY_IN);
     }
 
     public DecimalType getEnergyOut() {
-        return new DecimalType(energyOut.getValue());
+        return getLast(EnergyMeterMeasurement.ENERGY_OUT);
+    }
+
+    /**
+     * The aggregated values of a measurement in a period.
+     */
+    private static class Aggregate {
+        private int count;
+        private double sum;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private double last;
+
+        private void add(double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            last = value;
+        }
     }
 
 }
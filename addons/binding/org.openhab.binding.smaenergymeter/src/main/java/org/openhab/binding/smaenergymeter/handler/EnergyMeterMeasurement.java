@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+import static org.openhab.binding.smaenergymeter.SMAEnergyMeterBindingConstants.*;
+
+/**
+ * The {@link EnergyMeterMeasurement} enum defines the OBIS measurements of a telegram which are mapped to channels.
+ * A measurement is identified by its OBIS index and type, the raw value is divided by the divisor to get the value
+ * in the unit of the channel.
+ *
+ * @author agent - Initial contribution
+ */
+public enum EnergyMeterMeasurement {
+
+    POWER_IN(1, EnergyMeterTelegram.TYPE_ACTUAL, 10, CHANNEL_POWER_IN),
+    ENERGY_IN(1, EnergyMeterTelegram.TYPE_COUNTER, 3600000, CHANNEL_ENERGY_IN),
+    POWER_OUT(2, EnergyMeterTelegram.TYPE_ACTUAL, 10, CHANNEL_POWER_OUT),
+    ENERGY_OUT(2, EnergyMeterTelegram.TYPE_COUNTER, 3600000, CHANNEL_ENERGY_OUT),
+    POWER_FACTOR(13, EnergyMeterTelegram.TYPE_ACTUAL, 1000, CHANNEL_POWER_FACTOR),
+    FREQUENCY(14, EnergyMeterTelegram.TYPE_ACTUAL, 1000, CHANNEL_FREQUENCY),
+    POWER_IN_L1(21, EnergyMeterTelegram.TYPE_ACTUAL, 10, CHANNEL_POWER_IN_L1),
+    POWER_OUT_L1(22, EnergyMeterTelegram.TYPE_ACTUAL, 10, CHANNEL_POWER_OUT_L1),
+    CURRENT_L1(31, EnergyMeterTelegram.TYPE_ACTUAL, 1000, CHANNEL_CURRENT_L1),
+    VOLTAGE_L1(32, EnergyMeterTelegram.TYPE_ACTUAL, 1000, CHANNEL_VOLTAGE_L1),
+    POWER_IN_L2(41, EnergyMeterTelegram.TYPE_ACTUAL, 10, CHANNEL_POWER_IN_L2),
+    POWER_OUT_L2(42, EnergyMeterTelegram.TYPE_ACTUAL, 10, CHANNEL_POWER_OUT_L2),
+    CURRENT_L2(51, EnergyMeterTelegram.TYPE_ACTUAL, 1000, CHANNEL_CURRENT_L2),
+    VOLTAGE_L2(52, EnergyMeterTelegram.TYPE_ACTUAL, 1000, CHANNEL_VOLTAGE_L2),
+    POWER_IN_L3(61, EnergyMeterTelegram.TYPE_ACTUAL, 10, CHANNEL_POWER_IN_L3),
+    POWER_OUT_L3(62, EnergyMeterTelegram.TYPE_ACTUAL, 10, CHANNEL_POWER_OUT_L3),
+    CURRENT_L3(71, EnergyMeterTelegram.TYPE_ACTUAL, 1000, CHANNEL_CURRENT_L3),
+    VOLTAGE_L3(72, EnergyMeterTelegram.TYPE_ACTUAL, 1000, CHANNEL_VOLTAGE_L3);
+
+    private final int index;
+    private final int type;
+    private final int divisor;
+    private final String channelId;
+
+    private EnergyMeterMeasurement(int index, int type, int divisor, String channelId) {
+        this.index = index;
+        this.type = type;
+        this.divisor = divisor;
+        this.channelId = channelId;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public String getChannelId() {
+        return channelId;
+    }
+
+    /**
+     * @return true if the measurement is a meter reading, which is reported as the last value of a period
+     *         instead of the mean value
+     */
+    public boolean isCounter() {
+        return type == EnergyMeterTelegram.TYPE_COUNTER;
+    }
+
+    /**
+     * Returns the value of the measurement in the given telegram.
+     *
+     * @param telegram the telegram
+     * @return the value in the unit of the channel or null if the telegram does not contain the measurement
+     */
+    public Double getValue(EnergyMeterTelegram telegram) {
+        Long rawValue = telegram.getRawValue(index, type);
+        return rawValue == null ? null : (double) rawValue / divisor;
+    }
+
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link EnergyMeterReceiver} class receives the telegrams of all SMA Energy Meters sending to a multicast group.
+ * There is a single receiver (and a single multicast socket) per multicast group and port, which is shared by all
+ * things and the discovery. The received telegrams are decoded once and dispatched by the serial number of the
+ * sending device to the registered {@link EnergyMeterListener}s.
+ *
+ * The receiver thread is started with the first listener and stopped when the last listener is removed.
+ *
+ * @author agent - Initial contribution
+ */
+public class EnergyMeterReceiver implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnergyMeterReceiver.class);
+
+    private static final Map<String, EnergyMeterReceiver> RECEIVERS = new HashMap<>();
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final int RETRY_DELAY = 10000;
+
+    private final String multicastGroup;
+    private final int port;
+
+    /** Listeners for the telegrams of a single device, by serial number */
+    private final Map<String, List<EnergyMeterListener>> deviceListeners = new ConcurrentHashMap<>();
+
+    /** Listeners for the telegrams of all devices */
+    private final List<EnergyMeterListener> allListeners = new CopyOnWriteArrayList<>();
+
+    private int listenerCount;
+
+    private volatile Thread receiverThread;
+    private volatile MulticastSocket socket;
+
+    private EnergyMeterReceiver(String multicastGroup, int port) {
+        this.multicastGroup = multicastGroup;
+        this.port = port;
+    }
+
+    /**
+     * Returns the shared receiver for the given multicast group and port.
+     *
+     * @param multicastGroup the IP address of the multicast group
+     * @param port the port of the multicast group
+     * @return the receiver
+     */
+    public static synchronized EnergyMeterReceiver getReceiver(String multicastGroup, int port) {
+        String key = multicastGroup + ":" + port;
+        EnergyMeterReceiver receiver = RECEIVERS.get(key);
+        if (receiver == null) {
+            receiver = new EnergyMeterReceiver(multicastGroup, port);
+            RECEIVERS.put(key, receiver);
+        }
+        return receiver;
+    }
+
+    /**
+     * Adds a listener and starts receiving if needed.
+     *
+     * @param serialNumber the serial number of the device or null to receive the telegrams of all devices
+     * @param listener the listener
+     */
+    public synchronized void addListener(String serialNumber, EnergyMeterListener listener) {
+        if (serialNumber == null) {
+            allListeners.add(listener);
+        } else {
+            List<EnergyMeterListener> listeners = deviceListeners.get(serialNumber);
+            if (listeners == null) {
+                listeners = new CopyOnWriteArrayList<>();
+                deviceListeners.put(serialNumber, listeners);
+            }
+            listeners.add(listener);
+        }
+
+        if (listenerCount++ == 0) {
+            start();
+        }
+    }
+
+    /**
+     * Removes a listener and stops receiving if it was the last listener.
+     *
+     * @param serialNumber the serial number the listener has been added with
+     * @param listener the listener
+     */
+    public synchronized void removeListener(String serialNumber, EnergyMeterListener listener) {
+        boolean removed;
+        if (serialNumber == null) {
+            removed = allListeners.remove(listener);
+        } else {
+            List<EnergyMeterListener> listeners = deviceListeners.get(serialNumber);
+            removed = listeners != null && listeners.remove(listener);
+            if (listeners != null && listeners.isEmpty()) {
+                deviceListeners.remove(serialNumber);
+            }
+        }
+
+        if (removed && --listenerCount == 0) {
+            stop();
+        }
+    }
+
+    private void start() {
+        logger.debug("Start receiving SMA Energy Meter telegrams on {}:{}", multicastGroup, port);
+        Thread thread = new Thread(this, "SMA Energy Meter Receiver " + multicastGroup + ":" + port);
+        thread.setDaemon(true);
+        receiverThread = thread;
+        thread.start();
+    }
+
+    private void stop() {
+        logger.debug("Stop receiving SMA Energy Meter telegrams on {}:{}", multicastGroup, port);
+        receiverThread = null;
+        MulticastSocket currentSocket = socket;
+        if (currentSocket != null) {
+            // unblocks the receiving thread
+            currentSocket.close();
+        }
+    }
+
+    private boolean isRunning() {
+        return receiverThread == Thread.currentThread();
+    }
+
+    @Override
+    public void run() {
+        byte[] bytes = new byte[BUFFER_SIZE];
+
+        while (isRunning()) {
+            try (MulticastSocket multicastSocket = new MulticastSocket(port)) {
+                socket = multicastSocket;
+                if (!isRunning()) {
+                    break;
+                }
+
+                multicastSocket.joinGroup(InetAddress.getByName(multicastGroup));
+
+                DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+                while (isRunning()) {
+                    packet.setLength(bytes.length);
+                    multicastSocket.receive(packet);
+                    dispatch(bytes, packet.getLength());
+                }
+            } catch (IOException e) {
+                if (isRunning()) {
+                    logger.warn("Error receiving SMA Energy Meter telegrams on {}:{}: {}", multicastGroup, port,
+                            e.getMessage());
+                    try {
+                        Thread.sleep(RETRY_DELAY);
+                    } catch (InterruptedException ie) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        logger.debug("Receiver for {}:{} stopped", multicastGroup, port);
+    }
+
+    /**
+     * Decodes a received telegram and passes it to the listeners of the sending device and to the listeners of all
+     * devices. Invalid telegrams and telegrams of other SMA devices are ignored.
+     *
+     * @param bytes the received bytes
+     * @param length the number of received bytes
+     */
+    void dispatch(byte[] bytes, int length) {
+        EnergyMeterTelegram telegram;
+        try {
+            telegram = EnergyMeterTelegram.parse(bytes, length);
+        } catch (IOException e) {
+            logger.trace("Ignoring telegram: {}", e.getMessage());
+            return;
+        }
+
+        if (telegram == null) {
+            return;
+        }
+
+        logger.trace("Received telegram of SMA Energy Meter '{}' with {} measurements", telegram.getSerialNumber(),
+                telegram.getMeasurementCount());
+
+        List<EnergyMeterListener> listeners = deviceListeners.get(telegram.getSerialNumber());
+        if (listeners != null) {
+            for (EnergyMeterListener listener : listeners) {
+                notifyListener(listener, telegram);
+            }
+        }
+        for (EnergyMeterListener listener : allListeners) {
+            notifyListener(listener, telegram);
+        }
+    }
+
+    private void notifyListener(EnergyMeterListener listener, EnergyMeterTelegram telegram) {
+        try {
+            listener.telegramReceived(telegram);
+        } catch (RuntimeException e) {
+            logger.warn("Listener failed to handle telegram of '{}': {}", telegram.getSerialNumber(), e.getMessage(),
+                    e);
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link EnergyMeterTelegram} class decodes a telegram sent by a SMA Energy Meter.
+ *
+ * A telegram starts with the <code>SMA</code> header and the group tag, followed by the data tag, which contains the
+ * protocol id (<code>0x6069</code>), the SUSy id and serial number of the device, a millisecond ticker and the list of
+ * OBIS measurements. Each measurement consists of a 4 byte OBIS header (channel, index, type and tariff) followed by a
+ * 4 byte actual value or an 8 byte meter reading, depending on the type.
+ *
+ * @author agent - Initial contribution
+ */
+public class EnergyMeterTelegram {
+
+    /** OBIS type of an actual value (4 bytes) */
+    public static final int TYPE_ACTUAL = 4;
+
+    /** OBIS type of a meter reading (8 bytes) */
+    public static final int TYPE_COUNTER = 8;
+
+    private static final int PROTOCOL_ENERGY_METER = 0x6069;
+    private static final int TAG_DATA = 0x0010;
+    private static final int CHANNEL_VERSION = 0x90;
+
+    private static final int OFFSET_DATA_LENGTH = 0x0C;
+    private static final int OFFSET_DATA_TAG = 0x0E;
+    private static final int OFFSET_PROTOCOL = 0x10;
+    private static final int OFFSET_SERIAL_NUMBER = 0x14;
+    private static final int OFFSET_TICKER = 0x18;
+    private static final int OFFSET_MEASUREMENTS = 0x1C;
+
+    private final String serialNumber;
+    private final long ticker;
+    private final Map<Integer, Long> rawValues;
+
+    private EnergyMeterTelegram(String serialNumber, long ticker, Map<Integer, Long> rawValues) {
+        this.serialNumber = serialNumber;
+        this.ticker = ticker;
+        this.rawValues = rawValues;
+    }
+
+    /**
+     * Decodes a received telegram.
+     *
+     * @param bytes the received bytes
+     * @param length the number of received bytes
+     * @return the telegram or null if the telegram is a SMA telegram, but not sent by an energy meter
+     * @throws IOException if the bytes are not a valid SMA telegram
+     */
+    public static EnergyMeterTelegram parse(byte[] bytes, int length) throws IOException {
+        if (length < OFFSET_MEASUREMENTS || bytes[0] != 'S' || bytes[1] != 'M' || bytes[2] != 'A') {
+            throw new IOException("Not a SMA telegram.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        if ((buffer.getShort(OFFSET_DATA_TAG) & 0xFFFF) != TAG_DATA
+                || (buffer.getShort(OFFSET_PROTOCOL) & 0xFFFF) != PROTOCOL_ENERGY_METER) {
+            return null;
+        }
+
+        String serialNumber = String.valueOf(buffer.getInt(OFFSET_SERIAL_NUMBER) & 0xFFFFFFFFL);
+        long ticker = buffer.getInt(OFFSET_TICKER) & 0xFFFFFFFFL;
+
+        int end = Math.min(length, OFFSET_PROTOCOL + (buffer.getShort(OFFSET_DATA_LENGTH) & 0xFFFF));
+        Map<Integer, Long> rawValues = new HashMap<>();
+
+        int position = OFFSET_MEASUREMENTS;
+        while (position + 4 <= end) {
+            int channel = bytes[position] & 0xFF;
+            int index = bytes[position + 1] & 0xFF;
+            int type = bytes[position + 2] & 0xFF;
+            position += 4;
+
+            if (channel == CHANNEL_VERSION || type == TYPE_ACTUAL) {
+                if (position + 4 > end) {
+                    break;
+                }
+                if (channel != CHANNEL_VERSION) {
+                    rawValues.put(getKey(index, type), buffer.getInt(position) & 0xFFFFFFFFL);
+                }
+                position += 4;
+            } else if (type == TYPE_COUNTER) {
+                if (position + 8 > end) {
+                    break;
+                }
+                rawValues.put(getKey(index, type), buffer.getLong(position));
+                position += 8;
+            } else {
+                // end of the measurements or an unknown type, the length of which is unknown
+                break;
+            }
+        }
+
+        return new EnergyMeterTelegram(serialNumber, ticker, Collections.unmodifiableMap(rawValues));
+    }
+
+    private static int getKey(int index, int type) {
+        return index << 8 | type;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    /**
+     * @return the millisecond ticker of the device
+     */
+    public long getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Returns the raw value of an OBIS measurement.
+     *
+     * @param index the OBIS index (i.e. 1 for the purchased active power)
+     * @param type the OBIS type ({@link #TYPE_ACTUAL} or {@link #TYPE_COUNTER})
+     * @return the raw value or null if the telegram does not contain the measurement
+     */
+    public Long getRawValue(int index, int type) {
+        return rawValues.get(getKey(index, type));
+    }
+
+    /**
+     * @return the number of OBIS measurements in the telegram
+     */
+    public int getMeasurementCount() {
+        return rawValues.size();
+    }
+
+}
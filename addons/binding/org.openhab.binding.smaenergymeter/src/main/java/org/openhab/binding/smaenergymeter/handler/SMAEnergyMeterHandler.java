@@ -10,7 +10,6 @@ package org.openhab.binding.smaenergymeter.handler;
 
 import static org.openhab.binding.smaenergymeter.SMAEnergyMeterBindingConstants.*;
 
-import java.io.IOException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -21,6 +20,7 @@ import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
+import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.smaenergymeter.configuration.EnergyMeterConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +33,8 @@ import org.slf4j.LoggerFactory;
  */
 public class SMAEnergyMeterHandler extends BaseThingHandler {
 
+    private static final int FIRST_UPDATE_DELAY = 5;
+
     private Logger logger = LoggerFactory.getLogger(SMAEnergyMeterHandler.class);
     private EnergyMeter energyMeter;
     private ScheduledFuture<?> pollingJob;
@@ -45,7 +47,7 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (command == RefreshType.REFRESH) {
             logger.debug("Refreshing {}", channelUID);
-            updateData();
+            publishData();
         } else {
             logger.warn("This binding is a read-only binding and cannot handle commands");
         }
@@ -58,17 +60,9 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
         EnergyMeterConfig config = getConfigAs(EnergyMeterConfig.class);
 
         int port = (config.getPort() == null) ? EnergyMeter.DEFAULT_MCAST_PORT : config.getPort();
-        energyMeter = new EnergyMeter(config.getMcastGroup(), port);
-        try {
-            energyMeter.update();
-
-            updateProperty(Thing.PROPERTY_VENDOR, "SMA");
-            updateProperty(Thing.PROPERTY_SERIAL_NUMBER, energyMeter.getSerialNumber());
-            logger.debug("Found a SMA Energy Meter with S/N '{}'", energyMeter.getSerialNumber());
-        } catch (IOException e) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, e.getMessage());
-            return;
-        }
+        String serialNumber = getThing().getProperties().get(Thing.PROPERTY_SERIAL_NUMBER);
+        energyMeter = new EnergyMeter(config.getMcastGroup(), port, serialNumber);
+        energyMeter.start();
 
         int pollingPeriod = (config.getPollingPeriod() == null) ? 30 : config.getPollingPeriod();
         pollingJob = scheduler.scheduleWithFixedDelay(new Runnable() {
@@ -76,10 +70,10 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
             public void run() {
                 updateData();
             }
-        }, 0, pollingPeriod, TimeUnit.SECONDS);
+        }, Math.min(FIRST_UPDATE_DELAY, pollingPeriod), pollingPeriod, TimeUnit.SECONDS);
         logger.debug("Polling job scheduled to run every {} sec. for '{}'", pollingPeriod, getThing().getUID());
 
-        updateStatus(ThingStatus.ONLINE);
+        updateStatus(ThingStatus.UNKNOWN);
     }
 
     @Override
@@ -90,25 +84,62 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
             pollingJob.cancel(true);
             pollingJob = null;
         }
-        energyMeter = null;
+        if (energyMeter != null) {
+            energyMeter.stop();
+            energyMeter = null;
+        }
     }
 
     private synchronized void updateData() {
         logger.debug("Update SMAEnergyMeter data '{}'", getThing().getUID());
 
-        try {
-            energyMeter.update();
+        EnergyMeter meter = energyMeter;
+        if (meter == null) {
+            return;
+        }
+
+        int telegramCount = meter.completePeriod();
+        if (telegramCount == 0) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                    "No telegram received from the energy meter");
+            return;
+        }
 
-            updateState(CHANNEL_POWER_IN, energyMeter.getPowerIn());
-            updateState(CHANNEL_POWER_OUT, energyMeter.getPowerOut());
-            updateState(CHANNEL_ENERGY_IN, energyMeter.getEnergyIn());
-            updateState(CHANNEL_ENERGY_OUT, energyMeter.getEnergyOut());
+        logger.debug("Received {} telegrams from SMA Energy Meter '{}'", telegramCount, meter.getSerialNumber());
 
-            if (getThing().getStatus().equals(ThingStatus.OFFLINE)) {
-                updateStatus(ThingStatus.ONLINE);
-            }
-        } catch (IOException e) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR, e.getMessage());
+        if (getThing().getProperties().get(Thing.PROPERTY_SERIAL_NUMBER) == null) {
+            updateProperty(Thing.PROPERTY_VENDOR, "SMA");
+            updateProperty(Thing.PROPERTY_SERIAL_NUMBER, meter.getSerialNumber());
+            logger.debug("Found a SMA Energy Meter with S/N '{}'", meter.getSerialNumber());
+        }
+
+        publishData();
+
+        if (!getThing().getStatus().equals(ThingStatus.ONLINE)) {
+            updateStatus(ThingStatus.ONLINE);
+        }
+    }
+
+    private synchronized void publishData() {
+        EnergyMeter meter = energyMeter;
+        if (meter == null) {
+            return;
+        }
+
+        for (EnergyMeterMeasurement measurement : EnergyMeterMeasurement.values()) {
+            publishState(measurement.getChannelId(),
+                    measurement.isCounter() ? meter.getLast(measurement) : meter.getMean(measurement));
+        }
+
+        publishState(CHANNEL_POWER_IN_MIN, meter.getMin(EnergyMeterMeasurement.POWER_IN));
+        publishState(CHANNEL_POWER_IN_MAX, meter.getMax(EnergyMeterMeasurement.POWER_IN));
+        publishState(CHANNEL_POWER_OUT_MIN, meter.getMin(EnergyMeterMeasurement.POWER_OUT));
+        publishState(CHANNEL_POWER_OUT_MAX, meter.getMax(EnergyMeterMeasurement.POWER_OUT));
+    }
+
+    private void publishState(String channelId, State state) {
+        if (state != null) {
+            updateState(channelId, state);
         }
     }
 
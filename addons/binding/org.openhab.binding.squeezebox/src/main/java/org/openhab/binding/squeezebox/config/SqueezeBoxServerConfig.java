@@ -31,4 +31,8 @@ public class SqueezeBoxServerConfig {
      * Language for TTS
      */
     public String language;
+    /**
+     * Maximum number of playing time updates per second and player, 0 for no limit
+     */
+    public int timeUpdateRate = 1;
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.squeezebox.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@link SqueezeBoxCliTokenizer} splits a message received from the CLI of the SqueezeBox Server into its space
+ * separated tokens. Tokens are URL encoded and usually have the form <code>tag%3Avalue</code>. Tokens are not
+ * decoded by the tokenizer, so only the values which are actually used need to be decoded.
+ *
+ * @author agent - Initial contribution
+ */
+final class SqueezeBoxCliTokenizer {
+
+    private static final String TAG_SEPARATOR = "%3A";
+
+    private final String message;
+    private int position = 0;
+
+    SqueezeBoxCliTokenizer(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @return true if there is another token in the message
+     */
+    boolean hasMoreTokens() {
+        skipSpaces();
+        return position < message.length();
+    }
+
+    /**
+     * Returns the next (still encoded) token of the message.
+     *
+     * @return the token or null if the end of the message is reached
+     */
+    String nextToken() {
+        skipSpaces();
+        if (position >= message.length()) {
+            return null;
+        }
+        int start = position;
+        while (position < message.length() && message.charAt(position) != ' ') {
+            position++;
+        }
+        return message.substring(start, position);
+    }
+
+    private void skipSpaces() {
+        while (position < message.length() && message.charAt(position) == ' ') {
+            position++;
+        }
+    }
+
+    /**
+     * Returns the tag of a token, e.g. <code>mixer%20volume</code> for <code>mixer%20volume%3A50</code>.
+     * The tag is returned in its encoded form.
+     *
+     * @param token the encoded token
+     * @return the encoded tag or null if the token has no tag
+     */
+    static String getTag(String token) {
+        int index = token.indexOf(TAG_SEPARATOR);
+        return index < 0 ? null : token.substring(0, index);
+    }
+
+    /**
+     * Returns the value of a token, e.g. <code>50</code> for <code>mixer%20volume%3A50</code>.
+     * The value is returned in its encoded form.
+     *
+     * @param token the encoded token
+     * @return the encoded value or the complete token if the token has no tag
+     */
+    static String getValue(String token) {
+        int index = token.indexOf(TAG_SEPARATOR);
+        return index < 0 ? token : token.substring(index + TAG_SEPARATOR.length());
+    }
+
+    /**
+     * Decodes an URL encoded (UTF-8) value. Invalid escape sequences are kept as they are.
+     *
+     * @param raw the encoded value
+     * @return the decoded value
+     */
+    static String decode(String raw) {
+        if (raw.indexOf('%') < 0 && raw.indexOf('+') < 0) {
+            return raw;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length());
+        int i = 0;
+        while (i < raw.length()) {
+            char c = raw.charAt(i);
+            if (c == '%' && i + 2 < raw.length() && isHexDigit(raw.charAt(i + 1))
+                    && isHexDigit(raw.charAt(i + 2))) {
+                bytes.write(Character.digit(raw.charAt(i + 1), 16) << 4 | Character.digit(raw.charAt(i + 2), 16));
+                i += 3;
+            } else if (c == '+') {
+                bytes.write(' ');
+                i++;
+            } else if (c < 0x80) {
+                bytes.write(c);
+                i++;
+            } else {
+                // not expected in encoded values, but keep the character anyway
+                int end = i + Character.charCount(raw.codePointAt(i));
+                byte[] encoded = raw.substring(i, end).getBytes(StandardCharsets.UTF_8);
+                bytes.write(encoded, 0, encoded.length);
+                i = end;
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static boolean isHexDigit(char c) {
+        return Character.digit(c, 16) >= 0;
+    }
+}
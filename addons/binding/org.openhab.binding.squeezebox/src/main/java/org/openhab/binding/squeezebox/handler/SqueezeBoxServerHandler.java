@@ -15,28 +15,25 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
 import java.net.Socket;
-import java.net.URLDecoder;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
-import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
-import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.squeezebox.config.SqueezeBoxServerConfig;
 import org.slf4j.Logger;
@@ -71,6 +68,8 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             .synchronizedList(new ArrayList<SqueezeBoxPlayerEventListener>());
     private Map<String, SqueezeBoxPlayer> players = Collections
             .synchronizedMap(new HashMap<String, SqueezeBoxPlayer>());
+    // listeners of a single player (e.g. the player things), indexed by MAC address
+    private Map<String, CopyOnWriteArrayList<SqueezeBoxPlayerEventListener>> playerListeners = new ConcurrentHashMap<>();
     // client socket and listener thread
     private Socket clientSocket;
     private SqueezeServerListener listener;
@@ -82,6 +81,8 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
 
     private int webport;
 
+    private int timeUpdateRate;
+
     public SqueezeBoxServerHandler(Bridge bridge) {
         super(bridge);
     }
@@ -298,6 +299,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
         this.host = config.ipAddress;
         this.cliport = config.cliport;
         this.webport = config.webport;
+        this.timeUpdateRate = config.timeUpdateRate;
 
         if (StringUtils.isEmpty(this.host)) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, "host is not set");
@@ -350,6 +352,9 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
     private class SqueezeServerListener extends Thread {
         private boolean terminate = false;
 
+        // time of the last playing time update passed on, per player
+        private final Map<String, Long> lastTimeUpdates = new HashMap<>();
+
         public SqueezeServerListener() {
             super("Squeeze Server Listener");
         }
@@ -417,92 +422,105 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
         }
 
         private String decode(String raw) {
-            try {
-                return URLDecoder.decode(raw, "UTF-8");
-            } catch (UnsupportedEncodingException e) {
-                logger.debug("Failed to decode '{}' ", raw, e);
-                return null;
-            }
+            return SqueezeBoxCliTokenizer.decode(raw);
         }
 
         private void handlePlayersList(String message) {
-            // Split out players
-            String[] playersList = message.split("playerindex\\S*\\s");
-            for (String playerParams : playersList) {
-
-                // For each player, split out parameters and decode parameter
-                String[] parameterList = playerParams.split("\\s");
-                for (int i = 0; i < parameterList.length; i++) {
-                    parameterList[i] = decode(parameterList[i]);
+            SqueezeBoxCliTokenizer tokenizer = new SqueezeBoxCliTokenizer(message);
+            SqueezeBoxPlayer player = null;
+
+            // Each player starts with its playerindex, followed by its parameters
+            while (tokenizer.hasMoreTokens()) {
+                String token = tokenizer.nextToken();
+                String tag = SqueezeBoxCliTokenizer.getTag(token);
+                if (tag == null) {
+                    continue;
                 }
 
-                // parse out the MAC address first
-                String macAddress = null;
-                for (String parameter : parameterList) {
-                    if (parameter.contains("playerid")) {
-                        macAddress = parameter.substring(parameter.indexOf(":") + 1);
+                switch (tag) {
+                    case "playerindex":
+                        addPlayer(player);
+                        player = new SqueezeBoxPlayer();
+                        break;
+                    case "playerid":
+                        if (player != null) {
+                            player.setMacAddress(decode(SqueezeBoxCliTokenizer.getValue(token)));
+                        }
+                        break;
+                    case "ip":
+                        if (player != null) {
+                            player.setIpAddr(decode(SqueezeBoxCliTokenizer.getValue(token)));
+                        }
+                        break;
+                    case "uuid":
+                        if (player != null) {
+                            player.setUuid(decode(SqueezeBoxCliTokenizer.getValue(token)));
+                        }
+                        break;
+                    case "name":
+                        if (player != null) {
+                            player.setName(decode(SqueezeBoxCliTokenizer.getValue(token)));
+                        }
+                        break;
+                    case "model":
+                        if (player != null) {
+                            player.setModel(decode(SqueezeBoxCliTokenizer.getValue(token)));
+                        }
+                        break;
+                    default:
                         break;
-                    }
                 }
+            }
+            addPlayer(player);
+        }
 
-                // if none found then ignore this set of params
-                if (macAddress == null) {
-                    continue;
-                }
+        private void addPlayer(final SqueezeBoxPlayer player) {
+            // if no MAC address was found then ignore this set of params
+            if (player == null || player.getMacAddress() == null) {
+                return;
+            }
 
-                final SqueezeBoxPlayer player = new SqueezeBoxPlayer();
-                player.setMacAddress(macAddress);
-                // populate the player state
-                for (String parameter : parameterList) {
-                    if (parameter.contains("ip")) {
-                        player.setIpAddr(parameter.substring(parameter.indexOf(":") + 1));
-                    } else if (parameter.contains("uuid")) {
-                        player.setUuid(parameter.substring(parameter.indexOf(":") + 1));
-                    } else if (parameter.contains("name")) {
-                        player.setName(parameter.substring(parameter.indexOf(":") + 1));
-                    } else if (parameter.contains("model")) {
-                        player.setModel(parameter.substring(parameter.indexOf(":") + 1));
-                    }
-                }
+            final String macAddress = player.getMacAddress();
 
-                // Save player if we haven't seen it yet
-                if (!players.containsKey(macAddress)) {
-                    players.put(macAddress, player);
+            // Save player if we haven't seen it yet
+            if (!players.containsKey(macAddress)) {
+                players.put(macAddress, player);
 
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.playerAdded(player);
-                        }
-                    });
+                updatePlayer(macAddress, new PlayerUpdateEvent() {
+                    @Override
+                    public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                        listener.playerAdded(player);
+                    }
+                });
 
-                    // tell the server we want to subscribe to player updates
-                    sendCommand(player.getMacAddress() + " status - 1 subscribe:10 tags:yagJlN");
-                }
+                // tell the server we want to subscribe to player updates
+                sendCommand(player.getMacAddress() + " status - 1 subscribe:10 tags:yagJlN");
             }
         }
 
         private void handlePlayerUpdate(String message) {
-            String[] messageParts = message.split("\\s");
-            if (messageParts.length < 2) {
+            SqueezeBoxCliTokenizer tokenizer = new SqueezeBoxCliTokenizer(message);
+            String rawMac = tokenizer.nextToken();
+            String messageType = tokenizer.nextToken();
+            if (messageType == null) {
                 logger.warn("Invalid message - expecting at least 2 parts. Ignoring.");
                 return;
             }
 
-            final String mac = decode(messageParts[0]);
-
-            // get the message type
-            String messageType = messageParts[1];
+            final String mac = decode(rawMac);
 
             if (messageType.equals("status")) {
-                handleStatusMessage(mac, messageParts);
+                handleStatusMessage(mac, tokenizer);
             } else if (messageType.equals("playlist")) {
-                handlePlaylistMessage(mac, messageParts);
+                handlePlaylistMessage(mac, tokenizer);
             } else if (messageType.equals("prefset")) {
-                handlePrefsetMessage(mac, messageParts);
+                handlePrefsetMessage(mac, tokenizer);
             } else if (messageType.equals("ir")) {
-                final String ircode = messageParts[2];
-                updatePlayer(new PlayerUpdateEvent() {
+                final String ircode = tokenizer.nextToken();
+                if (ircode == null) {
+                    return;
+                }
+                updatePlayer(mac, new PlayerUpdateEvent() {
                     @Override
                     public void updateListener(SqueezeBoxPlayerEventListener listener) {
                         listener.irCodeChangeEvent(mac, ircode);
@@ -522,214 +540,233 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             }
         }
 
-        private void handleStatusMessage(final String mac, String[] messageParts) {
-            for (String messagePart : messageParts) {
-                // Parameter Power
-                if (messagePart.startsWith("power%3A")) {
-                    String value = messagePart.substring("power%3A".length());
-                    final boolean power = value.matches("1");
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.powerChangeEvent(mac, power);
-                        }
-                    });
-                }
-                // Parameter Volume
-                else if (messagePart.startsWith("mixer%20volume%3A")) {
-                    String value = messagePart.substring("mixer%20volume%3A".length());
-                    final int volume = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.volumeChangeEvent(mac, volume);
-                        }
-                    });
-                }
-                // Parameter Mode
-                else if (messagePart.startsWith("mode%3A")) {
-                    final String mode = messagePart.substring("mode%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.modeChangeEvent(mac, mode);
-                        }
-                    });
-                }
-                // Parameter Playing Time
-                else if (messagePart.startsWith("time%3A")) {
-                    String value = messagePart.substring("time%3A".length());
-                    final int time = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.currentPlayingTimeEvent(mac, time);
-                        }
-                    });
-                }
-                // Parameter duration
-                else if (messagePart.startsWith("duration%3A")) {
-                    String value = messagePart.substring("duration%3A".length());
-                    final int duration = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.durationEvent(mac, duration);
-                        }
-                    });
-                }
-                // Parameter Playing Playlist Index
-                else if (messagePart.startsWith("playlist_cur_index%3A")) {
-                    String value = messagePart.substring("playlist_cur_index%3A".length());
-                    // player.setCurrentPlaylistIndex((int)
-                    // Integer.parseInt(value));
-                    final int index = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.currentPlaylistIndexEvent(mac, index);
-                        }
-                    });
-                }
-                // Parameter Playlist Number Tracks
-                else if (messagePart.startsWith("playlist_tracks%3A")) {
-                    String value = messagePart.substring("playlist_tracks%3A".length());
-                    final int track = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.numberPlaylistTracksEvent(mac, track);
-                        }
-                    });
-                }
-                // Parameter Playlist Repeat Mode
-                else if (messagePart.startsWith("playlist%20repeat%3A")) {
-                    String value = messagePart.substring("playlist%20repeat%3A".length());
-                    final int repeat = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.currentPlaylistRepeatEvent(mac, repeat);
-                        }
-                    });
-                }
-                // Parameter Playlist Shuffle Mode
-                else if (messagePart.startsWith("playlist%20shuffle%3A")) {
-                    String value = messagePart.substring("playlist%20shuffle%3A".length());
-                    final int shuffle = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.currentPlaylistShuffleEvent(mac, shuffle);
-                        }
-                    });
-                }
-                // Parameter Title
-                else if (messagePart.startsWith("title%3A")) {
-                    final String value = messagePart.substring("title%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.titleChangeEvent(mac, decode(value));
-                        }
-                    });
-
-                }
-                // Parameter Remote Title (radio)
-                else if (messagePart.startsWith("remote_title%3A")) {
-                    final String value = messagePart.substring("remote_title%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.remoteTitleChangeEvent(mac, decode(value));
-                        }
-                    });
-                }
-                // Parameter Artist
-                else if (messagePart.startsWith("artist%3A")) {
-                    final String value = messagePart.substring("artist%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.artistChangeEvent(mac, decode(value));
-                        }
-                    });
-                }
-                // Parameter Album
-                else if (messagePart.startsWith("album%3A")) {
-                    final String value = messagePart.substring("album%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.albumChangeEvent(mac, decode(value));
-                        }
-                    });
-                }
-                // Parameter Genre
-                else if (messagePart.startsWith("genre%3A")) {
-                    final String value = messagePart.substring("genre%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.genreChangeEvent(mac, decode(value));
-                        }
-                    });
+        private void handleStatusMessage(final String mac, SqueezeBoxCliTokenizer tokenizer) {
+            while (tokenizer.hasMoreTokens()) {
+                String messagePart = tokenizer.nextToken();
+                String tag = SqueezeBoxCliTokenizer.getTag(messagePart);
+                if (tag == null) {
+                    logger.trace("Unhandled status message type '{}'", messagePart);
+                    continue;
                 }
-                // Parameter Year
-                else if (messagePart.startsWith("year%3A")) {
-                    final String value = messagePart.substring("year%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.yearChangeEvent(mac, decode(value));
+                // values are only decoded for the text parameters
+                String value = SqueezeBoxCliTokenizer.getValue(messagePart);
+
+                switch (tag) {
+                    // Parameter Power
+                    case "power": {
+                        final boolean power = value.equals("1");
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.powerChangeEvent(mac, power);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Volume
+                    case "mixer%20volume": {
+                        final int volume = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.volumeChangeEvent(mac, volume);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Mode
+                    case "mode": {
+                        final String mode = value;
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.modeChangeEvent(mac, mode);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playing Time
+                    case "time": {
+                        if (isTimeUpdateThrottled(mac)) {
+                            break;
                         }
-                    });
-                }
-                // Parameter Artwork
-                else if (messagePart.startsWith("artwork_track_id%3A")) {
-                    String url = messagePart.substring("artwork_track_id%3A".length());
-                    // NOTE: what is returned if not an artwork id? i.e. if a
-                    // space?
-                    if (!url.startsWith(" ")) {
-                        url = "http://" + host + ":" + webport + "/music/" + url + "/cover.jpg";
+                        final int time = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.currentPlayingTimeEvent(mac, time);
+                            }
+                        });
+                        break;
                     }
-                    final String value = url;
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.coverArtChangeEvent(mac, decode(value));
+                    // Parameter duration
+                    case "duration": {
+                        final int duration = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.durationEvent(mac, duration);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playing Playlist Index
+                    case "playlist_cur_index": {
+                        final int index = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.currentPlaylistIndexEvent(mac, index);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playlist Number Tracks
+                    case "playlist_tracks": {
+                        final int track = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.numberPlaylistTracksEvent(mac, track);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playlist Repeat Mode
+                    case "playlist%20repeat": {
+                        final int repeat = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.currentPlaylistRepeatEvent(mac, repeat);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playlist Shuffle Mode
+                    case "playlist%20shuffle": {
+                        final int shuffle = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.currentPlaylistShuffleEvent(mac, shuffle);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Title
+                    case "title": {
+                        final String title = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.titleChangeEvent(mac, title);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Remote Title (radio)
+                    case "remote_title": {
+                        final String title = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.remoteTitleChangeEvent(mac, title);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Artist
+                    case "artist": {
+                        final String artist = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.artistChangeEvent(mac, artist);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Album
+                    case "album": {
+                        final String album = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.albumChangeEvent(mac, album);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Genre
+                    case "genre": {
+                        final String genre = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.genreChangeEvent(mac, genre);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Year
+                    case "year": {
+                        final String year = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.yearChangeEvent(mac, year);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Artwork
+                    case "artwork_track_id": {
+                        String url = value;
+                        // NOTE: what is returned if not an artwork id? i.e. if a
+                        // space?
+                        if (!url.startsWith(" ")) {
+                            url = "http://" + host + ":" + webport + "/music/" + url + "/cover.jpg";
                         }
-                    });
-                } else {
-                    // Added to be able to see additional status message types
-                    logger.trace("Unhandled status message type '{}'", messagePart);
+                        final String coverArtUrl = decode(url);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.coverArtChangeEvent(mac, coverArtUrl);
+                            }
+                        });
+                        break;
+                    }
+                    default:
+                        // Added to be able to see additional status message types
+                        logger.trace("Unhandled status message type '{}'", messagePart);
                 }
             }
         }
 
-        private void handlePlaylistMessage(final String mac, String[] messageParts) {
-            String action = messageParts[2];
+        private void handlePlaylistMessage(final String mac, SqueezeBoxCliTokenizer tokenizer) {
+            String action = tokenizer.nextToken();
             String mode;
-            if (action.equals("newsong")) {
+            if ("newsong".equals(action)) {
                 mode = "play";
                 // Set the track duration to 0
-                updatePlayer(new PlayerUpdateEvent() {
+                updatePlayer(mac, new PlayerUpdateEvent() {
                     @Override
                     public void updateListener(SqueezeBoxPlayerEventListener listener) {
                         listener.durationEvent(mac, 0);
                     }
                 });
-            } else if (action.equals("pause")) {
-                mode = messageParts[3].equals("0") ? "play" : "pause";
-            } else if (action.equals("stop")) {
+            } else if ("pause".equals(action)) {
+                mode = "0".equals(tokenizer.nextToken()) ? "play" : "pause";
+            } else if ("stop".equals(action)) {
                 mode = "stop";
             } else {
                 // Added so that actions (such as delete, index, jump, open) are not treated as "play"
-                logger.trace("Unhandled playlist message type '{}'", Arrays.toString(messageParts));
+                logger.trace("Unhandled playlist message type '{}'", action);
                 return;
             }
             final String value = mode;
-            updatePlayer(new PlayerUpdateEvent() {
+            updatePlayer(mac, new PlayerUpdateEvent() {
                 @Override
                 public void updateListener(SqueezeBoxPlayerEventListener listener) {
                     listener.modeChangeEvent(mac, value);
@@ -737,19 +774,19 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             });
         }
 
-        private void handlePrefsetMessage(final String mac, String[] messageParts) {
-            if (messageParts.length < 5) {
+        private void handlePrefsetMessage(final String mac, SqueezeBoxCliTokenizer tokenizer) {
+            String namespace = tokenizer.nextToken();
+            String function = tokenizer.nextToken();
+            String value = tokenizer.nextToken();
+            if (value == null) {
                 return;
             }
 
             // server prefsets
-            if (messageParts[2].equals("server")) {
-                String function = messageParts[3];
-                String value = messageParts[4];
-
+            if (namespace.equals("server")) {
                 if (function.equals("power")) {
                     final boolean power = value.equals("1");
-                    updatePlayer(new PlayerUpdateEvent() {
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.powerChangeEvent(mac, power);
@@ -757,7 +794,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
                     });
                 } else if (function.equals("volume")) {
                     final int volume = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.volumeChangeEvent(mac, volume);
@@ -766,6 +803,25 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
                 }
             }
         }
+
+        /**
+         * Limits the playing time updates passed on to the listeners to the configured rate.
+         *
+         * @param mac the player sending the update
+         * @return true if the update shall be dropped
+         */
+        private boolean isTimeUpdateThrottled(String mac) {
+            if (timeUpdateRate <= 0) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            Long lastUpdate = lastTimeUpdates.get(mac);
+            if (lastUpdate != null && now - lastUpdate < 1000 / timeUpdateRate) {
+                return true;
+            }
+            lastTimeUpdates.put(mac, now);
+            return false;
+        }
     }
 
     /**
@@ -782,25 +838,19 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
     /**
      * Update Listeners and child Squeeze Player Things
      *
+     * @param mac the player the event belongs to
      * @param event
      */
-    private void updatePlayer(PlayerUpdateEvent event) {
+    private void updatePlayer(String mac, PlayerUpdateEvent event) {
         // update listeners like disco services
         for (SqueezeBoxPlayerEventListener listener : squeezeBoxPlayerListeners) {
             event.updateListener(listener);
         }
-        // update our children
-        Bridge bridge = getThing();
-
-        if (bridge == null) {
-            return;
-        }
-
-        List<Thing> things = bridge.getThings();
-        for (Thing thing : things) {
-            ThingHandler handler = thing.getHandler();
-            if (handler instanceof SqueezeBoxPlayerEventListener && !squeezeBoxPlayerListeners.contains(handler)) {
-                event.updateListener((SqueezeBoxPlayerEventListener) handler);
+        // update our children and the listeners of this player only
+        List<SqueezeBoxPlayerEventListener> listeners = playerListeners.get(mac);
+        if (listeners != null) {
+            for (SqueezeBoxPlayerEventListener listener : listeners) {
+                event.updateListener(listener);
             }
         }
     }
@@ -827,6 +877,44 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
         return squeezeBoxPlayerListeners.remove(squeezeBoxPlayerListener);
     }
 
+    /**
+     * Adds a listener for the events of a single player
+     *
+     * @param mac the MAC address of the player
+     * @param squeezeBoxPlayerListener
+     * @return
+     */
+    public boolean registerSqueezeBoxPlayerListener(String mac,
+            SqueezeBoxPlayerEventListener squeezeBoxPlayerListener) {
+        logger.trace("Registering player listener for player {}", mac);
+        if (mac == null) {
+            return false;
+        }
+        CopyOnWriteArrayList<SqueezeBoxPlayerEventListener> listeners = playerListeners.get(mac);
+        if (listeners == null) {
+            playerListeners.putIfAbsent(mac, new CopyOnWriteArrayList<SqueezeBoxPlayerEventListener>());
+            listeners = playerListeners.get(mac);
+        }
+        return listeners.addIfAbsent(squeezeBoxPlayerListener);
+    }
+
+    /**
+     * Removes a listener from the events of a single player
+     *
+     * @param mac the MAC address of the player
+     * @param squeezeBoxPlayerListener
+     * @return
+     */
+    public boolean unregisterSqueezeBoxPlayerListener(String mac,
+            SqueezeBoxPlayerEventListener squeezeBoxPlayerListener) {
+        logger.trace("Unregistering player listener for player {}", mac);
+        if (mac == null) {
+            return false;
+        }
+        List<SqueezeBoxPlayerEventListener> listeners = playerListeners.get(mac);
+        return listeners != null && listeners.remove(squeezeBoxPlayerListener);
+    }
+
     /**
      * Removed a player from our known list of players, will populate again if
      * player is seen
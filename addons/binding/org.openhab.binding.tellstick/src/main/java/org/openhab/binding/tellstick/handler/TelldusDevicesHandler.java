@@ -155,6 +155,21 @@ public class TelldusDevicesHandler extends BaseThingHandler implements DeviceSta
         }
     }
 
+    @Override
+    public void dispose() {
+        if (bridgeHandler != null) {
+            bridgeHandler.unregisterDeviceStatusListener(this);
+        }
+        super.dispose();
+    }
+
+    /**
+     * @return the id of the device or sensor, as configured
+     */
+    public String getDeviceId() {
+        return deviceId;
+    }
+
     @Override
     public void bridgeStatusChanged(ThingStatusInfo bridgeStatusInfo) {
         logger.debug("device: {} bridgeStatusChanged: {}", deviceId, bridgeStatusInfo);
@@ -8,8 +8,12 @@
  */
 package org.openhab.binding.tellstick.handler.live;
 
-import java.util.List;
-import java.util.Vector;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -38,12 +42,16 @@ import org.tellstick.device.TellstickDeviceEvent;
 import org.tellstick.device.TellstickException;
 import org.tellstick.device.TellstickSensorEvent;
 import org.tellstick.device.iface.Device;
+import org.tellstick.device.iface.TellstickEvent;
 
 /**
  * {@link TelldusLiveBridgeHandler} is the handler for Telldus Live service (Tellstick.NET and ZNET) and connects it
  * to the framework. All {@link TelldusDevicesHandler}s use the
  * {@link TelldusLiveDeviceController} to execute the actual commands.
  *
+ * The devices and sensors are kept by id. Only devices whose state changed and sensors whose lastUpdated
+ * timestamp advanced are reported, and only to the listeners of that device.
+ *
  * @author Jarle Hjortland
  *
  */
@@ -51,10 +59,12 @@ public class TelldusLiveBridgeHandler extends BaseBridgeHandler implements Telld
 
     private final Logger logger = LoggerFactory.getLogger(TelldusLiveBridgeHandler.class);
 
-    private TellstickNetDevices deviceList = null;
-    private TellstickNetSensors sensorList = null;
+    private Map<Integer, TellstickNetDevice> deviceList = null;
+    private Map<Integer, TellstickNetSensor> sensorList = null;
     private TelldusLiveDeviceController controller = new TelldusLiveDeviceController();
-    private List<DeviceStatusListener> deviceStatusListeners = new Vector<DeviceStatusListener>();
+    // listeners of a single device by its id, and listeners of all devices, e.g. the discovery
+    private Map<String, Set<DeviceStatusListener>> deviceStatusListenersById = new ConcurrentHashMap<>();
+    private Set<DeviceStatusListener> deviceStatusListeners = new CopyOnWriteArraySet<DeviceStatusListener>();
 
     private static final int REFRESH_DELAY = 10;
 
@@ -128,108 +138,100 @@ public class TelldusLiveBridgeHandler extends BaseBridgeHandler implements Telld
         }
     }
 
-    private synchronized void updateDevices(TellstickNetDevices previouslist) throws TellstickException {
+    private synchronized void updateDevices(Map<Integer, TellstickNetDevice> previouslist) throws TellstickException {
         TellstickNetDevices newList = controller.callRestMethod(TelldusLiveDeviceController.HTTP_TELLDUS_DEVICES,
                 TellstickNetDevices.class);
         logger.debug("Device list {}", newList.getDevices());
         if (previouslist == null) {
             logger.debug("updateDevices, Creating devices.");
-            for (TellstickNetDevice device : newList.getDevices()) {
-                device.setUpdated(true);
-                for (DeviceStatusListener listener : deviceStatusListeners) {
-                    listener.onDeviceAdded(getThing(), device);
-                }
-            }
-            this.deviceList = newList;
+            previouslist = new ConcurrentHashMap<Integer, TellstickNetDevice>();
+            this.deviceList = previouslist;
         } else {
             logger.debug("updateDevices, Updating devices.");
-            for (TellstickNetDevice device : newList.getDevices()) {
-                int index = previouslist.getDevices().indexOf(device);
-                logger.debug("Device:{} found at {}", device, index);
-                if (index >= 0) {
-                    TellstickNetDevice orgDevice = previouslist.getDevices().get(index);
-                    if (device.getState() != orgDevice.getState()) {
-                        orgDevice.setState(device.getState());
-                        orgDevice.setStatevalue(device.getStatevalue());
-                        orgDevice.setUpdated(true);
-                    }
-                } else {
-                    logger.debug("New Device - Adding:{}", device);
-                    previouslist.getDevices().add(device);
-                    device.setUpdated(true);
-                    for (DeviceStatusListener listener : deviceStatusListeners) {
-                        listener.onDeviceAdded(getThing(), device);
-                    }
-                }
-            }
         }
-
-        for (TellstickNetDevice device : deviceList.getDevices()) {
-            if (device.isUpdated()) {
-                logger.debug("Updated device:{}", device);
-                for (DeviceStatusListener listener : deviceStatusListeners) {
-                    listener.onDeviceStateChanged(getThing(), device,
-                            new TellstickDeviceEvent(device, null, null, null, System.currentTimeMillis()));
+        for (TellstickNetDevice device : newList.getDevices()) {
+            TellstickNetDevice orgDevice = previouslist.get(device.getId());
+            if (orgDevice == null) {
+                logger.debug("New Device - Adding:{}", device);
+                previouslist.put(device.getId(), device);
+                for (DeviceStatusListener listener : getAllListeners()) {
+                    listener.onDeviceAdded(getThing(), device);
                 }
-                device.setUpdated(false);
+                notifyDeviceStateChanged(device,
+                        new TellstickDeviceEvent(device, null, null, null, System.currentTimeMillis()));
+            } else if (device.getState() != orgDevice.getState()
+                    || !Objects.equals(device.getStatevalue(), orgDevice.getStatevalue())) {
+                orgDevice.setState(device.getState());
+                orgDevice.setStatevalue(device.getStatevalue());
+                logger.debug("Updated device:{}", orgDevice);
+                notifyDeviceStateChanged(orgDevice,
+                        new TellstickDeviceEvent(orgDevice, null, null, null, System.currentTimeMillis()));
             }
         }
     }
 
-    private synchronized void updateSensors(TellstickNetSensors previouslist) throws TellstickException {
+    private synchronized void updateSensors(Map<Integer, TellstickNetSensor> previouslist) throws TellstickException {
         TellstickNetSensors newList = controller.callRestMethod(TelldusLiveDeviceController.HTTP_TELLDUS_SENSORS,
                 TellstickNetSensors.class);
         logger.debug("Updated sensors:{}", newList.getSensors());
         if (previouslist == null) {
             logger.debug("First update of sensors");
-            this.sensorList = newList;
-            for (TellstickNetSensor sensor : sensorList.getSensors()) {
-                sensor.setUpdated(true);
-                for (DeviceStatusListener listener : deviceStatusListeners) {
+            previouslist = new ConcurrentHashMap<Integer, TellstickNetSensor>();
+            this.sensorList = previouslist;
+        }
+        for (TellstickNetSensor sensor : newList.getSensors()) {
+            TellstickNetSensor orgSensor = previouslist.get(sensor.getId());
+            if (orgSensor == null) {
+                logger.debug("Adding sensor {}, new update {}", sensor.getId(), sensor.getLastUpdated());
+                previouslist.put(sensor.getId(), sensor);
+                for (DeviceStatusListener listener : getAllListeners()) {
                     listener.onDeviceAdded(getThing(), sensor);
                 }
+                notifySensorDataChanged(sensor);
+            } else if (isNewer(sensor.getLastUpdated(), orgSensor.getLastUpdated())) {
+                logger.debug("Update sensor {}, prev update {}, new update {}", sensor.getId(),
+                        orgSensor.getLastUpdated(), sensor.getLastUpdated());
+                orgSensor.setData(sensor.getData());
+                orgSensor.setLastUpdated(sensor.getLastUpdated());
+                notifySensorDataChanged(orgSensor);
             }
-        } else {
-            logger.debug("Update sensors, reset updated flag");
-            for (TellstickNetSensor sensor : previouslist.getSensors()) {
-                sensor.setUpdated(false);
-            }
-            for (TellstickNetSensor sensor : newList.getSensors()) {
-                int index = this.sensorList.getSensors().indexOf(sensor);
-                if (index >= 0) {
-                    TellstickNetSensor orgSensor = this.sensorList.getSensors().get(index);
-                    logger.debug("Update sensor {}, prev update {}, new update {}", sensor.getId(),
-                            orgSensor.getLastUpdated(), sensor.getLastUpdated());
-                    if (sensor.getLastUpdated() > orgSensor.getLastUpdated()) {
-                        logger.debug("Update for sensor:{}", sensor);
-                        orgSensor.setData(sensor.getData());
-                        orgSensor.setLastUpdated(sensor.getLastUpdated());
-                        orgSensor.setUpdated(true);
-                        sensor.setUpdated(true);
-                    }
-                } else {
-                    logger.debug("Adding sensor {}, new update {}", sensor.getId(), sensor.getLastUpdated());
-                    this.sensorList.getSensors().add(sensor);
-                    sensor.setUpdated(true);
-                    for (DeviceStatusListener listener : deviceStatusListeners) {
-                        listener.onDeviceAdded(getThing(), sensor);
-                    }
-                }
+        }
+    }
+
+    private boolean isNewer(Long lastUpdated, Long previousLastUpdated) {
+        if (lastUpdated == null) {
+            return false;
+        }
+        return previousLastUpdated == null || lastUpdated > previousLastUpdated;
+    }
 
+    private void notifySensorDataChanged(TellstickNetSensor sensor) {
+        if (sensor.getData() != null) {
+            for (DataTypeValue type : sensor.getData()) {
+                notifyDeviceStateChanged(sensor, new TellstickSensorEvent(sensor.getId(), type.getValue(),
+                        type.getName(), sensor.getProtocol(), sensor.getModel(), System.currentTimeMillis()));
             }
         }
-        for (TellstickNetSensor sensor : sensorList.getSensors()) {
-            if (sensor.getData() != null && sensor.isUpdated()) {
-                for (DeviceStatusListener listener : deviceStatusListeners) {
-                    for (DataTypeValue type : sensor.getData()) {
-                        listener.onDeviceStateChanged(getThing(), sensor,
-                                new TellstickSensorEvent(sensor.getId(), type.getValue(), type.getName(),
-                                        sensor.getProtocol(), sensor.getModel(), System.currentTimeMillis()));
-                    }
-                }
-                sensor.setUpdated(false);
+    }
+
+    private void notifyDeviceStateChanged(Device device, TellstickEvent event) {
+        Set<DeviceStatusListener> listeners = deviceStatusListenersById.get(device.getUUId());
+        if (listeners != null) {
+            for (DeviceStatusListener listener : listeners) {
+                listener.onDeviceStateChanged(getThing(), device, event);
             }
         }
+        for (DeviceStatusListener listener : deviceStatusListeners) {
+            listener.onDeviceStateChanged(getThing(), device, event);
+        }
+    }
+
+    private Set<DeviceStatusListener> getAllListeners() {
+        Set<DeviceStatusListener> listeners = new HashSet<DeviceStatusListener>(deviceStatusListeners);
+        for (Set<DeviceStatusListener> deviceListeners : deviceStatusListenersById.values()) {
+            listeners.addAll(deviceListeners);
+        }
+        return listeners;
     }
 
     @Override
@@ -259,38 +261,44 @@ public class TelldusLiveBridgeHandler extends BaseBridgeHandler implements Telld
         if (deviceStatusListener == null) {
             throw new IllegalArgumentException("It's not allowed to pass a null deviceStatusListener.");
         }
-        boolean result = deviceStatusListeners.add(deviceStatusListener);
-        if (result) {
-            // onUpdate();
+        // the device id of a handler changes when its configuration is updated
+        boolean registered = unregisterDeviceStatusListener(deviceStatusListener);
+        String deviceId = null;
+        if (deviceStatusListener instanceof TelldusDevicesHandler) {
+            deviceId = ((TelldusDevicesHandler) deviceStatusListener).getDeviceId();
         }
-        return result;
+        if (deviceId == null) {
+            deviceStatusListeners.add(deviceStatusListener);
+        } else {
+            Set<DeviceStatusListener> listeners = deviceStatusListenersById.get(deviceId);
+            if (listeners == null) {
+                listeners = new CopyOnWriteArraySet<DeviceStatusListener>();
+                deviceStatusListenersById.put(deviceId, listeners);
+            }
+            listeners.add(deviceStatusListener);
+        }
+        return !registered;
     }
 
     @Override
     public boolean unregisterDeviceStatusListener(DeviceStatusListener deviceStatusListener) {
         boolean result = deviceStatusListeners.remove(deviceStatusListener);
-        if (result) {
-            // onUpdate();
+        for (Set<DeviceStatusListener> listeners : deviceStatusListenersById.values()) {
+            result |= listeners.remove(deviceStatusListener);
         }
         return result;
     }
 
-    private Device getDevice(String id, List<TellstickNetDevice> devices) {
-        for (Device device : devices) {
-            if (device.getId() == Integer.valueOf(id)) {
-                return device;
-            }
+    private Device getDevice(String id, Map<Integer, ? extends Device> devices) {
+        if (devices == null) {
+            return null;
         }
-        return null;
-    }
-
-    private Device getSensor(String id, List<TellstickNetSensor> sensors) {
-        for (Device sensor : sensors) {
-            if (sensor.getId() == Integer.valueOf(id)) {
-                return sensor;
-            }
+        try {
+            return devices.get(Integer.valueOf(id));
+        } catch (NumberFormatException e) {
+            logger.debug("Invalid device id '{}'", id);
+            return null;
         }
-        return null;
     }
 
     @Override
@@ -298,18 +306,18 @@ public class TelldusLiveBridgeHandler extends BaseBridgeHandler implements Telld
         return getDevice(serialNumber, getDevices());
     }
 
-    private List<TellstickNetDevice> getDevices() {
+    private Map<Integer, TellstickNetDevice> getDevices() {
         if (deviceList == null) {
             refreshDeviceList();
         }
-        return deviceList.getDevices();
+        return deviceList;
     }
 
     @Override
     public Device getSensor(String deviceUUId) {
         Device result = null;
         if (sensorList != null) {
-            result = getSensor(deviceUUId, sensorList.getSensors());
+            result = getDevice(deviceUUId, sensorList);
         }
         return result;
     }
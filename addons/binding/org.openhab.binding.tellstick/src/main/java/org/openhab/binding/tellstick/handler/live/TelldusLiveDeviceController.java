@@ -9,6 +9,8 @@
 package org.openhab.binding.tellstick.handler.live;
 
 import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -16,6 +18,7 @@ import java.util.concurrent.TimeoutException;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.stream.FactoryConfigurationError;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -73,6 +76,12 @@ public class TelldusLiveDeviceController implements DeviceChangeListener, Sensor
     static final String HTTP_TELLDUS_DEVICE_TURNON = HTTP_API_TELLDUS_COM_XML + "device/turnOn?id=%d";
     private static final int MAX_RETRIES = 3;
 
+    // JAXB contexts are expensive to create and thread safe, so they are shared by all controllers
+    private static final Map<Class<?>, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<Class<?>, JAXBContext>();
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+    // unmarshallers are not thread safe, each one is only used while holding its lock
+    private final Map<Class<?>, Unmarshaller> unmarshallers = new ConcurrentHashMap<Class<?>, Unmarshaller>();
+
     public TelldusLiveDeviceController() {
     }
 
@@ -307,19 +316,40 @@ public class TelldusLiveDeviceController implements DeviceChangeListener, Sensor
         Future<Response> future = client.prepareGet(uri).execute();
         Response resp = future.get(REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS);
         // TelldusLiveHandler.logger.info("Devices" + resp.getResponseBody());
-        JAXBContext jc = JAXBContext.newInstance(response);
-        XMLInputFactory xif = XMLInputFactory.newInstance();
-        XMLStreamReader xsr = xif.createXMLStreamReader(resp.getResponseBodyAsStream());
+        XMLStreamReader xsr = XML_INPUT_FACTORY.createXMLStreamReader(resp.getResponseBodyAsStream());
         // xsr = new PropertyRenamerDelegate(xsr);
 
-        @SuppressWarnings("unchecked")
-        T obj = (T) jc.createUnmarshaller().unmarshal(xsr);
+        Unmarshaller unmarshaller = getUnmarshaller(response);
+        T obj;
+        try {
+            synchronized (unmarshaller) {
+                @SuppressWarnings("unchecked")
+                T unmarshalled = (T) unmarshaller.unmarshal(xsr);
+                obj = unmarshalled;
+            }
+        } finally {
+            xsr.close();
+        }
         if (logger.isTraceEnabled()) {
             logger.trace("Request [{}] Response:{}", uri, resp.getResponseBody());
         }
         return obj;
     }
 
+    private Unmarshaller getUnmarshaller(Class<?> type) throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.get(type);
+        if (unmarshaller == null) {
+            JAXBContext context = JAXB_CONTEXTS.get(type);
+            if (context == null) {
+                context = JAXBContext.newInstance(type);
+                JAXB_CONTEXTS.put(type, context);
+            }
+            unmarshaller = context.createUnmarshaller();
+            unmarshallers.put(type, unmarshaller);
+        }
+        return unmarshaller;
+    }
+
     private void logResponse(String uri, Exception e) {
         if (e != null) {
             logger.warn("Request [{}] Failure:{}", uri, e.getMessage());
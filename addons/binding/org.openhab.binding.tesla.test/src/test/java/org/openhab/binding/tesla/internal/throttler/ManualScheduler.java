@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal.throttler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ManualScheduler} is a single threaded {@link ScheduledExecutorService} with a manual clock, which is also
+ * the {@link TimeProvider} of the throttler under test. Tasks are only run by {@link #runPending()} and
+ * {@link #advance(long)}, on the calling thread.
+ *
+ * @author agent - Initial contribution
+ */
+class ManualScheduler extends AbstractExecutorService implements ScheduledExecutorService, TimeProvider {
+
+    private final Queue<Runnable> pending = new LinkedList<>();
+    private final List<Job<?>> jobs = new ArrayList<>();
+    private long now = 1000;
+    private boolean shutdown;
+
+    @Override
+    public long getCurrentTimeInMillis() {
+        return now;
+    }
+
+    /**
+     * Runs all tasks which are due, including the tasks submitted by them.
+     */
+    void runPending() {
+        while (true) {
+            Runnable task = pending.poll();
+            if (task == null) {
+                Collections.sort(jobs);
+                if (jobs.isEmpty() || jobs.get(0).time > now) {
+                    return;
+                }
+                task = jobs.remove(0);
+            }
+            task.run();
+        }
+    }
+
+    /**
+     * Advances the clock millisecond by millisecond and runs the tasks which are due at each point in time.
+     *
+     * @param millis the time to advance the clock by
+     */
+    void advance(long millis) {
+        runPending();
+        for (long i = 0; i < millis; i++) {
+            now++;
+            runPending();
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        pending.add(command);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        Job<V> job = new Job<>(callable, now + unit.toMillis(delay));
+        jobs.add(job);
+        return job;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+            TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> tasks = new ArrayList<Runnable>(pending);
+        tasks.addAll(jobs);
+        pending.clear();
+        jobs.clear();
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && pending.isEmpty() && jobs.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return isTerminated();
+    }
+
+    private class Job<V> extends FutureTask<V> implements ScheduledFuture<V> {
+        private final long time;
+
+        private Job(Callable<V> callable, long time) {
+            super(callable);
+            this.time = time;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - now, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            jobs.remove(this);
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal.throttler;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.tesla.internal.throttler.TokenBucketChannelThrottler.Priority;
+
+/**
+ * Tests for {@link TokenBucketChannelThrottler}, driven by a {@link ManualScheduler} as scheduler and clock.
+ *
+ * @author agent - Initial contribution
+ */
+public class TokenBucketChannelThrottlerTest {
+
+    private static final String CHANNEL_A = "a";
+    private static final String CHANNEL_B = "b";
+
+    private ManualScheduler scheduler;
+    private List<String> executed;
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+        executed = new ArrayList<>();
+    }
+
+    private TokenBucketChannelThrottler createThrottler(Rate rate, Map<Object, Rate> channels) {
+        return new TokenBucketChannelThrottler(rate, scheduler, channels, scheduler);
+    }
+
+    private TokenBucketChannelThrottler createThrottler(Rate rate) {
+        return createThrottler(rate, new HashMap<Object, Rate>());
+    }
+
+    private Runnable task(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executed.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void higherPriorityTasksAreExecutedFirst() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(1, 1, TimeUnit.SECONDS));
+        throttler.submit(task("first"));
+        scheduler.runPending();
+
+        throttler.submit(null, Priority.LOW, null, task("low"));
+        throttler.submit(null, Priority.NORMAL, null, task("normal"));
+        throttler.submit(null, Priority.HIGH, null, task("high"));
+        scheduler.runPending();
+        assertEquals(Arrays.asList("first"), executed);
+
+        scheduler.advance(3000);
+        assertEquals(Arrays.asList("first", "high", "normal", "low"), executed);
+    }
+
+    @Test
+    public void tasksOfALaneAreExecutedInOrderOfSubmission() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(1, 1, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            throttler.submit(task("task" + i));
+        }
+
+        scheduler.advance(4000);
+        assertEquals(Arrays.asList("task0", "task1", "task2", "task3", "task4"), executed);
+        assertEquals(0, throttler.getQueueLength());
+    }
+
+    @Test
+    public void globalRateIsEnforced() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(2, 1, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            throttler.submit(task("task" + i));
+        }
+
+        scheduler.runPending();
+        assertEquals(2, executed.size());
+
+        // the bucket is refilled by one token every 500 ms
+        scheduler.advance(499);
+        assertEquals(2, executed.size());
+        scheduler.advance(1);
+        assertEquals(3, executed.size());
+        scheduler.advance(500);
+        assertEquals(4, executed.size());
+    }
+
+    @Test
+    public void addedGlobalRateIsEnforced() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(10, 1, TimeUnit.SECONDS));
+        throttler.addRate(new Rate(2, 1, TimeUnit.MINUTES));
+        for (int i = 0; i < 3; i++) {
+            throttler.submit(task("task" + i));
+        }
+
+        scheduler.advance(29999);
+        assertEquals(2, executed.size());
+        scheduler.advance(1);
+        assertEquals(3, executed.size());
+    }
+
+    @Test
+    public void channelRateIsEnforced() {
+        Map<Object, Rate> channels = new HashMap<>();
+        channels.put(CHANNEL_A, new Rate(1, 1, TimeUnit.SECONDS));
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(100, 1, TimeUnit.SECONDS), channels);
+
+        throttler.submit(CHANNEL_A, task("a1"));
+        throttler.submit(CHANNEL_A, task("a2"));
+        throttler.submit(task("unthrottled"));
+        scheduler.runPending();
+        assertEquals(Arrays.asList("a1", "unthrottled"), executed);
+
+        scheduler.advance(999);
+        assertEquals(2, executed.size());
+        scheduler.advance(1);
+        assertEquals(Arrays.asList("a1", "unthrottled", "a2"), executed);
+    }
+
+    @Test
+    public void throttledChannelDoesNotBlockOtherChannelsOfTheSameLane() {
+        Map<Object, Rate> channels = new HashMap<>();
+        channels.put(CHANNEL_A, new Rate(1, 1, TimeUnit.MINUTES));
+        channels.put(CHANNEL_B, new Rate(1, 1, TimeUnit.SECONDS));
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(100, 1, TimeUnit.SECONDS), channels);
+
+        throttler.submit(CHANNEL_A, Priority.LOW, null, task("a1"));
+        throttler.submit(CHANNEL_A, Priority.LOW, null, task("a2"));
+        throttler.submit(CHANNEL_B, Priority.LOW, null, task("b1"));
+        throttler.submit(CHANNEL_B, Priority.LOW, null, task("b2"));
+        scheduler.runPending();
+        assertEquals(Arrays.asList("a1", "b1"), executed);
+
+        scheduler.advance(1000);
+        assertEquals(Arrays.asList("a1", "b1", "b2"), executed);
+
+        scheduler.advance(59000);
+        assertEquals(Arrays.asList("a1", "b1", "b2", "a2"), executed);
+    }
+
+    @Test
+    public void identicalPendingTasksAreCoalesced() throws Exception {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(1, 1, TimeUnit.SECONDS));
+        throttler.submit(task("first"));
+
+        Future<?> first = throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        Future<?> second = throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        assertNotSame(first, second);
+        assertEquals(2, throttler.getQueueLength());
+
+        scheduler.advance(1000);
+        assertEquals(Arrays.asList("first", "state"), executed);
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertNull(second.get());
+    }
+
+    @Test
+    public void executedTaskIsNotCoalescedWithNewTasks() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(1, 1, TimeUnit.SECONDS));
+        throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        scheduler.runPending();
+
+        throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        scheduler.advance(1000);
+        assertEquals(Arrays.asList("state", "state"), executed);
+    }
+
+    @Test
+    public void cancellingOneCoalescedCallerDoesNotCancelTheOthers() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(1, 1, TimeUnit.SECONDS));
+        throttler.submit(task("first"));
+
+        Future<?> first = throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        Future<?> second = throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        assertTrue(first.cancel(false));
+
+        scheduler.advance(1000);
+        assertEquals(Arrays.asList("first", "state"), executed);
+        assertTrue(first.isCancelled());
+        assertFalse(second.isCancelled());
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    public void taskIsSkippedIfAllCoalescedCallersAreCancelled() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(1, 1, TimeUnit.SECONDS));
+        throttler.submit(task("first"));
+
+        Future<?> first = throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        Future<?> second = throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        first.cancel(false);
+        second.cancel(false);
+        throttler.submit(task("last"));
+
+        // the cancelled task doesn't use a token
+        scheduler.advance(1000);
+        assertEquals(Arrays.asList("first", "last"), executed);
+
+        // a new identical task is queued again
+        throttler.submit(null, Priority.NORMAL, "state", task("state"));
+        scheduler.advance(1000);
+        assertEquals(Arrays.asList("first", "last", "state"), executed);
+    }
+
+    @Test
+    public void cancelAllCancelsQueuedTasks() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(1, 1, TimeUnit.SECONDS));
+        throttler.submit(task("first"));
+        scheduler.runPending();
+
+        Future<?> first = throttler.submit(null, Priority.HIGH, null, task("high"));
+        Future<?> second = throttler.submit(null, Priority.LOW, "state", task("state"));
+        throttler.cancelAll();
+        assertEquals(0, throttler.getQueueLength());
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+
+        scheduler.advance(5000);
+        assertEquals(Arrays.asList("first"), executed);
+    }
+
+    @Test
+    public void failingTaskCompletesTheFuturesOfAllCallers() {
+        TokenBucketChannelThrottler throttler = createThrottler(new Rate(1, 1, TimeUnit.SECONDS));
+        Runnable failingTask = new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException();
+            }
+        };
+        Future<?> first = throttler.submit(null, Priority.NORMAL, "state", failingTask);
+        Future<?> second = throttler.submit(null, Priority.NORMAL, "state", failingTask);
+        throttler.submit(task("next"));
+
+        scheduler.advance(1000);
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(Arrays.asList("next"), executed);
+    }
+}
@@ -70,8 +70,9 @@ import org.openhab.binding.tesla.internal.protocol.TokenRequestRefreshToken;
 import org.openhab.binding.tesla.internal.protocol.TokenResponse;
 import org.openhab.binding.tesla.internal.protocol.Vehicle;
 import org.openhab.binding.tesla.internal.protocol.VehicleState;
-import org.openhab.binding.tesla.internal.throttler.QueueChannelThrottler;
 import org.openhab.binding.tesla.internal.throttler.Rate;
+import org.openhab.binding.tesla.internal.throttler.TokenBucketChannelThrottler;
+import org.openhab.binding.tesla.internal.throttler.TokenBucketChannelThrottler.Priority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -92,14 +93,41 @@ public class TeslaHandler extends BaseThingHandler {
     public static final int EVENT_REFRESH_INTERVAL = 200;
     public static final int FAST_STATUS_REFRESH_INTERVAL = 15000;
     public static final int SLOW_STATUS_REFRESH_INTERVAL = 60000;
+    // a status poll that is due within this time, e.g. because of the jitter of the scheduled job, is made right away
+    public static final int STATUS_POLL_TOLERANCE = 200;
     public static final int EVENT_RETRY_INTERVAL = 5000;
     public static final int EVENT_RECOVERY_INTERVAL = 180000;
     public static final int EVENT_MISSING_WHILE_STATIONARY_INTERVAL = 305000;
     public static final int EVENT_MISSING_WHILE_MOVING_INTERVAL = 3000;
+    public static final int EVENT_HEALTHY_INTERVAL = 10000;
+    public static final int IDLE_STATUS_REFRESH_INTERVAL = 300000;
     public static final int CONNECT_RETRY_INTERVAL = 15000;
     public static final int MAXIMUM_ERRORS_IN_INTERVAL = 2;
     public static final int ERROR_INTERVAL_SECONDS = 15;
 
+    private static final EventKeys[] EVENT_KEYS = EventKeys.values();
+    private static final TeslaChannelSelector[] EVENT_SELECTORS = new TeslaChannelSelector[EVENT_KEYS.length];
+
+    static {
+        for (int i = 1; i < EVENT_KEYS.length; i++) {
+            try {
+                EVENT_SELECTORS[i] = TeslaChannelSelector.getValueSelectorFromRESTID(EVENT_KEYS[i].toString());
+            } catch (IllegalArgumentException e) {
+                // the event value is not mapped to a channel
+            }
+        }
+    }
+
+    /**
+     * The activity of the vehicle, which determines how often its state is polled
+     */
+    protected enum VehicleActivity {
+        DRIVING,
+        CHARGING,
+        IDLE,
+        ASLEEP
+    }
+
     private Logger logger = LoggerFactory.getLogger(TeslaHandler.class);
 
     // Vehicle state variables
@@ -113,7 +141,8 @@ public class TeslaHandler extends BaseThingHandler {
 
     // REST Client API variables
     protected final Client teslaClient = ClientBuilder.newClient();
-    protected Client eventClient = ClientBuilder.newClient();
+    protected Client eventClient;
+    protected Authenticator eventAuthenticator;
     public final WebTarget teslaTarget = teslaClient.target(TESLA_OWNERS_URI);
     public final WebTarget tokenTarget = teslaTarget.path(TESLA_ACCESS_TOKEN_URI);
     public final WebTarget vehiclesTarget = teslaTarget.path(API_VERSION).path(VEHICLES);
@@ -127,12 +156,30 @@ public class TeslaHandler extends BaseThingHandler {
     protected ScheduledFuture<?> eventJob;
     protected ScheduledFuture<?> fastStateJob;
     protected ScheduledFuture<?> slowStateJob;
-    protected QueueChannelThrottler stateThrottler;
+    protected long lastFastStatePoll = 0;
+    protected long lastSlowStatePoll = 0;
+    protected TokenBucketChannelThrottler stateThrottler;
 
     protected long intervalTimestamp = 0;
     protected int intervalErrors = 0;
     protected ReentrantLock lock;
 
+    // Event stream variables
+    protected Response eventResponse;
+    protected BufferedReader eventBufferedReader;
+    protected volatile boolean eventStreamEstablished = false;
+    protected long eventRetryTimestamp = 0;
+    protected long eventLastEventTimeStamp = 0;
+    protected volatile long eventLastReceivedTimeStamp = 0;
+    protected volatile String eventShiftState;
+    private final String[] eventValues = new String[EVENT_KEYS.length];
+
+    // Event stream metrics
+    protected volatile long eventRecords = 0;
+    protected volatile long eventStreamConnects = 0;
+    protected volatile long eventLatency = 0;
+    protected long eventLatencyTotal = 0;
+
     private StorageService storageService;
     protected Gson gson = new Gson();
     protected TeslaChannelSelectorProxy teslaChannelSelectorProxy = new TeslaChannelSelectorProxy();
@@ -171,7 +218,7 @@ public class TeslaHandler extends BaseThingHandler {
 
             Rate firstRate = new Rate(20, 1, TimeUnit.MINUTES);
             Rate secondRate = new Rate(200, 10, TimeUnit.MINUTES);
-            stateThrottler = new QueueChannelThrottler(firstRate, scheduler, channels);
+            stateThrottler = new TokenBucketChannelThrottler(firstRate, scheduler, channels);
             stateThrottler.addRate(secondRate);
 
             if (fastStateJob == null || fastStateJob.isCancelled()) {
@@ -214,6 +261,16 @@ public class TeslaHandler extends BaseThingHandler {
                 connectJob.cancel(true);
                 connectJob = null;
             }
+
+            if (stateThrottler != null) {
+                stateThrottler.cancelAll();
+            }
+
+            closeEventStream();
+            if (eventClient != null) {
+                eventClient.close();
+                eventClient = null;
+            }
         } finally {
             lock.unlock();
         }
@@ -371,7 +428,7 @@ public class TeslaHandler extends BaseThingHandler {
     public void sendCommand(String command, String payLoad, WebTarget target) {
         Request request = new Request(command, payLoad, target);
         if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_COMMAND_THROTTLE, request);
+            stateThrottler.submit(TESLA_COMMAND_THROTTLE, Priority.HIGH, null, request);
         }
     }
 
@@ -380,33 +437,40 @@ public class TeslaHandler extends BaseThingHandler {
     }
 
     public void sendCommand(String command, String payLoad) {
-        Request request = new Request(command, payLoad, commandTarget);
-        if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_COMMAND_THROTTLE, request);
-        }
+        sendCommand(command, payLoad, commandTarget);
     }
 
     public void sendCommand(String command, WebTarget target) {
-        Request request = new Request(command, "{}", target);
-        if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_COMMAND_THROTTLE, request);
-        }
+        sendCommand(command, "{}", target);
     }
 
     public void requestData(String command, String payLoad) {
-        Request request = new Request(command, payLoad, dataRequestTarget);
-        if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_DATA_THROTTLE, request);
-        }
+        requestData(command, payLoad, Priority.NORMAL);
     }
 
     public void requestData(String command) {
         requestData(command, null);
     }
 
+    /**
+     * Requests a vehicle state. A request for a state which is still waiting in the throttler queue is merged with
+     * the queued request.
+     */
+    protected void requestData(String command, String payLoad, Priority priority) {
+        Request request = new Request(command, payLoad, dataRequestTarget);
+        if (stateThrottler != null) {
+            stateThrottler.submit(TESLA_DATA_THROTTLE, priority, TESLA_DATA_THROTTLE + ":" + command + ":" + payLoad,
+                    request);
+        }
+    }
+
     public void queryVehicle(String parameter) {
         WebTarget target = vehicleTarget.path(parameter);
-        sendCommand(parameter, null, target);
+        Request request = new Request(parameter, null, target);
+        if (stateThrottler != null) {
+            stateThrottler.submit(TESLA_COMMAND_THROTTLE, Priority.LOW, TESLA_COMMAND_THROTTLE + ":" + parameter,
+                    request);
+        }
     }
 
     protected String invokeAndParse(String command, String payLoad, WebTarget target) {
@@ -462,7 +526,7 @@ public class TeslaHandler extends BaseThingHandler {
                     logger.warn("Reached the maximum number of errors ({}) for the current interval ({} seconds)",
                             MAXIMUM_ERRORS_IN_INTERVAL, ERROR_INTERVAL_SECONDS);
                     updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
-                    eventClient.close();
+                    closeEventStream();
                     return null;
                 }
 
@@ -571,17 +635,59 @@ public class TeslaHandler extends BaseThingHandler {
     }
 
     protected boolean isAwake() {
-        return (vehicle != null) ? (vehicle.state != "asleep" && vehicle.vehicle_id != null) : false;
+        return (vehicle != null) ? (!"asleep".equals(vehicle.state) && vehicle.vehicle_id != null) : false;
     }
 
     protected boolean isInMotion() {
-        if (driveState != null) {
-            if (driveState.speed != null && driveState.shift_state != null) {
-                return !driveState.speed.equals("Undefined")
-                        && (!driveState.shift_state.equals("P") || !driveState.shift_state.equals("Undefined"));
+        String shiftState = isEventStreamHealthy() ? eventShiftState : null;
+        if (shiftState == null && driveState != null) {
+            shiftState = driveState.shift_state;
+        }
+        return "D".equals(shiftState) || "R".equals(shiftState) || "N".equals(shiftState);
+    }
+
+    protected boolean isCharging() {
+        return chargeState != null && "Charging".equals(chargeState.charging_state);
+    }
+
+    protected VehicleActivity getVehicleActivity() {
+        if (!isAwake()) {
+            return VehicleActivity.ASLEEP;
+        } else if (isInMotion()) {
+            return VehicleActivity.DRIVING;
+        } else if (isCharging()) {
+            return VehicleActivity.CHARGING;
+        } else {
+            return VehicleActivity.IDLE;
+        }
+    }
+
+    /**
+     * Returns true if the event stream is delivering records, in which case the values it contains do not need
+     * to be polled.
+     */
+    protected boolean isEventStreamHealthy() {
+        return eventStreamEstablished
+                && System.currentTimeMillis() - eventLastReceivedTimeStamp < EVENT_HEALTHY_INTERVAL;
+    }
+
+    /**
+     * Returns the average time in milliseconds between the timestamp of an event stream record and its reception.
+     */
+    public long getAverageEventLatency() {
+        long records = eventRecords;
+        return records == 0 ? 0 : eventLatencyTotal / records;
+    }
+
+    protected void closeEventStream() {
+        eventStreamEstablished = false;
+        if (eventResponse != null) {
+            try {
+                eventResponse.close();
+            } catch (Exception e) {
+                logger.trace("An exception occurred while closing the event stream: '{}'", e.getMessage());
             }
         }
-        return false;
     }
 
     public void setChargeLimit(int percent) {
@@ -813,14 +919,22 @@ public class TeslaHandler extends BaseThingHandler {
         public void run() {
             if (getThing().getStatus() == ThingStatus.ONLINE) {
                 if (isAwake()) {
-                    requestData(TESLA_DRIVE_STATE);
-                    requestData(TESLA_VEHICLE_STATE);
-                } else {
-                    if (vehicle != null) {
-                        sendCommand(TESLA_COMMAND_WAKE_UP);
-                    } else {
-                        vehicle = queryVehicle();
+                    VehicleActivity activity = getVehicleActivity();
+                    long interval = activity == VehicleActivity.DRIVING ? FAST_STATUS_REFRESH_INTERVAL
+                            : SLOW_STATUS_REFRESH_INTERVAL;
+                    long now = System.currentTimeMillis();
+                    if (now - lastFastStatePoll >= interval - STATUS_POLL_TOLERANCE) {
+                        lastFastStatePoll = now;
+                        if (isEventStreamHealthy()) {
+                            // the drive state is delivered by the event stream
+                            logger.trace("Skipping the drive state poll, the event stream is healthy");
+                        } else {
+                            requestData(TESLA_DRIVE_STATE, null, Priority.LOW);
+                        }
+                        requestData(TESLA_VEHICLE_STATE, null, Priority.LOW);
                     }
+                } else if (vehicle == null) {
+                    vehicle = queryVehicle();
                 }
             }
         }
@@ -831,17 +945,30 @@ public class TeslaHandler extends BaseThingHandler {
         @Override
         public void run() {
             if (getThing().getStatus() == ThingStatus.ONLINE) {
-                if (isAwake()) {
-                    requestData(TESLA_CHARGE_STATE);
-                    requestData(TESLA_CLIMATE_STATE);
-                    requestData(TESLA_GUI_STATE);
-                    queryVehicle(TESLA_MOBILE_ENABLED_STATE);
-                    parseAndUpdate("queryVehicle", null, vehicleJSON);
+                VehicleActivity activity = getVehicleActivity();
+
+                logger.debug(
+                        "Vehicle is {}, event stream : healthy {}, connects {}, records {}, latency {} ms (avg {} ms)",
+                        new Object[] { activity, isEventStreamHealthy(), eventStreamConnects, eventRecords,
+                                eventLatency, getAverageEventLatency() });
+
+                if (activity != VehicleActivity.ASLEEP) {
+                    long interval = activity == VehicleActivity.IDLE ? IDLE_STATUS_REFRESH_INTERVAL
+                            : SLOW_STATUS_REFRESH_INTERVAL;
+                    long now = System.currentTimeMillis();
+                    if (now - lastSlowStatePoll >= interval - STATUS_POLL_TOLERANCE) {
+                        lastSlowStatePoll = now;
+                        requestData(TESLA_CHARGE_STATE, null, Priority.LOW);
+                        requestData(TESLA_CLIMATE_STATE, null, Priority.LOW);
+                        requestData(TESLA_GUI_STATE, null, Priority.LOW);
+                        queryVehicle(TESLA_MOBILE_ENABLED_STATE);
+                        parseAndUpdate("queryVehicle", null, vehicleJSON);
+                    }
                 } else {
-                    if (vehicle != null) {
-                        sendCommand(TESLA_COMMAND_WAKE_UP);
-                    } else {
-                        vehicle = queryVehicle();
+                    // the list of vehicles can be queried without waking up the vehicle
+                    Vehicle queriedVehicle = queryVehicle();
+                    if (queriedVehicle != null) {
+                        vehicle = queriedVehicle;
                     }
                 }
             }
@@ -901,52 +1028,61 @@ public class TeslaHandler extends BaseThingHandler {
 
     protected Runnable eventRunnable = new Runnable() {
 
-        Response eventResponse;
-        BufferedReader eventBufferedReader;
-        InputStreamReader eventInputStreamReader;
-        long eventLastEventTimeStamp;
-        boolean isEstablished = false;
         SimpleDateFormat DATE_FORMATTER = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
 
         protected boolean establishEventStream() {
             try {
-                if (!isEstablished) {
+                if (!eventStreamEstablished) {
                     eventBufferedReader = null;
 
                     if (eventResponse != null) {
                         eventResponse.close();
                     }
 
-                    eventClient = ClientBuilder.newClient().property(ClientProperties.CONNECT_TIMEOUT, 3000)
-                            .property(ClientProperties.READ_TIMEOUT, (2 * 60 + 5) * 1000)
-                            .register(new Authenticator((String) getConfig().get(USERNAME), vehicle.tokens[0]));
+                    if (System.currentTimeMillis() < eventRetryTimestamp) {
+                        return false;
+                    }
+
+                    if (eventClient == null) {
+                        eventAuthenticator = new Authenticator((String) getConfig().get(USERNAME), vehicle.tokens[0]);
+                        eventClient = ClientBuilder.newClient().property(ClientProperties.CONNECT_TIMEOUT, 3000)
+                                .property(ClientProperties.READ_TIMEOUT, (2 * 60 + 5) * 1000)
+                                .register(eventAuthenticator);
+                    } else {
+                        eventAuthenticator.setCredentials((String) getConfig().get(USERNAME), vehicle.tokens[0]);
+                    }
+
                     eventTarget = eventClient.target(TESLA_EVENT_URI).path(vehicle.vehicle_id + "/").queryParam(
                             "values", StringUtils.join(EventKeys.values(), ',', 1, EventKeys.values().length));
                     eventResponse = eventTarget.request(MediaType.TEXT_PLAIN_TYPE).get();
+                    eventStreamConnects++;
 
                     logger.debug("Event Stream : Establishing the event stream : Response : {}:{}",
                             eventResponse.getStatus(), eventResponse.getStatusInfo());
 
                     if (eventResponse.getStatus() == 200) {
                         InputStream dummy = (InputStream) eventResponse.getEntity();
-                        eventInputStreamReader = new InputStreamReader(dummy);
-                        eventBufferedReader = new BufferedReader(eventInputStreamReader);
-                        isEstablished = true;
+                        eventBufferedReader = new BufferedReader(new InputStreamReader(dummy));
+                        eventStreamEstablished = true;
                     } else if (eventResponse.getStatus() == 401) {
                         updateStatus(ThingStatus.OFFLINE);
-                        isEstablished = false;
+                        eventStreamEstablished = false;
                     } else {
-                        isEstablished = false;
+                        eventStreamEstablished = false;
                     }
                 }
             } catch (Exception e) {
                 logger.error(
                         "Event Stream : An exception occurred while establishing the event stream for the vehicle: '{}'",
                         e.getMessage());
-                isEstablished = false;
+                eventStreamEstablished = false;
+            }
+
+            if (!eventStreamEstablished) {
+                eventRetryTimestamp = System.currentTimeMillis() + EVENT_RETRY_INTERVAL;
             }
 
-            return isEstablished;
+            return eventStreamEstablished;
         }
 
         @Override
@@ -962,86 +1098,48 @@ public class TeslaHandler extends BaseThingHandler {
                             } catch (Exception e) {
                                 logger.error("Event Stream : An exception occurred while reading events : '{}'",
                                         e.getMessage());
-                                isEstablished = false;
+                                eventStreamEstablished = false;
                             }
 
-                            Date date = new Date();
-
+                            int records = 0;
                             while (line != null) {
                                 try {
                                     logger.debug("Event Stream : Received an event: '{}'", line);
-                                    String vals[] = line.split(",");
-                                    if (Long.valueOf(vals[0]) > eventLastEventTimeStamp) {
-                                        eventLastEventTimeStamp = Long.valueOf(vals[0]);
-                                        logger.trace("Event Stream : event stamp is {}", DATE_FORMATTER.format(date));
-                                        for (int i = 0; i < EventKeys.values().length; i++) {
-                                            try {
-                                                TeslaChannelSelector selector = TeslaChannelSelector
-                                                        .getValueSelectorFromRESTID((EventKeys.values()[i]).toString());
-                                                if (!selector.isProperty()) {
-                                                    State newState = teslaChannelSelectorProxy.getState(vals[i],
-                                                            selector, editProperties());
-                                                    if (newState != null && !vals[i].equals("")) {
-                                                        updateState(selector.getChannelID(), newState);
-                                                    } else {
-                                                        updateState(selector.getChannelID(), UnDefType.UNDEF);
-
-                                                    }
-                                                } else {
-                                                    Map<String, String> properties = editProperties();
-                                                    properties.put(selector.getChannelID(),
-                                                            (selector.getState(vals[i])).toString());
-                                                    updateProperties(properties);
-                                                }
-                                            } catch (Exception e) {
-                                                logger.warn(
-                                                        "Event Stream : An exception occurred while processing an event received from the vehicle; '{}'",
-                                                        e.getMessage());
-                                            }
-                                        }
-                                    } else {
-                                        logger.debug(
-                                                "Event Stream : Discarding an event with an out of sync timestamp");
+                                    if (handleEvent(line)) {
+                                        records++;
                                     }
-
                                 } catch (Exception e) {
                                     logger.error(
                                             "Event Stream : An exception occurred while reading event inputs from vehicle '{}' : {}",
                                             vehicle.vin, e.getMessage());
                                 }
 
-                                Thread.sleep(100);
-
                                 try {
                                     line = null;
                                     line = eventBufferedReader.readLine();
                                 } catch (SocketTimeoutException s) {
                                     logger.error("Event Stream : An timeout occurred while reading events : '{}'",
                                             s.getMessage());
-                                    isEstablished = false;
+                                    eventStreamEstablished = false;
                                     // Nothing to do here - we move on
                                 } catch (Exception e) {
                                     logger.error("Event Stream : An exception occurred while reading events : '{}'",
                                             e.getMessage());
-                                    isEstablished = false;
+                                    eventStreamEstablished = false;
                                 }
                             }
 
                             if (line == null) {
                                 logger.trace(
                                         "Event Stream : The end of stream was reached, or an exception just occurred");
-                                isEstablished = false;
+                                eventStreamEstablished = false;
+                                if (records == 0) {
+                                    // the vehicle is not streaming, e.g. because it is parked
+                                    eventRetryTimestamp = System.currentTimeMillis() + EVENT_RETRY_INTERVAL;
+                                }
                             }
                         } else {
-                            logger.debug("Event stream : The vehicle is not awake");
-                            if (vehicle != null) {
-                                // wake up the vehicle until streaming token <> 0
-                                logger.debug("Event stream : Waking up the vehicle");
-                                sendCommand(TESLA_COMMAND_WAKE_UP);
-                            } else {
-                                logger.debug("Event stream : Querying the vehicle");
-                                vehicle = queryVehicle();
-                            }
+                            logger.debug("Event stream : The event stream could not be established");
                         }
                     }
                 }
@@ -1049,8 +1147,109 @@ public class TeslaHandler extends BaseThingHandler {
                 logger.error("Event Stream : An exception ocurred in the event stream thread: '{}'", t.getMessage());
             }
         }
+
+        /**
+         * Handles a record of the event stream.
+         *
+         * @return true if the record has been processed, false if it has been discarded
+         */
+        private boolean handleEvent(String line) {
+            int count = splitEvent(line, eventValues);
+            if (count == 0 || eventValues[0].isEmpty()) {
+                return false;
+            }
+
+            long timestamp = Long.parseLong(eventValues[0]);
+            if (timestamp <= eventLastEventTimeStamp) {
+                logger.debug("Event Stream : Discarding an event with an out of sync timestamp");
+                return false;
+            }
+
+            long now = System.currentTimeMillis();
+            eventLastEventTimeStamp = timestamp;
+            eventLastReceivedTimeStamp = now;
+            eventLatency = now - timestamp;
+            eventLatencyTotal += eventLatency;
+            eventRecords++;
+
+            if (logger.isTraceEnabled()) {
+                logger.trace("Event Stream : event stamp is {}, latency is {} ms", DATE_FORMATTER.format(new Date()),
+                        eventLatency);
+            }
+
+            Map<String, String> properties = null;
+            boolean propertiesChanged = false;
+            for (int i = 1; i < count; i++) {
+                String value = eventValues[i];
+                if (EVENT_KEYS[i] == EventKeys.shift_state) {
+                    eventShiftState = value;
+                }
+
+                TeslaChannelSelector selector = EVENT_SELECTORS[i];
+                if (selector == null) {
+                    continue;
+                }
+
+                try {
+                    if (properties == null) {
+                        properties = editProperties();
+                    }
+
+                    if (!selector.isProperty()) {
+                        State newState = value.isEmpty() ? null
+                                : teslaChannelSelectorProxy.getState(value, selector, properties);
+                        if (newState != null) {
+                            updateState(selector.getChannelID(), newState);
+                        } else {
+                            updateState(selector.getChannelID(), UnDefType.UNDEF);
+                        }
+                    } else {
+                        properties.put(selector.getChannelID(), (selector.getState(value)).toString());
+                        propertiesChanged = true;
+                    }
+                } catch (Exception e) {
+                    logger.warn(
+                            "Event Stream : An exception occurred while processing an event received from the vehicle; '{}'",
+                            e.getMessage());
+                }
+            }
+
+            if (propertiesChanged) {
+                updateProperties(properties);
+            }
+
+            return true;
+        }
     };
 
+    /**
+     * Splits a comma separated record of the event stream into the given array.
+     *
+     * @param line the record
+     * @param values the array receiving the values, missing values are set to an empty string
+     * @return the number of values in the record, limited to the length of the array
+     */
+    static int splitEvent(String line, String[] values) {
+        int count = 0;
+        int start = 0;
+        int length = line.length();
+        while (count < values.length) {
+            int end = line.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            values[count++] = line.substring(start, end);
+            if (end == length) {
+                break;
+            }
+            start = end + 1;
+        }
+        for (int i = count; i < values.length; i++) {
+            values[i] = "";
+        }
+        return count;
+    }
+
     protected class Request implements Runnable {
 
         private String request;
@@ -1084,10 +1283,14 @@ public class TeslaHandler extends BaseThingHandler {
 
     protected class Authenticator implements ClientRequestFilter {
 
-        private final String user;
-        private final String password;
+        private volatile String user;
+        private volatile String password;
 
         public Authenticator(String user, String password) {
+            setCredentials(user, password);
+        }
+
+        public void setCredentials(String user, String password) {
             this.user = user;
             this.password = password;
         }
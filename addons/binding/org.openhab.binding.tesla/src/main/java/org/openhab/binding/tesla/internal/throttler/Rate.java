@@ -33,6 +33,10 @@ public final class Rate {
         this.timeUnit = timeUnit;
     }
 
+    int getNumberCalls() {
+        return numberCalls;
+    }
+
     public long timeInMillis() {
         return timeUnit.toMillis(timeLength);
     }
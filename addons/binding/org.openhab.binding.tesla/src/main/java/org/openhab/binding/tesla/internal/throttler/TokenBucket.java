@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal.throttler;
+
+/**
+ * The {@link TokenBucket} implements a token bucket for a {@link Rate}. The bucket holds up to the number of calls of
+ * the rate and is refilled continuously, so that the number of calls is restored within the time length of the
+ * rate. A bucket is not thread safe, it is only used by the dispatcher of the {@link TokenBucketChannelThrottler}.
+ *
+ * @author agent - Initial contribution
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerMilli;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(Rate rate, long now) {
+        this.capacity = rate.getNumberCalls();
+        this.tokensPerMilli = capacity / rate.timeInMillis();
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Returns the time until a call can be made.
+     *
+     * @param now the current time in milliseconds
+     * @return the delay in milliseconds, 0 if a token is available
+     */
+    long getDelay(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerMilli);
+    }
+
+    /**
+     * Takes a token for a call.
+     *
+     * @param now the current time in milliseconds
+     */
+    void consume(long now) {
+        refill(now);
+        tokens -= 1;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerMilli);
+            lastRefill = now;
+        }
+    }
+}
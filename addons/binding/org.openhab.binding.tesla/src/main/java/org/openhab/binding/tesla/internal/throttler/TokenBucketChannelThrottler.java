@@ -0,0 +1,440 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal.throttler;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link TokenBucketChannelThrottler} implements a throttler with one or more global rates and a rate per channel,
+ * each enforced by a {@link TokenBucket}. Submitted tasks are queued in a lane per {@link Priority} and are executed
+ * on the given scheduler as soon as the buckets of all global rates and of their channel allow it. Tasks of a higher
+ * priority lane are executed first. Within a lane the order of submission is maintained per channel, a task waiting
+ * for the bucket of its channel doesn't hold back the tasks of other channels.
+ *
+ * Tasks submitted with a coalesce key are merged with an identical task that is still waiting in the queue, so
+ * repeated queries for the same state only result in a single call. Every caller gets its own future, the merged
+ * task is only skipped if the futures of all callers have been cancelled. The queues are not bounded.
+ *
+ * Submitting a task does not take a lock on the throttler: the lanes are concurrent queues and the buckets are only
+ * used by the dispatcher, of which at most one instance runs at any time.
+ *
+ * @author agent - Initial contribution
+ */
+public final class TokenBucketChannelThrottler implements ChannelThrottler {
+
+    private final Logger logger = LoggerFactory.getLogger(TokenBucketChannelThrottler.class);
+
+    /**
+     * The priority of a task, tasks of {@link #HIGH} priority are executed first
+     */
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    /** The channel key of the tasks without a channel, as the concurrent maps don't accept null keys */
+    private static final Object NO_CHANNEL = new Object();
+
+    private static final Runnable NO_OPERATION = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private final ScheduledExecutorService scheduler;
+    private final TimeProvider timeProvider;
+    private final List<TokenBucket> globalBuckets = new CopyOnWriteArrayList<>();
+    private final Map<Object, TokenBucket> channelBuckets = new HashMap<>();
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private final ConcurrentHashMap<Object, ThrottledTask> pendingTasks = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** The number of dispatch requests since the dispatcher last checked the lanes */
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+
+    // only used by the dispatcher
+    private ScheduledFuture<?> wakeUpJob;
+    private long wakeUpTime;
+
+    /** Determines if the wake up job has not yet run */
+    private volatile boolean wakeUpPending;
+
+    private final Runnable dispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatch();
+        }
+    };
+
+    private final Runnable wakeUp = new Runnable() {
+        @Override
+        public void run() {
+            wakeUpPending = false;
+            requestDispatch();
+        }
+    };
+
+    public TokenBucketChannelThrottler(Rate rate, ScheduledExecutorService scheduler) {
+        this(rate, scheduler, new HashMap<Object, Rate>(), TimeProvider.SYSTEM_PROVIDER);
+    }
+
+    public TokenBucketChannelThrottler(Rate rate, ScheduledExecutorService scheduler, Map<Object, Rate> channels) {
+        this(rate, scheduler, channels, TimeProvider.SYSTEM_PROVIDER);
+    }
+
+    public TokenBucketChannelThrottler(Rate rate, ScheduledExecutorService scheduler, Map<Object, Rate> channels,
+            TimeProvider timeProvider) {
+        this.scheduler = scheduler;
+        this.timeProvider = timeProvider;
+
+        long now = timeProvider.getCurrentTimeInMillis();
+        globalBuckets.add(new TokenBucket(rate, now));
+        for (Map.Entry<Object, Rate> channel : channels.entrySet()) {
+            channelBuckets.put(channel.getKey(), new TokenBucket(channel.getValue(), now));
+        }
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new Lane());
+        }
+    }
+
+    /**
+     * Adds a global rate, which applies to all tasks regardless of their channel.
+     *
+     * @param rate the rate
+     */
+    public void addRate(Rate rate) {
+        globalBuckets.add(new TokenBucket(rate, timeProvider.getCurrentTimeInMillis()));
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return submit(null, Priority.NORMAL, null, task);
+    }
+
+    @Override
+    public Future<?> submit(Object channelKey, Runnable task) {
+        return submit(channelKey, Priority.NORMAL, null, task);
+    }
+
+    /**
+     * Submits a task.
+     *
+     * @param channelKey the key of the channel rate to apply, or null to only apply the global rates
+     * @param priority the priority of the task
+     * @param coalesceKey a key identifying identical tasks, or null if the task must not be merged with other tasks
+     * @param task the task
+     * @return the future of the task. Cancelling it only prevents the execution if the task has not yet started and
+     *         if the futures of all merged callers are cancelled as well.
+     */
+    public Future<?> submit(Object channelKey, Priority priority, Object coalesceKey, Runnable task) {
+        TaskFuture future = new TaskFuture();
+        ThrottledTask throttledTask = new ThrottledTask(channelKey == null ? NO_CHANNEL : channelKey, coalesceKey,
+                task, sequence.getAndIncrement(), future);
+
+        if (coalesceKey != null) {
+            ThrottledTask pendingTask;
+            while ((pendingTask = pendingTasks.putIfAbsent(coalesceKey, throttledTask)) != null) {
+                if (pendingTask.join(future)) {
+                    logger.trace("Merging task '{}' with a pending identical task", coalesceKey);
+                    return future;
+                }
+                // the pending task has just been started or discarded
+                pendingTasks.remove(coalesceKey, pendingTask);
+            }
+        }
+
+        lanes.get(priority).getQueue(throttledTask.channelKey).add(throttledTask);
+        requestDispatch();
+        return future;
+    }
+
+    /**
+     * Cancels all queued tasks.
+     */
+    public void cancelAll() {
+        for (Lane lane : lanes.values()) {
+            for (Queue<ThrottledTask> queue : lane.queues.values()) {
+                ThrottledTask task;
+                while ((task = queue.poll()) != null) {
+                    task.cancel();
+                    release(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of queued tasks
+     */
+    public int getQueueLength() {
+        int length = 0;
+        for (Lane lane : lanes.values()) {
+            for (Queue<ThrottledTask> queue : lane.queues.values()) {
+                length += queue.size();
+            }
+        }
+        return length;
+    }
+
+    private void requestDispatch() {
+        if (dispatchRequests.getAndIncrement() == 0) {
+            scheduler.execute(dispatcher);
+        }
+    }
+
+    private void dispatch() {
+        int requests = dispatchRequests.get();
+        do {
+            try {
+                long delay = dispatchReadyTasks();
+                if (delay > 0) {
+                    scheduleWakeUp(delay);
+                }
+            } catch (RuntimeException e) {
+                logger.error("An exception occurred while dispatching the throttled tasks: '{}'", e.getMessage(), e);
+            }
+            requests = dispatchRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    /**
+     * Executes the queued tasks the buckets allow to be executed now.
+     *
+     * @return the time in milliseconds until the next task can be executed, 0 if no task is queued
+     */
+    private long dispatchReadyTasks() {
+        long now = timeProvider.getCurrentTimeInMillis();
+        long delay;
+        boolean dispatched;
+
+        do {
+            dispatched = false;
+            delay = 0;
+
+            long globalDelay = 0;
+            for (TokenBucket bucket : globalBuckets) {
+                globalDelay = Math.max(globalDelay, bucket.getDelay(now));
+            }
+
+            for (Priority priority : Priority.values()) {
+                // the oldest task of the lane whose channel allows a call
+                ThrottledTask readyTask = null;
+                Queue<ThrottledTask> readyQueue = null;
+
+                for (Map.Entry<Object, Queue<ThrottledTask>> entry : lanes.get(priority).queues.entrySet()) {
+                    Queue<ThrottledTask> queue = entry.getValue();
+                    ThrottledTask task = queue.peek();
+                    while (task != null && task.discardIfCancelled()) {
+                        queue.remove(task);
+                        release(task);
+                        task = queue.peek();
+                    }
+                    if (task == null) {
+                        continue;
+                    }
+
+                    TokenBucket channelBucket = channelBuckets.get(entry.getKey());
+                    long taskDelay = Math.max(globalDelay, channelBucket == null ? 0 : channelBucket.getDelay(now));
+                    if (taskDelay > 0) {
+                        delay = delay == 0 ? taskDelay : Math.min(delay, taskDelay);
+                    } else if (readyTask == null || task.sequence < readyTask.sequence) {
+                        readyTask = task;
+                        readyQueue = queue;
+                    }
+                }
+
+                if (readyTask != null && readyQueue.remove(readyTask)) {
+                    for (TokenBucket bucket : globalBuckets) {
+                        bucket.consume(now);
+                    }
+                    TokenBucket channelBucket = channelBuckets.get(readyTask.channelKey);
+                    if (channelBucket != null) {
+                        channelBucket.consume(now);
+                    }
+
+                    // a new identical task must be queued again, as it may need a more recent state
+                    release(readyTask);
+                    scheduler.execute(readyTask);
+
+                    // start over with the lane of the highest priority
+                    dispatched = true;
+                    break;
+                }
+            }
+        } while (dispatched);
+
+        return delay;
+    }
+
+    private void scheduleWakeUp(long delay) {
+        long time = timeProvider.getCurrentTimeInMillis() + delay;
+        if (wakeUpPending) {
+            if (wakeUpTime <= time) {
+                return;
+            }
+            wakeUpJob.cancel(false);
+        }
+        wakeUpTime = time;
+        wakeUpPending = true;
+        wakeUpJob = scheduler.schedule(wakeUp, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void release(ThrottledTask task) {
+        if (task.coalesceKey != null) {
+            pendingTasks.remove(task.coalesceKey, task);
+        }
+    }
+
+    /**
+     * The tasks of a single priority, queued per channel.
+     */
+    private static class Lane {
+        private final ConcurrentHashMap<Object, Queue<ThrottledTask>> queues = new ConcurrentHashMap<>();
+
+        private Queue<ThrottledTask> getQueue(Object channelKey) {
+            Queue<ThrottledTask> queue = queues.get(channelKey);
+            if (queue == null) {
+                queue = new ConcurrentLinkedQueue<>();
+                Queue<ThrottledTask> existingQueue = queues.putIfAbsent(channelKey, queue);
+                if (existingQueue != null) {
+                    queue = existingQueue;
+                }
+            }
+            return queue;
+        }
+    }
+
+    /**
+     * A queued task together with the futures of all callers which have submitted it.
+     */
+    private static class ThrottledTask implements Runnable {
+        private final Object channelKey;
+        private final Object coalesceKey;
+        private final Runnable task;
+        private final long sequence;
+
+        // guarded by this
+        private final List<TaskFuture> futures = new ArrayList<>(1);
+        private boolean closed;
+
+        private ThrottledTask(Object channelKey, Object coalesceKey, Runnable task, long sequence,
+                TaskFuture future) {
+            this.channelKey = channelKey;
+            this.coalesceKey = coalesceKey;
+            this.task = task;
+            this.sequence = sequence;
+            this.futures.add(future);
+        }
+
+        /**
+         * Adds the future of another caller, unless the task has already been started or discarded.
+         *
+         * @return true if the future has been added
+         */
+        private synchronized boolean join(TaskFuture future) {
+            if (closed) {
+                return false;
+            }
+            futures.add(future);
+            return true;
+        }
+
+        /**
+         * Closes the task if the futures of all callers have been cancelled.
+         *
+         * @return true if the task has been closed and must not be executed
+         */
+        private synchronized boolean discardIfCancelled() {
+            for (TaskFuture future : futures) {
+                if (!future.isCancelled()) {
+                    return false;
+                }
+            }
+            closed = true;
+            return true;
+        }
+
+        private void cancel() {
+            List<TaskFuture> callers;
+            synchronized (this) {
+                closed = true;
+                callers = new ArrayList<>(futures);
+            }
+            for (TaskFuture future : callers) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<TaskFuture> callers;
+            synchronized (this) {
+                closed = true;
+                callers = new ArrayList<>(futures);
+            }
+
+            boolean cancelled = true;
+            for (TaskFuture future : callers) {
+                cancelled &= future.isCancelled();
+            }
+            if (cancelled) {
+                return;
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                for (TaskFuture future : callers) {
+                    future.fail(e);
+                }
+                return;
+            }
+            for (TaskFuture future : callers) {
+                future.complete();
+            }
+        }
+    }
+
+    /**
+     * The future handed out to a single caller.
+     */
+    private static class TaskFuture extends FutureTask<Void> {
+
+        private TaskFuture() {
+            super(NO_OPERATION, null);
+        }
+
+        private void complete() {
+            run();
+        }
+
+        private void fail(Throwable t) {
+            setException(t);
+        }
+    }
+}
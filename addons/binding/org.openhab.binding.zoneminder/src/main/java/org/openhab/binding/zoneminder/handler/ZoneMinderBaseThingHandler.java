@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.security.GeneralSecurityException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -71,6 +72,13 @@ public abstract class ZoneMinderBaseThingHandler extends BaseThingHandler implem
 
     private DataRefreshPriorityEnum _refreshPriority = DataRefreshPriorityEnum.SCHEDULED;
 
+    /** Bounds (seconds) of the high priority refresh interval, which backs off while events are pushed. */
+    private static final int PRIORITY_REFRESH_MIN_INTERVAL = 1;
+    private static final int PRIORITY_REFRESH_MAX_INTERVAL = 16;
+
+    private int priorityRefreshInterval = PRIORITY_REFRESH_MIN_INTERVAL;
+    private volatile long nextPriorityRefresh = 0;
+
     protected boolean isOnline() {
 
         if (zoneMinderSession == null) {
@@ -135,9 +143,26 @@ public abstract class ZoneMinderBaseThingHandler extends BaseThingHandler implem
 
         logger.info("[MONITOR-{}]: Starting High Priority Refresh", getZoneMinderId());
         _refreshPriority = DataRefreshPriorityEnum.HIGH_PRIORITY;
+        priorityRefreshInterval = PRIORITY_REFRESH_MIN_INTERVAL;
+        nextPriorityRefresh = 0;
         return true;
     }
 
+    /**
+     * Returns true if the next high priority refresh is due.
+     */
+    public boolean isPriorityRefreshDue() {
+        return System.currentTimeMillis() >= nextPriorityRefresh;
+    }
+
+    /**
+     * Returns true if state changes of the thing are pushed by ZoneMinder, in which case the high priority refresh
+     * only has to confirm the state and can back off.
+     */
+    protected boolean isEventStreamHealthy() {
+        return false;
+    }
+
     /**
      * Method to stop the data Refresh task.
      */
@@ -187,19 +212,34 @@ public abstract class ZoneMinderBaseThingHandler extends BaseThingHandler implem
             }
         }
 
+        if (refreshPriority == DataRefreshPriorityEnum.HIGH_PRIORITY) {
+            if (isEventStreamHealthy()) {
+                priorityRefreshInterval = Math.min(priorityRefreshInterval * 2, PRIORITY_REFRESH_MAX_INTERVAL);
+            } else {
+                priorityRefreshInterval = PRIORITY_REFRESH_MIN_INTERVAL;
+            }
+            nextPriorityRefresh = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(priorityRefreshInterval);
+        }
+
         Thing thing = getThing();
-        List<Channel> channels = thing.getChannels();
         logger.debug("{}: refreshThing(): Refreshing Thing - {}", getLogIdentifier(), thing.getUID());
 
-        for (Channel channel : channels) {
-            updateChannel(channel.getUID());
-        }
+        updateChannels();
 
         this.setThingRefreshed(true);
         logger.debug("[{}: refreshThing(): Thing Refreshed - {}", getLogIdentifier(), thing.getUID());
 
     }
 
+    /**
+     * Updates all channels of the thing from the last fetched data.
+     */
+    protected void updateChannels() {
+        for (Channel channel : getThing().getChannels()) {
+            updateChannel(channel.getUID());
+        }
+    }
+
     /**
      * Get the Bridge Handler for ZoneMinder.
      *
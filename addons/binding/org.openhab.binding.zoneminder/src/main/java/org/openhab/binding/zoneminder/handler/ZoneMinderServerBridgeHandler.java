@@ -12,10 +12,12 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -35,6 +37,7 @@ import org.eclipse.smarthome.core.thing.ThingStatusInfo;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
@@ -89,7 +92,7 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
     private int refreshCycleCount = 0;
 
     /** Connection status for the bridge. */
-    private boolean connected = false;
+    private volatile boolean connected = false;
     private ThingStatus curBridgeStatus = ThingStatus.UNKNOWN;
 
     protected boolean _online = false;
@@ -131,6 +134,12 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
     private ScheduledFuture<?> taskRefreshData = null;
     private ScheduledFuture<?> taskPriorityRefreshData = null;
 
+    /** Monitor handlers attached to this bridge, indexed by their ZoneMinder Id. */
+    private final Map<String, ZoneMinderThingMonitorHandler> monitorHandlers = new ConcurrentHashMap<>();
+
+    /** True if the server pushes trigger events (OPT_TRIGGERS), so alarm changes need not be polled as often. */
+    private volatile boolean triggerEventsEnabled = false;
+
     private Runnable refreshDataRunnable = new Runnable() {
         @Override
         public void run() {
@@ -193,39 +202,18 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
             try {
 
                 // Make sure priority updates is done
-                for (Thing thing : getThing().getThings()) {
+                for (ZoneMinderThingMonitorHandler thingHandler : monitorHandlers.values()) {
                     try {
-
-                        if (thing.getThingTypeUID().equals(ZoneMinderConstants.THING_TYPE_THING_ZONEMINDER_MONITOR)) {
-                            Thing thingMonitor = thing;
-
-                            ZoneMinderBaseThingHandler thingHandler = (ZoneMinderBaseThingHandler) thing.getHandler();
-                            if (thingHandler != null) {
-
-                                if (thingHandler.getRefreshPriority() == DataRefreshPriorityEnum.HIGH_PRIORITY) {
-                                    logger.debug("[MONITOR-{}]: RefreshPriority is High Priority",
-                                            thingHandler.getZoneMinderId());
-                                    thingHandler.refreshThing(zoneMinderSession, DataRefreshPriorityEnum.HIGH_PRIORITY);
-                                }
-                            } else {
-                                logger.debug(
-                                        "[MONITOR]: refreshThing not called for monitor, since thingHandler is 'null'");
-
-                            }
+                        if ((thingHandler.getRefreshPriority() == DataRefreshPriorityEnum.HIGH_PRIORITY)
+                                && thingHandler.isPriorityRefreshDue()) {
+                            logger.debug("[MONITOR-{}]: RefreshPriority is High Priority",
+                                    thingHandler.getZoneMinderId());
+                            thingHandler.refreshThing(zoneMinderSession, DataRefreshPriorityEnum.HIGH_PRIORITY);
                         }
-
-                    } catch (NullPointerException ex) {
-                        // This isn't critical (unless it comes over and over). There seems to be a bug so that a
-                        // null
-                        // pointer exception is coming every now and then.
-                        // HAve to find the reason for that. Until thenm, don't Spamm
-                        logger.error(
-                                "[MONITOR]: Method 'refreshThing()' for Bridge failed for thing='{}' - Exception='{}'",
-                                thing.getUID(), ex);
                     } catch (Exception ex) {
                         logger.error(
                                 "[MONITOR]: Method 'refreshThing()' for Bridge failed for thing='{}' - Exception='{}'",
-                                thing.getUID(), ex);
+                                thingHandler.getThing().getUID(), ex);
                     }
                 }
 
@@ -413,12 +401,64 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
         logger.debug("{}: Update '{}' with '{}'", getLogIdentifier(), channelUID.getAsString(), command.toString());
     }
 
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        if (childHandler instanceof ZoneMinderThingMonitorHandler) {
+            ZoneMinderThingMonitorHandler monitorHandler = (ZoneMinderThingMonitorHandler) childHandler;
+            String zoneMinderId = monitorHandler.getZoneMinderId();
+            if (!zoneMinderId.isEmpty()) {
+                monitorHandlers.put(zoneMinderId, monitorHandler);
+                logger.debug("{}: Monitor '{}' registered (Thing='{}')", getLogIdentifier(), zoneMinderId,
+                        childThing.getUID());
+            }
+        }
+    }
+
+    @Override
+    public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
+        if (childHandler instanceof ZoneMinderThingMonitorHandler) {
+            // The configuration may be gone already, so look for the handler itself
+            monitorHandlers.values().remove(childHandler);
+            logger.debug("{}: Monitor unregistered (Thing='{}')", getLogIdentifier(), childThing.getUID());
+        }
+    }
+
+    /**
+     * Returns true if ZoneMinder pushes trigger events for the monitors.
+     */
+    public boolean isTriggerEventsEnabled() {
+        return triggerEventsEnabled;
+    }
+
+    /**
+     * Fetches the data of all monitors with a single request.
+     *
+     * @return monitor data indexed by ZoneMinder Id, empty if the request failed
+     */
+    private Map<String, IZoneMinderMonitorData> fetchMonitorData(IZoneMinderServer zoneMinderServerProxy) {
+        Map<String, IZoneMinderMonitorData> result = new HashMap<>();
+        try {
+            ArrayList<IZoneMinderMonitorData> monitors = zoneMinderServerProxy.getMonitors();
+            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                    zoneMinderServerProxy.getHttpUrl(), zoneMinderServerProxy.getHttpResponseCode(),
+                    zoneMinderServerProxy.getHttpResponseMessage());
+
+            if (monitors != null && zoneMinderServerProxy.getHttpResponseCode() == 200) {
+                for (IZoneMinderMonitorData monitorData : monitors) {
+                    result.put(monitorData.getId(), monitorData);
+                }
+            }
+        } catch (Exception ex) {
+            logger.error("{}: Exception thrown in call to getMonitors ('{}')", getLogIdentifier(), ex.getMessage());
+        }
+        return result;
+    }
+
     protected synchronized void refreshThing(IZoneMinderSession session, boolean fetchDiskUsage) {
 
         logger.debug("{}: 'refreshThing()': Thing='{}'!", getLogIdentifier(), this.getThing().getUID());
 
         List<Channel> channels = getThing().getChannels();
-        List<Thing> things = getThing().getThings();
 
         IZoneMinderServer zoneMinderServerProxy = ZoneMinderFactory.getServerProxy(session);
         if (zoneMinderServerProxy == null) {
@@ -494,29 +534,22 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
         }
 
         /*
-         * Request Things attached to Bridge to refresh
+         * Request Things attached to Bridge to refresh, the monitor data of all monitors is fetched at once
          */
-        for (Thing thing : things) {
-            try {
-
-                if (thing.getThingTypeUID().equals(ZoneMinderConstants.THING_TYPE_THING_ZONEMINDER_MONITOR)) {
-                    Thing thingMonitor = thing;
-                    ZoneMinderBaseThingHandler thingHandler = (ZoneMinderBaseThingHandler) thing.getHandler();
-
-                    thingHandler.refreshThing(session, DataRefreshPriorityEnum.SCHEDULED);
-                }
+        Map<String, IZoneMinderMonitorData> monitorData = new HashMap<>();
+        if ((zoneMinderServerProxy != null) && isConnected() && !monitorHandlers.isEmpty()) {
+            monitorData = fetchMonitorData(zoneMinderServerProxy);
+        }
 
-            } catch (NullPointerException ex) {
-                // This isn't critical (unless it comes over and over). There seems to be a bug so that a null
-                // pointer exception is coming every now and then.
-                // HAve to find the reason for that. Until thenm, don't Spamm
-                logger.debug("{}: Method 'refreshThing()' for Bridge {} failed for thing='{}' - Exception='{}'",
-                        getLogIdentifier(), this.getZoneMinderId(), thing.getUID(), ex.getMessage());
+        for (ZoneMinderThingMonitorHandler thingHandler : monitorHandlers.values()) {
+            try {
+                thingHandler.setMonitorData(monitorData.get(thingHandler.getZoneMinderId()));
+                thingHandler.refreshThing(session, DataRefreshPriorityEnum.SCHEDULED);
 
-                // Other exceptions has to be shown as errors
             } catch (Exception ex) {
                 logger.error("{}: Method 'refreshThing()' for Bridge {} failed for thing='{}' - Exception='{}'",
-                        getLogIdentifier(), this.getZoneMinderId(), thing.getUID(), ex.getMessage());
+                        getLogIdentifier(), this.getZoneMinderId(), thingHandler.getThing().getUID(),
+                        ex.getMessage());
             }
         }
 
@@ -525,7 +558,7 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
     /**
      * Returns connection status.
      */
-    public synchronized Boolean isConnected() {
+    public Boolean isConnected() {
         return connected;
     }
 
@@ -533,7 +566,7 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
         return _online;
     }
 
-    private synchronized boolean getConnected() {
+    private boolean getConnected() {
         return this.connected;
     }
 
@@ -1025,6 +1058,13 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
 
         }
 
+        try {
+            triggerEventsEnabled = ZoneMinderFactory.getServerProxy(zoneMinderSession).isTriggerOptionEnabled();
+        } catch (Exception ex) {
+            triggerEventsEnabled = false;
+        }
+        logger.debug("{}: Trigger events enabled: {}", getLogIdentifier(), triggerEventsEnabled);
+
         if (taskRefreshData == null) {
 
             // Perform first refresh manually (we want to force update of DiskUsage)
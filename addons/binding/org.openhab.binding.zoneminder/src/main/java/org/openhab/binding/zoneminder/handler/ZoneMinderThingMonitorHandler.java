@@ -95,6 +95,15 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
     private int forceAlarmManualState = -1;
 
+    /** Monitor data fetched by the bridge for all monitors, used by the next data fetch. */
+    private volatile IZoneMinderMonitorData bulkMonitorData = null;
+
+    /** True if the next data fetch shall include monitor data and daemon status. */
+    private volatile boolean fullRefreshRequested = true;
+
+    /** True while subscribed to the trigger events of the monitor. */
+    private volatile boolean eventsSubscribed = false;
+
     public ZoneMinderThingMonitorHandler(Thing thing) {
         super(thing);
 
@@ -125,6 +134,7 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
             super.onBridgeConnected(bridge, connection);
 
             ZoneMinderFactory.SubscribeMonitorEvents(connection, config.getZoneMinderId(), this);
+            eventsSubscribed = true;
             IZoneMinderSession session = aquireSession();
             IZoneMinderMonitor monitor = ZoneMinderFactory.getMonitorProxy(session, config.getZoneMinderId());
             IZoneMinderMonitorData monitorData = monitor.getMonitorData();
@@ -156,6 +166,7 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
             logger.info("{}: Unsubscribing from Monitor Events", getLogIdentifier(),
                     bridge.getThing().getUID().getAsString());
+            eventsSubscribed = false;
             ZoneMinderFactory.UnsubscribeMonitorEvents(config.getZoneMinderId(), this);
 
             logger.debug("{}: Calling parent onBridgeConnected()", getLogIdentifier());
@@ -336,13 +347,18 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
             Channel channel = this.getThing().getChannel(ZoneMinderConstants.CHANNEL_MONITOR_DETAILED_STATUS);
             Channel chEventCause = this.getThing().getChannel(ZoneMinderConstants.CHANNEL_MONITOR_EVENT_CAUSE);
 
-            // Set Current Event to actual event
-            if (event.getState()) {
-                startPriorityRefresh();
-
-            } else {
-                curEvent = null;
+            // Push the alarm state right away, the priority refresh confirms it from the server
+            synchronized (this) {
+                if (event.getState()) {
+                    channelMonitorStatus = ZoneMinderMonitorStatusEnum.ALARM;
+                } else {
+                    curEvent = null;
+                    channelMonitorStatus = ZoneMinderMonitorStatusEnum.IDLE;
+                }
+                RecalculateChannelStates();
+                updateChannels();
             }
+            startPriorityRefresh();
         } catch (Exception ex) {
             logger.error("{}: Exception occurred inTrippedForceAlarm() Exception='{}'", getLogIdentifier(),
                     ex.getMessage());
@@ -350,6 +366,22 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
         }
     }
 
+    /**
+     * Sets the monitor data fetched by the bridge, which is used instead of requesting it for this monitor only.
+     *
+     * @param monitorData data of this monitor or null if not available
+     */
+    public void setMonitorData(IZoneMinderMonitorData monitorData) {
+        bulkMonitorData = monitorData;
+        fullRefreshRequested = true;
+    }
+
+    @Override
+    protected boolean isEventStreamHealthy() {
+        ZoneMinderServerBridgeHandler bridge = getZoneMinderBridgeHandler();
+        return eventsSubscribed && (bridge != null) && bridge.isTriggerEventsEnabled();
+    }
+
     protected ZoneMinderThingMonitorConfig getMonitorConfig() {
         return this.getConfigAs(ZoneMinderThingMonitorConfig.class);
     }
@@ -726,92 +758,61 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
         IZoneMinderSession session = null;
 
+        // Monitor data and daemon status change rarely, a high priority refresh only fetches the detailed status
+        IZoneMinderMonitorData data = bulkMonitorData;
+        bulkMonitorData = null;
+        boolean fullRefresh = fullRefreshRequested;
+        fullRefreshRequested = false;
+
         session = aquireSession();
         try {
             IZoneMinderMonitor monitorProxy = ZoneMinderFactory.getMonitorProxy(session, getZoneMinderId());
 
-            IZoneMinderMonitorData data = null;
-            IZoneMinderDaemonStatus captureDaemon = null;
-            IZoneMinderDaemonStatus analysisDaemon = null;
-            IZoneMinderDaemonStatus frameDaemon = null;
-
-            data = monitorProxy.getMonitorData();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            captureDaemon = monitorProxy.getCaptureDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            analysisDaemon = monitorProxy.getAnalysisDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            frameDaemon = monitorProxy.getFrameDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            if ((data.getHttpResponseCode() != 200) || (captureDaemon.getHttpResponseCode() != 200)
-                    || (analysisDaemon.getHttpResponseCode() != 200) || (frameDaemon.getHttpResponseCode() != 200)) {
+            if ((data == null) && fullRefresh) {
+                data = monitorProxy.getMonitorData();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
 
                 if (data.getHttpResponseCode() != 200) {
                     logger.warn("{}: HTTP Response MonitorData: Code='{}', Message'{}'", getLogIdentifier(),
                             data.getHttpResponseCode(), data.getHttpResponseMessage());
-
-                    channelMonitorStatus = ZoneMinderMonitorStatusEnum.UNKNOWN;
-                    channelFunction = ZoneMinderMonitorFunctionEnum.NONE;
-                    channelEnabled = false;
-                    channelEventCause = "";
+                    data = null;
+                    fullRefreshRequested = true;
                 }
-                if (captureDaemon.getHttpResponseCode() != 200) {
-                    channelDaemonCapture = false;
-                    logger.warn("{}: HTTP Response CaptureDaemon: Code='{}', Message'{}'", getLogIdentifier(),
-                            captureDaemon.getHttpResponseCode(), captureDaemon.getHttpResponseMessage());
+            }
 
+            if (!isConnected() || (fullRefresh && (data == null))) {
+                channelMonitorStatus = ZoneMinderMonitorStatusEnum.UNKNOWN;
+                channelFunction = ZoneMinderMonitorFunctionEnum.NONE;
+                channelEnabled = false;
+                channelEventCause = "";
+                channelDaemonCapture = false;
+                channelDaemonAnalysis = false;
+                channelDaemonFrame = false;
+            } else {
+                if (data != null) {
+                    channelFunction = data.getFunction();
+                    channelEnabled = data.getEnabled();
                 }
-                if (analysisDaemon.getHttpResponseCode() != 200) {
-                    channelDaemonAnalysis = false;
 
-                    logger.warn("{}: HTTP Response AnalysisDaemon: Code='{}', Message='{}'", getLogIdentifier(),
-                            analysisDaemon.getHttpResponseCode(), analysisDaemon.getHttpResponseMessage());
-                }
-                if (frameDaemon.getHttpResponseCode() != 200) {
-                    channelDaemonFrame = false;
-                    logger.warn("{}: HTTP Response MonitorData: Code='{}', Message'{}'", getLogIdentifier(),
-                            frameDaemon.getHttpResponseCode(), frameDaemon.getHttpResponseMessage());
+                if (fullRefresh) {
+                    fetchDaemonStatus(monitorProxy);
                 }
 
-            } else {
-                if (isConnected()) {
-                    channelMonitorStatus = monitorProxy.getMonitorDetailedStatus();
-                    logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                            monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                            monitorProxy.getHttpResponseMessage());
+                channelMonitorStatus = monitorProxy.getMonitorDetailedStatus();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
 
-                    channelFunction = data.getFunction();
-                    channelEnabled = data.getEnabled();
+                // The event cause is cleared anyway while the monitor is idle
+                if (channelMonitorStatus != ZoneMinderMonitorStatusEnum.IDLE) {
                     IZoneMinderEventData event = monitorProxy.getLastEvent();
                     if (event != null) {
                         channelEventCause = event.getCause();
                     } else {
                         channelEventCause = "";
                     }
-
-                    channelDaemonCapture = captureDaemon.getStatus();
-                    channelDaemonAnalysis = analysisDaemon.getStatus();
-                    channelDaemonFrame = frameDaemon.getStatus();
-                } else {
-                    channelMonitorStatus = ZoneMinderMonitorStatusEnum.UNKNOWN;
-                    channelFunction = ZoneMinderMonitorFunctionEnum.NONE;
-                    channelEnabled = false;
-                    channelEventCause = "";
-                    channelDaemonCapture = false;
-                    channelDaemonAnalysis = false;
-                    channelDaemonFrame = false;
                 }
             }
         } finally {
@@ -827,6 +828,41 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
     }
 
+    private void fetchDaemonStatus(IZoneMinderMonitor monitorProxy) {
+        IZoneMinderDaemonStatus captureDaemon = monitorProxy.getCaptureDaemonStatus();
+        logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(), monitorProxy.getHttpResponseMessage());
+        if (captureDaemon.getHttpResponseCode() != 200) {
+            channelDaemonCapture = false;
+            logger.warn("{}: HTTP Response CaptureDaemon: Code='{}', Message'{}'", getLogIdentifier(),
+                    captureDaemon.getHttpResponseCode(), captureDaemon.getHttpResponseMessage());
+        } else {
+            channelDaemonCapture = captureDaemon.getStatus();
+        }
+
+        IZoneMinderDaemonStatus analysisDaemon = monitorProxy.getAnalysisDaemonStatus();
+        logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(), monitorProxy.getHttpResponseMessage());
+        if (analysisDaemon.getHttpResponseCode() != 200) {
+            channelDaemonAnalysis = false;
+            logger.warn("{}: HTTP Response AnalysisDaemon: Code='{}', Message='{}'", getLogIdentifier(),
+                    analysisDaemon.getHttpResponseCode(), analysisDaemon.getHttpResponseMessage());
+        } else {
+            channelDaemonAnalysis = analysisDaemon.getStatus();
+        }
+
+        IZoneMinderDaemonStatus frameDaemon = monitorProxy.getFrameDaemonStatus();
+        logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(), monitorProxy.getHttpResponseMessage());
+        if (frameDaemon.getHttpResponseCode() != 200) {
+            channelDaemonFrame = false;
+            logger.warn("{}: HTTP Response FrameDaemon: Code='{}', Message'{}'", getLogIdentifier(),
+                    frameDaemon.getHttpResponseCode(), frameDaemon.getHttpResponseMessage());
+        } else {
+            channelDaemonFrame = frameDaemon.getStatus();
+        }
+    }
+
     protected State getDetailedStatus() {
         State state = UnDefType.UNDEF;
 
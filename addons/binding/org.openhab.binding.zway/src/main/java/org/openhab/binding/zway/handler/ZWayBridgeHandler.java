@@ -10,7 +10,9 @@ package org.openhab.binding.zway.handler;
 
 import static org.openhab.binding.zway.ZWayBindingConstants.*;
 
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -85,6 +87,16 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
     private ZWayBridgeConfiguration mConfig = null;
     private IZWayApi mZWayApi = null;
 
+    /**
+     * Device handlers indexed by the id of the virtual devices (ZAutomation) they represent
+     */
+    private final Map<String, ZWayDeviceHandler> deviceHandlers = new ConcurrentHashMap<>();
+
+    /**
+     * Update time (seconds since epoch, as reported by Z-Way) of the newest device state distributed so far
+     */
+    private int lastDeviceUpdateTime = 0;
+
     /**
      * Initializer authenticate the Z-Way API instance with bridge configuration.
      *
@@ -339,13 +351,88 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
         public void run() {
             logger.debug("Starting polling for bridge: {}", getThing().getLabel());
             if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
-                updateControllerData();
+                // https://community.openhab.org/t/oh2-major-bug-with-scheduled-jobs/12350/11
+                // If any execution of the task encounters an exception, subsequent executions are
+                // suppressed. Otherwise, the task will only terminate via cancellation or
+                // termination of the executor.
+                try {
+                    updateControllerData();
+                    refreshDeviceStates();
+                } catch (Throwable t) {
+                    logger.error("Error occurred when performing polling: {}", t.getMessage());
+                }
             } else {
                 logger.debug("Polling not possible, bridge isn't ONLINE");
             }
         }
     };
 
+    /**
+     * Loads all devices with one request and distributes the states of the devices changed since the last run to
+     * the registered device handlers. The Z-Way API used doesn't offer the since parameter of the devices resource,
+     * so the changes are detected by the update time of each device.
+     */
+    private synchronized void refreshDeviceStates() {
+        if (deviceHandlers.isEmpty()) {
+            logger.debug("No device handlers registered, skip refresh of device states");
+            return;
+        }
+
+        DeviceList deviceList = mZWayApi.getDevices();
+        if (deviceList == null) {
+            logger.warn("Devices not loaded");
+            return;
+        }
+
+        int newestUpdateTime = lastDeviceUpdateTime;
+        int updatedDevices = 0;
+        for (Device device : deviceList.getDevices()) {
+            Integer updateTime = device.getUpdateTime();
+            if (updateTime != null && updateTime <= lastDeviceUpdateTime) {
+                continue;
+            }
+            if (updateTime != null && updateTime > newestUpdateTime) {
+                newestUpdateTime = updateTime;
+            }
+
+            ZWayDeviceHandler handler = deviceHandlers.get(device.getDeviceId());
+            if (handler != null) {
+                handler.updateDeviceState(device);
+                updatedDevices++;
+            }
+        }
+        lastDeviceUpdateTime = newestUpdateTime;
+        logger.debug("Device states refreshed ({} of {} devices updated)", updatedDevices,
+                deviceList.getDevices().size());
+    }
+
+    /**
+     * Registers a device handler to receive the state of a virtual device during the bridge polling.
+     *
+     * @param deviceId id of the virtual device
+     * @param handler device handler
+     */
+    protected void registerDeviceHandler(String deviceId, ZWayDeviceHandler handler) {
+        if (deviceHandlers.put(deviceId, handler) == null) {
+            // distribute all states with the next polling, so the new handler receives the current state
+            lastDeviceUpdateTime = 0;
+        }
+    }
+
+    /**
+     * Removes all registrations of a device handler.
+     *
+     * @param handler device handler
+     */
+    protected void unregisterDeviceHandler(ZWayDeviceHandler handler) {
+        Iterator<ZWayDeviceHandler> iterator = deviceHandlers.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == handler) {
+                iterator.remove();
+            }
+        }
+    }
+
     private void updateControllerData() {
         // Add additional information as properties or update channels
 
@@ -560,6 +647,11 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
             config.setObserverMechanismEnabled(true);
         }
 
+        // Device polling enabled
+        if (config.getDevicePollingEnabled() == null) {
+            config.setDevicePollingEnabled(true);
+        }
+
         return config;
     }
 
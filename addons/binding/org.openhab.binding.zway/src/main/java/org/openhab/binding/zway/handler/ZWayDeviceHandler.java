@@ -97,8 +97,20 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                     return;
                 }
 
-                // Initialize device polling
-                if (pollingJob == null || pollingJob.isCancelled()) {
+                // Register device ids to receive states from the bridge polling
+                for (Channel channel : getThing().getChannels()) {
+                    String deviceId = channel.getProperties().get("deviceId");
+                    if (deviceId != null) {
+                        zwayBridgeHandler.registerDeviceHandler(deviceId, ZWayDeviceHandler.this);
+                    }
+                }
+
+                // Initialize device polling, the bridge polling and the observer mechanism keep the states up to date
+                // if disabled
+                if (zwayBridgeHandler.getZWayBridgeConfiguration().getObserverMechanismEnabled()
+                        && !zwayBridgeHandler.getZWayBridgeConfiguration().getDevicePollingEnabled()) {
+                    logger.debug("Device polling disabled, states are updated by observer mechanism");
+                } else if (pollingJob == null || pollingJob.isCancelled()) {
                     logger.debug("Starting polling job at intervall {}",
                             zwayBridgeHandler.getZWayBridgeConfiguration().getPollingInterval());
                     pollingJob = scheduler.scheduleAtFixedRate(devicePolling, 10,
@@ -212,6 +224,11 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
             pollingJob = null;
         }
 
+        ZWayBridgeHandler zwayBridgeHandler = getZWayBridgeHandler();
+        if (zwayBridgeHandler != null) {
+            zwayBridgeHandler.unregisterDeviceHandler(this);
+        }
+
         super.dispose();
     }
 
@@ -247,6 +264,9 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         public void run() {
             logger.debug("Starting polling for device: {}", getThing().getLabel());
             if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
+                // Devices are loaded once for all channels
+                DeviceListHolder deviceListHolder = new DeviceListHolder();
+
                 // Refresh device states
                 for (Channel channel : getThing().getChannels()) {
                     logger.debug("Checking link state of channel: {}", channel.getLabel());
@@ -258,7 +278,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                         // suppressed. Otherwise, the task will only terminate via cancellation or
                         // termination of the executor.
                         try {
-                            refreshChannel(channel);
+                            refreshChannel(channel, deviceListHolder);
                         } catch (Throwable t) {
                             if (t instanceof Exception) {
                                 logger.error("Error occurred when performing polling:{}", t.getMessage());
@@ -303,7 +323,56 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         scheduler.execute(new DevicePolling());
     }
 
+    /**
+     * Loads the device list on first access and keeps it for the remaining channels of one refresh.
+     */
+    private class DeviceListHolder {
+        private DeviceList deviceList;
+
+        private DeviceList get(ZWayBridgeHandler zwayBridgeHandler) {
+            if (deviceList == null) {
+                deviceList = zwayBridgeHandler.getZWayApi().getDevices();
+            }
+            return deviceList;
+        }
+    }
+
+    /**
+     * Updates all linked channels of a virtual device with the device state loaded by the bridge.
+     *
+     * @param device virtual device loaded from Z-Way server
+     */
+    protected void updateDeviceState(Device device) {
+        boolean updated = false;
+        for (Channel channel : getThing().getChannels()) {
+            if (device.getDeviceId().equals(channel.getProperties().get("deviceId"))
+                    && isLinked(channel.getUID().getId())) {
+                try {
+                    updateState(channel.getUID(), ZWayDeviceStateConverter.toState(device, channel));
+                    updated = true;
+                } catch (IllegalArgumentException iae) {
+                    logger.debug(
+                            "IllegalArgumentException ({}) during update channel for device: {} (level: {}) with channel: {}",
+                            iae.getMessage(), device.getMetrics().getTitle(), device.getMetrics().getLevel(),
+                            channel.getChannelTypeUID());
+                }
+            }
+        }
+
+        if (updated && device.getUpdateTime() != null) {
+            Calendar lastUpdateOfDevice = Calendar.getInstance();
+            lastUpdateOfDevice.setTimeInMillis(new Long(device.getUpdateTime()) * 1000);
+            if (lastUpdate == null || lastUpdateOfDevice.after(lastUpdate)) {
+                lastUpdate = lastUpdateOfDevice;
+            }
+        }
+    }
+
     private void refreshChannel(Channel channel) {
+        refreshChannel(channel, new DeviceListHolder());
+    }
+
+    private void refreshChannel(Channel channel, DeviceListHolder deviceListHolder) {
         // Check Z-Way bridge handler
         ZWayBridgeHandler zwayBridgeHandler = getZWayBridgeHandler();
         if (zwayBridgeHandler == null || !zwayBridgeHandler.getThing().getStatus().equals(ThingStatus.ONLINE)) {
@@ -315,7 +384,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         String deviceId = channel.getProperties().get("deviceId");
         if (deviceId != null) {
             // Load and check device from Z-Way server
-            DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
+            DeviceList deviceList = deviceListHolder.get(zwayBridgeHandler);
             if (deviceList != null) {
                 // 1.) Load only the current value from Z-Way server
                 Device device = deviceList.getDeviceById(deviceId);